@@ -0,0 +1,163 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.common.cache;
+
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the read and mixed read/write throughput of the {@link Cache.EvictionPolicy} implementations. Keys are drawn either
+ * uniformly or from a Zipf distribution, which models the skew of typical request and fielddata cache workloads. The key space
+ * is twice as large as the cache so that misses, insertions and evictions happen in both workloads.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class CacheBenchmark {
+    private static final int NUMBER_OF_KEYS = 1 << 20;
+    private static final int MASK = NUMBER_OF_KEYS - 1;
+
+    @Param({"LRU", "TINY_LFU"})
+    private String evictionPolicy;
+
+    @Param({"uniform", "zipf"})
+    private String distribution;
+
+    @Param({"65536"})
+    private int maximumWeight;
+
+    private Cache<Integer, Integer> cache;
+
+    private Integer[] keys;
+
+    @Setup
+    public void setUp() {
+        cache = CacheBuilder.<Integer, Integer>builder()
+            .setMaximumWeight(maximumWeight)
+            .evictionPolicy(Cache.EvictionPolicy.valueOf(evictionPolicy))
+            .build();
+        final int keySpace = 2 * maximumWeight;
+        final Random random = new Random(42);
+        final double[] cumulative = "zipf".equals(distribution) ? zipfCumulativeProbabilities(keySpace, 1.0) : null;
+        keys = new Integer[NUMBER_OF_KEYS];
+        for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+            final int key;
+            if (cumulative == null) {
+                key = random.nextInt(keySpace);
+            } else {
+                int index = Arrays.binarySearch(cumulative, random.nextDouble());
+                key = index >= 0 ? index : Math.min(-index - 1, keySpace - 1);
+            }
+            keys[i] = key;
+        }
+        // pre-populate so that the measurement starts with a full cache
+        for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+            cache.put(keys[i], keys[i]);
+        }
+    }
+
+    private static double[] zipfCumulativeProbabilities(int n, double exponent) {
+        final double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index = new Random().nextInt(NUMBER_OF_KEYS);
+    }
+
+    private Integer read(ThreadState state) {
+        final Integer key = keys[state.index++ & MASK];
+        return cache.get(key);
+    }
+
+    private Integer readThrough(ThreadState state) {
+        final Integer key = keys[state.index++ & MASK];
+        final Integer value = cache.get(key);
+        if (value == null) {
+            cache.put(key, key);
+            return key;
+        }
+        return value;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer read_01(ThreadState state) {
+        return read(state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Integer read_08(ThreadState state) {
+        return read(state);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Integer read_32(ThreadState state) {
+        return read(state);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Integer readThrough_01(ThreadState state) {
+        return readThrough(state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Integer readThrough_08(ThreadState state) {
+        return readThrough(state);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Integer readThrough_32(ThreadState state) {
+        return readThrough(state);
+    }
+}
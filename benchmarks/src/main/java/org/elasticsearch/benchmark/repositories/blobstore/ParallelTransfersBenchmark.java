@@ -0,0 +1,151 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.repositories.blobstore;
+
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.blobstore.BlobPath;
+import org.elasticsearch.common.blobstore.fs.FsBlobStore;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.repositories.blobstore.ParallelTransfers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads the files of a shard to an {@code fs} blob container, and downloads them again, with a varying number of parallel
+ * transfers. A latency added to every transfer stands in for the round trip of a request to an object store like S3.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class ParallelTransfersBenchmark {
+
+    @Param({"0", "1", "4", "8"})
+    int maxParallelTransfers;
+
+    /**
+     * The number and the size in megabytes of the files of the shard.
+     */
+    @Param({"16x16", "64x1"})
+    String files;
+
+    @Param({"0", "20"})
+    long latencyMillis;
+
+    private Path root;
+    private Path target;
+    private BlobContainer container;
+    private List<Path> sources;
+    private ExecutorService executor;
+    private ParallelTransfers parallelTransfers;
+
+    @Setup
+    public void setUp() throws IOException {
+        final String[] numberAndSize = files.split("x");
+        final int numFiles = Integer.parseInt(numberAndSize[0]);
+        final byte[] content = new byte[Integer.parseInt(numberAndSize[1]) << 20];
+        root = Files.createTempDirectory("parallel-transfers");
+        final Path source = Files.createDirectories(root.resolve("source"));
+        target = Files.createDirectories(root.resolve("target"));
+        container = new FsBlobStore(Settings.EMPTY, Files.createDirectories(root.resolve("repository"))).blobContainer(new BlobPath());
+        final Random random = new Random(0);
+        sources = new ArrayList<>(numFiles);
+        for (int i = 0; i < numFiles; i++) {
+            random.nextBytes(content);
+            final Path file = source.resolve("file_" + i);
+            Files.write(file, content);
+            try (InputStream in = Files.newInputStream(file)) {
+                container.writeBlob(file.getFileName().toString(), in, content.length, false);
+            }
+            sources.add(file);
+        }
+        executor = Executors.newCachedThreadPool();
+        parallelTransfers = new ParallelTransfers(maxParallelTransfers);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.shutdown();
+        IOUtils.rm(root);
+    }
+
+    @Benchmark
+    public void upload() throws IOException {
+        parallelTransfers.run(sources, executor, file -> {
+            roundTrip();
+            try (InputStream in = Files.newInputStream(file)) {
+                container.writeBlob(file.getFileName().toString(), in, Files.size(file), false);
+            }
+        });
+    }
+
+    @Benchmark
+    public void download() throws IOException {
+        parallelTransfers.run(sources, executor, file -> {
+            roundTrip();
+            final Path restored = target.resolve(file.getFileName());
+            try (InputStream in = container.readBlob(file.getFileName().toString());
+                 OutputStream out = Files.newOutputStream(restored)) {
+                final byte[] buffer = new byte[1 << 16];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            IOUtils.fsync(restored, false);
+        });
+    }
+
+    private void roundTrip() throws IOException {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+}
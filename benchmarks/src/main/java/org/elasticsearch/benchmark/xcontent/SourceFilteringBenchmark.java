@@ -0,0 +1,145 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.xcontent;
+
+import org.elasticsearch.common.CheckedBiConsumer;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares two ways of filtering the {@code _source} of a document: parsing it into a map, filtering the map and serializing it
+ * again, versus copying the matching properties straight from the token stream of the parser.
+ */
+@Fork(3)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class SourceFilteringBenchmark {
+
+    /**
+     * The shape of the document: top level fields only, fields spread over nested objects or objects in arrays.
+     */
+    @Param({"flat", "nested", "array"})
+    String shape;
+
+    @Param({"1024", "51200"})
+    int documentSize;
+
+    @Param({"field_1,field_2,field_3", "obj_0.*", "field_*"})
+    String includes;
+
+    private BytesReference source;
+    private Function<Map<String, ?>, Map<String, Object>> mapFilter;
+    private CheckedBiConsumer<XContentParser, XContentBuilder, IOException> streamingFilter;
+
+    @Setup
+    public void setUp() throws IOException {
+        final String[] includes = this.includes.split(",");
+        final String[] excludes = new String[0];
+        mapFilter = XContentMapValues.filter(includes, excludes);
+        streamingFilter = XContentMapValues.streamingFilter(includes, excludes);
+
+        final Random random = new Random(42);
+        final BytesStreamOutput out = new BytesStreamOutput();
+        final XContentBuilder builder = new XContentBuilder(JsonXContent.jsonXContent, out).startObject();
+        for (int i = 0; out.size() < documentSize; i++) {
+            switch (shape) {
+                case "flat":
+                    builder.field("field_" + i, randomValue(random));
+                    break;
+                case "nested":
+                    builder.startObject("obj_" + i);
+                    for (int j = 0; j < 4; j++) {
+                        builder.startObject("inner_" + j).field("field_" + j, randomValue(random)).endObject();
+                    }
+                    builder.endObject();
+                    break;
+                case "array":
+                    builder.startArray("obj_" + i);
+                    for (int j = 0; j < 4; j++) {
+                        builder.startObject().field("field_" + j, randomValue(random)).field("count", random.nextLong()).endObject();
+                    }
+                    builder.endArray();
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown shape [" + shape + "]");
+            }
+            builder.flush();
+        }
+        source = BytesReference.bytes(builder.endObject());
+    }
+
+    private static Object randomValue(Random random) {
+        if (random.nextBoolean()) {
+            return random.nextDouble();
+        }
+        final char[] chars = new char[8 + random.nextInt(32)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    @Benchmark
+    public BytesReference mapFilter() throws IOException {
+        final Map<String, Object> sourceAsMap = XContentHelper.convertToMap(source, false, XContentType.JSON).v2();
+        final XContentBuilder builder = XContentFactory.jsonBuilder();
+        builder.value(mapFilter.apply(sourceAsMap));
+        return BytesReference.bytes(builder);
+    }
+
+    @Benchmark
+    public BytesReference streamingFilter() throws IOException {
+        try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY,
+                DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source, XContentType.JSON)) {
+            final XContentBuilder builder = XContentFactory.jsonBuilder();
+            streamingFilter.accept(parser, builder);
+            return BytesReference.bytes(builder);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.index.translog.Translog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of {@link LiveVersionMap#putIndexUnderLock} and {@link LiveVersionMap#getUnderLock} with external ids
+ * at increasing numbers of indexing threads. The map is in safe access mode, as it is when documents have external ids, and is
+ * recreated for every iteration so that puts keep growing it until the next refresh like they do during indexing.
+ * <p>
+ * {@link LiveVersionMap} is package-private, which is why this benchmark lives in its package.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class LiveVersionMapBenchmark {
+    private static final int NUMBER_OF_UIDS = 1 << 20;
+    private static final int MASK = NUMBER_OF_UIDS - 1;
+
+    private final AtomicLong seqNo = new AtomicLong();
+
+    private BytesRef[] uids;
+
+    private LiveVersionMap map;
+
+    @Setup
+    public void setUp() {
+        uids = new BytesRef[NUMBER_OF_UIDS];
+        for (int i = 0; i < NUMBER_OF_UIDS; i++) {
+            // the version map asserts that uids don't have slack in their byte arrays
+            uids[i] = BytesRef.deepCopyOf(new BytesRef(UUIDs.randomBase64UUID()));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpMap() {
+        map = new LiveVersionMap();
+        map.enforceSafeAccess();
+        for (int i = 0; i < NUMBER_OF_UIDS; i += 2) {
+            put(uids[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int index = new Random().nextInt(NUMBER_OF_UIDS);
+    }
+
+    private void put(BytesRef uid) {
+        final long seqNo = this.seqNo.incrementAndGet();
+        try (Releasable r = map.acquireLock(uid)) {
+            map.putIndexUnderLock(uid, new IndexVersionValue(new Translog.Location(1, seqNo, 128), 1, seqNo, 1));
+        }
+    }
+
+    private void putIndex(ThreadState state) {
+        put(uids[state.index++ & MASK]);
+    }
+
+    private VersionValue get(ThreadState state) {
+        final BytesRef uid = uids[state.index++ & MASK];
+        try (Releasable r = map.acquireLock(uid)) {
+            return map.getUnderLock(uid);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void putIndexUnderLock_01(ThreadState state) {
+        putIndex(state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void putIndexUnderLock_04(ThreadState state) {
+        putIndex(state);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void putIndexUnderLock_16(ThreadState state) {
+        putIndex(state);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void putIndexUnderLock_64(ThreadState state) {
+        putIndex(state);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public VersionValue getUnderLock_01(ThreadState state) {
+        return get(state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public VersionValue getUnderLock_04(ThreadState state) {
+        return get(state);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public VersionValue getUnderLock_16(ThreadState state) {
+        return get(state);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public VersionValue getUnderLock_64(ThreadState state) {
+        return get(state);
+    }
+}
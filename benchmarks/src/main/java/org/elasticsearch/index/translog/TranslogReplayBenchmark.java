@@ -0,0 +1,125 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.index.shard.ShardId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast the operations of an immutable translog generation are replayed, reading them either through a memory mapping of
+ * the file or with a read call on the file channel per operation.
+ * <p>
+ * {@link TranslogReader} and {@link TranslogSnapshot} are package-private, which is why this benchmark lives in their package.
+ */
+@Fork(3)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class TranslogReplayBenchmark {
+    private static final int NUMBER_OF_OPERATIONS = 100_000;
+
+    @Param({"128", "1024", "8192"})
+    int sourceSize;
+
+    private Path path;
+    private Translog translog;
+    private TranslogReader reader;
+
+    @Setup
+    public void setUp() throws IOException {
+        path = Files.createTempDirectory("translog");
+        final Settings settings = Settings.builder()
+            .put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+            .build();
+        final IndexSettings indexSettings = new IndexSettings(IndexMetaData.builder("index").settings(settings).build(), Settings.EMPTY);
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        final TranslogConfig config = new TranslogConfig(shardId, path, indexSettings, BigArrays.NON_RECYCLING_INSTANCE);
+        final String translogUUID = Translog.createEmptyTranslog(path, SequenceNumbers.NO_OPS_PERFORMED, shardId, 1L);
+        translog = new Translog(config, translogUUID, new TranslogDeletionPolicy(-1, -1),
+            () -> SequenceNumbers.NO_OPS_PERFORMED, () -> 1L);
+        final Random random = new Random(0);
+        final byte[] source = new byte[sourceSize];
+        for (int i = 0; i < NUMBER_OF_OPERATIONS; i++) {
+            for (int j = 0; j < source.length; j++) {
+                source[j] = (byte) ('a' + random.nextInt(26));
+            }
+            translog.add(new Translog.Index("_doc", Integer.toString(i), i, 1L, source));
+        }
+        translog.rollGeneration();
+        reader = translog.getReaders().get(translog.getReaders().size() - 1);
+        // warm the page cache so that both variants read from memory
+        replay(reader.newSnapshot());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        IOUtils.close(translog);
+        IOUtils.rm(path);
+    }
+
+    private static int replay(TranslogSnapshot snapshot) throws IOException {
+        int sourceBytes = 0;
+        Translog.Operation operation;
+        while ((operation = snapshot.next()) != null) {
+            sourceBytes += ((Translog.Index) operation).source().length();
+        }
+        return sourceBytes;
+    }
+
+    @Benchmark
+    public int replayMapped() throws IOException {
+        return replay(reader.newSnapshot());
+    }
+
+    @Benchmark
+    public int replayFromChannel() throws IOException {
+        return replay(new TranslogSnapshot(reader, reader.sizeInBytes()));
+    }
+}
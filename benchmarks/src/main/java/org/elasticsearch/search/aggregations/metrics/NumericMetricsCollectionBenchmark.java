@@ -0,0 +1,210 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.metrics;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
+import org.elasticsearch.search.aggregations.support.ValuesSource;
+import org.elasticsearch.search.internal.FilteredSearchContext;
+import org.elasticsearch.search.internal.SearchContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the sum, avg and stats aggregators collecting the documents of a segment one at a time through
+ * {@link LeafBucketCollector#collect(int, long)} with collecting them in batches through
+ * {@link LeafBucketCollector#collect(int[], long[], int)}, like {@code BatchingBucketCollector} does. The aggregators read
+ * the doc values of a double field of a single-segment index.
+ * <p>
+ * The aggregators only need the {@link BigArrays} of their search context. Their constructors are package-private, which
+ * is why this benchmark lives in their package.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class NumericMetricsCollectionBenchmark {
+    private static final String FIELD = "value";
+    private static final int BATCH_SIZE = 1024;
+
+    @Param({ "1000000", "10000000" })
+    public int numDocs;
+
+    @Param({ "sum", "avg", "stats" })
+    public String metric;
+
+    private final int[] docs = new int[BATCH_SIZE];
+    private final long[] buckets = new long[BATCH_SIZE];
+
+    private final BigArrays bigArrays = new BigArrays(new PageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService(),
+        CircuitBreaker.REQUEST);
+    private final ValuesSource.Numeric valuesSource = new DoubleValuesSource();
+
+    private Path path;
+    private Directory directory;
+    private DirectoryReader reader;
+    private LeafReaderContext leaf;
+
+    @Setup
+    public void setUp() throws IOException {
+        path = Files.createTempDirectory("metrics");
+        directory = FSDirectory.open(path);
+        final Random random = new Random(0);
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig().setRAMBufferSizeMB(256))) {
+            for (int i = 0; i < numDocs; i++) {
+                final Document document = new Document();
+                document.add(new SortedNumericDocValuesField(FIELD, NumericUtils.doubleToSortableLong(random.nextDouble() * 1000)));
+                writer.addDocument(document);
+            }
+            writer.forceMerge(1);
+        }
+        reader = DirectoryReader.open(directory);
+        leaf = reader.leaves().get(0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        IOUtils.close(reader, directory);
+        IOUtils.rm(path);
+    }
+
+    /**
+     * Reads the doc values of the field the same way the field data of a double field does.
+     */
+    private static final class DoubleValuesSource extends ValuesSource.Numeric {
+
+        @Override
+        public boolean isFloatingPoint() {
+            return true;
+        }
+
+        @Override
+        public SortedNumericDocValues longValues(LeafReaderContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedNumericDoubleValues doubleValues(LeafReaderContext context) throws IOException {
+            return FieldData.sortableLongBitsToDoubles(DocValues.getSortedNumeric(context.reader(), FIELD));
+        }
+
+        @Override
+        public SortedBinaryDocValues bytesValues(LeafReaderContext context) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private Aggregator newAggregator() throws IOException {
+        final SearchContext context = new FilteredSearchContext(null) {
+            @Override
+            public BigArrays bigArrays() {
+                return bigArrays;
+            }
+        };
+        final Aggregator aggregator;
+        switch (metric) {
+            case "sum":
+                aggregator = new SumAggregator(metric, valuesSource, DocValueFormat.RAW, context, null, Collections.emptyList(), null);
+                break;
+            case "avg":
+                aggregator = new AvgAggregator(metric, valuesSource, DocValueFormat.RAW, context, null, Collections.emptyList(), null);
+                break;
+            case "stats":
+                aggregator = new StatsAggregator(metric, valuesSource, DocValueFormat.RAW, context, null, Collections.emptyList(), null);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown metric [" + metric + "]");
+        }
+        aggregator.preCollection();
+        return aggregator;
+    }
+
+    @Benchmark
+    public InternalAggregation perDoc() throws IOException {
+        try (Aggregator aggregator = newAggregator()) {
+            final LeafBucketCollector collector = aggregator.getLeafCollector(leaf);
+            final int maxDoc = leaf.reader().maxDoc();
+            for (int doc = 0; doc < maxDoc; doc++) {
+                collector.collect(doc, 0);
+            }
+            aggregator.postCollection();
+            return aggregator.buildAggregation(0);
+        }
+    }
+
+    @Benchmark
+    public InternalAggregation batched() throws IOException {
+        try (Aggregator aggregator = newAggregator()) {
+            final LeafBucketCollector collector = aggregator.getLeafCollector(leaf);
+            final int maxDoc = leaf.reader().maxDoc();
+            for (int from = 0; from < maxDoc; from += BATCH_SIZE) {
+                final int batchSize = Math.min(BATCH_SIZE, maxDoc - from);
+                for (int i = 0; i < batchSize; i++) {
+                    docs[i] = from + i;
+                }
+                collector.collect(docs, buckets, batchSize);
+            }
+            aggregator.postCollection();
+            return aggregator.buildAggregation(0);
+        }
+    }
+}
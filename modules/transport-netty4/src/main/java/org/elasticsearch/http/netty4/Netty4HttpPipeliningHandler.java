@@ -19,14 +19,25 @@
 
 package org.elasticsearch.http.netty4;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.bytes.ReleasablePagedBytesReference;
 import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.http.HttpPipelinedMessage;
 import org.elasticsearch.http.HttpPipelinedRequest;
 import org.elasticsearch.http.HttpPipeliningAggregator;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
+import org.elasticsearch.transport.netty4.Netty4Utils;
 
 import java.nio.channels.ClosedChannelException;
 import java.util.List;
@@ -37,7 +48,8 @@ import java.util.List;
 public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
 
     private final Logger logger;
-    private final HttpPipeliningAggregator<Netty4HttpResponse, ChannelPromise> aggregator;
+    private final HttpPipeliningAggregator<HttpPipelinedMessage, ChannelPromise> aggregator;
+    private final BigArrays bigArrays;
 
     /**
      * Construct a new pipelining handler; this handler should be used downstream of HTTP decoding/aggregation.
@@ -47,8 +59,22 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
      *                      required as events cannot queue up indefinitely
      */
     public Netty4HttpPipeliningHandler(Logger logger, final int maxEventsHeld) {
+        this(logger, maxEventsHeld, BigArrays.NON_RECYCLING_INSTANCE);
+    }
+
+    /**
+     * Construct a new pipelining handler; this handler should be used downstream of HTTP decoding/aggregation and upstream of a
+     * {@link ChunkedWriteHandler} if chunked responses are sent.
+     *
+     * @param logger        for logging unexpected errors
+     * @param maxEventsHeld the maximum number of channel events that will be retained prior to aborting the channel connection; this is
+     *                      required as events cannot queue up indefinitely
+     * @param bigArrays     the pages that the chunks of chunked responses are serialized into
+     */
+    public Netty4HttpPipeliningHandler(Logger logger, final int maxEventsHeld, BigArrays bigArrays) {
         this.logger = logger;
         this.aggregator = new HttpPipeliningAggregator<>(maxEventsHeld);
+        this.bigArrays = bigArrays;
     }
 
     @Override
@@ -60,13 +86,17 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
 
     @Override
     public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
-        assert msg instanceof Netty4HttpResponse : "Invalid message type: " + msg.getClass();
-        Netty4HttpResponse response = (Netty4HttpResponse) msg;
+        assert msg instanceof Netty4HttpResponse || msg instanceof Netty4ChunkedHttpResponse : "Invalid message type: " + msg.getClass();
+        HttpPipelinedMessage response = (HttpPipelinedMessage) msg;
         boolean success = false;
         try {
-            List<Tuple<Netty4HttpResponse, ChannelPromise>> readyResponses = aggregator.write(response, promise);
-            for (Tuple<Netty4HttpResponse, ChannelPromise> readyResponse : readyResponses) {
-                ctx.write(readyResponse.v1(), readyResponse.v2());
+            List<Tuple<HttpPipelinedMessage, ChannelPromise>> readyResponses = aggregator.write(response, promise);
+            for (Tuple<HttpPipelinedMessage, ChannelPromise> readyResponse : readyResponses) {
+                if (readyResponse.v1() instanceof Netty4ChunkedHttpResponse) {
+                    writeChunkedResponse(ctx, (Netty4ChunkedHttpResponse) readyResponse.v1(), readyResponse.v2());
+                } else {
+                    ctx.write(readyResponse.v1(), readyResponse.v2());
+                }
             }
             success = true;
         } catch (IllegalStateException e) {
@@ -78,13 +108,27 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
         }
     }
 
+    /**
+     * Writes the head of the response followed by its body, which the downstream {@link ChunkedWriteHandler} pulls chunk by chunk
+     * whenever the channel is writable. The promise is completed once the last chunk has been written.
+     * <p>
+     * The first chunk of the body was serialized before the response was handed to the channel, so that early failures are answered
+     * with an error response. If a later chunk fails to serialize, the status and the headers have already been sent and the body is
+     * incomplete, so the connection is closed to let the client know that the response was truncated, and the promise fails.
+     */
+    private void writeChunkedResponse(ChannelHandlerContext ctx, Netty4ChunkedHttpResponse response, ChannelPromise promise) {
+        ctx.write(response);
+        promise.addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+        ctx.write(new HttpChunkedInput(new ChunkedBodyInput(response.getBody(), bigArrays)), promise);
+    }
+
     @Override
     public void close(ChannelHandlerContext ctx, ChannelPromise promise) {
-        List<Tuple<Netty4HttpResponse, ChannelPromise>> inflightResponses = aggregator.removeAllInflightResponses();
+        List<Tuple<HttpPipelinedMessage, ChannelPromise>> inflightResponses = aggregator.removeAllInflightResponses();
 
         if (inflightResponses.isEmpty() == false) {
             ClosedChannelException closedChannelException = new ClosedChannelException();
-            for (Tuple<Netty4HttpResponse, ChannelPromise> inflightResponse : inflightResponses) {
+            for (Tuple<HttpPipelinedMessage, ChannelPromise> inflightResponse : inflightResponses) {
                 try {
                     inflightResponse.v2().setFailure(closedChannelException);
                 } catch (RuntimeException e) {
@@ -94,4 +138,54 @@ public class Netty4HttpPipeliningHandler extends ChannelDuplexHandler {
         }
         ctx.close(promise);
     }
+
+    /**
+     * Serializes the chunks of a response body into pages that are released once netty has written them to the channel.
+     */
+    private static final class ChunkedBodyInput implements ChunkedInput<ByteBuf> {
+
+        private final ChunkedRestResponseBody body;
+        private final BigArrays bigArrays;
+        private long progress;
+
+        ChunkedBodyInput(ChunkedRestResponseBody body, BigArrays bigArrays) {
+            this.body = body;
+            this.bigArrays = bigArrays;
+        }
+
+        @Override
+        public boolean isEndOfInput() {
+            return body.isDone();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        @Deprecated
+        public ByteBuf readChunk(ChannelHandlerContext ctx) throws Exception {
+            return readChunk(ctx.alloc());
+        }
+
+        @Override
+        public ByteBuf readChunk(ByteBufAllocator allocator) throws Exception {
+            if (body.isDone()) {
+                return null;
+            }
+            final ReleasablePagedBytesReference chunk = body.encodeChunk(ChunkedRestResponseBody.CHUNK_SIZE_HINT, bigArrays);
+            progress += chunk.length();
+            return Netty4Utils.toReleasableByteBuf(chunk, chunk);
+        }
+
+        @Override
+        public long length() {
+            return -1;
+        }
+
+        @Override
+        public long progress() {
+            return progress;
+        }
+    }
 }
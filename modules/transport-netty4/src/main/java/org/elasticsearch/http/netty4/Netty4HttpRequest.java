@@ -19,6 +19,7 @@
 
 package org.elasticsearch.http.netty4;
 
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
@@ -31,6 +32,7 @@ import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.http.HttpRequest;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.transport.netty4.Netty4Utils;
@@ -41,6 +43,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 public class Netty4HttpRequest implements HttpRequest {
@@ -48,11 +51,19 @@ public class Netty4HttpRequest implements HttpRequest {
     private final BytesReference content;
     private final HttpHeadersMap headers;
     private final int sequence;
+    private final AtomicBoolean released;
+    private final boolean pooled;
 
     Netty4HttpRequest(FullHttpRequest request, int sequence) {
+        this(request, sequence, new AtomicBoolean(false), true);
+    }
+
+    private Netty4HttpRequest(FullHttpRequest request, int sequence, AtomicBoolean released, boolean pooled) {
         this.request = request;
         headers = new HttpHeadersMap(request.headers());
         this.sequence = sequence;
+        this.released = released;
+        this.pooled = pooled;
         if (request.content().isReadable()) {
             this.content = Netty4Utils.toBytesReference(request.content());
         } else {
@@ -147,7 +158,29 @@ public class Netty4HttpRequest implements HttpRequest {
         trailingHeaders.remove(header);
         FullHttpRequest requestWithoutHeader = new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(),
             request.content(), headersWithoutContentTypeHeader, trailingHeaders);
-        return new Netty4HttpRequest(requestWithoutHeader, sequence);
+        // shares the content, and therefore its release, with this request
+        return new Netty4HttpRequest(requestWithoutHeader, sequence, released, pooled);
+    }
+
+    @Override
+    public void release() {
+        if (pooled && released.compareAndSet(false, true)) {
+            request.release();
+        }
+    }
+
+    @Override
+    public HttpRequest releaseAndCopy() {
+        if (pooled == false) {
+            return this;
+        }
+        try {
+            final FullHttpRequest copiedRequest = new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(),
+                Unpooled.copiedBuffer(request.content()), request.headers(), request.trailingHeaders());
+            return new Netty4HttpRequest(copiedRequest, sequence, new AtomicBoolean(false), false);
+        } finally {
+            release();
+        }
     }
 
     @Override
@@ -155,6 +188,17 @@ public class Netty4HttpRequest implements HttpRequest {
         return new Netty4HttpResponse(this, status, content);
     }
 
+    @Override
+    public boolean supportsChunkedResponses() {
+        // chunked transfer encoding was introduced with HTTP/1.1
+        return request.protocolVersion().equals(io.netty.handler.codec.http.HttpVersion.HTTP_1_1);
+    }
+
+    @Override
+    public Netty4ChunkedHttpResponse createChunkedResponse(RestStatus status, ChunkedRestResponseBody content) {
+        return new Netty4ChunkedHttpResponse(this, status, content);
+    }
+
     public FullHttpRequest nettyRequest() {
         return request;
     }
@@ -22,6 +22,7 @@ package org.elasticsearch.transport.netty4;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.util.NettyRuntime;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
@@ -29,6 +30,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.common.Booleans;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.lease.Releasable;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -121,6 +123,35 @@ public class Netty4Utils {
         }
     }
 
+    /**
+     * Turns the given BytesReference into a ByteBuf without copying it, like {@link #toByteBuf(BytesReference)}, and releases the given
+     * releasable once the returned buffer has been released.
+     */
+    public static ByteBuf toReleasableByteBuf(final BytesReference reference, final Releasable releasable) {
+        final BytesRefIterator iterator = reference.iterator();
+        final List<ByteBuf> buffers = new ArrayList<>(1);
+        try {
+            BytesRef slice;
+            while ((slice = iterator.next()) != null) {
+                buffers.add(Unpooled.wrappedBuffer(slice.bytes, slice.offset, slice.length));
+            }
+        } catch (IOException ex) {
+            throw new AssertionError("no IO happens here", ex);
+        }
+        final CompositeByteBuf composite = new CompositeByteBuf(UnpooledByteBufAllocator.DEFAULT, false, Math.max(1, buffers.size())) {
+            @Override
+            protected void deallocate() {
+                try {
+                    super.deallocate();
+                } finally {
+                    releasable.close();
+                }
+            }
+        };
+        composite.addComponents(true, buffers);
+        return composite;
+    }
+
     /**
      * Wraps the given ChannelBuffer with a BytesReference
      */
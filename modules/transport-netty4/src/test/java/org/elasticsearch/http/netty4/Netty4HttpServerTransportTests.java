@@ -51,6 +51,10 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.MockBigArrays;
 import org.elasticsearch.common.util.MockPageCacheRecycler;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.http.BindHttpException;
 import org.elasticsearch.http.HttpServerTransport;
 import org.elasticsearch.http.HttpTransportSettings;
@@ -58,6 +62,8 @@ import org.elasticsearch.http.NullDispatcher;
 import org.elasticsearch.http.netty4.cors.Netty4CorsConfig;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.test.ESTestCase;
@@ -69,9 +75,11 @@ import org.junit.Before;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -317,6 +325,99 @@ public class Netty4HttpServerTransportTests extends ESTestCase {
         assertThat(causeReference.get(), instanceOf(TooLongFrameException.class));
     }
 
+    public void testChunkedResponse() throws Exception {
+        final String[] values = new String[randomIntBetween(1, 2000)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = randomAlphaOfLengthBetween(0, 512);
+        }
+        final ChunkedToXContent chunkedToXContent = params -> {
+            final List<ToXContent> chunks = new ArrayList<>();
+            chunks.add((builder, p) -> builder.startObject().startArray("values"));
+            for (String value : values) {
+                chunks.add((builder, p) -> builder.value(value));
+            }
+            chunks.add((builder, p) -> builder.endArray().endObject());
+            return chunks.iterator();
+        };
+        final XContentBuilder expected = XContentFactory.jsonBuilder().startObject().array("values", values).endObject();
+
+        final HttpServerTransport.Dispatcher dispatcher = new HttpServerTransport.Dispatcher() {
+            @Override
+            public void dispatchRequest(RestRequest request, RestChannel channel, ThreadContext threadContext) {
+                try {
+                    channel.sendResponse(new ChunkedRestResponse(OK, new ChunkedRestResponseBody(chunkedToXContent, channel)));
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+            @Override
+            public void dispatchBadRequest(RestRequest request, RestChannel channel, ThreadContext threadContext, Throwable cause) {
+                throw new AssertionError();
+            }
+        };
+        try (Netty4HttpServerTransport transport = new Netty4HttpServerTransport(Settings.EMPTY, networkService, bigArrays, threadPool,
+                xContentRegistry(), dispatcher)) {
+            transport.start();
+            final TransportAddress remoteAddress = randomFrom(transport.boundAddress().boundAddresses());
+            try (Netty4HttpClient client = new Netty4HttpClient()) {
+                final FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/");
+                final FullHttpResponse response = client.post(remoteAddress.address(), request);
+                try {
+                    assertThat(response.status(), equalTo(HttpResponseStatus.OK));
+                    assertTrue(HttpUtil.isTransferEncodingChunked(response));
+                    assertThat(response.headers().get(HttpHeaderNames.CONTENT_TYPE), equalTo("application/json; charset=UTF-8"));
+                    assertThat(new String(ByteBufUtil.getBytes(response.content()), StandardCharsets.UTF_8),
+                        equalTo(Strings.toString(expected)));
+                } finally {
+                    response.release();
+                }
+            }
+        }
+    }
+
+    public void testChunkedResponseFailingInFirstChunk() throws Exception {
+        final ChunkedToXContent chunkedToXContent = params -> Arrays.<ToXContent>asList(
+            (builder, p) -> builder.startObject(),
+            (builder, p) -> {
+                throw new IllegalStateException("failed to serialize");
+            }).iterator();
+
+        final HttpServerTransport.Dispatcher dispatcher = new HttpServerTransport.Dispatcher() {
+            @Override
+            public void dispatchRequest(RestRequest request, RestChannel channel, ThreadContext threadContext) {
+                try {
+                    channel.sendResponse(new ChunkedRestResponse(OK, new ChunkedRestResponseBody(chunkedToXContent, channel)));
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+            @Override
+            public void dispatchBadRequest(RestRequest request, RestChannel channel, ThreadContext threadContext, Throwable cause) {
+                throw new AssertionError();
+            }
+        };
+        try (Netty4HttpServerTransport transport = new Netty4HttpServerTransport(Settings.EMPTY, networkService, bigArrays, threadPool,
+                xContentRegistry(), dispatcher)) {
+            transport.start();
+            final TransportAddress remoteAddress = randomFrom(transport.boundAddress().boundAddresses());
+            try (Netty4HttpClient client = new Netty4HttpClient()) {
+                final FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/");
+                final FullHttpResponse response = client.post(remoteAddress.address(), request);
+                try {
+                    // the first chunk is serialized before the head is sent, so the failure becomes an error response
+                    assertThat(response.status(), equalTo(HttpResponseStatus.INTERNAL_SERVER_ERROR));
+                    assertFalse(HttpUtil.isTransferEncodingChunked(response));
+                    assertThat(new String(ByteBufUtil.getBytes(response.content()), StandardCharsets.UTF_8),
+                        containsString("failed to serialize"));
+                } finally {
+                    response.release();
+                }
+            }
+        }
+    }
+
     public void testReadTimeout() throws Exception {
         final HttpServerTransport.Dispatcher dispatcher = new HttpServerTransport.Dispatcher() {
 
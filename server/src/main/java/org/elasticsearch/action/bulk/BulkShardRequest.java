@@ -93,7 +93,7 @@ public class BulkShardRequest extends ReplicatedWriteRequest<BulkShardRequest> {
         // This is included in error messages so we'll try to make it somewhat user friendly.
         StringBuilder b = new StringBuilder("BulkShardRequest [");
         b.append(shardId).append("] containing [");
-        if (items.length > 1) {
+        if (items.length != 1) {
           b.append(items.length).append("] requests");
         } else {
             b.append(items[0].request()).append("]");
@@ -36,6 +36,7 @@ import org.elasticsearch.action.ingest.IngestActionForwarder;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.AutoCreateIndex;
 import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.action.update.TransportUpdateAction;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
@@ -54,7 +55,11 @@ import org.elasticsearch.cluster.metadata.MetaDataIndexTemplateService;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
@@ -70,15 +75,19 @@ import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
@@ -92,6 +101,19 @@ import static java.util.Collections.emptyMap;
  */
 public class TransportBulkAction extends HandledTransportAction<BulkRequest, BulkResponse> {
 
+    /**
+     * The items of a shard are split into shard level requests of at most this estimated size, which are executed one after the other.
+     */
+    public static final Setting<ByteSizeValue> MAX_SHARD_REQUEST_SIZE_SETTING = Setting.byteSizeSetting(
+        "action.bulk.max_shard_request_size", new ByteSizeValue(16, ByteSizeUnit.MB), Property.Dynamic, Property.NodeScope);
+
+    /**
+     * The maximum estimated size of the shard level requests that the bulk requests coordinated by this node execute at the same time.
+     * Further shard level requests are sent as earlier ones complete.
+     */
+    public static final Setting<ByteSizeValue> MAX_IN_FLIGHT_SIZE_SETTING = Setting.memorySizeSetting(
+        "action.bulk.max_in_flight_size", "5%", Property.Dynamic, Property.NodeScope);
+
     private final ThreadPool threadPool;
     private final AutoCreateIndex autoCreateIndex;
     private final ClusterService clusterService;
@@ -101,6 +123,7 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
     private final IngestActionForwarder ingestForwarder;
     private final NodeClient client;
     private final IndexNameExpressionResolver indexNameExpressionResolver;
+    private final InFlightBudget inFlightBudget = new InFlightBudget();
 
     @Inject
     public TransportBulkAction(ThreadPool threadPool, TransportService transportService,
@@ -419,18 +442,74 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
                 return;
             }
 
-            final AtomicInteger counter = new AtomicInteger(requestsByShard.size());
-            String nodeId = clusterService.localNode().getId();
+            final long maxShardRequestSize = clusterService.getClusterSettings().get(MAX_SHARD_REQUEST_SIZE_SETTING).getBytes();
+            final long maxInFlightSize = clusterService.getClusterSettings().get(MAX_IN_FLIGHT_SIZE_SETTING).getBytes();
+            final List<ShardRequests> shardRequests = new ArrayList<>(requestsByShard.size());
+            int numberOfShardRequests = 0;
             for (Map.Entry<ShardId, List<BulkItemRequest>> entry : requestsByShard.entrySet()) {
-                final ShardId shardId = entry.getKey();
-                final List<BulkItemRequest> requests = entry.getValue();
-                BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, bulkRequest.getRefreshPolicy(),
-                        requests.toArray(new BulkItemRequest[requests.size()]));
+                final List<BulkItemRequest[]> requests = splitShardRequests(entry.getValue(), maxShardRequestSize);
+                shardRequests.add(new ShardRequests(entry.getKey(), requests));
+                numberOfShardRequests += requests.size();
+            }
+            new ShardRequestDispatcher(concreteIndices, shardRequests, numberOfShardRequests, maxInFlightSize).dispatch();
+        }
+
+        /**
+         * Sends the shard level requests of the bulk while keeping the estimated size of the requests in flight within a budget, so that
+         * a large bulk does not serialize and replicate all of its items at once. The requests of a shard are sent one after the other
+         * so that the operations on a document are applied in the order of the bulk.
+         */
+        private final class ShardRequestDispatcher {
+            private final ConcreteIndices concreteIndices;
+            private final long maxInFlightSize;
+            private final AtomicInteger counter;
+            private final String nodeId = clusterService.localNode().getId();
+            // shards whose next request has not been sent yet and that have no request in flight, guarded by this
+            private final Deque<ShardRequests> ready;
+            // registered with the budget when it has no room for the next request, so that the dispatcher is registered at most once
+            private final Runnable onBudgetAvailable = this::dispatchLater;
+
+            ShardRequestDispatcher(ConcreteIndices concreteIndices, List<ShardRequests> shardRequests, int numberOfShardRequests,
+                                   long maxInFlightSize) {
+                this.concreteIndices = concreteIndices;
+                this.maxInFlightSize = maxInFlightSize;
+                this.counter = new AtomicInteger(numberOfShardRequests);
+                this.ready = new ArrayDeque<>(shardRequests);
+            }
+
+            void dispatch() {
+                final List<ShardRequests> shards = new ArrayList<>();
+                final List<BulkItemRequest[]> requests = new ArrayList<>();
+                final List<Long> sizes = new ArrayList<>();
+                final List<Boolean> lasts = new ArrayList<>();
+                synchronized (this) {
+                    while (ready.isEmpty() == false && inFlightBudget.tryAcquire(ready.peekFirst().nextSize(), maxInFlightSize,
+                        onBudgetAvailable)) {
+                        final ShardRequests shard = ready.pollFirst();
+                        final long size = shard.nextSize();
+                        shards.add(shard);
+                        requests.add(shard.next());
+                        sizes.add(size);
+                        lasts.add(shard.hasNext() == false);
+                    }
+                }
+                for (int i = 0; i < shards.size(); i++) {
+                    send(shards.get(i), requests.get(i), sizes.get(i), lasts.get(i));
+                }
+            }
+
+            private void send(ShardRequests shard, BulkItemRequest[] requests, long size, boolean last) {
+                // the requests of a shard run one after the other, so only the last one refreshes or waits for a refresh: its refresh
+                // covers the earlier ones, which would otherwise each force a refresh or wait for one in turn
+                final WriteRequest.RefreshPolicy refreshPolicy = last ? bulkRequest.getRefreshPolicy() : WriteRequest.RefreshPolicy.NONE;
+                BulkShardRequest bulkShardRequest = new BulkShardRequest(shard.shardId, refreshPolicy, requests);
                 bulkShardRequest.waitForActiveShards(bulkRequest.waitForActiveShards());
                 bulkShardRequest.timeout(bulkRequest.timeout());
                 if (task != null) {
                     bulkShardRequest.setParentTask(nodeId, task.getId());
                 }
+                // set while the request is being sent, so that a request that completes synchronously does not dispatch recursively
+                final AtomicBoolean sending = new AtomicBoolean(true);
                 shardBulkAction.execute(bulkShardRequest, new ActionListener<BulkShardResponse>() {
                     @Override
                     public void onResponse(BulkShardResponse bulkShardResponse) {
@@ -441,31 +520,137 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
                             }
                             responses.set(bulkItemResponse.getItemId(), bulkItemResponse);
                         }
-                        if (counter.decrementAndGet() == 0) {
-                            finishHim();
-                        }
+                        shard.succeeded.add(requests);
+                        onShardRequestDone(shard, size, 1, sending.get());
                     }
 
                     @Override
                     public void onFailure(Exception e) {
-                        // create failures for all relevant requests
-                        for (BulkItemRequest request : requests) {
-                            final String indexName = concreteIndices.getConcreteIndex(request.index()).getName();
-                            DocWriteRequest<?> docWriteRequest = request.request();
-                            responses.set(request.id(), new BulkItemResponse(request.id(), docWriteRequest.opType(),
-                                    new BulkItemResponse.Failure(indexName, docWriteRequest.type(), docWriteRequest.id(), e)));
+                        addFailures(requests, e);
+                        // the remaining requests of the shard would most likely fail the same way, possibly only after a timeout each
+                        int failed = 1;
+                        synchronized (ShardRequestDispatcher.this) {
+                            while (shard.hasNext()) {
+                                addFailures(shard.next(), e);
+                                failed++;
+                            }
                         }
-                        if (counter.decrementAndGet() == 0) {
-                            finishHim();
+                        if (shard.succeeded.isEmpty() == false && bulkRequest.getRefreshPolicy() != WriteRequest.RefreshPolicy.NONE) {
+                            // the last request of the shard failed, so nothing refreshed the items of the earlier ones that succeeded
+                            final int completedRequests = failed;
+                            final boolean completedWhileSending = sending.get();
+                            refreshShard(shard, () -> onShardRequestDone(shard, size, completedRequests, completedWhileSending));
+                        } else {
+                            onShardRequestDone(shard, size, failed, sending.get());
                         }
                     }
+                });
+                sending.set(false);
+            }
+
+            /**
+             * Refreshes the given shard, or waits for a refresh of it, as the refresh policy of the bulk asks. The shard request is
+             * empty, which makes it apply the refresh policy to all the operations that the copies of the shard have written so far.
+             * If this fails then the items of the shard that succeeded are failed, as they would be if the refresh of a shard request
+             * that was not split failed.
+             */
+            private void refreshShard(ShardRequests shard, Runnable onDone) {
+                final BulkShardRequest refreshRequest = new BulkShardRequest(shard.shardId, bulkRequest.getRefreshPolicy(),
+                    new BulkItemRequest[0]);
+                refreshRequest.waitForActiveShards(bulkRequest.waitForActiveShards());
+                refreshRequest.timeout(bulkRequest.timeout());
+                if (task != null) {
+                    refreshRequest.setParentTask(nodeId, task.getId());
+                }
+                shardBulkAction.execute(refreshRequest, ActionListener.wrap(
+                    response -> onDone.run(),
+                    e -> {
+                        for (BulkItemRequest[] requests : shard.succeeded) {
+                            for (BulkItemRequest request : requests) {
+                                final BulkItemResponse itemResponse = responses.get(request.id());
+                                if (itemResponse != null && itemResponse.isFailed() == false) {
+                                    addFailure(request, e);
+                                }
+                            }
+                        }
+                        onDone.run();
+                    }));
+            }
+
+            private void addFailures(BulkItemRequest[] requests, Exception e) {
+                // create failures for all relevant requests
+                for (BulkItemRequest request : requests) {
+                    addFailure(request, e);
+                }
+            }
+
+            private void addFailure(BulkItemRequest request, Exception e) {
+                final String indexName = concreteIndices.getConcreteIndex(request.index()).getName();
+                DocWriteRequest<?> docWriteRequest = request.request();
+                responses.set(request.id(), new BulkItemResponse(request.id(), docWriteRequest.opType(),
+                        new BulkItemResponse.Failure(indexName, docWriteRequest.type(), docWriteRequest.id(), e)));
+            }
+
+            private void onShardRequestDone(ShardRequests shard, long size, int completedRequests, boolean completedWhileSending) {
+                synchronized (this) {
+                    if (shard.hasNext()) {
+                        ready.addLast(shard);
+                    }
+                }
+                // released outside of the lock of this dispatcher, as it lets the dispatchers that wait for the budget dispatch
+                inFlightBudget.release(size);
+                if (onRequestsCompleted(completedRequests) == false) {
+                    if (completedWhileSending) {
+                        // dispatching on this thread would grow the stack with every request that completes synchronously
+                        dispatchLater();
+                    } else {
+                        dispatch();
+                    }
+                }
+            }
+
+            private void dispatchLater() {
+                threadPool.generic().execute(new AbstractRunnable() {
+                    @Override
+                    public void onFailure(Exception e) {
+                        failReady(e);
+                    }
 
-                    private void finishHim() {
-                        listener.onResponse(new BulkResponse(responses.toArray(new BulkItemResponse[responses.length()]),
-                            buildTookInMillis(startTimeNanos)));
+                    @Override
+                    protected void doRun() {
+                        dispatch();
                     }
                 });
             }
+
+            /**
+             * Fails the requests of the shards that have no request in flight, used if the next requests could not be dispatched.
+             */
+            private void failReady(Exception e) {
+                int failed = 0;
+                synchronized (this) {
+                    while (ready.isEmpty() == false) {
+                        final ShardRequests shard = ready.pollFirst();
+                        while (shard.hasNext()) {
+                            addFailures(shard.next(), e);
+                            failed++;
+                        }
+                    }
+                }
+                onRequestsCompleted(failed);
+            }
+
+            /**
+             * Returns whether these were the last requests of the bulk, in which case the bulk response has been sent.
+             */
+            private boolean onRequestsCompleted(int completedRequests) {
+                if (counter.addAndGet(-completedRequests) == 0) {
+                    listener.onResponse(new BulkResponse(responses.toArray(new BulkItemResponse[responses.length()]),
+                        buildTookInMillis(startTimeNanos)));
+                    return true;
+                }
+                return false;
+            }
         }
 
         private boolean handleBlockExceptions(ClusterState state) {
@@ -547,6 +732,104 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
         new BulkOperation(task, bulkRequest, listener, responses, startTimeNanos, indicesThatCannotBeCreated).run();
     }
 
+    /**
+     * Splits the items of a shard into consecutive shard level requests whose estimated size is at most {@code maxSizeInBytes}, unless
+     * they consist of a single item that is larger than that on its own.
+     */
+    static List<BulkItemRequest[]> splitShardRequests(List<BulkItemRequest> items, long maxSizeInBytes) {
+        assert items.isEmpty() == false;
+        final List<BulkItemRequest[]> requests = new ArrayList<>(1);
+        int from = 0;
+        long size = 0;
+        for (int i = 0; i < items.size(); i++) {
+            final long itemSize = BulkRequest.estimatedSizeInBytes(items.get(i).request());
+            if (i > from && size + itemSize > maxSizeInBytes) {
+                requests.add(items.subList(from, i).toArray(new BulkItemRequest[i - from]));
+                from = i;
+                size = 0;
+            }
+            size += itemSize;
+        }
+        requests.add(items.subList(from, items.size()).toArray(new BulkItemRequest[items.size() - from]));
+        return requests;
+    }
+
+    /**
+     * The shard level requests of a shard that are still to be sent.
+     */
+    private static final class ShardRequests {
+        private final ShardId shardId;
+        private final List<BulkItemRequest[]> requests;
+        private final long[] sizes;
+        private int next;
+        // the requests of the shard that succeeded, only accessed by the one request of the shard that is in flight
+        private final List<BulkItemRequest[]> succeeded = new ArrayList<>();
+
+        ShardRequests(ShardId shardId, List<BulkItemRequest[]> requests) {
+            this.shardId = shardId;
+            this.requests = requests;
+            this.sizes = new long[requests.size()];
+            for (int i = 0; i < sizes.length; i++) {
+                for (BulkItemRequest item : requests.get(i)) {
+                    sizes[i] += BulkRequest.estimatedSizeInBytes(item.request());
+                }
+            }
+        }
+
+        boolean hasNext() {
+            return next < requests.size();
+        }
+
+        long nextSize() {
+            return sizes[next];
+        }
+
+        BulkItemRequest[] next() {
+            return requests.get(next++);
+        }
+    }
+
+    /**
+     * Tracks the estimated size of the shard level requests that are in flight on this node, across all the bulk requests that it
+     * coordinates. Bulk requests that find no room for their next shard level request register to be told when requests complete.
+     */
+    static final class InFlightBudget {
+        // guarded by this
+        private long inFlightSize;
+        // guarded by this
+        private final Set<Runnable> waiting = new LinkedHashSet<>();
+
+        /**
+         * Reserves the given size if it fits within the given maximum, otherwise registers the given runnable to run once the size in
+         * flight shrinks. A request is always let through if nothing is in flight, however large it is.
+         */
+        synchronized boolean tryAcquire(long size, long maxInFlightSize, Runnable onRelease) {
+            if (inFlightSize == 0 || inFlightSize + size <= maxInFlightSize) {
+                inFlightSize += size;
+                return true;
+            }
+            waiting.add(onRelease);
+            return false;
+        }
+
+        void release(long size) {
+            final List<Runnable> toRun;
+            synchronized (this) {
+                assert inFlightSize >= size : "releasing [" + size + "] but only [" + inFlightSize + "] is in flight";
+                inFlightSize -= size;
+                toRun = new ArrayList<>(waiting);
+                waiting.clear();
+            }
+            for (Runnable runnable : toRun) {
+                runnable.run();
+            }
+        }
+
+        synchronized long getInFlightSize() {
+            return inFlightSize;
+        }
+    }
+
     private static class ConcreteIndices  {
         private final ClusterState state;
         private final IndexNameExpressionResolver indexNameExpressionResolver;
@@ -31,6 +31,7 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.action.support.replication.TransportReplicationAction;
 import org.elasticsearch.action.support.replication.TransportWriteAction;
 import org.elasticsearch.action.update.UpdateHelper;
@@ -161,8 +162,21 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             executeBulkItemRequest(context, updateHelper, nowInMillisSupplier, mappingUpdater, waitForMappingUpdate);
             assert context.isInitial(); // either completed and moved to next or reset
         }
-        return new WritePrimaryResult<>(context.getBulkShardRequest(), context.buildShardResponse(), context.getLocationToSync(),
-            null, context.getPrimary(), logger);
+        return new WritePrimaryResult<>(context.getBulkShardRequest(), context.buildShardResponse(),
+            locationToSync(context.getBulkShardRequest(), context.getLocationToSync(), context.getPrimary()), null,
+            context.getPrimary(), logger);
+    }
+
+    /**
+     * Returns the location that the refresh policy of the request applies to: an empty request refreshes, or waits for a refresh
+     * of, all the operations that the shard has written so far, which {@link TransportBulkAction} uses to refresh a shard whose
+     * bulk was split into several requests and whose last request, which carries the refresh policy, failed.
+     */
+    private static Translog.Location locationToSync(BulkShardRequest request, Translog.Location location, IndexShard shard) {
+        if (request.items().length == 0 && request.getRefreshPolicy() != WriteRequest.RefreshPolicy.NONE) {
+            return shard.getTranslogLastWriteLocation();
+        }
+        return location;
     }
 
     /** Executes bulk item requests and handles request execution exceptions */
@@ -370,7 +384,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
 
     @Override
     public WriteReplicaResult<BulkShardRequest> shardOperationOnReplica(BulkShardRequest request, IndexShard replica) throws Exception {
-        final Translog.Location location = performOnReplica(request, replica);
+        final Translog.Location location = locationToSync(request, performOnReplica(request, replica), replica);
         return new WriteReplicaResult<>(request, location, null, replica, logger);
     }
 
@@ -39,6 +39,7 @@ import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.aggregations.IncrementalAggregationsReducer;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
 import org.elasticsearch.search.aggregations.InternalAggregations;
@@ -62,6 +63,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 
@@ -70,13 +72,24 @@ public final class SearchPhaseController {
     private static final ScoreDoc[] EMPTY_DOCS = new ScoreDoc[0];
 
     private final Function<Boolean, ReduceContext> reduceContextFunction;
+    private final BooleanSupplier incrementalAggsReduce;
 
     /**
      * Constructor.
      * @param reduceContextFunction A function that builds a context for the reduce of an {@link InternalAggregation}
      */
     public SearchPhaseController(Function<Boolean, ReduceContext> reduceContextFunction) {
+        this(reduceContextFunction, () -> false);
+    }
+
+    /**
+     * Constructor.
+     * @param reduceContextFunction A function that builds a context for the reduce of an {@link InternalAggregation}
+     * @param incrementalAggsReduce Whether aggregation results should be merged incrementally as they arrive
+     */
+    public SearchPhaseController(Function<Boolean, ReduceContext> reduceContextFunction, BooleanSupplier incrementalAggsReduce) {
         this.reduceContextFunction = reduceContextFunction;
+        this.incrementalAggsReduce = incrementalAggsReduce;
     }
 
     public AggregatedDfs aggregateDfs(Collection<DfsSearchResult> results) {
@@ -561,12 +574,16 @@ public final class SearchPhaseController {
      * A {@link InitialSearchPhase.ArraySearchPhaseResults} implementation
      * that incrementally reduces aggregation results as shard results are consumed.
      * This implementation can be configured to batch up a certain amount of results and only reduce them
-     * iff the buffer is exhausted.
+     * iff the buffer is exhausted. Aggregation results can alternatively be merged one at a time with an
+     * {@link IncrementalAggregationsReducer}, in which case they are released as soon as they have been merged.
      */
     static final class QueryPhaseResultConsumer extends InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> {
         private final InternalAggregations[] aggsBuffer;
         private final TopDocs[] topDocsBuffer;
         private final boolean hasAggs;
+        private final boolean incrementalAggsReduce;
+        // null once released
+        private IncrementalAggregationsReducer aggsReducer;
         private final boolean hasTopDocs;
         private final int bufferSize;
         private int index;
@@ -581,9 +598,11 @@ public final class SearchPhaseController {
          * @param expectedResultSize the expected number of query results. Corresponds to the number of shards queried
          * @param bufferSize the size of the reduce buffer. if the buffer size is smaller than the number of expected results
          *                   the buffer is used to incrementally reduce aggregation results before all shards responded.
+         * @param incrementalAggsReduce if <code>true</code> aggregation results are merged as they arrive instead of being buffered
          */
         private QueryPhaseResultConsumer(SearchPhaseController controller, int expectedResultSize, int bufferSize,
-                                         boolean hasTopDocs, boolean hasAggs, int trackTotalHitsUpTo, boolean performFinalReduce) {
+                                         boolean hasTopDocs, boolean hasAggs, int trackTotalHitsUpTo, boolean performFinalReduce,
+                                         boolean incrementalAggsReduce) {
             super(expectedResultSize);
             if (expectedResultSize != 1 && bufferSize < 2) {
                 throw new IllegalArgumentException("buffer size must be >= 2 if there is more than one expected result");
@@ -596,7 +615,10 @@ public final class SearchPhaseController {
             }
             this.controller = controller;
             // no need to buffer anything if we have less expected results. in this case we don't consume any results ahead of time.
-            this.aggsBuffer = new InternalAggregations[hasAggs ? bufferSize : 0];
+            this.incrementalAggsReduce = hasAggs && incrementalAggsReduce;
+            this.aggsBuffer = new InternalAggregations[hasAggs && this.incrementalAggsReduce == false ? bufferSize : 0];
+            this.aggsReducer = this.incrementalAggsReduce
+                ? new IncrementalAggregationsReducer(controller.reduceContextFunction.apply(false)) : null;
             this.topDocsBuffer = new TopDocs[hasTopDocs ? bufferSize : 0];
             this.hasTopDocs = hasTopDocs;
             this.hasAggs = hasAggs;
@@ -613,8 +635,22 @@ public final class SearchPhaseController {
         }
 
         private synchronized void consumeInternal(QuerySearchResult querySearchResult) {
+            if (incrementalAggsReduce) {
+                if (aggsReducer == null) {
+                    throw new IllegalStateException("results have already been released");
+                }
+                // the shard result doesn't hold on to the aggregations once they are consumed so they are released after merging
+                aggsReducer.merge((InternalAggregations) querySearchResult.consumeAggs());
+                if (aggsReducer.getNumMerged() == 1) {
+                    // merging results one at a time counts as a single reduce phase
+                    numReducePhases++;
+                }
+                if (hasTopDocs == false) {
+                    return;
+                }
+            }
             if (index == bufferSize) {
-                if (hasAggs) {
+                if (hasAggs && incrementalAggsReduce == false) {
                     ReduceContext reduceContext = controller.reduceContextFunction.apply(false);
                     InternalAggregations reducedAggs = InternalAggregations.reduce(Arrays.asList(aggsBuffer), reduceContext);
                     Arrays.fill(aggsBuffer, null);
@@ -631,7 +667,7 @@ public final class SearchPhaseController {
                 index = 1;
             }
             final int i = index++;
-            if (hasAggs) {
+            if (hasAggs && incrementalAggsReduce == false) {
                 aggsBuffer[i] = (InternalAggregations) querySearchResult.consumeAggs();
             }
             if (hasTopDocs) {
@@ -643,7 +679,16 @@ public final class SearchPhaseController {
         }
 
         private synchronized List<InternalAggregations> getRemainingAggs() {
-            return hasAggs ? Arrays.asList(aggsBuffer).subList(0, index) : null;
+            if (hasAggs == false) {
+                return null;
+            }
+            if (incrementalAggsReduce) {
+                if (aggsReducer == null) {
+                    throw new IllegalStateException("results have already been released");
+                }
+                return Collections.singletonList(aggsReducer.partialResult());
+            }
+            return Arrays.asList(aggsBuffer).subList(0, index);
         }
 
         private synchronized List<TopDocs> getRemainingTopDocs() {
@@ -652,8 +697,20 @@ public final class SearchPhaseController {
 
         @Override
         public ReducedQueryPhase reduce() {
-            return controller.reducedQueryPhase(results.asList(), getRemainingAggs(), getRemainingTopDocs(), topDocsStats,
-                numReducePhases, false, performFinalReduce);
+            try {
+                return controller.reducedQueryPhase(results.asList(), getRemainingAggs(), getRemainingTopDocs(), topDocsStats,
+                    numReducePhases, false, performFinalReduce);
+            } finally {
+                close();
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (aggsReducer != null) {
+                aggsReducer.close();
+                aggsReducer = null;
+            }
         }
 
         /**
@@ -689,7 +746,7 @@ public final class SearchPhaseController {
             if (request.getBatchedReduceSize() < numShards) {
                 // only use this if there are aggs and if there are more shards than we should reduce at once
                 return new QueryPhaseResultConsumer(this, numShards, request.getBatchedReduceSize(), hasTopDocs, hasAggs,
-                    trackTotalHitsUpTo, request.isFinalReduce());
+                    trackTotalHitsUpTo, request.isFinalReduce(), incrementalAggsReduce.getAsBoolean());
             }
         }
         return new InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult>(numShards) {
@@ -28,6 +28,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
 import org.elasticsearch.common.xcontent.StatusToXContentObject;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -46,6 +47,7 @@ import org.elasticsearch.search.suggest.Suggest;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -58,7 +60,7 @@ import static org.elasticsearch.common.xcontent.XContentParserUtils.ensureExpect
 /**
  * A response of a search request.
  */
-public class SearchResponse extends ActionResponse implements StatusToXContentObject {
+public class SearchResponse extends ActionResponse implements StatusToXContentObject, ChunkedToXContent {
 
     private static final ParseField SCROLL_ID = new ParseField("_scroll_id");
     private static final ParseField TOOK = new ParseField("took");
@@ -226,6 +228,36 @@ public class SearchResponse extends ActionResponse implements StatusToXContentOb
     }
 
     public XContentBuilder innerToXContent(XContentBuilder builder, Params params) throws IOException {
+        innerToXContentHeader(builder, params);
+        internalResponse.toXContent(builder, params);
+        return builder;
+    }
+
+    /**
+     * Serializes this response as a sequence of fragments: the header up to the start of the hits array, one fragment per hit and
+     * the sections that follow the hits. Large responses can then be written out while they are being serialized.
+     */
+    @Override
+    public Iterator<? extends ToXContent> toXContentChunked(Params params) {
+        final SearchHits hits = internalResponse.hits();
+        final List<ToXContent> chunks = new ArrayList<>(hits.getHits().length + 2);
+        chunks.add((builder, p) -> {
+            builder.startObject();
+            innerToXContentHeader(builder, p);
+            return hits.toXContentStart(builder, p);
+        });
+        for (SearchHit hit : hits.getHits()) {
+            chunks.add(hit);
+        }
+        chunks.add((builder, p) -> {
+            hits.toXContentEnd(builder);
+            internalResponse.toXContentAfterHits(builder, p);
+            return builder.endObject();
+        });
+        return chunks.iterator();
+    }
+
+    private XContentBuilder innerToXContentHeader(XContentBuilder builder, Params params) throws IOException {
         if (scrollId != null) {
             builder.field(SCROLL_ID.getPreferredName(), scrollId);
         }
@@ -239,9 +271,7 @@ public class SearchResponse extends ActionResponse implements StatusToXContentOb
         }
         RestActions.buildBroadcastShardsHeader(builder, params, getTotalShards(), getSuccessfulShards(), getSkippedShards(),
             getFailedShards(), getShardFailures());
-        clusters.toXContent(builder, params);
-        internalResponse.toXContent(builder, params);
-        return builder;
+        return clusters.toXContent(builder, params);
     }
 
     public static SearchResponse fromXContent(XContentParser parser) throws IOException {
@@ -104,6 +104,13 @@ public class SearchResponseSections implements ToXContentFragment {
     @Override
     public final XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         hits.toXContent(builder, params);
+        return toXContentAfterHits(builder, params);
+    }
+
+    /**
+     * Writes the sections that follow the hits: aggregations, suggestions and profile results.
+     */
+    public final XContentBuilder toXContentAfterHits(XContentBuilder builder, Params params) throws IOException {
         if (aggregations != null) {
             aggregations.toXContent(builder, params);
         }
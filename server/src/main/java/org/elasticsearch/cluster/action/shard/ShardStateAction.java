@@ -47,6 +47,8 @@ import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.node.NodeClosedException;
@@ -66,8 +68,10 @@ import org.elasticsearch.transport.TransportService;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -79,6 +83,15 @@ public class ShardStateAction {
     public static final String SHARD_STARTED_ACTION_NAME = "internal:cluster/shard/started";
     public static final String SHARD_FAILED_ACTION_NAME = "internal:cluster/shard/failure";
 
+    /**
+     * How long the master collects shard started requests before submitting them as a single cluster state update task batch. When
+     * many shards start at once, for instance during a full cluster restart, this bounds the number of reroutes. Defaults to {@code 0},
+     * submitting each request as soon as it is received.
+     */
+    public static final Setting<TimeValue> SHARD_STARTED_BATCH_DELAY_SETTING =
+        Setting.timeSetting("cluster.routing.allocation.shard_started.batch_delay", TimeValue.ZERO, TimeValue.ZERO,
+            Setting.Property.Dynamic, Setting.Property.NodeScope);
+
     private final TransportService transportService;
     private final ClusterService clusterService;
     private final ThreadPool threadPool;
@@ -95,7 +108,8 @@ public class ShardStateAction {
         this.threadPool = threadPool;
 
         transportService.registerRequestHandler(SHARD_STARTED_ACTION_NAME, ThreadPool.Names.SAME, StartedShardEntry::new,
-            new ShardStartedTransportHandler(clusterService, new ShardStartedClusterStateTaskExecutor(allocationService, logger), logger));
+            new ShardStartedTransportHandler(clusterService, threadPool,
+                new ShardStartedClusterStateTaskExecutor(allocationService, logger), logger));
         transportService.registerRequestHandler(SHARD_FAILED_ACTION_NAME, ThreadPool.Names.SAME, FailedShardEntry::new,
             new ShardFailedTransportHandler(clusterService,
                 new ShardFailedClusterStateTaskExecutor(allocationService, routingService, logger), logger));
@@ -481,27 +495,73 @@ public class ShardStateAction {
 
     private static class ShardStartedTransportHandler implements TransportRequestHandler<StartedShardEntry> {
         private final ClusterService clusterService;
+        private final ThreadPool threadPool;
         private final ShardStartedClusterStateTaskExecutor shardStartedClusterStateTaskExecutor;
         private final Logger logger;
+        private volatile TimeValue batchDelay;
+        // the requests received since the submission of the current batch was scheduled, null if none is scheduled
+        private List<StartedShardEntry> pendingEntries; // protected by synchronizing on this
 
-        ShardStartedTransportHandler(ClusterService clusterService,
+        ShardStartedTransportHandler(ClusterService clusterService, ThreadPool threadPool,
                                      ShardStartedClusterStateTaskExecutor shardStartedClusterStateTaskExecutor, Logger logger) {
             this.clusterService = clusterService;
+            this.threadPool = threadPool;
             this.shardStartedClusterStateTaskExecutor = shardStartedClusterStateTaskExecutor;
             this.logger = logger;
+            final ClusterSettings clusterSettings = clusterService.getClusterSettings();
+            this.batchDelay = SHARD_STARTED_BATCH_DELAY_SETTING.get(clusterService.getSettings());
+            clusterSettings.addSettingsUpdateConsumer(SHARD_STARTED_BATCH_DELAY_SETTING, batchDelay -> this.batchDelay = batchDelay);
         }
 
         @Override
         public void messageReceived(StartedShardEntry request, TransportChannel channel, Task task) throws Exception {
             logger.debug("{} received shard started for [{}]", request.shardId, request);
-            clusterService.submitStateUpdateTask(
-                "shard-started " + request,
-                request,
-                ClusterStateTaskConfig.build(Priority.URGENT),
-                shardStartedClusterStateTaskExecutor,
-                shardStartedClusterStateTaskExecutor);
+            final TimeValue batchDelay = this.batchDelay;
+            if (batchDelay.nanos() == 0) {
+                clusterService.submitStateUpdateTask(
+                    "shard-started " + request,
+                    request,
+                    ClusterStateTaskConfig.build(Priority.URGENT),
+                    shardStartedClusterStateTaskExecutor,
+                    shardStartedClusterStateTaskExecutor);
+            } else {
+                final boolean scheduleSubmission;
+                synchronized (this) {
+                    scheduleSubmission = pendingEntries == null;
+                    if (scheduleSubmission) {
+                        pendingEntries = new ArrayList<>();
+                    }
+                    pendingEntries.add(request);
+                }
+                if (scheduleSubmission) {
+                    threadPool.schedule(this::submitPendingEntries, batchDelay, ThreadPool.Names.SAME);
+                }
+            }
             channel.sendResponse(TransportResponse.Empty.INSTANCE);
         }
+
+        private void submitPendingEntries() {
+            final List<StartedShardEntry> entries;
+            synchronized (this) {
+                entries = pendingEntries;
+                pendingEntries = null;
+            }
+            final Map<StartedShardEntry, ClusterStateTaskListener> tasks = new LinkedHashMap<>(entries.size());
+            for (StartedShardEntry entry : entries) {
+                tasks.put(entry, shardStartedClusterStateTaskExecutor);
+            }
+            logger.debug("submitting [{}] shard started requests", tasks.size());
+            try {
+                clusterService.submitStateUpdateTasks(
+                    "shard-started",
+                    tasks,
+                    ClusterStateTaskConfig.build(Priority.URGENT),
+                    shardStartedClusterStateTaskExecutor);
+            } catch (Exception e) {
+                // the shards are started again on their next cluster state, as they are still initializing in it
+                logger.warn(() -> new ParameterizedMessage("failed to submit [{}] shard started requests", tasks.size()), e);
+            }
+        }
     }
 
     public static class ShardStartedClusterStateTaskExecutor
@@ -38,7 +38,10 @@ import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BytesTransportRequest;
@@ -50,7 +53,9 @@ import org.elasticsearch.transport.TransportResponseHandler;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -65,12 +70,24 @@ public class PublicationTransportHandler {
     public static final String PUBLISH_STATE_ACTION_NAME = "internal:cluster/coordination/publish_state";
     public static final String COMMIT_STATE_ACTION_NAME = "internal:cluster/coordination/commit_state";
 
+    /**
+     * The number of recently published cluster states the master keeps so that a node which missed some publications can be sent a diff
+     * from the last state it accepted rather than the full cluster state. Set to {@code 0} to only ever diff against the previous state.
+     */
+    public static final Setting<Integer> PUBLISH_DIFF_STATES_SETTING =
+        Setting.intSetting("cluster.publish.diff_states", 10, 0, Setting.Property.NodeScope);
+
     private final TransportService transportService;
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest;
 
     private AtomicReference<ClusterState> lastSeenClusterState = new AtomicReference<>();
 
+    // recently published states by state UUID, bounded by PUBLISH_DIFF_STATES_SETTING, and the last of them each node accepted
+    private final int maxDiffStates;
+    private final Map<String, ClusterState> recentlyPublishedStates = new LinkedHashMap<>();
+    private final Map<String, String> lastAcceptedStateUUIDs = ConcurrentCollections.newConcurrentMap();
+
     private final AtomicLong fullClusterStateReceivedCount = new AtomicLong();
     private final AtomicLong incompatibleClusterStateDiffReceivedCount = new AtomicLong();
     private final AtomicLong compatibleClusterStateDiffReceivedCount = new AtomicLong();
@@ -79,9 +96,11 @@ public class PublicationTransportHandler {
     private final TransportRequestOptions stateRequestOptions = TransportRequestOptions.builder()
         .withType(TransportRequestOptions.Type.STATE).build();
 
-    public PublicationTransportHandler(TransportService transportService, NamedWriteableRegistry namedWriteableRegistry,
+    public PublicationTransportHandler(Settings settings, TransportService transportService,
+                                       NamedWriteableRegistry namedWriteableRegistry,
                                        Function<PublishRequest, PublishWithJoinResponse> handlePublishRequest,
                                        BiConsumer<ApplyCommitRequest, ActionListener<Void>> handleApplyCommit) {
+        this.maxDiffStates = PUBLISH_DIFF_STATES_SETTING.get(settings);
         this.transportService = transportService;
         this.namedWriteableRegistry = namedWriteableRegistry;
         this.handlePublishRequest = handlePublishRequest;
@@ -142,13 +161,15 @@ public class PublicationTransportHandler {
         final boolean sendFullVersion = clusterChangedEvent.previousState().getBlocks().disableStatePersistence();
         final Map<Version, BytesReference> serializedStates = new HashMap<>();
         final Map<Version, BytesReference> serializedDiffs = new HashMap<>();
+        final Map<String, BytesReference> serializedOlderDiffs = ConcurrentCollections.newConcurrentMap();
+        final Map<String, ClusterState> diffBases = sendFullVersion ? Collections.emptyMap() : selectDiffBases(newState, previousState);
 
         // we build these early as a best effort not to commit in the case of error.
         // sadly this is not water tight as it may that a failed diff based publishing to a node
         // will cause a full serialization based on an older version, which may fail after the
         // change has been committed.
         buildDiffAndSerializeStates(clusterChangedEvent.state(), clusterChangedEvent.previousState(),
-            nodes, sendFullVersion, serializedStates, serializedDiffs);
+            nodes, diffBases, serializedStates, serializedDiffs);
 
         return new PublicationContext() {
             @Override
@@ -178,13 +199,22 @@ public class PublicationTransportHandler {
                             return "publish to self of " + publishRequest;
                         }
                     });
-                } else if (sendFullVersion || !previousState.nodes().nodeExists(destination)) {
-                    logger.trace("sending full cluster state version {} to {}", newState.version(), destination);
-                    PublicationTransportHandler.this.sendFullClusterState(newState, serializedStates, destination, responseActionListener);
                 } else {
-                    logger.trace("sending cluster state diff for version {} to {}", newState.version(), destination);
-                    PublicationTransportHandler.this.sendClusterStateDiff(newState, serializedDiffs, serializedStates, destination,
-                        responseActionListener);
+                    final ClusterState diffBase = diffBases.get(destination.getEphemeralId());
+                    if (diffBase == null) {
+                        logger.trace("sending full cluster state version {} to {}", newState.version(), destination);
+                        PublicationTransportHandler.this.sendFullClusterState(newState, serializedStates, destination,
+                            responseActionListener);
+                    } else if (diffBase == previousState) {
+                        logger.trace("sending cluster state diff for version {} to {}", newState.version(), destination);
+                        PublicationTransportHandler.this.sendClusterStateDiff(newState, serializedDiffs, serializedStates, destination,
+                            responseActionListener);
+                    } else {
+                        logger.trace("sending cluster state diff from version {} for version {} to {}", diffBase.version(),
+                            newState.version(), destination);
+                        PublicationTransportHandler.this.sendClusterStateDiffFrom(newState, diffBase, serializedOlderDiffs,
+                            serializedStates, destination, responseActionListener);
+                    }
                 }
             }
 
@@ -242,6 +272,7 @@ public class PublicationTransportHandler {
 
                     @Override
                     public void handleResponse(PublishWithJoinResponse response) {
+                        lastAcceptedStateUUIDs.put(node.getEphemeralId(), clusterState.stateUUID());
                         responseActionListener.onResponse(response);
                     }
 
@@ -262,8 +293,46 @@ public class PublicationTransportHandler {
         }
     }
 
+    /**
+     * Selects, for each remote node of the new state, the state to diff against: the last recently published state the node accepted
+     * if it is still known, otherwise the previous state if the node was part of it. Nodes without an entry are sent the full state.
+     */
+    private Map<String, ClusterState> selectDiffBases(ClusterState newState, ClusterState previousState) {
+        final Map<String, ClusterState> diffBases = new HashMap<>();
+        synchronized (recentlyPublishedStates) {
+            if (recentlyPublishedStates.containsKey(previousState.stateUUID()) == false) {
+                // we did not publish the previous state, so the nodes may have accepted states from another master since
+                recentlyPublishedStates.clear();
+                lastAcceptedStateUUIDs.clear();
+            }
+            if (maxDiffStates > 0) {
+                recentlyPublishedStates.put(newState.stateUUID(), newState);
+                while (recentlyPublishedStates.size() > maxDiffStates) {
+                    recentlyPublishedStates.remove(recentlyPublishedStates.keySet().iterator().next());
+                }
+            }
+            // forget nodes whose last accepted state fell out of the window, they would be sent a diff that cannot apply
+            lastAcceptedStateUUIDs.values().removeIf(stateUUID -> recentlyPublishedStates.containsKey(stateUUID) == false);
+
+            for (DiscoveryNode node : newState.nodes()) {
+                if (node.equals(newState.nodes().getLocalNode())) {
+                    continue;
+                }
+                final String lastAcceptedStateUUID = lastAcceptedStateUUIDs.get(node.getEphemeralId());
+                final ClusterState lastAccepted = lastAcceptedStateUUID == null ? null : recentlyPublishedStates.get(lastAcceptedStateUUID);
+                if (lastAccepted != null && lastAccepted.version() < newState.version()
+                    && lastAccepted.stateUUID().equals(previousState.stateUUID()) == false) {
+                    diffBases.put(node.getEphemeralId(), lastAccepted);
+                } else if (previousState.nodes().nodeExists(node)) {
+                    diffBases.put(node.getEphemeralId(), previousState);
+                }
+            }
+        }
+        return diffBases;
+    }
+
     private static void buildDiffAndSerializeStates(ClusterState clusterState, ClusterState previousState, DiscoveryNodes discoveryNodes,
-                                                    boolean sendFullVersion, Map<Version, BytesReference> serializedStates,
+                                                    Map<String, ClusterState> diffBases, Map<Version, BytesReference> serializedStates,
                                                     Map<Version, BytesReference> serializedDiffs) {
         Diff<ClusterState> diff = null;
         for (DiscoveryNode node : discoveryNodes) {
@@ -271,11 +340,15 @@ public class PublicationTransportHandler {
                 // ignore, see newPublicationContext
                 continue;
             }
+            final ClusterState diffBase = diffBases.get(node.getEphemeralId());
             try {
-                if (sendFullVersion || !previousState.nodes().nodeExists(node)) {
+                if (diffBase == null) {
                     if (serializedStates.containsKey(node.getVersion()) == false) {
                         serializedStates.put(node.getVersion(), serializeFullClusterState(clusterState, node.getVersion()));
                     }
+                } else if (diffBase != previousState) {
+                    // diffs against older states are only built on demand, see sendClusterStateDiffFrom
+                    continue;
                 } else {
                     // will send a diff
                     if (diff == null) {
@@ -315,6 +388,27 @@ public class PublicationTransportHandler {
         sendClusterStateToNode(clusterState, bytes, node, responseActionListener, true, serializedStates);
     }
 
+    private void sendClusterStateDiffFrom(ClusterState clusterState, ClusterState diffBase, Map<String, BytesReference> serializedDiffs,
+                                          Map<Version, BytesReference> serializedStates, DiscoveryNode node,
+                                          ActionListener<PublishWithJoinResponse> responseActionListener) {
+        final BytesReference bytes;
+        try {
+            bytes = serializedDiffs.computeIfAbsent(diffBase.stateUUID() + "/" + node.getVersion(), key -> {
+                try {
+                    return serializeDiffClusterState(clusterState.diff(diffBase), node.getVersion());
+                } catch (IOException e) {
+                    throw new ElasticsearchException("failed to serialize cluster state diff for publishing to node {}", e, node);
+                }
+            });
+        } catch (Exception e) {
+            logger.warn(() -> new ParameterizedMessage("failed to serialize cluster state diff from version [{}], sending full state to {}",
+                diffBase.version(), node), e);
+            sendFullClusterState(clusterState, serializedStates, node, responseActionListener);
+            return;
+        }
+        sendClusterStateToNode(clusterState, bytes, node, responseActionListener, true, serializedStates);
+    }
+
     public static BytesReference serializeFullClusterState(ClusterState clusterState, Version nodeVersion) throws IOException {
         final BytesStreamOutput bStream = new BytesStreamOutput();
         try (StreamOutput stream = CompressorFactory.COMPRESSOR.streamOutput(bStream)) {
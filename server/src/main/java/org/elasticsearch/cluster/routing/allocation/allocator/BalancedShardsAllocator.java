@@ -463,7 +463,19 @@ public class BalancedShardsAllocator implements ShardsAllocator {
             final AllocationDeciders deciders = allocation.deciders();
             final ModelNode[] modelNodes = sorter.modelNodes;
             final float[] weights = sorter.weights;
-            for (String index : buildWeightOrderedIndices()) {
+            final String[] indices = allocation.routingTable().indicesRouting().keys().toArray(String.class);
+            final float[] deltas = new float[indices.length];
+            buildWeightOrderedIndices(indices, deltas);
+            boolean relocated = false;
+            for (int i = 0; i < indices.length; i++) {
+                final String index = indices[i];
+                // the deltas computed for the ordering remain accurate until the first relocation changes the weights
+                final float maxDelta = relocated ? maxWeightDelta(index) : deltas[i];
+                if (lessThan(maxDelta, threshold)) {
+                    // no two nodes are further apart than the threshold so no relocation of this index can be gaining; skip
+                    // asking the deciders about every node, which in a balanced cluster is most of the work of a reroute
+                    continue;
+                }
                 IndexMetaData indexMetaData = metaData.index(index);
 
                 // find nodes that have a shard of this index or where shards of this index are allowed to be allocated to,
@@ -523,6 +535,7 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                         /* pass the delta to the replication function to prevent relocations that only swap the weights of the two nodes.
                          * a relocation must bring us closer to the balance if we only achieve the same delta the relocation is useless */
                         if (tryRelocateShard(minNode, maxNode, index, delta)) {
+                            relocated = true;
                             /*
                              * TODO we could be a bit smarter here, we don't need to fully sort necessarily
                              * we could just find the place to insert linearly but the win might be minor
@@ -568,13 +581,14 @@ public class BalancedShardsAllocator implements ShardsAllocator {
          * has no shards yet and global balance for the node is way below
          * average. To re-balance we need to move shards back eventually likely
          * to the nodes we relocated them from.
+         *
+         * The given indices are sorted in place, and the given deltas are filled
+         * with the maximum weight delta of each index in the same order.
          */
-        private String[] buildWeightOrderedIndices() {
-            final String[] indices = allocation.routingTable().indicesRouting().keys().toArray(String.class);
-            final float[] deltas = new float[indices.length];
+        private void buildWeightOrderedIndices(String[] indices, float[] deltas) {
+            assert indices.length == deltas.length;
             for (int i = 0; i < deltas.length; i++) {
-                sorter.reset(indices[i]);
-                deltas[i] = sorter.delta();
+                deltas[i] = maxWeightDelta(indices[i]);
             }
             new IntroSorter() {
 
@@ -605,8 +619,21 @@ public class BalancedShardsAllocator implements ShardsAllocator {
                     return Float.compare(deltas[j], pivotWeight);
                 }
             }.sort(0, deltas.length);
+        }
 
-            return indices;
+        /**
+         * Returns the difference between the highest and the lowest node weight for the given index. This is the same as
+         * {@link NodeSorter#delta()} after resetting the sorter to the index, but takes linear time and leaves the nodes in place.
+         */
+        private float maxWeightDelta(String index) {
+            float minWeight = Float.POSITIVE_INFINITY;
+            float maxWeight = Float.NEGATIVE_INFINITY;
+            for (ModelNode node : sorter.modelNodes) {
+                final float nodeWeight = weight.weight(this, node, index);
+                minWeight = Math.min(minWeight, nodeWeight);
+                maxWeight = Math.max(maxWeight, nodeWeight);
+            }
+            return maxWeight - minWeight;
         }
 
         /**
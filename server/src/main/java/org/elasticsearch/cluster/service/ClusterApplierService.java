@@ -36,10 +36,12 @@ import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.common.util.concurrent.PrioritizedEsThreadPoolExecutor;
@@ -47,16 +49,22 @@ import org.elasticsearch.common.util.iterable.Iterables;
 import org.elasticsearch.threadpool.Scheduler;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -86,6 +94,7 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
     private final Collection<ClusterStateApplier> lowPriorityStateAppliers = new CopyOnWriteArrayList<>();
     private final Iterable<ClusterStateApplier> clusterStateAppliers = Iterables.concat(highPriorityStateAppliers,
         normalPriorityStateAppliers, lowPriorityStateAppliers);
+    private final Collection<AsyncStateApplier> asyncStateAppliers = new CopyOnWriteArrayList<>();
 
     private final Collection<ClusterStateListener> clusterStateListeners = new CopyOnWriteArrayList<>();
     private final Collection<TimeoutClusterStateListener> timeoutClusterStateListeners =
@@ -97,6 +106,8 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
 
     private final AtomicReference<ClusterState> state; // last applied state
 
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+
     private final String nodeName;
 
     private NodeConnectionsService nodeConnectionsService;
@@ -219,6 +230,27 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         normalPriorityStateAppliers.add(applier);
     }
 
+    /**
+     * Adds an applier of updated cluster states that is called on the given executor instead of the cluster applier thread,
+     * after all other appliers have been called. Updated cluster states become visible via {@link #state()} before async
+     * appliers have applied them, but an update is only reported as applied once all async appliers are done with it, so
+     * that the node acknowledges a cluster state only after having applied it fully. Each async applier is called with the
+     * updated cluster states in order, one at a time, so it never occupies more than one thread of the executor.
+     */
+    public void addAsyncStateApplier(String executor, ClusterStateApplier applier) {
+        addAsyncStateApplier(executor, applier, true);
+    }
+
+    /**
+     * Adds an applier of updated cluster states that is called on the given executor, like
+     * {@link #addAsyncStateApplier(String, ClusterStateApplier)}. If {@code delaysAcknowledgement} is {@code false} then updates
+     * are reported as applied without waiting for the applier, and its failures are only logged. This is for appliers whose
+     * outcome the master learns about through other means, and which should therefore not hold back the next publication.
+     */
+    public void addAsyncStateApplier(String executor, ClusterStateApplier applier, boolean delaysAcknowledgement) {
+        asyncStateAppliers.add(new AsyncStateApplier(applier, threadPool.executor(executor), delaysAcknowledgement));
+    }
+
     /**
      * Removes an applier of updated cluster states.
      */
@@ -226,6 +258,7 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         normalPriorityStateAppliers.remove(applier);
         highPriorityStateAppliers.remove(applier);
         lowPriorityStateAppliers.remove(applier);
+        asyncStateAppliers.removeIf(asyncStateApplier -> asyncStateApplier.applier == applier);
     }
 
     /**
@@ -415,13 +448,13 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
                 logger.debug("cluster state updated, version [{}], source [{}]", newClusterState.version(), task.source);
             }
             try {
-                applyChanges(task, previousClusterState, newClusterState);
+                final ClusterChangedEvent clusterChangedEvent = applyChanges(task, previousClusterState, newClusterState);
                 TimeValue executionTime = TimeValue.timeValueMillis(Math.max(0, currentTimeInMillis() - startTimeMS));
                 logger.debug("processing [{}]: took [{}] done applying updated cluster state (version: {}, uuid: {})", task.source,
                     executionTime, newClusterState.version(),
                     newClusterState.stateUUID());
                 warnAboutSlowTaskIfNeeded(executionTime, task.source);
-                task.listener.onSuccess(task.source);
+                callAsyncClusterStateAppliers(clusterChangedEvent, task.source, task.listener);
             } catch (Exception e) {
                 TimeValue executionTime = TimeValue.timeValueMillis(Math.max(0, currentTimeInMillis() - startTimeMS));
                 if (logger.isTraceEnabled()) {
@@ -438,7 +471,7 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         }
     }
 
-    private void applyChanges(UpdateTask task, ClusterState previousClusterState, ClusterState newClusterState) {
+    private ClusterChangedEvent applyChanges(UpdateTask task, ClusterState previousClusterState, ClusterState newClusterState) {
         ClusterChangedEvent clusterChangedEvent = new ClusterChangedEvent(task.source, newClusterState, previousClusterState);
         // new cluster state, notify all listeners
         final DiscoveryNodes.Delta nodesDelta = clusterChangedEvent.nodesDelta();
@@ -451,13 +484,17 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         }
 
         logger.trace("connecting to nodes of cluster state with version {}", newClusterState.version());
+        long startTimeNanos = currentTimeInNanos();
         connectToNodesAndWait(newClusterState);
+        record("connecting_to_nodes", startTimeNanos);
 
         // nothing to do until we actually recover from the gateway or any other block indicates we need to disable persistency
         if (clusterChangedEvent.state().blocks().disableStatePersistence() == false && clusterChangedEvent.metaDataChanged()) {
             logger.debug("applying settings from cluster state with version {}", newClusterState.version());
             final Settings incomingSettings = clusterChangedEvent.state().metaData().settings();
+            startTimeNanos = currentTimeInNanos();
             clusterSettings.applySettings(incomingSettings);
+            record("applying_settings", startTimeNanos);
         }
 
         logger.debug("apply cluster state with version {}", newClusterState.version());
@@ -469,6 +506,7 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         state.set(newClusterState);
 
         callClusterStateListeners(clusterChangedEvent);
+        return clusterChangedEvent;
     }
 
     protected void connectToNodesAndWait(ClusterState newClusterState) {
@@ -486,21 +524,162 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
     private void callClusterStateAppliers(ClusterChangedEvent clusterChangedEvent) {
         clusterStateAppliers.forEach(applier -> {
             logger.trace("calling [{}] with change to version [{}]", applier, clusterChangedEvent.state().version());
+            final long startTimeNanos = currentTimeInNanos();
             applier.applyClusterState(clusterChangedEvent);
+            record(StatsNames.of(applier), startTimeNanos);
         });
     }
 
+    /**
+     * Hands the applied cluster state over to the async appliers and notifies the listener once all of them have applied it
+     */
+    private void callAsyncClusterStateAppliers(ClusterChangedEvent clusterChangedEvent, String source, ClusterApplyListener listener) {
+        final List<AsyncStateApplier> appliers = new ArrayList<>();
+        for (AsyncStateApplier applier : asyncStateAppliers) {
+            if (applier.delaysAcknowledgement) {
+                appliers.add(applier);
+            } else {
+                applier.apply(clusterChangedEvent, e -> {
+                    if (e != null) {
+                        logger.warn(new ParameterizedMessage("failed to apply cluster state version [{}] with async applier [{}]",
+                            clusterChangedEvent.state().version(), applier.applier), e);
+                    }
+                });
+            }
+        }
+        if (appliers.isEmpty()) {
+            listener.onSuccess(source);
+            return;
+        }
+        final CountDown countDown = new CountDown(appliers.size());
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        for (AsyncStateApplier applier : appliers) {
+            applier.apply(clusterChangedEvent, e -> {
+                if (e != null) {
+                    logger.warn(new ParameterizedMessage("failed to apply cluster state version [{}] with async applier [{}]",
+                        clusterChangedEvent.state().version(), applier.applier), e);
+                    if (failure.compareAndSet(null, e) == false) {
+                        failure.get().addSuppressed(e);
+                    }
+                }
+                if (countDown.countDown()) {
+                    if (failure.get() == null) {
+                        listener.onSuccess(source);
+                    } else {
+                        listener.onFailure(source, failure.get());
+                    }
+                }
+            });
+        }
+    }
+
     private void callClusterStateListeners(ClusterChangedEvent clusterChangedEvent) {
         Stream.concat(clusterStateListeners.stream(), timeoutClusterStateListeners.stream()).forEach(listener -> {
             try {
                 logger.trace("calling [{}] with change to version [{}]", listener, clusterChangedEvent.state().version());
+                final long startTimeNanos = currentTimeInNanos();
                 listener.clusterChanged(clusterChangedEvent);
+                record(StatsNames.of(listener), startTimeNanos);
             } catch (Exception ex) {
                 logger.warn("failed to notify ClusterStateListener", ex);
             }
         });
     }
 
+    private void record(String name, long startTimeNanos) {
+        final long tookNanos = Math.max(0, currentTimeInNanos() - startTimeNanos);
+        recorders.computeIfAbsent(name, k -> new Recorder()).record(tookNanos);
+    }
+
+    /**
+     * Returns the time spent in the steps of applying cluster states and in each applier and listener, from the most to
+     * the least expensive.
+     */
+    public ClusterApplierStats stats() {
+        final List<ClusterApplierStats.Recording> recordings = new ArrayList<>();
+        recorders.forEach((name, recorder) -> recordings.add(recorder.toRecording(name)));
+        recordings.sort(Comparator.comparingLong(ClusterApplierStats.Recording::getTimeInMillis).reversed()
+            .thenComparing(ClusterApplierStats.Recording::getName));
+        return new ClusterApplierStats(recordings);
+    }
+
+    private static class Recorder {
+        private final CounterMetric count = new CounterMetric();
+        private final CounterMetric timeInNanos = new CounterMetric();
+        private final AtomicLong maxTimeInNanos = new AtomicLong();
+
+        void record(long tookNanos) {
+            count.inc();
+            timeInNanos.inc(tookNanos);
+            maxTimeInNanos.accumulateAndGet(tookNanos, Math::max);
+        }
+
+        ClusterApplierStats.Recording toRecording(String name) {
+            return new ClusterApplierStats.Recording(name, count.count(), TimeUnit.NANOSECONDS.toMillis(timeInNanos.count()),
+                TimeUnit.NANOSECONDS.toMillis(maxTimeInNanos.get()));
+        }
+    }
+
+    /**
+     * An applier that applies cluster states on an executor, one at a time and in the order they were applied on the cluster
+     * applier thread. If the executor rejects the work it is done on the calling thread instead.
+     */
+    private class AsyncStateApplier {
+        private final ClusterStateApplier applier;
+        private final Executor executor;
+        private final boolean delaysAcknowledgement;
+        private final Queue<Runnable> pending = new ArrayDeque<>();
+        private boolean running; // protected by synchronizing on this
+
+        AsyncStateApplier(ClusterStateApplier applier, Executor executor, boolean delaysAcknowledgement) {
+            this.applier = applier;
+            this.executor = executor;
+            this.delaysAcknowledgement = delaysAcknowledgement;
+        }
+
+        void apply(ClusterChangedEvent clusterChangedEvent, Consumer<Exception> onDone) {
+            final Runnable task = () -> {
+                logger.trace("calling async [{}] with change to version [{}]", applier, clusterChangedEvent.state().version());
+                final long startTimeNanos = currentTimeInNanos();
+                Exception failure = null;
+                try {
+                    applier.applyClusterState(clusterChangedEvent);
+                } catch (Exception e) {
+                    failure = e;
+                }
+                record(StatsNames.of(applier), startTimeNanos);
+                onDone.accept(failure);
+            };
+            synchronized (this) {
+                pending.add(task);
+                if (running) {
+                    return;
+                }
+                running = true;
+            }
+            try {
+                executor.execute(this::runPending);
+            } catch (EsRejectedExecutionException e) {
+                logger.debug("async cluster state applier [{}] was rejected by its executor, applying on the calling thread", applier);
+                runPending();
+            }
+        }
+
+        private void runPending() {
+            while (true) {
+                final Runnable task;
+                synchronized (this) {
+                    task = pending.poll();
+                    if (task == null) {
+                        running = false;
+                        return;
+                    }
+                }
+                task.run();
+            }
+        }
+    }
+
     private static class SafeClusterApplyListener implements ClusterApplyListener {
         private final ClusterApplyListener listener;
         private final Logger logger;
@@ -638,4 +817,9 @@ public class ClusterApplierService extends AbstractLifecycleComponent implements
         return threadPool.relativeTimeInMillis();
     }
 
+    // the cached time of the thread pool is too coarse to time single appliers, overridden in tests so we can control time
+    protected long currentTimeInNanos() {
+        return System.nanoTime();
+    }
+
 }
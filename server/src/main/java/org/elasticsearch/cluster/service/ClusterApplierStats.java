@@ -0,0 +1,141 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.service;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Stats about the time spent applying cluster states on a node, broken down by the steps of the application, the cluster
+ * state appliers and the cluster state listeners.
+ */
+public class ClusterApplierStats implements Writeable, ToXContentFragment {
+
+    private final List<Recording> recordings;
+
+    /**
+     * @param recordings the recordings of the steps, appliers and listeners, from the one with the highest cumulative
+     *                   execution time to the lowest
+     */
+    public ClusterApplierStats(List<Recording> recordings) {
+        this.recordings = Collections.unmodifiableList(recordings);
+    }
+
+    public ClusterApplierStats(StreamInput in) throws IOException {
+        this(in.readList(Recording::new));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeList(recordings);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("cluster_applier_stats");
+        builder.startArray("recordings");
+        for (Recording recording : recordings) {
+            recording.toXContent(builder, params);
+        }
+        builder.endArray();
+        builder.endObject();
+        return builder;
+    }
+
+    public List<Recording> getRecordings() {
+        return recordings;
+    }
+
+    public static class Recording implements Writeable, ToXContentObject {
+
+        private final String name;
+        private final long count;
+        private final long timeInMillis;
+        private final long maxTimeInMillis;
+
+        public Recording(String name, long count, long timeInMillis, long maxTimeInMillis) {
+            this.name = Objects.requireNonNull(name);
+            this.count = count;
+            this.timeInMillis = timeInMillis;
+            this.maxTimeInMillis = maxTimeInMillis;
+        }
+
+        public Recording(StreamInput in) throws IOException {
+            this(in.readString(), in.readVLong(), in.readVLong(), in.readVLong());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(name);
+            out.writeVLong(count);
+            out.writeVLong(timeInMillis);
+            out.writeVLong(maxTimeInMillis);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("name", name);
+            builder.field("count", count);
+            builder.humanReadableField("time_in_millis", "time", new TimeValue(timeInMillis));
+            builder.humanReadableField("max_time_in_millis", "max_time", new TimeValue(maxTimeInMillis));
+            builder.endObject();
+            return builder;
+        }
+
+        /**
+         * The name of the step, applier or listener
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The number of cluster states that were applied
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * The total time spent applying cluster states
+         */
+        public long getTimeInMillis() {
+            return timeInMillis;
+        }
+
+        /**
+         * The longest time spent applying a single cluster state
+         */
+        public long getMaxTimeInMillis() {
+            return maxTimeInMillis;
+        }
+    }
+}
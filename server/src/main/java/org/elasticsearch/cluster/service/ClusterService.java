@@ -158,6 +158,25 @@ public class ClusterService extends AbstractLifecycleComponent {
         clusterApplierService.addStateApplier(applier);
     }
 
+    /**
+     * Adds an applier of updated cluster states that is called on the given executor.
+     *
+     * @see ClusterApplierService#addAsyncStateApplier(String, ClusterStateApplier)
+     */
+    public void addAsyncStateApplier(String executor, ClusterStateApplier applier) {
+        clusterApplierService.addAsyncStateApplier(executor, applier);
+    }
+
+    /**
+     * Adds an applier of updated cluster states that is called on the given executor, optionally without delaying the
+     * acknowledgement of updates.
+     *
+     * @see ClusterApplierService#addAsyncStateApplier(String, ClusterStateApplier, boolean)
+     */
+    public void addAsyncStateApplier(String executor, ClusterStateApplier applier, boolean delaysAcknowledgement) {
+        clusterApplierService.addAsyncStateApplier(executor, applier, delaysAcknowledgement);
+    }
+
     /**
      * Removes an applier of updated cluster states.
      */
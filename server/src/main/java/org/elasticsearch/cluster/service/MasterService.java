@@ -458,6 +458,14 @@ public class MasterService extends AbstractLifecycleComponent {
         }).collect(Collectors.toList());
     }
 
+    /**
+     * Returns how long the executed tasks were pending, per task executor.
+     */
+    public PendingTaskLatencyStats getPendingTaskLatencyStats() {
+        final Batcher batcher = taskBatcher;
+        return batcher == null ? new PendingTaskLatencyStats(Collections.emptyList()) : batcher.getPendingTaskLatencyStats();
+    }
+
     /**
      * Returns the number of currently pending tasks.
      */
@@ -0,0 +1,183 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.service;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Stats about how long cluster state update tasks waited in the master's queue before they were executed, broken down by the
+ * executor of the tasks.
+ */
+public class PendingTaskLatencyStats implements Writeable, ToXContentFragment {
+
+    private final List<Histogram> histograms;
+
+    /**
+     * @param histograms the latency histograms of the task executors, from the one with the highest total latency to the lowest
+     */
+    public PendingTaskLatencyStats(List<Histogram> histograms) {
+        this.histograms = Collections.unmodifiableList(histograms);
+    }
+
+    public PendingTaskLatencyStats(StreamInput in) throws IOException {
+        this(in.readList(Histogram::new));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeList(histograms);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("pending_task_latency_stats");
+        builder.startArray("executors");
+        for (Histogram histogram : histograms) {
+            histogram.toXContent(builder, params);
+        }
+        builder.endArray();
+        builder.endObject();
+        return builder;
+    }
+
+    public List<Histogram> getHistograms() {
+        return histograms;
+    }
+
+    public static class Histogram implements Writeable, ToXContentObject {
+
+        private final String name;
+        private final long count;
+        private final long timeInMillis;
+        private final long maxTimeInMillis;
+        private final long[] bucketUpperBoundsInMillis;
+        private final long[] bucketCounts;
+
+        /**
+         * @param bucketUpperBoundsInMillis the exclusive upper bounds of the buckets, in ascending order
+         * @param bucketCounts              the number of tasks per bucket, with one more entry than there are upper bounds for
+         *                                  the tasks that waited at least as long as the last bound
+         */
+        public Histogram(String name, long count, long timeInMillis, long maxTimeInMillis, long[] bucketUpperBoundsInMillis,
+                         long[] bucketCounts) {
+            if (bucketCounts.length != bucketUpperBoundsInMillis.length + 1) {
+                throw new IllegalArgumentException("expected [" + (bucketUpperBoundsInMillis.length + 1) + "] bucket counts but got ["
+                    + bucketCounts.length + "]");
+            }
+            this.name = Objects.requireNonNull(name);
+            this.count = count;
+            this.timeInMillis = timeInMillis;
+            this.maxTimeInMillis = maxTimeInMillis;
+            this.bucketUpperBoundsInMillis = bucketUpperBoundsInMillis;
+            this.bucketCounts = bucketCounts;
+        }
+
+        public Histogram(StreamInput in) throws IOException {
+            this(in.readString(), in.readVLong(), in.readVLong(), in.readVLong(), in.readVLongArray(), in.readVLongArray());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(name);
+            out.writeVLong(count);
+            out.writeVLong(timeInMillis);
+            out.writeVLong(maxTimeInMillis);
+            out.writeVLongArray(bucketUpperBoundsInMillis);
+            out.writeVLongArray(bucketCounts);
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("name", name);
+            builder.field("count", count);
+            builder.humanReadableField("time_in_millis", "time", new TimeValue(timeInMillis));
+            builder.humanReadableField("max_time_in_millis", "max_time", new TimeValue(maxTimeInMillis));
+            builder.startArray("histogram");
+            for (int i = 0; i < bucketCounts.length; i++) {
+                builder.startObject();
+                if (i > 0) {
+                    builder.field("ge_millis", bucketUpperBoundsInMillis[i - 1]);
+                }
+                if (i < bucketUpperBoundsInMillis.length) {
+                    builder.field("lt_millis", bucketUpperBoundsInMillis[i]);
+                }
+                builder.field("count", bucketCounts[i]);
+                builder.endObject();
+            }
+            builder.endArray();
+            builder.endObject();
+            return builder;
+        }
+
+        /**
+         * The name of the executor of the tasks
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The number of tasks that were executed
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * The total time the tasks waited before they were executed
+         */
+        public long getTimeInMillis() {
+            return timeInMillis;
+        }
+
+        /**
+         * The longest time a single task waited before it was executed
+         */
+        public long getMaxTimeInMillis() {
+            return maxTimeInMillis;
+        }
+
+        /**
+         * The exclusive upper bounds of the buckets of {@link #getBucketCounts()}
+         */
+        public long[] getBucketUpperBoundsInMillis() {
+            return bucketUpperBoundsInMillis;
+        }
+
+        /**
+         * The number of tasks per bucket, the last bucket holding the tasks that waited at least as long as the last upper bound
+         */
+        public long[] getBucketCounts() {
+            return bucketCounts;
+        }
+    }
+}
@@ -22,18 +22,23 @@ package org.elasticsearch.cluster.service;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.common.util.concurrent.PrioritizedEsThreadPoolExecutor;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -48,6 +53,10 @@ public abstract class TaskBatcher {
     // package visible for tests
     final Map<Object, LinkedHashSet<BatchedTask>> tasksPerBatchingKey = new HashMap<>();
 
+    // the exclusive upper bounds of the buckets of the pending task latency histograms
+    static final long[] LATENCY_BUCKET_UPPER_BOUNDS_MILLIS = new long[] { 10, 100, 1000, 10000, 60000 };
+    private final Map<String, LatencyRecorder> latencyRecorders = ConcurrentCollections.newConcurrentMap();
+
     public TaskBatcher(Logger logger, PrioritizedEsThreadPoolExecutor threadExecutor) {
         this.logger = logger;
         this.threadExecutor = threadExecutor;
@@ -147,6 +156,12 @@ public abstract class TaskBatcher {
                     return tasks.isEmpty() ? entry.getKey() : entry.getKey() + "[" + tasks + "]";
                 }).reduce((s1, s2) -> s1 + ", " + s2).orElse("");
 
+                final LatencyRecorder latencyRecorder = latencyRecorders.computeIfAbsent(StatsNames.of(updateTask.batchingKey),
+                    k -> new LatencyRecorder());
+                for (BatchedTask task : toExecute) {
+                    latencyRecorder.record(task.getAgeInMillis());
+                }
+
                 run(updateTask.batchingKey, toExecute, tasksSummary);
             }
         }
@@ -158,6 +173,45 @@ public abstract class TaskBatcher {
      */
     protected abstract void run(Object batchingKey, List<? extends BatchedTask> tasks, String tasksSummary);
 
+    /**
+     * Returns histograms of how long the executed tasks were pending, per batching key
+     */
+    public PendingTaskLatencyStats getPendingTaskLatencyStats() {
+        final List<PendingTaskLatencyStats.Histogram> histograms = latencyRecorders.entrySet().stream()
+            .map(entry -> entry.getValue().toHistogram(entry.getKey()))
+            .sorted(Comparator.comparingLong(PendingTaskLatencyStats.Histogram::getTimeInMillis).reversed()
+                .thenComparing(PendingTaskLatencyStats.Histogram::getName))
+            .collect(Collectors.toList());
+        return new PendingTaskLatencyStats(histograms);
+    }
+
+    private static class LatencyRecorder {
+        private final CounterMetric count = new CounterMetric();
+        private final CounterMetric timeInMillis = new CounterMetric();
+        private final AtomicLong maxTimeInMillis = new AtomicLong();
+        private final AtomicLongArray bucketCounts = new AtomicLongArray(LATENCY_BUCKET_UPPER_BOUNDS_MILLIS.length + 1);
+
+        void record(long pendingMillis) {
+            count.inc();
+            timeInMillis.inc(pendingMillis);
+            maxTimeInMillis.accumulateAndGet(pendingMillis, Math::max);
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKET_UPPER_BOUNDS_MILLIS.length && pendingMillis >= LATENCY_BUCKET_UPPER_BOUNDS_MILLIS[bucket]) {
+                bucket++;
+            }
+            bucketCounts.incrementAndGet(bucket);
+        }
+
+        PendingTaskLatencyStats.Histogram toHistogram(String name) {
+            final long[] counts = new long[bucketCounts.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = bucketCounts.get(i);
+            }
+            return new PendingTaskLatencyStats.Histogram(name, count.count(), timeInMillis.count(), maxTimeInMillis.get(),
+                LATENCY_BUCKET_UPPER_BOUNDS_MILLIS.clone(), counts);
+        }
+    }
+
     /**
      * Represents a runnable task that supports batching.
      * Implementors of TaskBatcher can subclass this to add a payload to the task.
@@ -63,6 +63,13 @@ import java.util.function.ToLongBiFunction;
  * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
  * invalidation) or an explicit call to {@link #refresh()}.
+ * <p>
+ * With {@link EvictionPolicy#TINY_LFU} the first two of these improvements are applied: hits are recorded in a lossy,
+ * striped buffer without taking any lock, and are replayed against the LRU list in batches by whichever thread
+ * next acquires the LRU lock (readers only ever try to acquire it, so a hit never blocks). The replayed hits also feed a
+ * frequency sketch, and when the cache is over its maximum weight a newly inserted entry is only admitted if it has
+ * been requested more often than the least-recently-used entry that would otherwise be evicted; this protects frequently
+ * used entries from being flushed by a burst of one-off keys.
  *
  * @param <K> The type of the keys
  * @param <V> The type of the values
@@ -97,6 +104,15 @@ public class Cache<K, V> {
     private RemovalListener<K, V> removalListener = notification -> {
     };
 
+    // the eviction policy
+    private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+    // pending hits that have not been applied to the LRU list yet, only used by EvictionPolicy.TINY_LFU
+    private ReadBuffer<Entry<K, V>> readBuffer;
+
+    // the access frequencies used for admission, only used by EvictionPolicy.TINY_LFU and guarded by the LRU lock
+    private FrequencySketch frequencySketch;
+
     // use CacheBuilder to construct
     Cache() {
     }
@@ -144,6 +160,23 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        Objects.requireNonNull(evictionPolicy);
+        this.evictionPolicy = evictionPolicy;
+        if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+            this.readBuffer = new ReadBuffer<>(ReadBuffer.defaultNumberOfStripes());
+            this.frequencySketch = new FrequencySketch(0);
+        } else {
+            this.readBuffer = null;
+            this.frequencySketch = null;
+        }
+    }
+
+    // pkg-private for testing
+    EvictionPolicy getEvictionPolicy() {
+        return this.evictionPolicy;
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -155,6 +188,21 @@ public class Cache<K, V> {
         return entriesExpireAfterAccess || entriesExpireAfterWrite ? System.nanoTime() : 0;
     }
 
+    /**
+     * The policy used to order entries and to pick victims when the cache exceeds its maximum weight.
+     */
+    public enum EvictionPolicy {
+        /**
+         * Every hit promotes the entry to the head of the LRU list under a global lock and the tail of the list is evicted.
+         */
+        LRU,
+        /**
+         * Hits are buffered and promoted in batches without blocking the reader, and new entries are only admitted over the
+         * least-recently-used entry if they are estimated to be accessed more frequently.
+         */
+        TINY_LFU
+    }
+
     // the state of an entry in the LRU list
     enum State {
         NEW, EXISTING, DELETED
@@ -366,11 +414,27 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+                recordHit(entry, now);
+            } else {
+                promote(entry, now);
+            }
             return entry.value;
         }
     }
 
+    private void recordHit(Entry<K, V> entry, long now) {
+        if (readBuffer.offer(entry)) {
+            // never block a reader on the LRU lock, if another thread holds it then it will drain the buffer
+            try (ReleasableLock locked = lruLock.tryAcquire()) {
+                if (locked != null) {
+                    drainReadBuffer();
+                    evict(now, null);
+                }
+            }
+        }
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -541,6 +605,10 @@ public class Cache<K, V> {
                 haveSegmentLock[i] = true;
             }
             try (ReleasableLock ignored = lruLock.acquire()) {
+                if (readBuffer != null) {
+                    // discard pending hits so that they do not hold on to invalidated entries
+                    readBuffer.drainTo(e -> {});
+                }
                 h = head;
                 Arrays.stream(segments).forEach(segment -> segment.map = new HashMap<>());
                 Entry<K, V> current = head;
@@ -571,7 +639,8 @@ public class Cache<K, V> {
     public void refresh() {
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
-            evict(now);
+            drainReadBuffer();
+            evict(now, null);
         }
     }
 
@@ -729,6 +798,9 @@ public class Cache<K, V> {
     private boolean promote(Entry<K, V> entry, long now) {
         boolean promoted = true;
         try (ReleasableLock ignored = lruLock.acquire()) {
+            drainReadBuffer();
+            // with TinyLFU a newly linked entry is a candidate for admission, an existing entry has already been admitted
+            Entry<K, V> candidate = null;
             switch (entry.state) {
                 case DELETED:
                     promoted = false;
@@ -738,20 +810,53 @@ public class Cache<K, V> {
                     break;
                 case NEW:
                     linkAtHead(entry);
+                    if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+                        candidate = entry;
+                    }
                     break;
             }
             if (promoted) {
-                evict(now);
+                if (frequencySketch != null) {
+                    if (exceedsWeight() == false) {
+                        // only grow while the cache fills up, growing discards the recorded frequencies
+                        frequencySketch.ensureCapacity(count);
+                    }
+                    frequencySketch.increment(entry.key);
+                }
+                evict(now, candidate);
             }
         }
         return promoted;
     }
 
-    private void evict(long now) {
+    private void drainReadBuffer() {
+        assert lruLock.isHeldByCurrentThread();
+
+        if (readBuffer != null) {
+            readBuffer.drainTo(entry -> {
+                // entries may have been removed since the hit was recorded
+                if (entry.state == State.EXISTING) {
+                    frequencySketch.increment(entry.key);
+                    relinkAtHead(entry);
+                }
+            });
+        }
+    }
+
+    private void evict(long now, Entry<K, V> candidate) {
         assert lruLock.isHeldByCurrentThread();
 
         while (tail != null && shouldPrune(tail, now)) {
-            evictEntry(tail);
+            final Entry<K, V> victim = tail;
+            if (candidate != null && candidate != victim && candidate.state == State.EXISTING
+                && isExpired(victim, now) == false
+                && frequencySketch.frequency(candidate.key) <= frequencySketch.frequency(victim.key)) {
+                // the new entry is not accessed more often than the entry it would displace, so reject it instead
+                evictEntry(candidate);
+                candidate = null;
+            } else {
+                evictEntry(victim);
+            }
         }
     }
 
@@ -0,0 +1,125 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A lossy, striped buffer of cache hits that are waiting to be replayed against the LRU list.
+ * <p>
+ * Readers record hits without taking any lock: each thread is mapped to one of a fixed number of bounded ring buffers and
+ * claims a slot with a single CAS. If the ring is full the hit is simply dropped; losing a promotion only makes the
+ * recency order slightly less accurate. Draining is done by a single thread at a time (the owner of the cache's LRU lock),
+ * which is what allows the read index of each ring to be a plain field.
+ */
+final class ReadBuffer<E> {
+
+    // the number of slots per stripe; must be a power of two
+    static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+    // the number of pending hits in a stripe that makes it worth trying to drain the buffer
+    static final int DRAIN_THRESHOLD = STRIPE_SIZE / 2;
+
+    private final Stripe<E>[] stripes;
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    ReadBuffer(int numberOfStripes) {
+        if (numberOfStripes <= 0 || Integer.bitCount(numberOfStripes) != 1) {
+            throw new IllegalArgumentException("numberOfStripes must be a positive power of two but was [" + numberOfStripes + "]");
+        }
+        stripes = new Stripe[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        mask = numberOfStripes - 1;
+    }
+
+    /**
+     * The default number of stripes: the number of available processors rounded up to a power of two, capped at 64.
+     */
+    static int defaultNumberOfStripes() {
+        final int processors = Math.min(64, Runtime.getRuntime().availableProcessors());
+        return processors <= 1 ? 1 : Integer.highestOneBit(processors - 1) << 1;
+    }
+
+    /**
+     * Records an element without blocking.
+     *
+     * @return {@code true} if the stripe the element went to has enough pending elements that the caller should try to drain
+     */
+    boolean offer(E element) {
+        final Stripe<E> stripe = stripes[stripeIndex()];
+        final long writeIndex = stripe.writeIndex.get();
+        final long pending = writeIndex - stripe.readIndex;
+        if (pending >= STRIPE_SIZE) {
+            // the stripe is full, drop the element
+            return true;
+        }
+        if (stripe.writeIndex.compareAndSet(writeIndex, writeIndex + 1)) {
+            stripe.slots.lazySet((int) (writeIndex & STRIPE_MASK), element);
+            return pending + 1 >= DRAIN_THRESHOLD;
+        }
+        // lost a race with another reader on the same stripe, drop the element rather than spin
+        return false;
+    }
+
+    /**
+     * Hands every pending element to the consumer. Must only be called by one thread at a time.
+     */
+    void drainTo(Consumer<E> consumer) {
+        for (Stripe<E> stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        id ^= id >>> 17;
+        id *= 0x9e3779b97f4a7c15L;
+        return (int) (id >>> 32) & mask;
+    }
+
+    private static final class Stripe<E> {
+        final AtomicReferenceArray<E> slots = new AtomicReferenceArray<>(STRIPE_SIZE);
+        final AtomicLong writeIndex = new AtomicLong();
+        // only modified by the draining thread
+        volatile long readIndex;
+
+        void drainTo(Consumer<E> consumer) {
+            long index = readIndex;
+            final long end = writeIndex.get();
+            for (; index < end; index++) {
+                final int slot = (int) (index & STRIPE_MASK);
+                final E element = slots.get(slot);
+                if (element == null) {
+                    // a writer has claimed this slot but not yet published its element; pick it up on the next drain
+                    break;
+                }
+                slots.lazySet(slot, null);
+                consumer.accept(element);
+            }
+            readIndex = index;
+        }
+    }
+}
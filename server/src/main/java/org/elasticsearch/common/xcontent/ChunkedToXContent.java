@@ -0,0 +1,34 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.common.xcontent;
+
+import java.util.Iterator;
+
+/**
+ * Objects whose xcontent representation can be produced as a sequence of fragments, so that a large response can be written out to
+ * the client while it is being serialized instead of being fully rendered in memory first.
+ */
+public interface ChunkedToXContent {
+
+    /**
+     * Returns the fragments that make up the xcontent representation of this object. Writing all of them, in order, to the same
+     * {@link XContentBuilder} produces the complete object, including its enclosing start and end object.
+     */
+    Iterator<? extends ToXContent> toXContentChunked(ToXContent.Params params);
+}
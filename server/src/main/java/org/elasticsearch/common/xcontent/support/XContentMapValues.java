@@ -25,11 +25,15 @@ import org.apache.lucene.util.automaton.CharacterRunAutomaton;
 import org.apache.lucene.util.automaton.Operations;
 import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.common.Booleans;
+import org.elasticsearch.common.CheckedBiConsumer;
 import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -164,16 +168,54 @@ public class XContentMapValues {
      */
     public static Function<Map<String, ?>, Map<String, Object>> filter(String[] includes, String[] excludes) {
         CharacterRunAutomaton matchAllAutomaton = new CharacterRunAutomaton(Automata.makeAnyString());
+        CharacterRunAutomaton include = includeAutomaton(includes, matchAllAutomaton);
+        CharacterRunAutomaton exclude = excludeAutomaton(excludes);
 
-        CharacterRunAutomaton include;
+        // NOTE: We cannot use Operations.minus because of the special case that
+        // we want all sub properties to match as soon as an object matches
+
+        return (map) -> filter(map,
+            include, 0,
+            exclude, 0,
+            matchAllAutomaton);
+    }
+
+    /**
+     * Returns a function that copies the object the parser is positioned on (or the next object if the parser has not been advanced
+     * yet) to the builder, only keeping the properties that match the given include and exclude rules. Unlike
+     * {@link #filter(String[], String[])} the document is never materialized as a map: values are copied from the token stream and
+     * properties that are filtered out are skipped without being parsed. The filtered document is the same as the one that the map
+     * based filter returns, only the order of its properties is preserved.
+     * @see #filter(Map, String[], String[]) for details
+     */
+    public static CheckedBiConsumer<XContentParser, XContentBuilder, IOException> streamingFilter(String[] includes, String[] excludes) {
+        CharacterRunAutomaton matchAllAutomaton = new CharacterRunAutomaton(Automata.makeAnyString());
+        CharacterRunAutomaton include = includeAutomaton(includes, matchAllAutomaton);
+        CharacterRunAutomaton exclude = excludeAutomaton(excludes);
+
+        return (parser, builder) -> {
+            if (parser.currentToken() == null) {
+                parser.nextToken();
+            }
+            if (parser.currentToken() != XContentParser.Token.START_OBJECT) {
+                throw new ElasticsearchParseException("expected an object but got [{}]", parser.currentToken());
+            }
+            builder.startObject();
+            new StreamingFilter(parser, builder, exclude, matchAllAutomaton).filterObject(include, 0, 0);
+            builder.endObject();
+        };
+    }
+
+    private static CharacterRunAutomaton includeAutomaton(String[] includes, CharacterRunAutomaton matchAllAutomaton) {
         if (includes == null || includes.length == 0) {
-            include = matchAllAutomaton;
-        } else {
-            Automaton includeA = Regex.simpleMatchToAutomaton(includes);
-            includeA = makeMatchDotsInFieldNames(includeA);
-            include = new CharacterRunAutomaton(includeA);
+            return matchAllAutomaton;
         }
+        Automaton includeA = Regex.simpleMatchToAutomaton(includes);
+        includeA = makeMatchDotsInFieldNames(includeA);
+        return new CharacterRunAutomaton(includeA);
+    }
 
+    private static CharacterRunAutomaton excludeAutomaton(String[] excludes) {
         Automaton excludeA;
         if (excludes == null || excludes.length == 0) {
             excludeA = Automata.makeEmpty();
@@ -181,15 +223,7 @@ public class XContentMapValues {
             excludeA = Regex.simpleMatchToAutomaton(excludes);
             excludeA = makeMatchDotsInFieldNames(excludeA);
         }
-        CharacterRunAutomaton exclude = new CharacterRunAutomaton(excludeA);
-
-        // NOTE: We cannot use Operations.minus because of the special case that
-        // we want all sub properties to match as soon as an object matches
-
-        return (map) -> filter(map,
-            include, 0,
-            exclude, 0,
-            matchAllAutomaton);
+        return new CharacterRunAutomaton(excludeA);
     }
 
     /** Make matches on objects also match dots in field names.
@@ -314,6 +348,157 @@ public class XContentMapValues {
         return filtered;
     }
 
+    /**
+     * Streaming counterpart of the map and iterable based filters above. The map based filter drops objects and arrays that end up
+     * empty, so the start of an object or an array is only written once one of its values is written. Until then it is kept on a
+     * stack of pending containers.
+     */
+    private static final class StreamingFilter {
+
+        private final XContentParser parser;
+        private final XContentBuilder builder;
+        private final CharacterRunAutomaton excludeAutomaton;
+        private final CharacterRunAutomaton matchAllAutomaton;
+        // field names of the containers that were entered, null for array elements
+        private final List<String> pendingNames = new ArrayList<>();
+        private final List<Boolean> pendingArrays = new ArrayList<>();
+        // number of entered containers that have been written to the builder
+        private int written = 0;
+
+        StreamingFilter(XContentParser parser, XContentBuilder builder,
+                        CharacterRunAutomaton excludeAutomaton, CharacterRunAutomaton matchAllAutomaton) {
+            this.parser = parser;
+            this.builder = builder;
+            this.excludeAutomaton = excludeAutomaton;
+            this.matchAllAutomaton = matchAllAutomaton;
+        }
+
+        void filterObject(CharacterRunAutomaton includeAutomaton, int initialIncludeState, int initialExcludeState) throws IOException {
+            for (XContentParser.Token token = parser.nextToken(); token != XContentParser.Token.END_OBJECT; token = parser.nextToken()) {
+                String key = parser.currentName();
+                token = parser.nextToken();
+
+                int includeState = step(includeAutomaton, key, initialIncludeState);
+                if (includeState == -1) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                int excludeState = step(excludeAutomaton, key, initialExcludeState);
+                if (excludeState != -1 && excludeAutomaton.isAccept(excludeState)) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                CharacterRunAutomaton subIncludeAutomaton = includeAutomaton;
+                int subIncludeState = includeState;
+                if (includeAutomaton.isAccept(includeState)) {
+                    if (excludeState == -1 || excludeAutomaton.step(excludeState, '.') == -1) {
+                        // the exclude has no chances to match inner properties
+                        writePending();
+                        builder.field(key);
+                        builder.copyCurrentStructure(parser);
+                        continue;
+                    } else {
+                        // the object matched, so consider that the include matches every inner property
+                        // we only care about excludes now
+                        subIncludeAutomaton = matchAllAutomaton;
+                        subIncludeState = 0;
+                    }
+                }
+
+                if (token == XContentParser.Token.START_OBJECT) {
+                    subIncludeState = subIncludeAutomaton.step(subIncludeState, '.');
+                    if (subIncludeState == -1) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    if (excludeState != -1) {
+                        excludeState = excludeAutomaton.step(excludeState, '.');
+                    }
+                    enter(key, false);
+                    if (includeAutomaton.isAccept(includeState)) {
+                        // the object matched, keep it even if all its properties get excluded
+                        writePending();
+                    }
+                    filterObject(subIncludeAutomaton, subIncludeState, excludeState);
+                    exit();
+                } else if (token == XContentParser.Token.START_ARRAY) {
+                    enter(key, true);
+                    filterArray(subIncludeAutomaton, subIncludeState, excludeState);
+                    exit();
+                } else if (includeAutomaton.isAccept(includeState)) {
+                    // leaf property
+                    writePending();
+                    builder.field(key);
+                    builder.copyCurrentStructure(parser);
+                }
+            }
+        }
+
+        private void filterArray(CharacterRunAutomaton includeAutomaton, int initialIncludeState,
+                                 int initialExcludeState) throws IOException {
+            boolean isInclude = includeAutomaton.isAccept(initialIncludeState);
+            for (XContentParser.Token token = parser.nextToken(); token != XContentParser.Token.END_ARRAY; token = parser.nextToken()) {
+                if (token == XContentParser.Token.START_OBJECT) {
+                    int includeState = includeAutomaton.step(initialIncludeState, '.');
+                    if (includeState == -1) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    int excludeState = initialExcludeState;
+                    if (excludeState != -1) {
+                        excludeState = excludeAutomaton.step(excludeState, '.');
+                    }
+                    enter(null, false);
+                    filterObject(includeAutomaton, includeState, excludeState);
+                    exit();
+                } else if (token == XContentParser.Token.START_ARRAY) {
+                    enter(null, true);
+                    filterArray(includeAutomaton, initialIncludeState, initialExcludeState);
+                    exit();
+                } else if (isInclude) {
+                    // #22557: only accept this array value if the key we are on is accepted:
+                    writePending();
+                    builder.copyCurrentStructure(parser);
+                }
+            }
+        }
+
+        private void enter(String name, boolean array) {
+            pendingNames.add(name);
+            pendingArrays.add(array);
+        }
+
+        private void exit() throws IOException {
+            int last = pendingNames.size() - 1;
+            if (last < written) {
+                if (pendingArrays.get(last)) {
+                    builder.endArray();
+                } else {
+                    builder.endObject();
+                }
+                written--;
+            }
+            pendingNames.remove(last);
+            pendingArrays.remove(last);
+        }
+
+        private void writePending() throws IOException {
+            for (; written < pendingNames.size(); written++) {
+                String name = pendingNames.get(written);
+                if (name != null) {
+                    builder.field(name);
+                }
+                if (pendingArrays.get(written)) {
+                    builder.startArray();
+                } else {
+                    builder.startObject();
+                }
+            }
+        }
+    }
+
     public static boolean isObject(Object node) {
         return node instanceof Map;
     }
@@ -19,6 +19,10 @@
 
 package org.elasticsearch.discovery;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.service.ClusterApplierStats;
+import org.elasticsearch.cluster.service.PendingTaskLatencyStats;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -33,21 +37,43 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
 
     private final PendingClusterStateStats queueStats;
     private final PublishClusterStateStats publishStats;
+    @Nullable
+    private final ClusterApplierStats applierStats;
+    @Nullable
+    private final PendingTaskLatencyStats pendingTaskLatencyStats;
 
     public DiscoveryStats(PendingClusterStateStats queueStats, PublishClusterStateStats publishStats) {
+        this(queueStats, publishStats, null, null);
+    }
+
+    public DiscoveryStats(PendingClusterStateStats queueStats, PublishClusterStateStats publishStats,
+                          @Nullable ClusterApplierStats applierStats, @Nullable PendingTaskLatencyStats pendingTaskLatencyStats) {
         this.queueStats = queueStats;
         this.publishStats = publishStats;
+        this.applierStats = applierStats;
+        this.pendingTaskLatencyStats = pendingTaskLatencyStats;
     }
 
     public DiscoveryStats(StreamInput in) throws IOException {
         queueStats = in.readOptionalWriteable(PendingClusterStateStats::new);
         publishStats = in.readOptionalWriteable(PublishClusterStateStats::new);
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            applierStats = in.readOptionalWriteable(ClusterApplierStats::new);
+            pendingTaskLatencyStats = in.readOptionalWriteable(PendingTaskLatencyStats::new);
+        } else {
+            applierStats = null;
+            pendingTaskLatencyStats = null;
+        }
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeOptionalWriteable(queueStats);
         out.writeOptionalWriteable(publishStats);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeOptionalWriteable(applierStats);
+            out.writeOptionalWriteable(pendingTaskLatencyStats);
+        }
     }
 
     @Override
@@ -59,6 +85,12 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
         if (publishStats != null) {
             publishStats.toXContent(builder, params);
         }
+        if (applierStats != null) {
+            applierStats.toXContent(builder, params);
+        }
+        if (pendingTaskLatencyStats != null) {
+            pendingTaskLatencyStats.toXContent(builder, params);
+        }
         builder.endObject();
         return builder;
     }
@@ -74,4 +106,14 @@ public class DiscoveryStats implements Writeable, ToXContentFragment {
     public PublishClusterStateStats getPublishStats() {
         return publishStats;
     }
+
+    @Nullable
+    public ClusterApplierStats getApplierStats() {
+        return applierStats;
+    }
+
+    @Nullable
+    public PendingTaskLatencyStats getPendingTaskLatencyStats() {
+        return pendingTaskLatencyStats;
+    }
 }
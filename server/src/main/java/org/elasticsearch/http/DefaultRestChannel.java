@@ -30,10 +30,14 @@ import org.elasticsearch.common.network.CloseableChannel;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.rest.AbstractRestChannel;
+import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestResponse;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -77,8 +81,22 @@ public class DefaultRestChannel extends AbstractRestChannel implements RestChann
     @Override
     public void sendResponse(RestResponse restResponse) {
         HttpResponse httpResponse;
+        final ChunkedRestResponseBody chunkedContent = restResponse.chunkedContent();
+        final boolean chunked = chunkedContent != null && RestRequest.Method.HEAD != request.method()
+            && httpRequest.supportsChunkedResponses();
         if (RestRequest.Method.HEAD == request.method()) {
             httpResponse = httpRequest.createResponse(restResponse.status(), BytesArray.EMPTY);
+        } else if (chunked) {
+            try {
+                // once the head is sent, a failure can only be reported by closing the connection, but most failures happen right away
+                chunkedContent.encodeFirstChunk(ChunkedRestResponseBody.CHUNK_SIZE_HINT, bigArrays);
+            } catch (Exception e) {
+                chunkedContent.close();
+                sendErrorResponse(e);
+                return;
+            }
+            // the body is serialized into pages of the http layer while it is being sent and has no known length
+            httpResponse = httpRequest.createChunkedResponse(restResponse.status(), chunkedContent);
         } else {
             httpResponse = httpRequest.createResponse(restResponse.status(), restResponse.content());
         }
@@ -95,20 +113,28 @@ public class DefaultRestChannel extends AbstractRestChannel implements RestChann
         addCustomHeaders(httpResponse, restResponse.getHeaders());
         addCustomHeaders(httpResponse, threadContext.getResponseHeaders());
 
-        ArrayList<Releasable> toClose = new ArrayList<>(3);
+        ArrayList<Releasable> toClose = new ArrayList<>(4);
+        // the request content is no longer needed once the response is sent
+        toClose.add(httpRequest::release);
 
         boolean success = false;
         try {
             // If our response doesn't specify a content-type header, set one
             setHeaderField(httpResponse, CONTENT_TYPE, restResponse.contentType(), false);
-            // If our response has no content-length, calculate and set one
-            setHeaderField(httpResponse, CONTENT_LENGTH, String.valueOf(restResponse.content().length()), false);
+            if (chunked == false) {
+                // If our response has no content-length, calculate and set one
+                setHeaderField(httpResponse, CONTENT_LENGTH, String.valueOf(restResponse.content().length()), false);
+            }
 
             addCookies(httpResponse);
 
-            BytesReference content = restResponse.content();
-            if (content instanceof Releasable) {
-                toClose.add((Releasable) content);
+            if (chunked) {
+                toClose.add(chunkedContent);
+            } else {
+                BytesReference content = restResponse.content();
+                if (content instanceof Releasable) {
+                    toClose.add((Releasable) content);
+                }
             }
             BytesStreamOutput bytesStreamOutput = bytesOutputOrNull();
             if (bytesStreamOutput instanceof ReleasableBytesStreamOutput) {
@@ -130,6 +156,17 @@ public class DefaultRestChannel extends AbstractRestChannel implements RestChann
 
     }
 
+    private void sendErrorResponse(Exception e) {
+        final RestResponse errorResponse;
+        try {
+            errorResponse = new BytesRestResponse(this, e);
+        } catch (IOException inner) {
+            inner.addSuppressed(e);
+            throw new UncheckedIOException(inner);
+        }
+        sendResponse(errorResponse);
+    }
+
     private void setHeaderField(HttpResponse response, String headerField, String value) {
         setHeaderField(response, headerField, value, true);
     }
@@ -20,6 +20,7 @@
 package org.elasticsearch.http;
 
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
 
@@ -62,4 +63,34 @@ public interface HttpRequest {
      */
     HttpResponse createResponse(RestStatus status, BytesReference content);
 
+    /**
+     * Whether responses to this request can be sent with a body that is serialized while it is being sent, see
+     * {@link #createChunkedResponse(RestStatus, ChunkedRestResponseBody)}.
+     */
+    default boolean supportsChunkedResponses() {
+        return false;
+    }
+
+    /**
+     * Create an http response from this request and the supplied status whose body is serialized and sent chunk by chunk.
+     */
+    default HttpResponse createChunkedResponse(RestStatus status, ChunkedRestResponseBody content) {
+        throw new UnsupportedOperationException("chunked responses are not supported");
+    }
+
+    /**
+     * Releases the buffers backing the {@link #content()} of this request, if it is backed by pooled buffers. The content must not
+     * be accessed anymore once this has been called. Calling this method more than once has no effect.
+     */
+    default void release() {
+    }
+
+    /**
+     * If this request is backed by pooled buffers, returns a copy of this request whose content is safe to retain and releases this
+     * request. Otherwise returns this request as is.
+     */
+    default HttpRequest releaseAndCopy() {
+        return this;
+    }
+
 }
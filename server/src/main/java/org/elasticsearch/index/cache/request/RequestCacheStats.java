@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.cache.request;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
@@ -35,6 +36,8 @@ public class RequestCacheStats implements Streamable, Writeable, ToXContentFragm
     private long evictions;
     private long hitCount;
     private long missCount;
+    private long uncompressedValuesSize;
+    private long compressedValuesSize;
 
     public RequestCacheStats() {
     }
@@ -44,13 +47,24 @@ public class RequestCacheStats implements Streamable, Writeable, ToXContentFragm
         evictions = in.readVLong();
         hitCount = in.readVLong();
         missCount = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            uncompressedValuesSize = in.readVLong();
+            compressedValuesSize = in.readVLong();
+        }
     }
 
     public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount) {
+        this(memorySize, evictions, hitCount, missCount, 0, 0);
+    }
+
+    public RequestCacheStats(long memorySize, long evictions, long hitCount, long missCount,
+                             long uncompressedValuesSize, long compressedValuesSize) {
         this.memorySize = memorySize;
         this.evictions = evictions;
         this.hitCount = hitCount;
         this.missCount = missCount;
+        this.uncompressedValuesSize = uncompressedValuesSize;
+        this.compressedValuesSize = compressedValuesSize;
     }
 
     public void add(RequestCacheStats stats) {
@@ -58,6 +72,8 @@ public class RequestCacheStats implements Streamable, Writeable, ToXContentFragm
         this.evictions += stats.evictions;
         this.hitCount += stats.hitCount;
         this.missCount += stats.missCount;
+        this.uncompressedValuesSize += stats.uncompressedValuesSize;
+        this.compressedValuesSize += stats.compressedValuesSize;
     }
 
     public long getMemorySizeInBytes() {
@@ -80,6 +96,28 @@ public class RequestCacheStats implements Streamable, Writeable, ToXContentFragm
         return this.missCount;
     }
 
+    /**
+     * The total length of the cached values before they were compressed.
+     */
+    public long getUncompressedValuesSizeInBytes() {
+        return this.uncompressedValuesSize;
+    }
+
+    /**
+     * The total length of the cached values as they are stored in the cache. Equal to
+     * {@link #getUncompressedValuesSizeInBytes()} unless the cache compresses values.
+     */
+    public long getCompressedValuesSizeInBytes() {
+        return this.compressedValuesSize;
+    }
+
+    /**
+     * The ratio between the uncompressed and the stored length of the cached values, {@code 1} if nothing is cached.
+     */
+    public double getCompressionRatio() {
+        return compressedValuesSize == 0 ? 1.0 : (double) uncompressedValuesSize / compressedValuesSize;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
@@ -91,6 +129,10 @@ public class RequestCacheStats implements Streamable, Writeable, ToXContentFragm
         out.writeVLong(evictions);
         out.writeVLong(hitCount);
         out.writeVLong(missCount);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(uncompressedValuesSize);
+            out.writeVLong(compressedValuesSize);
+        }
     }
 
     @Override
@@ -100,6 +142,7 @@ public class RequestCacheStats implements Streamable, Writeable, ToXContentFragm
         builder.field(Fields.EVICTIONS, getEvictions());
         builder.field(Fields.HIT_COUNT, getHitCount());
         builder.field(Fields.MISS_COUNT, getMissCount());
+        builder.field(Fields.COMPRESSION_RATIO, getCompressionRatio());
         builder.endObject();
         return builder;
     }
@@ -111,5 +154,6 @@ public class RequestCacheStats implements Streamable, Writeable, ToXContentFragm
         static final String EVICTIONS = "evictions";
         static final String HIT_COUNT = "hit_count";
         static final String MISS_COUNT = "miss_count";
+        static final String COMPRESSION_RATIO = "compression_ratio";
     }
 }
@@ -32,9 +32,12 @@ public final class ShardRequestCache {
     final CounterMetric totalMetric = new CounterMetric();
     final CounterMetric hitCount = new CounterMetric();
     final CounterMetric missCount = new CounterMetric();
+    final CounterMetric uncompressedValuesMetric = new CounterMetric();
+    final CounterMetric compressedValuesMetric = new CounterMetric();
 
     public RequestCacheStats stats() {
-        return new RequestCacheStats(totalMetric.count(), evictionsMetric.count(), hitCount.count(), missCount.count());
+        return new RequestCacheStats(totalMetric.count(), evictionsMetric.count(), hitCount.count(), missCount.count(),
+            uncompressedValuesMetric.count(), compressedValuesMetric.count());
     }
 
     public void onHit() {
@@ -45,11 +48,17 @@ public final class ShardRequestCache {
         missCount.inc();
     }
 
-    public void onCached(Accountable key, BytesReference value) {
+    /**
+     * @param storedValueLength the number of bytes the value takes once stored in the cache, which is smaller than its length
+     *                          if the cache compresses values
+     */
+    public void onCached(Accountable key, BytesReference value, long storedValueLength) {
         totalMetric.inc(key.ramBytesUsed() + value.ramBytesUsed());
+        uncompressedValuesMetric.inc(value.length());
+        compressedValuesMetric.inc(storedValueLength);
     }
 
-    public void onRemoval(Accountable key, BytesReference value, boolean evicted) {
+    public void onRemoval(Accountable key, BytesReference value, long storedValueLength, boolean evicted) {
         if (evicted) {
             evictionsMetric.inc();
         }
@@ -59,6 +68,8 @@ public final class ShardRequestCache {
         }
         if (value != null) {
             dec += value.ramBytesUsed();
+            uncompressedValuesMetric.dec(value.length());
+            compressedValuesMetric.dec(storedValueLength);
         }
         totalMetric.dec(dec);
     }
@@ -0,0 +1,314 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.ByteArray;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps _uid values to the version, seq# and term of the last index operation, without allocating objects per entry.
+ * <p>
+ * The map is split into stripes by the hash of the uid, each of which is a {@link BytesRefHash} that copies the uid bytes into
+ * paged arrays and assigns it a dense id, plus one {@link BigArrays}-backed array per field that is indexed by that id. Each stripe
+ * is protected by its own monitor; callers additionally hold the per-uid lock of {@link LiveVersionMap}, so a stripe is only
+ * contended by operations on different uids that hash to the same stripe.
+ * <p>
+ * Entries can be removed but the space they take is only reclaimed once the whole map is discarded, which happens on every
+ * refresh for the maps that {@link LiveVersionMap} uses this class for.
+ * <p>
+ * Values are immutable, so each stripe keeps the most recently put or looked up value in a small direct-mapped table indexed by
+ * entry id and hands the same instance out again instead of rebuilding it from the packed arrays on every lookup.
+ */
+final class PackedVersionMap implements Releasable {
+
+    /**
+     * Approximate bytes used per entry, not including the bytes of the uid itself: five longs, an int and a byte for the values,
+     * the start offset and cached hash of the uid in the {@link BytesRefHash}, and about two id slots given its maximum load factor.
+     */
+    static final long BYTES_PER_ENTRY = 5 * Long.BYTES + Integer.BYTES + Byte.BYTES + Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    // the states of an entry
+    private static final byte REMOVED = 0;
+    private static final byte NO_LOCATION = 1;
+    private static final byte HAS_LOCATION = 2;
+
+    // the number of slots of the per-stripe table of recent values, a power of two
+    private static final int RECENT_VALUES = 32;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+
+    PackedVersionMap(int numberOfStripes, int expectedSize) {
+        if (numberOfStripes <= 0 || Integer.bitCount(numberOfStripes) != 1) {
+            throw new IllegalArgumentException("numberOfStripes must be a positive power of two but was [" + numberOfStripes + "]");
+        }
+        stripes = new Stripe[numberOfStripes];
+        final int expectedSizePerStripe = Math.max(16, expectedSize / numberOfStripes);
+        for (int i = 0; i < numberOfStripes; i++) {
+            stripes[i] = new Stripe(expectedSizePerStripe);
+        }
+        // the BytesRefHash picks slots with the low bits of the hash, so stripes use the high bits
+        stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(numberOfStripes);
+    }
+
+    /**
+     * The default number of stripes: twice the number of available processors rounded up to a power of two, capped at 64.
+     */
+    static int defaultNumberOfStripes() {
+        final int processors = Math.max(1, Runtime.getRuntime().availableProcessors());
+        return Math.min(64, Integer.highestOneBit(2 * processors - 1) << 1);
+    }
+
+    /**
+     * Returns the value for the given uid, or {@code null} if there is none or it was removed.
+     */
+    IndexVersionValue get(BytesRef uid) {
+        final int hash = uid.hashCode();
+        final Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.get(uid, hash);
+        }
+    }
+
+    /**
+     * Associates the given value with the given uid.
+     *
+     * @return the number of bytes this map grew by
+     */
+    long put(BytesRef uid, IndexVersionValue value) {
+        final int hash = uid.hashCode();
+        final Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.put(uid, hash, value);
+        }
+    }
+
+    /**
+     * Removes the value for the given uid.
+     *
+     * @return {@code true} if there was a value for the uid
+     */
+    boolean remove(BytesRef uid) {
+        final int hash = uid.hashCode();
+        final Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            return stripe.remove(uid, hash);
+        }
+    }
+
+    /**
+     * The number of uids that have a value.
+     */
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.live;
+            }
+        }
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Copies all entries into a map, for tests and assertions.
+     */
+    Map<BytesRef, VersionValue> toMap() {
+        final Map<BytesRef, VersionValue> map = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.copyTo(map);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public void close() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.close();
+            }
+        }
+    }
+
+    private Stripe stripe(int hash) {
+        return stripeShift == Integer.SIZE ? stripes[0] : stripes[hash >>> stripeShift];
+    }
+
+    private static final class Stripe implements Releasable {
+        private final BigArrays bigArrays = BigArrays.NON_RECYCLING_INSTANCE;
+        private final int expectedSize;
+        // allocated lazily since most stripes stay empty when the map is not in safe access mode
+        private BytesRefHash uids;
+        private LongArray versions;
+        private LongArray seqNos;
+        private LongArray terms;
+        private LongArray locationGenerations;
+        private LongArray locationOffsets;
+        private IntArray locationSizes;
+        private ByteArray states;
+        private int live;
+        // the ids and values of recent puts and lookups, see valueOf
+        private long[] recentIds;
+        private IndexVersionValue[] recentValues;
+        // reused when copying uids out of the hash
+        private final BytesRef scratchUid = new BytesRef();
+
+        Stripe(int expectedSize) {
+            this.expectedSize = expectedSize;
+        }
+
+        private void allocate() {
+            uids = new BytesRefHash(expectedSize, bigArrays);
+            versions = bigArrays.newLongArray(expectedSize, false);
+            seqNos = bigArrays.newLongArray(expectedSize, false);
+            terms = bigArrays.newLongArray(expectedSize, false);
+            locationGenerations = bigArrays.newLongArray(expectedSize, false);
+            locationOffsets = bigArrays.newLongArray(expectedSize, false);
+            locationSizes = bigArrays.newIntArray(expectedSize, false);
+            states = bigArrays.newByteArray(expectedSize, false);
+            recentIds = new long[RECENT_VALUES];
+            recentValues = new IndexVersionValue[RECENT_VALUES];
+        }
+
+        IndexVersionValue get(BytesRef uid, int hash) {
+            if (uids == null) {
+                return null;
+            }
+            final long id = uids.find(uid, hash);
+            if (id < 0 || states.get(id) == REMOVED) {
+                return null;
+            }
+            return valueOf(id);
+        }
+
+        long put(BytesRef uid, int hash, IndexVersionValue value) {
+            if (uids == null) {
+                allocate();
+            }
+            long id = uids.add(uid, hash);
+            long grownBy = 0;
+            if (id < 0) {
+                id = -1 - id;
+                if (states.get(id) == REMOVED) {
+                    live++;
+                }
+            } else {
+                grow(id + 1);
+                live++;
+                grownBy = BYTES_PER_ENTRY + uid.length;
+            }
+            versions.set(id, value.version);
+            seqNos.set(id, value.seqNo);
+            terms.set(id, value.term);
+            final Translog.Location location = value.getLocation();
+            if (location == null) {
+                states.set(id, NO_LOCATION);
+            } else {
+                locationGenerations.set(id, location.generation);
+                locationOffsets.set(id, location.translogLocation);
+                locationSizes.set(id, location.size);
+                states.set(id, HAS_LOCATION);
+            }
+            final int slot = recentSlot(id);
+            recentIds[slot] = id;
+            recentValues[slot] = value;
+            return grownBy;
+        }
+
+        boolean remove(BytesRef uid, int hash) {
+            if (uids == null) {
+                return false;
+            }
+            final long id = uids.find(uid, hash);
+            if (id < 0 || states.get(id) == REMOVED) {
+                return false;
+            }
+            states.set(id, REMOVED);
+            final int slot = recentSlot(id);
+            if (recentIds[slot] == id) {
+                recentValues[slot] = null;
+            }
+            live--;
+            return true;
+        }
+
+        void copyTo(Map<BytesRef, VersionValue> map) {
+            if (uids == null) {
+                return;
+            }
+            for (long id = 0; id < uids.size(); id++) {
+                if (states.get(id) != REMOVED) {
+                    map.put(BytesRef.deepCopyOf(uids.get(id, scratchUid)), valueOf(id));
+                }
+            }
+        }
+
+        /**
+         * Returns the value of a live entry, only building a new one from the packed arrays if its slot in the table of recent
+         * values holds another entry. Puts and removes keep the table in sync so a cached value is never stale.
+         */
+        private IndexVersionValue valueOf(long id) {
+            final int slot = recentSlot(id);
+            IndexVersionValue value = recentValues[slot];
+            if (value == null || recentIds[slot] != id) {
+                final Translog.Location location = states.get(id) == NO_LOCATION ? null
+                    : new Translog.Location(locationGenerations.get(id), locationOffsets.get(id), locationSizes.get(id));
+                value = new IndexVersionValue(location, versions.get(id), seqNos.get(id), terms.get(id));
+                recentIds[slot] = id;
+                recentValues[slot] = value;
+            }
+            return value;
+        }
+
+        private static int recentSlot(long id) {
+            return (int) id & (RECENT_VALUES - 1);
+        }
+
+        private void grow(long minSize) {
+            versions = bigArrays.grow(versions, minSize);
+            seqNos = bigArrays.grow(seqNos, minSize);
+            terms = bigArrays.grow(terms, minSize);
+            locationGenerations = bigArrays.grow(locationGenerations, minSize);
+            locationOffsets = bigArrays.grow(locationOffsets, minSize);
+            locationSizes = bigArrays.grow(locationSizes, minSize);
+            states = bigArrays.grow(states, minSize);
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(uids, versions, seqNos, terms, locationGenerations, locationOffsets, locationSizes, states);
+        }
+    }
+}
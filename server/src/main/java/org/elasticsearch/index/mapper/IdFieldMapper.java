@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.mapper;
 
+import org.apache.lucene.document.BinaryDocValuesField;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexableField;
@@ -29,6 +30,8 @@ import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermInSetQuery;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexSettings;
@@ -60,6 +63,13 @@ public class IdFieldMapper extends MetadataFieldMapper {
 
     public static final String CONTENT_TYPE = "_id";
 
+    /**
+     * Whether the {@code _id} of root documents is also indexed as binary doc values, so that hits that only need their {@code _id}
+     * and doc value fields can be fetched without reading stored fields.
+     */
+    public static final Setting<Boolean> DOC_VALUES_SETTING =
+        Setting.boolSetting("index.mapping.id.doc_values", false, Property.IndexScope, Property.Final);
+
     public static class Defaults {
         public static final String NAME = IdFieldMapper.NAME;
 
@@ -259,8 +269,11 @@ public class IdFieldMapper extends MetadataFieldMapper {
         this(existing == null ? defaultFieldType(indexSettings) : existing, indexSettings);
     }
 
+    private final boolean docValues;
+
     private IdFieldMapper(MappedFieldType fieldType, IndexSettings indexSettings) {
         super(NAME, fieldType, defaultFieldType(indexSettings), indexSettings.getSettings());
+        this.docValues = DOC_VALUES_SETTING.get(indexSettings.getSettings());
     }
 
     @Override
@@ -273,6 +286,10 @@ public class IdFieldMapper extends MetadataFieldMapper {
         if (fieldType.indexOptions() != IndexOptions.NONE || fieldType.stored()) {
             BytesRef id = Uid.encodeId(context.sourceToParse().id());
             fields.add(new Field(NAME, id, fieldType));
+            if (docValues) {
+                // added after the indexed field, which nested documents copy from their root document
+                fields.add(new BinaryDocValuesField(NAME, id));
+            }
         }
     }
 
@@ -121,6 +121,7 @@ import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.Store.MetadataSnapshot;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.store.StoreStats;
+import org.elasticsearch.index.translog.SyncWaitHistogram;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.index.translog.TranslogStats;
@@ -128,6 +129,7 @@ import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.indices.IndexingMemoryController;
 import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.indices.TranslogSyncScheduler;
 import org.elasticsearch.indices.TypeMissingException;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
@@ -155,11 +157,14 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
@@ -174,6 +179,11 @@ import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
 
 public class IndexShard extends AbstractIndexShardComponent implements IndicesClusterStateService.Shard {
 
+    private static final int TRANSLOG_RECOVERY_QUEUE_SIZE = 1024;
+    private static final long TRANSLOG_RECOVERY_POLL_INTERVAL_MILLIS = 100;
+    // marks the end of the operations handed to a translog recovery worker, compared by identity
+    private static final Translog.Operation END_OF_TRANSLOG_RECOVERY = new Translog.NoOp(Long.MAX_VALUE, 0, "end of translog recovery");
+
     private final ThreadPool threadPool;
     private final MapperService mapperService;
     private final IndexCache indexCache;
@@ -229,6 +239,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final ShardEventListener shardEventListener = new ShardEventListener();
 
     private final ShardPath path;
+    private final TranslogSyncScheduler translogSyncScheduler;
+    private final SyncWaitHistogram translogSyncWaits = new SyncWaitHistogram();
 
     private final IndexShardOperationPermits indexShardOperationPermits;
 
@@ -276,7 +288,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             final List<IndexingOperationListener> listeners,
             final Runnable globalCheckpointSyncer,
             final RetentionLeaseSyncer retentionLeaseSyncer,
-            final CircuitBreakerService circuitBreakerService) throws IOException {
+            final CircuitBreakerService circuitBreakerService,
+            final TranslogSyncScheduler translogSyncScheduler) throws IOException {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
         this.shardRouting = shardRouting;
@@ -309,6 +322,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         state = IndexShardState.CREATED;
         this.path = path;
         this.circuitBreakerService = circuitBreakerService;
+        this.translogSyncScheduler = translogSyncScheduler;
         /* create engine config */
         logger.debug("state: [CREATED]");
 
@@ -1020,7 +1034,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     }
 
     public TranslogStats translogStats() {
-        return getEngine().getTranslogStats();
+        return getEngine().getTranslogStats().withSyncWaits(translogSyncWaits.snapshot());
     }
 
     public CompletionStats completionStats(String... fields) {
@@ -1351,35 +1365,165 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      */
     int runTranslogRecovery(Engine engine, Translog.Snapshot snapshot, Engine.Operation.Origin origin,
                             Runnable onOperationRecovered) throws IOException {
+        final int recoveryThreads = translogRecoveryThreads(origin);
+        if (recoveryThreads > 1) {
+            return runTranslogRecoveryInParallel(engine, snapshot, origin, onOperationRecovered, recoveryThreads);
+        }
         int opsRecovered = 0;
         Translog.Operation operation;
         while ((operation = snapshot.next()) != null) {
+            if (recoverTranslogOperation(engine, operation, origin)) {
+                opsRecovered++;
+                onOperationRecovered.run();
+            }
+        }
+        return opsRecovered;
+    }
+
+    /**
+     * Returns the number of threads that replay the translog for the given {@code origin}. Only local translog recovery is replayed in
+     * parallel. Nested documents and routing partitioned indices are always replayed sequentially as their operations can not be
+     * safely partitioned by document id.
+     */
+    private int translogRecoveryThreads(Engine.Operation.Origin origin) {
+        if (origin != Engine.Operation.Origin.LOCAL_TRANSLOG_RECOVERY
+            || mapperService.hasNested()
+            || indexSettings.getIndexMetaData().isRoutingPartitionedIndex()) {
+            return 1;
+        }
+        return indexSettings.getTranslogRecoveryThreads();
+    }
+
+    /**
+     * Replays the translog on {@code recoveryThreads} workers of the generic thread pool. The calling thread reads the snapshot and
+     * partitions the operations by document id (no-ops by sequence number) into bounded per-worker queues, so that all operations on
+     * the same document are applied in translog order. The engine's local checkpoint tracker takes care of the sequence numbers that
+     * are completed out of order across workers.
+     */
+    private int runTranslogRecoveryInParallel(Engine engine, Translog.Snapshot snapshot, Engine.Operation.Origin origin,
+                                              Runnable onOperationRecovered, int recoveryThreads) throws IOException {
+        final AtomicInteger opsRecovered = new AtomicInteger();
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final CountDownLatch workersDone = new CountDownLatch(recoveryThreads);
+        final List<BlockingQueue<Translog.Operation>> queues = new ArrayList<>(recoveryThreads);
+        for (int i = 0; i < recoveryThreads; i++) {
+            final BlockingQueue<Translog.Operation> queue = new ArrayBlockingQueue<>(TRANSLOG_RECOVERY_QUEUE_SIZE);
+            queues.add(queue);
+            threadPool.generic().execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() throws Exception {
+                    while (failure.get() == null) {
+                        final Translog.Operation operation = queue.poll(TRANSLOG_RECOVERY_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                        if (operation == END_OF_TRANSLOG_RECOVERY) {
+                            return;
+                        } else if (operation != null && recoverTranslogOperation(engine, operation, origin)) {
+                            opsRecovered.incrementAndGet();
+                            onOperationRecovered.run();
+                        }
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    if (failure.compareAndSet(null, e) == false) {
+                        failure.get().addSuppressed(e);
+                    }
+                }
+
+                @Override
+                public void onAfter() {
+                    workersDone.countDown();
+                }
+            });
+        }
+        try {
+            Translog.Operation operation;
+            while (failure.get() == null && (operation = snapshot.next()) != null) {
+                final String id = translogOperationId(operation);
+                final int hash = id != null ? id.hashCode() : Long.hashCode(operation.seqNo());
+                putTranslogRecoveryOperation(queues.get(Math.floorMod(hash, recoveryThreads)), operation, failure);
+            }
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            for (BlockingQueue<Translog.Operation> queue : queues) {
+                putTranslogRecoveryOperation(queue, END_OF_TRANSLOG_RECOVERY, failure);
+            }
             try {
-                logger.trace("[translog] recover op {}", operation);
-                Engine.Result result = applyTranslogOperation(engine, operation, origin);
-                switch (result.getResultType()) {
-                    case FAILURE:
-                        throw result.getFailure();
-                    case MAPPING_UPDATE_REQUIRED:
-                        throw new IllegalArgumentException("unexpected mapping update: " + result.getRequiredMappingUpdate());
-                    case SUCCESS:
+                // the workers may be blocked on the engine lock if the shard is closed concurrently, stop waiting for them if so
+                while (workersDone.await(TRANSLOG_RECOVERY_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS) == false) {
+                    if (state == IndexShardState.CLOSED) {
+                        failure.compareAndSet(null, new IndexShardClosedException(shardId));
                         break;
-                    default:
-                        throw new AssertionError("Unknown result type [" + result.getResultType() + "]");
+                    }
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+            }
+        }
+        if (failure.get() != null) {
+            throw ExceptionsHelper.convertToRuntime(failure.get());
+        }
+        return opsRecovered.get();
+    }
 
-                opsRecovered++;
-                onOperationRecovered.run();
-            } catch (Exception e) {
-                if (ExceptionsHelper.status(e) == RestStatus.BAD_REQUEST) {
-                    // mainly for MapperParsingException and Failure to detect xcontent
-                    logger.info("ignoring recovery of a corrupt translog entry", e);
-                } else {
-                    throw ExceptionsHelper.convertToRuntime(e);
+    private void putTranslogRecoveryOperation(BlockingQueue<Translog.Operation> queue, Translog.Operation operation,
+                                              AtomicReference<Exception> failure) {
+        try {
+            while (queue.offer(operation, TRANSLOG_RECOVERY_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS) == false) {
+                if (failure.get() != null) {
+                    return; // workers stop polling once a failure is recorded
+                }
+                if (state == IndexShardState.CLOSED) {
+                    failure.compareAndSet(null, new IndexShardClosedException(shardId));
+                    return;
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private static String translogOperationId(Translog.Operation operation) {
+        switch (operation.opType()) {
+            case INDEX:
+                return ((Translog.Index) operation).id();
+            case DELETE:
+                return ((Translog.Delete) operation).id();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Applies a single translog operation during translog recovery. Returns {@code false} if the operation is corrupt and was skipped.
+     */
+    private boolean recoverTranslogOperation(Engine engine, Translog.Operation operation, Engine.Operation.Origin origin) {
+        try {
+            logger.trace("[translog] recover op {}", operation);
+            Engine.Result result = applyTranslogOperation(engine, operation, origin);
+            switch (result.getResultType()) {
+                case FAILURE:
+                    throw result.getFailure();
+                case MAPPING_UPDATE_REQUIRED:
+                    throw new IllegalArgumentException("unexpected mapping update: " + result.getRequiredMappingUpdate());
+                case SUCCESS:
+                    break;
+                default:
+                    throw new AssertionError("Unknown result type [" + result.getResultType() + "]");
+            }
+            return true;
+        } catch (Exception e) {
+            if (ExceptionsHelper.status(e) == RestStatus.BAD_REQUEST) {
+                // mainly for MapperParsingException and Failure to detect xcontent
+                logger.info("ignoring recovery of a corrupt translog entry", e);
+                return false;
+            } else {
+                throw ExceptionsHelper.convertToRuntime(e);
+            }
         }
-        return opsRecovered;
     }
 
     /**
@@ -2775,18 +2919,22 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return indexShardOperationPermits.getActiveOperations();
     }
 
+    private final TranslogSyncScheduler.Target translogSyncTarget = locations -> {
+        try {
+            getEngine().ensureTranslogSynced(locations);
+        } catch (AlreadyClosedException ex) {
+            // that's fine since we already synced everything on engine close - this also is conform with the methods
+            // documentation
+        } catch (IOException ex) { // if this fails we are in deep shit - fail the request
+            logger.debug("failed to sync translog", ex);
+            throw ex;
+        }
+    };
+
     private final AsyncIOProcessor<Translog.Location> translogSyncProcessor = new AsyncIOProcessor<Translog.Location>(logger, 1024) {
         @Override
         protected void write(List<Tuple<Translog.Location, Consumer<Exception>>> candidates) throws IOException {
-            try {
-                getEngine().ensureTranslogSynced(candidates.stream().map(Tuple::v1));
-            } catch (AlreadyClosedException ex) {
-                // that's fine since we already synced everything on engine close - this also is conform with the methods
-                // documentation
-            } catch (IOException ex) { // if this fails we are in deep shit - fail the request
-                logger.debug("failed to sync translog", ex);
-                throw ex;
-            }
+            translogSyncTarget.sync(candidates.stream().map(Tuple::v1));
         }
     };
 
@@ -2796,12 +2944,23 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * the transaction log the caller thread will be hijacked to run the fsync for all pending fsync operations.
      * This method allows indexing threads to continue indexing without blocking on fsync calls. We ensure that there is only
      * one thread blocking on the sync an all others can continue indexing.
+     * If the node's {@link TranslogSyncScheduler} is enabled, the sync is instead delayed to be coalesced with other syncs of this and
+     * other shards on the same data path.
      * NOTE: if the syncListener throws an exception when it's processed the exception will only be logged. Users should make sure that the
      * listener handles all exception cases internally.
      */
     public final void sync(Translog.Location location, Consumer<Exception> syncListener) {
         verifyNotClosed();
-        translogSyncProcessor.put(location, syncListener);
+        final long startNanos = System.nanoTime();
+        final Consumer<Exception> listener = e -> {
+            translogSyncWaits.record(System.nanoTime() - startNanos);
+            syncListener.accept(e);
+        };
+        if (translogSyncScheduler.isEnabled()) {
+            translogSyncScheduler.schedule(path.getRootDataPath(), translogSyncTarget, location, listener);
+        } else {
+            translogSyncProcessor.put(location, listener);
+        }
     }
 
     public void sync() throws IOException {
@@ -2978,6 +3137,14 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return lastSearcherAccess.get();
     }
 
+    /**
+     * Returns the location of the last operation written to the translog of this shard, refreshing up to it makes all the
+     * operations that the shard has written so far visible.
+     */
+    public Translog.Location getTranslogLastWriteLocation() {
+        return getEngine().getTranslogLastWriteLocation();
+    }
+
     private void setRefreshPending(Engine engine) {
         Translog.Location lastWriteLocation = engine.getTranslogLastWriteLocation();
         Translog.Location location;
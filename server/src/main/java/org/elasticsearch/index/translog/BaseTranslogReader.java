@@ -113,7 +113,13 @@ public abstract class BaseTranslogReader implements Comparable<BaseTranslogReade
     }
 
     protected Translog.Operation read(BufferedChecksumStreamInput inStream) throws IOException {
-        final Translog.Operation op = Translog.readOperation(inStream);
+        return verifyPrimaryTerm(Translog.readOperation(inStream));
+    }
+
+    /**
+     * Checks that the given operation, which was read from this translog file, does not have a newer term than the translog header.
+     */
+    protected final Translog.Operation verifyPrimaryTerm(Translog.Operation op) throws TranslogCorruptedException {
         if (op.primaryTerm() > getPrimaryTerm() && getPrimaryTerm() != SequenceNumbers.UNASSIGNED_PRIMARY_TERM) {
             throw new TranslogCorruptedException(
                     path.toString(),
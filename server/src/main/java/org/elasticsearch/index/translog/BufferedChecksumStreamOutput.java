@@ -20,6 +20,10 @@
 package org.elasticsearch.index.translog;
 
 import org.apache.lucene.store.BufferedChecksum;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefIterator;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
 import java.io.IOException;
@@ -55,6 +59,22 @@ public final class BufferedChecksumStreamOutput extends StreamOutput {
         digest.update(b, offset, length);
     }
 
+    @Override
+    public void writeBytesReference(@Nullable BytesReference bytes) throws IOException {
+        if (bytes != null && out instanceof GatheringBytesStreamOutput && ((GatheringBytesStreamOutput) out).isGathered(bytes)) {
+            // checksum the bytes in place and let the underlying output keep them by reference
+            writeVInt(bytes.length());
+            final BytesRefIterator iterator = bytes.iterator();
+            BytesRef ref;
+            while ((ref = iterator.next()) != null) {
+                digest.update(ref.bytes, ref.offset, ref.length);
+            }
+            ((GatheringBytesStreamOutput) out).writeReference(bytes);
+        } else {
+            super.writeBytesReference(bytes);
+        }
+    }
+
     @Override
     public void flush() throws IOException {
         out.flush();
@@ -0,0 +1,136 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.util.BigArrays;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link StreamOutput} that buffers small writes in paged bytes but keeps large {@link BytesReference}s, such as document
+ * sources, by reference instead of copying them. {@link #bytes()} stitches the buffered bytes and the references back together
+ * in write order, so the serialized operation can be written out without an intermediate copy of its source.
+ * <p>
+ * The references are not retained beyond {@link #bytes()}: callers must consume the returned bytes while the referenced
+ * buffers are still valid, and close this stream afterwards to release the paged buffer.
+ */
+final class GatheringBytesStreamOutput extends StreamOutput implements Releasable {
+
+    private final ReleasableBytesStreamOutput buffer;
+    private final int minReferenceLength;
+    private final List<BytesReference> references = new ArrayList<>();
+    private final List<Integer> referenceOffsets = new ArrayList<>();
+    private long referencedBytes;
+
+    /**
+     * @param minReferenceLength references shorter than this are copied into the buffer, as doing so is cheaper than keeping
+     *                           track of them
+     */
+    GatheringBytesStreamOutput(BigArrays bigArrays, int minReferenceLength) {
+        this.buffer = new ReleasableBytesStreamOutput(bigArrays);
+        this.minReferenceLength = minReferenceLength;
+    }
+
+    /**
+     * Returns whether the given bytes would be kept by reference rather than copied into the buffer.
+     */
+    boolean isGathered(BytesReference bytes) {
+        return bytes.length() >= minReferenceLength;
+    }
+
+    /**
+     * Appends the given bytes, without a length header, by reference if they are large enough and by copying them otherwise.
+     */
+    void writeReference(BytesReference bytes) throws IOException {
+        if (isGathered(bytes)) {
+            references.add(bytes);
+            referenceOffsets.add(Math.toIntExact(buffer.position()));
+            referencedBytes += bytes.length();
+        } else {
+            bytes.writeTo(buffer);
+        }
+    }
+
+    @Override
+    public void writeByte(byte b) throws IOException {
+        buffer.writeByte(b);
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) {
+        buffer.writeBytes(b, offset, length);
+    }
+
+    @Override
+    public long position() throws IOException {
+        return buffer.position() + referencedBytes;
+    }
+
+    /**
+     * Returns the bytes written so far. The returned reference is only valid until this stream is closed or reset.
+     */
+    BytesReference bytes() {
+        final BytesReference buffered = buffer.bytes();
+        if (references.isEmpty()) {
+            return buffered;
+        }
+        final List<BytesReference> parts = new ArrayList<>(references.size() * 2 + 1);
+        int from = 0;
+        for (int i = 0; i < references.size(); i++) {
+            final int to = referenceOffsets.get(i);
+            if (to > from) {
+                parts.add(buffered.slice(from, to - from));
+            }
+            parts.add(references.get(i));
+            from = to;
+        }
+        if (buffered.length() > from) {
+            parts.add(buffered.slice(from, buffered.length() - from));
+        }
+        return new CompositeBytesReference(parts.toArray(new BytesReference[0]));
+    }
+
+    @Override
+    public void flush() {
+        // nothing to do
+    }
+
+    @Override
+    public void reset() {
+        buffer.reset();
+        references.clear();
+        referenceOffsets.clear();
+        referencedBytes = 0;
+    }
+
+    @Override
+    public void close() {
+        references.clear();
+        referenceOffsets.clear();
+        buffer.close();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.translog;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records how long callers waited for their translog locations to be synced, in buckets of exponentially growing width: bucket
+ * {@code i > 0} counts waits of {@code [2^(i-1), 2^i)} microseconds and bucket {@code 0} counts waits shorter than a microsecond.
+ * Bucket counts can be summed across shards, which keeps percentiles meaningful in aggregated {@link TranslogStats}.
+ */
+public final class SyncWaitHistogram {
+
+    static final int NUM_BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+
+    public void record(long waitNanos) {
+        counts.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(waitNanos)));
+    }
+
+    /**
+     * Returns a copy of the current bucket counts.
+     */
+    public long[] snapshot() {
+        final long[] snapshot = new long[NUM_BUCKETS];
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    static int bucket(long waitMicros) {
+        return Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0L, waitMicros)));
+    }
+
+    /**
+     * Returns the upper bound, in microseconds, of the bucket holding the given percentile of the given bucket counts, or {@code 0}
+     * if nothing was recorded.
+     */
+    static long percentileMicros(long[] counts, double percentile) {
+        assert percentile > 0 && percentile <= 100 : percentile;
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        throw new AssertionError("rank [" + rank + "] is beyond the total count [" + total + "]");
+    }
+}
@@ -23,16 +23,20 @@ import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.bytes.ReleasablePagedBytesReference;
+import org.elasticsearch.common.io.stream.ByteBufferStreamInput;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
@@ -48,6 +52,7 @@ import org.elasticsearch.index.shard.ShardId;
 import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -69,6 +74,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 /**
  * A Translog is a per index shard component that records all non-committed index operations in a durable manner.
@@ -114,6 +120,10 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
 
     static final Pattern PARSE_STRICT_ID_PATTERN = Pattern.compile("^" + TRANSLOG_FILE_PREFIX + "(\\d+)(\\.tlog)$");
     public static final int DEFAULT_HEADER_SIZE_IN_BYTES = TranslogHeader.headerSizeInBytes(UUIDs.randomBase64UUID());
+    /**
+     * Sources at least this long are written to the translog by reference instead of being copied into the operation buffer first.
+     */
+    static final int MIN_GATHERED_SOURCE_LENGTH = 1024;
 
     // the list of translog readers is guaranteed to be in order of translog generation
     private final List<TranslogReader> readers = new ArrayList<>();
@@ -129,6 +139,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     private final LongSupplier globalCheckpointSupplier;
     private final LongSupplier primaryTermSupplier;
     private final String translogUUID;
+    private final CounterMetric syncCount = new CounterMetric();
+    private final CounterMetric syncedOperations = new CounterMetric();
     private final TranslogDeletionPolicy deletionPolicy;
 
     /**
@@ -505,13 +517,18 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
                 getChannelFactory(),
                 config.getBufferSize(),
                 initialMinTranslogGen, initialGlobalCheckpoint,
-                globalCheckpointSupplier, this::getMinFileGeneration, primaryTermSupplier.getAsLong(), tragedy);
+                globalCheckpointSupplier, this::getMinFileGeneration, this::onSync, primaryTermSupplier.getAsLong(), tragedy);
         } catch (final IOException e) {
             throw new TranslogException(shardId, "failed to create new translog file", e);
         }
         return newFile;
     }
 
+    private void onSync(long operations) {
+        syncCount.inc();
+        syncedOperations.inc(operations);
+    }
+
     /**
      * Adds an operation to the transaction log.
      *
@@ -520,17 +537,12 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
      * @throws IOException if adding the operation to the translog resulted in an I/O exception
      */
     public Location add(final Operation operation) throws IOException {
-        final ReleasableBytesStreamOutput out = new ReleasableBytesStreamOutput(bigArrays);
+        // large sources are not copied into the buffer but written straight from the request's bytes
+        final GatheringBytesStreamOutput out = new GatheringBytesStreamOutput(bigArrays, MIN_GATHERED_SOURCE_LENGTH);
         try {
-            final long start = out.position();
-            out.skip(Integer.BYTES);
             writeOperationNoSize(new BufferedChecksumStreamOutput(out), operation);
-            final long end = out.position();
-            final int operationSize = (int) (end - Integer.BYTES - start);
-            out.seek(start);
-            out.writeInt(operationSize);
-            out.seek(end);
-            final ReleasablePagedBytesReference bytes = out.bytes();
+            final int operationSize = Math.toIntExact(out.position());
+            final BytesReference bytes = new CompositeBytesReference(new BytesArray(Numbers.intToBytes(operationSize)), out.bytes());
             try (ReleasableLock ignored = readLock.acquire()) {
                 ensureOpen();
                 if (operation.primaryTerm() > current.getPrimaryTerm()) {
@@ -856,7 +868,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         try (ReleasableLock lock = readLock.acquire()) {
             final long uncommittedGen = deletionPolicy.getTranslogGenerationOfLastCommit();
             return new TranslogStats(totalOperations(), sizeInBytes(), totalOperationsByMinGen(uncommittedGen),
-                sizeInBytesByMinGen(uncommittedGen), earliestLastModifiedAge());
+                sizeInBytesByMinGen(uncommittedGen), earliestLastModifiedAge(), syncCount.count(), syncedOperations.count(),
+                new long[SyncWaitHistogram.NUM_BUCKETS]);
         }
     }
 
@@ -1566,6 +1579,40 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         return operation;
     }
 
+    /**
+     * Reads an operation from a buffer that holds the operation followed by its checksum but not its size. Unlike
+     * {@link #readOperation(BufferedChecksumStreamInput)}, the checksum is verified in bulk over the whole buffer before the operation
+     * is deserialized. The operation does not reference the buffer, so that it can be reused.
+     */
+    static Translog.Operation readOperation(ByteBuffer buffer, String source) throws IOException {
+        if (buffer.remaining() < Integer.BYTES) { // 4byte for the checksum
+            throw new TranslogCorruptedException(source, "operation size must be at least 4 but was: " + buffer.remaining());
+        }
+        final int checksumPosition = buffer.limit() - Integer.BYTES;
+        final ByteBuffer operationBytes = buffer.duplicate();
+        operationBytes.limit(checksumPosition);
+        final CRC32 digest = new CRC32();
+        digest.update(operationBytes);
+        final long expectedChecksum = digest.getValue();
+        final long readChecksum = Integer.toUnsignedLong(buffer.getInt(checksumPosition));
+        if (readChecksum != expectedChecksum) {
+            throw new TranslogCorruptedException(source, "checksum verification failed - expected: 0x" +
+                Long.toHexString(expectedChecksum) + ", got: 0x" + Long.toHexString(readChecksum));
+        }
+        operationBytes.position(buffer.position());
+        final ByteBufferStreamInput in = new ByteBufferStreamInput(operationBytes);
+        final Translog.Operation operation;
+        try {
+            operation = Translog.Operation.readOperation(in);
+        } catch (EOFException e) {
+            throw new TruncatedTranslogException(source, "reached premature end of file, translog is truncated", e);
+        }
+        if (in.available() != 0) {
+            throw new TranslogCorruptedException(source, "operation has [" + in.available() + "] unread bytes before its checksum");
+        }
+        return operation;
+    }
+
     /**
      * Writes all operations in the given iterable to the given output stream including the size of the array
      * use {@link #readOperations(StreamInput, String)} to read it back.
@@ -1873,8 +1920,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         TranslogWriter writer = TranslogWriter.create(shardId, translogUUID, 1,
             location.resolve(getFilename(1)), channelFactory,
             new ByteSizeValue(10), 1, initialGlobalCheckpoint,
-            () -> { throw new UnsupportedOperationException(); }, () -> { throw new UnsupportedOperationException(); }, primaryTerm,
-                new TragicExceptionHolder());
+            () -> { throw new UnsupportedOperationException(); }, () -> { throw new UnsupportedOperationException(); },
+            syncedOperations -> {}, primaryTerm, new TragicExceptionHolder());
         writer.close();
         return translogUUID;
     }
@@ -20,6 +20,11 @@
 package org.elasticsearch.index.translog;
 
 import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.Constants;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.Channels;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.seqno.SequenceNumbers;
@@ -43,6 +48,14 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
     private final int totalOperations;
     private final Checkpoint checkpoint;
     protected final AtomicBoolean closed = new AtomicBoolean(false);
+    // the operations of this immutable file, memory-mapped when the first snapshot is taken and unmapped on close, guarded by this
+    private IndexInput mappedInput;
+
+    /**
+     * Whether snapshots of translog files read them through memory mappings. This needs a large address space, and the mappings must
+     * be released on close, since the disk space of a deleted translog file is only reclaimed once it is unmapped.
+     */
+    static final boolean MMAP_SNAPSHOTS = Constants.JRE_IS_64BIT && MMapDirectory.UNMAP_SUPPORTED;
 
     /**
      * Create a translog writer against the specified translog file channel.
@@ -53,10 +66,16 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
      * @param header     the header of the translog file
      */
     TranslogReader(final Checkpoint checkpoint, final FileChannel channel, final Path path, final TranslogHeader header) {
+        this(checkpoint, channel, path, header, null);
+    }
+
+    private TranslogReader(final Checkpoint checkpoint, final FileChannel channel, final Path path, final TranslogHeader header,
+                           @Nullable final IndexInput mappedInput) {
         super(checkpoint.generation, channel, path, header);
         this.length = checkpoint.offset;
         this.totalOperations = checkpoint.numOps;
         this.checkpoint = checkpoint;
+        this.mappedInput = mappedInput;
     }
 
     /**
@@ -80,7 +99,9 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
      */
     TranslogReader closeIntoTrimmedReader(long aboveSeqNo, ChannelFactory channelFactory) throws IOException {
         if (closed.compareAndSet(false, true)) {
-            Closeable toCloseOnFailure = channel;
+            // the new reader takes over the channel and the mapping, which snapshots of this reader may still read from
+            final IndexInput mappedInput = takeMappedInput();
+            Closeable toCloseOnFailure = () -> IOUtils.close(mappedInput, channel);
             final TranslogReader newReader;
             try {
                 if (aboveSeqNo < checkpoint.trimmedAboveSeqNo
@@ -94,9 +115,9 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
                     IOUtils.fsync(checkpointFile, false);
                     IOUtils.fsync(checkpointFile.getParent(), true);
 
-                    newReader = new TranslogReader(newCheckpoint, channel, path, header);
+                    newReader = new TranslogReader(newCheckpoint, channel, path, header, mappedInput);
                 } else {
-                    newReader = new TranslogReader(checkpoint, channel, path, header);
+                    newReader = new TranslogReader(checkpoint, channel, path, header, mappedInput);
                 }
                 toCloseOnFailure = null;
                 return newReader;
@@ -121,6 +142,42 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
         return checkpoint;
     }
 
+    /**
+     * Creates a snapshot that reads the operations of this file through a memory mapping, which avoids a read call per operation and
+     * lets index operations share their source with the mapping, or through the file channel if the file cannot be mapped.
+     */
+    @Override
+    public TranslogSnapshot newSnapshot() {
+        return new TranslogSnapshot(this, sizeInBytes(), cloneMappedInput());
+    }
+
+    /**
+     * Returns a clone of the input over the memory-mapped file, mapping it first if needed, or {@code null} if the file is read through
+     * its channel. Clones fail with an {@link AlreadyClosedException} once this reader is closed, rather than reading unmapped memory.
+     */
+    @Nullable
+    private synchronized IndexInput cloneMappedInput() {
+        if (MMAP_SNAPSHOTS == false || isClosed()) {
+            return null;
+        }
+        if (mappedInput == null) {
+            // Lucene's MMapDirectory unmaps the file when the input is closed
+            try (MMapDirectory directory = new MMapDirectory(path.getParent())) {
+                mappedInput = directory.openInput(path.getFileName().toString(), IOContext.READ);
+            } catch (IOException e) {
+                // fall back to reading from the channel, which reports the failure if the file cannot be read at all
+                return null;
+            }
+        }
+        return mappedInput.clone();
+    }
+
+    private synchronized IndexInput takeMappedInput() {
+        final IndexInput input = mappedInput;
+        mappedInput = null;
+        return input;
+    }
+
     /**
      * reads an operation at the given position into the given buffer.
      */
@@ -138,7 +195,8 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
     @Override
     public final void close() throws IOException {
         if (closed.compareAndSet(false, true)) {
-            channel.close();
+            // unmap the file, otherwise its disk space is only reclaimed after it is deleted once the mapping is garbage collected
+            IOUtils.close(takeMappedInput(), channel);
         }
     }
 
@@ -18,6 +18,10 @@
  */
 package org.elasticsearch.index.translog;
 
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.Channels;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 
@@ -32,6 +36,9 @@ final class TranslogSnapshot extends BaseTranslogReader {
     protected final long length;
 
     private final ByteBuffer reusableBuffer;
+    @Nullable
+    private final IndexInput mappedInput;
+    private byte[] operationBuffer = BytesRef.EMPTY_BYTES;
     private long position;
     private int skippedOperations;
     private int readOperations;
@@ -41,7 +48,16 @@ final class TranslogSnapshot extends BaseTranslogReader {
      * Create a snapshot of translog file channel.
      */
     TranslogSnapshot(final BaseTranslogReader reader, final long length) {
+        this(reader, length, null);
+    }
+
+    /**
+     * Create a snapshot of translog file channel that reads the operations from the given input over the memory-mapped translog file
+     * rather than from the channel, or from the channel if it is {@code null}. The input is owned by the snapshot.
+     */
+    TranslogSnapshot(final BaseTranslogReader reader, final long length, @Nullable final IndexInput mappedInput) {
         super(reader.generation, reader.channel, reader.path, reader.header);
+        assert mappedInput == null || mappedInput.length() >= length : "mapped input is shorter than the snapshot";
         this.length = length;
         this.totalOperations = reader.totalOperations();
         this.checkpoint = reader.getCheckpoint();
@@ -49,6 +65,7 @@ final class TranslogSnapshot extends BaseTranslogReader {
         this.readOperations = 0;
         this.position = reader.getFirstOperationOffset();
         this.reuse = null;
+        this.mappedInput = mappedInput;
     }
 
     @Override
@@ -77,6 +94,9 @@ final class TranslogSnapshot extends BaseTranslogReader {
     }
 
     protected Translog.Operation readOperation() throws IOException {
+        if (mappedInput != null) {
+            return readMappedOperation();
+        }
         final int opSize = readSize(reusableBuffer, position);
         reuse = checksummedStream(reusableBuffer, position, opSize, reuse);
         Translog.Operation op = read(reuse);
@@ -85,6 +105,34 @@ final class TranslogSnapshot extends BaseTranslogReader {
         return op;
     }
 
+    /**
+     * Reads the next operation from the memory-mapped translog file with a single copy, see {@link Translog#readOperation(ByteBuffer,
+     * String)}. Fails with an {@link org.apache.lucene.store.AlreadyClosedException} if the reader of the file was closed.
+     */
+    private Translog.Operation readMappedOperation() throws IOException {
+        if (length - position < Integer.BYTES) {
+            throw new EOFException("read requested past EOF. pos [" + position + "] end: [" + length + "], generation: [" +
+                getGeneration() + "], path: [" + path + "]");
+        }
+        mappedInput.seek(position);
+        // Add an extra 4 to account for the operation size integer itself
+        final int opSize = mappedInput.readInt() + Integer.BYTES;
+        final long maxSize = length - position;
+        if (opSize < Integer.BYTES || opSize > maxSize) {
+            throw new TranslogCorruptedException(
+                path.toString(),
+                "operation size is corrupted must be [0.." + maxSize + "] but was: " + opSize);
+        }
+        final int operationLength = opSize - Integer.BYTES;
+        operationBuffer = ArrayUtil.grow(operationBuffer, operationLength);
+        mappedInput.readBytes(operationBuffer, 0, operationLength);
+        final Translog.Operation op = verifyPrimaryTerm(
+            Translog.readOperation(ByteBuffer.wrap(operationBuffer, 0, operationLength), path.toString()));
+        position += opSize;
+        readOperations++;
+        return op;
+    }
+
     public long sizeInBytes() {
         return length;
     }
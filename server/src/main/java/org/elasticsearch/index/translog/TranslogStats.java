@@ -18,16 +18,20 @@
  */
 package org.elasticsearch.index.translog;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 public class TranslogStats implements Streamable, Writeable, ToXContentFragment {
 
@@ -36,6 +40,9 @@ public class TranslogStats implements Streamable, Writeable, ToXContentFragment
     private long uncommittedSizeInBytes;
     private int  uncommittedOperations;
     private long earliestLastModifiedAge;
+    private long syncCount;
+    private long syncedOperations;
+    private long[] syncWaits = new long[SyncWaitHistogram.NUM_BUCKETS];
 
     public TranslogStats() {
     }
@@ -46,10 +53,26 @@ public class TranslogStats implements Streamable, Writeable, ToXContentFragment
         uncommittedOperations = in.readVInt();
         uncommittedSizeInBytes = in.readVLong();
         earliestLastModifiedAge = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            syncCount = in.readVLong();
+            syncedOperations = in.readVLong();
+            syncWaits = in.readVLongArray();
+        }
     }
 
     public TranslogStats(int numberOfOperations, long translogSizeInBytes, int uncommittedOperations, long uncommittedSizeInBytes,
                          long earliestLastModifiedAge) {
+        this(numberOfOperations, translogSizeInBytes, uncommittedOperations, uncommittedSizeInBytes, earliestLastModifiedAge, 0, 0,
+            new long[SyncWaitHistogram.NUM_BUCKETS]);
+    }
+
+    /**
+     * @param syncCount        the number of fsyncs of the translog
+     * @param syncedOperations the number of operations made durable by these fsyncs
+     * @param syncWaits        the bucket counts of a {@link SyncWaitHistogram} of the time spent waiting for syncs
+     */
+    public TranslogStats(int numberOfOperations, long translogSizeInBytes, int uncommittedOperations, long uncommittedSizeInBytes,
+                         long earliestLastModifiedAge, long syncCount, long syncedOperations, long[] syncWaits) {
         if (numberOfOperations < 0) {
             throw new IllegalArgumentException("numberOfOperations must be >= 0");
         }
@@ -70,6 +93,26 @@ public class TranslogStats implements Streamable, Writeable, ToXContentFragment
         this.uncommittedSizeInBytes = uncommittedSizeInBytes;
         this.uncommittedOperations = uncommittedOperations;
         this.earliestLastModifiedAge = earliestLastModifiedAge;
+        if (syncCount < 0) {
+            throw new IllegalArgumentException("syncCount must be >= 0");
+        }
+        if (syncedOperations < 0) {
+            throw new IllegalArgumentException("syncedOperations must be >= 0");
+        }
+        if (syncWaits.length != SyncWaitHistogram.NUM_BUCKETS) {
+            throw new IllegalArgumentException("syncWaits must have [" + SyncWaitHistogram.NUM_BUCKETS + "] buckets");
+        }
+        this.syncCount = syncCount;
+        this.syncedOperations = syncedOperations;
+        this.syncWaits = syncWaits;
+    }
+
+    /**
+     * Returns a copy of these stats with the given sync wait bucket counts.
+     */
+    public TranslogStats withSyncWaits(long[] syncWaits) {
+        return new TranslogStats(numberOfOperations, translogSizeInBytes, uncommittedOperations, uncommittedSizeInBytes,
+            earliestLastModifiedAge, syncCount, syncedOperations, syncWaits);
     }
 
     public void add(TranslogStats translogStats) {
@@ -83,6 +126,13 @@ public class TranslogStats implements Streamable, Writeable, ToXContentFragment
         this.uncommittedSizeInBytes += translogStats.uncommittedSizeInBytes;
         this.earliestLastModifiedAge =
             Math.min(this.earliestLastModifiedAge, translogStats.earliestLastModifiedAge);
+        this.syncCount += translogStats.syncCount;
+        this.syncedOperations += translogStats.syncedOperations;
+        final long[] syncWaits = Arrays.copyOf(this.syncWaits, this.syncWaits.length);
+        for (int i = 0; i < syncWaits.length; i++) {
+            syncWaits[i] += translogStats.syncWaits[i];
+        }
+        this.syncWaits = syncWaits;
     }
 
     public long getTranslogSizeInBytes() {
@@ -105,6 +155,21 @@ public class TranslogStats implements Streamable, Writeable, ToXContentFragment
 
     public long getEarliestLastModifiedAge() { return earliestLastModifiedAge; }
 
+    /** the number of fsyncs of the translog */
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    /** the number of operations made durable by fsyncs of the translog */
+    public long getSyncedOperations() {
+        return syncedOperations;
+    }
+
+    /** the upper bound of the 99th percentile of the time spent waiting for translog syncs */
+    public TimeValue getSyncWaitP99() {
+        return new TimeValue(SyncWaitHistogram.percentileMicros(syncWaits, 99), TimeUnit.MICROSECONDS);
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("translog");
@@ -113,6 +178,16 @@ public class TranslogStats implements Streamable, Writeable, ToXContentFragment
         builder.field("uncommitted_operations", uncommittedOperations);
         builder.humanReadableField("uncommitted_size_in_bytes", "uncommitted_size", new ByteSizeValue(uncommittedSizeInBytes));
         builder.field("earliest_last_modified_age", earliestLastModifiedAge);
+        builder.startObject("sync");
+        builder.field("total", syncCount);
+        builder.field("operations", syncedOperations);
+        builder.field("operations_per_sync", syncCount == 0 ? 0.0 : (double) syncedOperations / syncCount);
+        final TimeValue syncWaitP99 = getSyncWaitP99();
+        if (builder.humanReadable()) {
+            builder.field("wait_p99", syncWaitP99.toString());
+        }
+        builder.field("wait_p99_in_micros", syncWaitP99.micros());
+        builder.endObject();
         builder.endObject();
         return builder;
     }
@@ -134,5 +209,10 @@ public class TranslogStats implements Streamable, Writeable, ToXContentFragment
         out.writeVInt(uncommittedOperations);
         out.writeVLong(uncommittedSizeInBytes);
         out.writeVLong(earliestLastModifiedAge);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVLong(syncCount);
+            out.writeVLong(syncedOperations);
+            out.writeVLongArray(syncWaits);
+        }
     }
 }
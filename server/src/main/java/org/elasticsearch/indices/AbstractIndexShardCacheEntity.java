@@ -36,7 +36,7 @@ abstract class AbstractIndexShardCacheEntity implements IndicesRequestCache.Cach
 
     @Override
     public final void onCached(IndicesRequestCache.Key key, BytesReference value) {
-        stats().onCached(key, value);
+        stats().onCached(key, value, IndicesRequestCache.storedLength(value));
     }
 
     @Override
@@ -51,7 +51,8 @@ abstract class AbstractIndexShardCacheEntity implements IndicesRequestCache.Cach
 
     @Override
     public final void onRemoval(RemovalNotification<IndicesRequestCache.Key, BytesReference> notification) {
-        stats().onRemoval(notification.getKey(), notification.getValue(),
+        final BytesReference value = notification.getValue();
+        stats().onRemoval(notification.getKey(), value, value == null ? 0 : IndicesRequestCache.storedLength(value),
                 notification.getRemovalReason() == RemovalNotification.RemovalReason.EVICTED);
     }
 }
@@ -41,6 +41,8 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.indices.OffHeapRequestCacheStore.OffHeapBytesReference;
+import org.elasticsearch.monitor.jvm.JvmInfo;
 
 import java.io.Closeable;
 import java.util.Collection;
@@ -49,6 +51,7 @@ import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Supplier;
 
 /**
@@ -61,6 +64,10 @@ import java.util.function.Supplier;
  * Currently, the cache is only enabled for count requests, and can only be opted in on an index
  * level setting that can be dynamically changed and defaults to false.
  * <p>
+ * By default values are kept on-heap. When {@code indices.requests.cache.off_heap.size} is set, values are instead
+ * compressed and moved to direct memory (see {@link OffHeapRequestCacheStore}) and that setting bounds the size of the cache
+ * in place of {@code indices.requests.cache.size}.
+ * <p>
  * There are still several TODOs left in this class, some easily addressable, some more complex, but the support
  * is functional.
  */
@@ -78,15 +85,27 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         Setting.memorySizeSetting("indices.requests.cache.size", "1%", Property.NodeScope);
     public static final Setting<TimeValue> INDICES_CACHE_QUERY_EXPIRE =
         Setting.positiveTimeSetting("indices.requests.cache.expire", new TimeValue(0), Property.NodeScope);
+    public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_OFF_HEAP_SIZE =
+        Setting.byteSizeSetting("indices.requests.cache.off_heap.size", new ByteSizeValue(0), new ByteSizeValue(0),
+            maxOffHeapSize(), Property.NodeScope);
 
     private final ConcurrentMap<CleanupKey, Boolean> registeredClosedListeners = ConcurrentCollections.newConcurrentMap();
     private final Set<CleanupKey> keysToClean = ConcurrentCollections.newConcurrentSet();
     private final ByteSizeValue size;
     private final TimeValue expire;
     private final Cache<Key, BytesReference> cache;
+    // null if values are kept on-heap
+    private final OffHeapRequestCacheStore offHeapStore;
 
     IndicesRequestCache(Settings settings) {
-        this.size = INDICES_CACHE_QUERY_SIZE.get(settings);
+        final ByteSizeValue offHeapSize = INDICES_CACHE_QUERY_OFF_HEAP_SIZE.get(settings);
+        if (offHeapSize.getBytes() > 0) {
+            this.size = offHeapSize;
+            this.offHeapStore = new OffHeapRequestCacheStore();
+        } else {
+            this.size = INDICES_CACHE_QUERY_SIZE.get(settings);
+            this.offHeapStore = null;
+        }
         this.expire = INDICES_CACHE_QUERY_EXPIRE.exists(settings) ? INDICES_CACHE_QUERY_EXPIRE.get(settings) : null;
         long sizeInBytes = size.getBytes();
         CacheBuilder<Key, BytesReference> cacheBuilder = CacheBuilder.<Key, BytesReference>builder()
@@ -97,9 +116,24 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         cache = cacheBuilder.build();
     }
 
+    /**
+     * The largest allowed off-heap cache, half of the direct memory of the JVM so that the network layer, which also allocates
+     * direct memory, keeps enough of it. The JVM allows as much direct memory as heap unless configured otherwise.
+     */
+    static ByteSizeValue maxOffHeapSize() {
+        long directMemoryMax = JvmInfo.jvmInfo().getMem().getDirectMemoryMax().getBytes();
+        if (directMemoryMax <= 0) {
+            directMemoryMax = JvmInfo.jvmInfo().getMem().getHeapMax().getBytes();
+        }
+        return new ByteSizeValue(directMemoryMax / 2);
+    }
+
     @Override
     public void close() {
         cache.invalidateAll();
+        if (offHeapStore != null) {
+            offHeapStore.close();
+        }
     }
 
     void clear(CacheEntity entity) {
@@ -110,6 +144,19 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
     @Override
     public void onRemoval(RemovalNotification<Key, BytesReference> notification) {
         notification.getKey().entity.onRemoval(notification);
+        if (notification.getValue() instanceof OffHeapBytesReference) {
+            ((OffHeapBytesReference) notification.getValue()).decRef();
+        }
+    }
+
+    /**
+     * The number of bytes the given cached value takes in the cache, which is less than its length if it was compressed.
+     */
+    static long storedLength(BytesReference value) {
+        if (value instanceof OffHeapBytesReference) {
+            return ((OffHeapBytesReference) value).compressedLength();
+        }
+        return value.length();
     }
 
     // NORELEASE The cacheKeyRenderer has been added in order to debug
@@ -119,9 +166,20 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
             DirectoryReader reader, BytesReference cacheKey, Supplier<String> cacheKeyRenderer) throws Exception {
         assert reader.getReaderCacheHelper() != null;
         final Key key =  new Key(cacheEntity, reader.getReaderCacheHelper().getKey(), cacheKey);
-        Loader cacheLoader = new Loader(cacheEntity, loader);
-        BytesReference value = cache.computeIfAbsent(key, cacheLoader);
+        Loader cacheLoader = new Loader(cacheEntity, loader, offHeapStore);
+        BytesReference value;
+        try {
+            value = cache.computeIfAbsent(key, cacheLoader);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof OffHeapStoreFullException) {
+                key.entity.onMiss();
+                return ((OffHeapStoreFullException) e.getCause()).value;
+            }
+            throw e;
+        }
         if (cacheLoader.isLoaded()) {
+            // no need to decompress what we just compressed
+            value = cacheLoader.getLoadedValue();
             key.entity.onMiss();
             if (logger.isTraceEnabled()) {
                 logger.trace("Cache miss for reader version [{}] and request:\n {}", reader.getVersion(), cacheKeyRenderer.get());
@@ -139,6 +197,11 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
             if (logger.isTraceEnabled()) {
                 logger.trace("Cache hit for reader version [{}] and request:\n {}", reader.getVersion(), cacheKeyRenderer.get());
             }
+            if (value instanceof OffHeapBytesReference) {
+                final BytesReference loaded = ((OffHeapBytesReference) value).loadIfNotReleased();
+                // the value was evicted and its pages released since we got it from the cache, compute it again without caching
+                value = loaded != null ? loaded : loader.get();
+            }
         }
         return value;
     }
@@ -158,26 +221,57 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
 
         private final CacheEntity entity;
         private final Supplier<BytesReference> loader;
+        private final OffHeapRequestCacheStore offHeapStore;
+        private BytesReference loadedValue;
         private boolean loaded;
 
-        Loader(CacheEntity entity, Supplier<BytesReference> loader) {
+        Loader(CacheEntity entity, Supplier<BytesReference> loader, OffHeapRequestCacheStore offHeapStore) {
             this.entity = entity;
             this.loader = loader;
+            this.offHeapStore = offHeapStore;
         }
 
         public boolean isLoaded() {
             return this.loaded;
         }
 
+        /**
+         * The value as returned by the loader, before it was moved off-heap.
+         */
+        BytesReference getLoadedValue() {
+            return this.loadedValue;
+        }
+
         @Override
         public BytesReference load(Key key) throws Exception {
-            BytesReference value = loader.get();
+            loadedValue = loader.get();
+            BytesReference value = loadedValue;
+            if (offHeapStore != null) {
+                value = offHeapStore.store(loadedValue);
+                if (value == null) {
+                    // the store could not get the direct memory it needs, return the value without caching it
+                    throw new OffHeapStoreFullException(loadedValue);
+                }
+            }
             entity.onCached(key, value);
             loaded = true;
             return value;
         }
     }
 
+    /**
+     * Signals that a loaded value could not be moved off-heap. The value is returned to the caller, but not cached.
+     */
+    private static final class OffHeapStoreFullException extends RuntimeException {
+
+        private final BytesReference value;
+
+        OffHeapStoreFullException(BytesReference value) {
+            super("off-heap request cache store is out of direct memory", null, false, false);
+            this.value = value;
+        }
+    }
+
     /**
      * Basic interface to make this cache testable.
      */
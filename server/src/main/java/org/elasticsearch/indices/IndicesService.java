@@ -183,6 +183,7 @@ public class IndicesService extends AbstractLifecycleComponent
     private final CacheCleaner cacheCleaner;
     private final ThreadPool threadPool;
     private final CircuitBreakerService circuitBreakerService;
+    private final TranslogSyncScheduler translogSyncScheduler;
     private final BigArrays bigArrays;
     private final ScriptService scriptService;
     private final Client client;
@@ -231,6 +232,7 @@ public class IndicesService extends AbstractLifecycleComponent
                                                                 () -> Iterables.flatten(this).iterator());
         this.indexScopedSettings = indexScopedSettings;
         this.circuitBreakerService = circuitBreakerService;
+        this.translogSyncScheduler = new TranslogSyncScheduler(settings, threadPool);
         this.bigArrays = bigArrays;
         this.scriptService = scriptService;
         this.client = client;
@@ -544,6 +546,7 @@ public class IndicesService extends AbstractLifecycleComponent
                 xContentRegistry,
                 this,
                 circuitBreakerService,
+                translogSyncScheduler,
                 bigArrays,
                 threadPool,
                 scriptService,
@@ -0,0 +1,332 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import com.carrotsearch.hppc.IntArrayDeque;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Stores request cache values outside of the Java heap.
+ * <p>
+ * Values are LZ4-compressed and written to fixed-size pages that are carved out of large direct {@link ByteBuffer} slabs.
+ * Slabs are allocated lazily and never returned to the JVM until the store is closed; pages of released values go back to a
+ * free list and are reused. The memory held on behalf of a value is therefore always a whole number of pages, and this is
+ * what {@link OffHeapBytesReference#ramBytesUsed()} reports so that the request cache can evict based on the direct memory it
+ * really holds.
+ */
+final class OffHeapRequestCacheStore implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(OffHeapRequestCacheStore.class);
+
+    static final int PAGE_SIZE = 4096;
+    static final int PAGES_PER_SLAB = 256;
+
+    private final IntArrayDeque freePages = new IntArrayDeque();
+    // copy-on-write so that readers never need the lock to resolve a page they own
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    private boolean closed;
+
+    /**
+     * Compresses the given bytes and copies them off-heap.
+     *
+     * @return the off-heap value, or {@code null} if the JVM is out of direct memory and the value should not be cached
+     */
+    OffHeapBytesReference store(BytesReference value) {
+        final BytesRef bytes = value.toBytesRef();
+        final byte[] compressed = new byte[maxCompressedLength(bytes.length)];
+        final ByteArrayDataOutput out = new ByteArrayDataOutput(compressed);
+        final Compressor compressor = CompressionMode.FAST.newCompressor();
+        try {
+            compressor.compress(bytes.bytes, bytes.offset, bytes.length, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to compress request cache value", e);
+        }
+        final int compressedLength = out.getPosition();
+        final int[] pages = allocate(Math.max(1, (compressedLength + PAGE_SIZE - 1) / PAGE_SIZE));
+        if (pages == null) {
+            return null;
+        }
+        int written = 0;
+        for (int page : pages) {
+            final int length = Math.min(PAGE_SIZE, compressedLength - written);
+            if (length <= 0) {
+                break;
+            }
+            final ByteBuffer buffer = pageBuffer(page);
+            buffer.put(compressed, written, length);
+            written += length;
+        }
+        return new OffHeapBytesReference(this, pages, bytes.length, compressedLength);
+    }
+
+    /**
+     * Decompresses a value that was previously stored and copies it back on-heap. The caller must hold a reference to the value.
+     */
+    BytesReference load(OffHeapBytesReference value) {
+        if (value.length() == 0) {
+            return BytesArray.EMPTY;
+        }
+        final BytesRef bytes = new BytesRef();
+        try {
+            CompressionMode.FAST.newDecompressor().decompress(new PagesDataInput(value.pages(), value.compressedLength()),
+                value.length(), 0, value.length(), bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to decompress request cache value", e);
+        }
+        return new BytesArray(bytes);
+    }
+
+    void release(int[] pages) {
+        synchronized (this) {
+            if (closed == false) {
+                for (int page : pages) {
+                    freePages.addLast(page);
+                }
+            }
+        }
+    }
+
+    /**
+     * The number of bytes of direct memory allocated by this store, whether or not they are currently used by a value.
+     */
+    long allocatedBytes() {
+        return (long) slabs.length * PAGES_PER_SLAB * PAGE_SIZE;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            freePages.clear();
+            // the slabs are freed once the outstanding references to them have been garbage collected
+            slabs = new ByteBuffer[0];
+        }
+    }
+
+    /**
+     * Takes the given number of pages from the free list, allocating new slabs if needed.
+     *
+     * @return the pages, or {@code null} if a slab could not be allocated
+     */
+    private synchronized int[] allocate(int numberOfPages) {
+        if (closed) {
+            throw new IllegalStateException("off-heap request cache store is closed");
+        }
+        while (freePages.size() < numberOfPages) {
+            final ByteBuffer slab;
+            try {
+                slab = ByteBuffer.allocateDirect(PAGES_PER_SLAB * PAGE_SIZE);
+            } catch (OutOfMemoryError e) {
+                // other users of direct memory, like the network layer, hold the rest of it; failing to cache a value
+                // must not bring the node down, the slabs allocated so far stay on the free list
+                logger.debug("failed to allocate direct memory for the off-heap request cache", e);
+                return null;
+            }
+            final ByteBuffer[] current = slabs;
+            final ByteBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = slab;
+            final int firstPage = current.length * PAGES_PER_SLAB;
+            for (int i = 0; i < PAGES_PER_SLAB; i++) {
+                freePages.addLast(firstPage + i);
+            }
+            slabs = grown;
+        }
+        final int[] pages = new int[numberOfPages];
+        for (int i = 0; i < numberOfPages; i++) {
+            pages[i] = freePages.removeFirst();
+        }
+        return pages;
+    }
+
+    private ByteBuffer pageBuffer(int page) {
+        final ByteBuffer buffer = slabs[page / PAGES_PER_SLAB].duplicate();
+        final int offset = (page % PAGES_PER_SLAB) * PAGE_SIZE;
+        buffer.limit(offset + PAGE_SIZE);
+        buffer.position(offset);
+        return buffer;
+    }
+
+    static int maxCompressedLength(int length) {
+        // worst case of an incompressible input for LZ4
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Reads the compressed bytes of a value sequentially across its pages.
+     */
+    private final class PagesDataInput extends DataInput {
+        private final int[] pages;
+        private final int length;
+        private int position;
+        private ByteBuffer current;
+
+        PagesDataInput(int[] pages, int length) {
+            this.pages = pages;
+            this.length = length;
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            if (position >= length) {
+                throw new EOFException("read past the end of the request cache value");
+            }
+            final byte b = buffer().get();
+            position++;
+            return b;
+        }
+
+        @Override
+        public void readBytes(byte[] b, int offset, int len) throws IOException {
+            if (position + len > length) {
+                throw new EOFException("read past the end of the request cache value");
+            }
+            while (len > 0) {
+                final ByteBuffer buffer = buffer();
+                final int chunk = Math.min(len, buffer.remaining());
+                buffer.get(b, offset, chunk);
+                position += chunk;
+                offset += chunk;
+                len -= chunk;
+            }
+        }
+
+        private ByteBuffer buffer() {
+            if (current == null || current.hasRemaining() == false) {
+                current = pageBuffer(pages[position / PAGE_SIZE]);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * A handle on a value that lives in an {@link OffHeapRequestCacheStore}. The request cache holds one reference for as long
+     * as the value is cached, and readers acquire another one while they decompress it, so that the pages of a value that is
+     * evicted concurrently are not reused under their feet.
+     */
+    static final class OffHeapBytesReference extends BytesReference {
+
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(OffHeapBytesReference.class);
+
+        private final OffHeapRequestCacheStore store;
+        private final int[] pages;
+        private final int length;
+        private final int compressedLength;
+        private final AbstractRefCounted refCounted;
+
+        OffHeapBytesReference(OffHeapRequestCacheStore store, int[] pages, int length, int compressedLength) {
+            this.store = store;
+            this.pages = pages;
+            this.length = length;
+            this.compressedLength = compressedLength;
+            this.refCounted = new AbstractRefCounted("off-heap request cache value") {
+                @Override
+                protected void closeInternal() {
+                    store.release(pages);
+                }
+            };
+        }
+
+        int[] pages() {
+            return pages;
+        }
+
+        int compressedLength() {
+            return compressedLength;
+        }
+
+        boolean tryIncRef() {
+            return refCounted.tryIncRef();
+        }
+
+        void decRef() {
+            refCounted.decRef();
+        }
+
+        /**
+         * Decompresses this value on-heap, or returns {@code null} if it has already been released.
+         */
+        BytesReference loadIfNotReleased() {
+            if (tryIncRef() == false) {
+                return null;
+            }
+            try {
+                return store.load(this);
+            } finally {
+                decRef();
+            }
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        /**
+         * The size of this handle plus the direct memory reserved for the compressed value.
+         */
+        @Override
+        public long ramBytesUsed() {
+            return BASE_RAM_BYTES_USED + RamUsageEstimator.sizeOf(pages) + (long) pages.length * PAGE_SIZE;
+        }
+
+        // the methods below access the content and need to decompress the whole value; the request cache never calls them, they
+        // only exist to satisfy the BytesReference contract
+
+        @Override
+        public byte get(int index) {
+            return loadOrFail().get(index);
+        }
+
+        @Override
+        public BytesReference slice(int from, int length) {
+            return loadOrFail().slice(from, length);
+        }
+
+        @Override
+        public BytesRef toBytesRef() {
+            return loadOrFail().toBytesRef();
+        }
+
+        private BytesReference loadOrFail() {
+            final BytesReference loaded = loadIfNotReleased();
+            if (loaded == null) {
+                throw new IllegalStateException("off-heap request cache value has already been released");
+            }
+            return loaded;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Coalesces translog syncs on a node: instead of syncing right away, syncs are delayed by at most
+ * {@link #MAX_SYNC_DELAY_SETTING} so that each shard issues a single fsync for all the locations requested within that window, and
+ * the fsyncs of all shards on the same data path are issued together, which lets the filesystem fold them into fewer journal commits.
+ * This trades a bounded amount of indexing latency for far fewer fsyncs on nodes with many actively indexing shards.
+ */
+public class TranslogSyncScheduler {
+
+    private static final Logger logger = LogManager.getLogger(TranslogSyncScheduler.class);
+
+    /**
+     * How long a translog sync may be delayed to be coalesced with others. Defaults to {@code 0}, which syncs right away.
+     */
+    public static final Setting<TimeValue> MAX_SYNC_DELAY_SETTING =
+        Setting.timeSetting("indices.translog.sync_max_delay", TimeValue.ZERO, TimeValue.ZERO, Property.NodeScope);
+
+    /**
+     * Makes translog locations durable, typically on behalf of a shard.
+     */
+    @FunctionalInterface
+    public interface Target {
+        void sync(Stream<Translog.Location> locations) throws IOException;
+    }
+
+    private final ThreadPool threadPool;
+    private final TimeValue maxDelay;
+    private final ConcurrentMap<Path, Group> groups = ConcurrentCollections.newConcurrentMap();
+
+    public TranslogSyncScheduler(Settings settings, ThreadPool threadPool) {
+        this.threadPool = threadPool;
+        this.maxDelay = MAX_SYNC_DELAY_SETTING.get(settings);
+    }
+
+    /**
+     * Returns whether syncs should go through this scheduler, as opposed to being issued right away.
+     */
+    public boolean isEnabled() {
+        return maxDelay.nanos() > 0;
+    }
+
+    /**
+     * Schedules a sync of the given location of the given target, whose translog lives on the given data path. The listener is notified
+     * once the location is durable, or with the exception that prevented syncing it.
+     */
+    public void schedule(Path dataPath, Target target, Translog.Location location, Consumer<Exception> listener) {
+        groups.computeIfAbsent(dataPath, path -> new Group()).add(target, location, listener);
+    }
+
+    /**
+     * The pending syncs of all targets on a single data path.
+     */
+    private final class Group {
+
+        // guarded by this
+        private Map<Target, List<Tuple<Translog.Location, Consumer<Exception>>>> pending = new LinkedHashMap<>();
+        private boolean scheduled;
+
+        void add(Target target, Translog.Location location, Consumer<Exception> listener) {
+            final boolean schedule;
+            synchronized (this) {
+                pending.computeIfAbsent(target, t -> new ArrayList<>()).add(new Tuple<>(location, listener));
+                schedule = scheduled == false;
+                scheduled = true;
+            }
+            if (schedule) {
+                try {
+                    threadPool.schedule(this::flush, maxDelay, ThreadPool.Names.GENERIC);
+                } catch (EsRejectedExecutionException e) {
+                    // the node is shutting down, sync right away rather than leaving the listeners hanging
+                    flush();
+                }
+            }
+        }
+
+        void flush() {
+            final Map<Target, List<Tuple<Translog.Location, Consumer<Exception>>>> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                scheduled = false;
+            }
+            // sync the targets concurrently so that their fsyncs reach the device together
+            final Iterator<Map.Entry<Target, List<Tuple<Translog.Location, Consumer<Exception>>>>> iterator = batch.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<Target, List<Tuple<Translog.Location, Consumer<Exception>>>> entry = iterator.next();
+                if (iterator.hasNext()) {
+                    try {
+                        threadPool.generic().execute(() -> sync(entry.getKey(), entry.getValue()));
+                        continue;
+                    } catch (EsRejectedExecutionException e) {
+                        logger.debug("failed to fork translog sync, syncing on the current thread", e);
+                    }
+                }
+                sync(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static void sync(Target target, List<Tuple<Translog.Location, Consumer<Exception>>> candidates) {
+        Exception exception = null;
+        try {
+            target.sync(candidates.stream().map(Tuple::v1));
+        } catch (Exception e) {
+            logger.debug("failed to sync translog", e);
+            exception = e;
+        }
+        for (Tuple<Translog.Location, Consumer<Exception>> candidate : candidates) {
+            try {
+                candidate.v2().accept(exception);
+            } catch (Exception e) {
+                logger.warn("failed to notify callback", e);
+            }
+        }
+    }
+}
@@ -45,6 +45,8 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
@@ -106,6 +108,16 @@ import static org.elasticsearch.indices.cluster.IndicesClusterStateService.Alloc
 public class IndicesClusterStateService extends AbstractLifecycleComponent implements ClusterStateApplier {
     private static final Logger logger = LogManager.getLogger(IndicesClusterStateService.class);
 
+    /**
+     * Whether shards are created on the generic thread pool instead of the cluster applier thread, see {@link ShardCreator}. This
+     * weakens the usual guarantee that the shards of an applied cluster state exist by the time that state is visible through
+     * {@link ClusterService#state()} or passed to cluster state observers, and that the state is acknowledged only once they do:
+     * with this setting a cluster state may be visible and acknowledged while some of its shards are still being created. It is
+     * therefore off by default.
+     */
+    public static final Setting<Boolean> ASYNC_SHARD_CREATION_SETTING =
+        Setting.boolSetting("indices.cluster.async_shard_creation", false, Property.NodeScope);
+
     final AllocatedIndices<? extends Shard, ? extends AllocatedIndex<? extends Shard>> indicesService;
     private final ClusterService clusterService;
     private final ThreadPool threadPool;
@@ -129,6 +141,12 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
     private final Consumer<ShardId> globalCheckpointSyncer;
     private final RetentionLeaseSyncer retentionLeaseSyncer;
 
+    private final boolean asyncShardCreation;
+    private final StateUpdater stateUpdater = new StateUpdater();
+    private final ShardCreator shardCreator = new ShardCreator();
+    // the last state applied by applyClusterState, protected by synchronizing on this
+    private ClusterState lastAppliedState;
+
     @Inject
     public IndicesClusterStateService(
             final Settings settings,
@@ -214,20 +232,32 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
         this.globalCheckpointSyncer = globalCheckpointSyncer;
         this.retentionLeaseSyncer = Objects.requireNonNull(retentionLeaseSyncer);
         this.sendRefreshMapping = settings.getAsBoolean("indices.cluster.send_refresh_mapping", true);
+        this.asyncShardCreation = ASYNC_SHARD_CREATION_SETTING.get(settings);
     }
 
     @Override
     protected void doStart() {
         // Doesn't make sense to manage shards on non-master and non-data nodes
         if (DiscoveryNode.isDataNode(settings) || DiscoveryNode.isMasterNode(settings)) {
-            clusterService.addHighPriorityApplier(this);
+            if (asyncShardCreation) {
+                clusterService.addHighPriorityApplier(stateUpdater);
+                // the master learns about created shards through shard started and failed messages, not through acknowledgements
+                clusterService.addAsyncStateApplier(ThreadPool.Names.GENERIC, shardCreator, false);
+            } else {
+                clusterService.addHighPriorityApplier(this);
+            }
         }
     }
 
     @Override
     protected void doStop() {
         if (DiscoveryNode.isDataNode(settings) || DiscoveryNode.isMasterNode(settings)) {
-            clusterService.removeApplier(this);
+            if (asyncShardCreation) {
+                clusterService.removeApplier(stateUpdater);
+                clusterService.removeApplier(shardCreator);
+            } else {
+                clusterService.removeApplier(this);
+            }
         }
     }
 
@@ -236,12 +266,17 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
     }
 
     @Override
-    public synchronized void applyClusterState(final ClusterChangedEvent event) {
+    public void applyClusterState(final ClusterChangedEvent event) {
+        applyClusterState(event, true);
+    }
+
+    private synchronized void applyClusterState(final ClusterChangedEvent event, final boolean createShards) {
         if (!lifecycle.started()) {
             return;
         }
 
         final ClusterState state = event.state();
+        lastAppliedState = state;
 
         // we need to clean the shards and indices we have on this node, since we
         // are going to recover them again once state persistence is disabled (no master / not recovered)
@@ -268,7 +303,7 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
 
         createIndices(state);
 
-        createOrUpdateShards(state);
+        createOrUpdateShards(state, createShards);
     }
 
     /**
@@ -562,7 +597,75 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
         }
     }
 
-    private void createOrUpdateShards(final ClusterState state) {
+    /**
+     * Applies cluster states on the cluster applier thread like {@link #applyClusterState(ClusterChangedEvent)}, except that
+     * shards are left for the {@link ShardCreator} to create.
+     */
+    private class StateUpdater implements ClusterStateApplier {
+        @Override
+        public void applyClusterState(ClusterChangedEvent event) {
+            IndicesClusterStateService.this.applyClusterState(event, false);
+        }
+    }
+
+    /**
+     * Creates the shards that the {@link StateUpdater} left out, as an async applier so that creating shards, which does I/O, holds
+     * back neither the application nor the acknowledgement of cluster states. Shards are always created as of the last applied
+     * cluster state rather than the state of the event, and each shard is checked and created while holding the lock of the
+     * service, so that it cannot interleave with the application of a later state, which may have failed, removed or reallocated
+     * it in the meantime. The lock is released between shards so that the cluster applier thread waits for at most one shard
+     * creation.
+     */
+    private class ShardCreator implements ClusterStateApplier {
+        @Override
+        public void applyClusterState(ClusterChangedEvent event) {
+            final List<ShardId> shardsToCreate = new ArrayList<>();
+            synchronized (IndicesClusterStateService.this) {
+                final ClusterState state = lastAppliedState;
+                final RoutingNode localRoutingNode = state == null ? null : state.getRoutingNodes().node(state.nodes().getLocalNodeId());
+                if (localRoutingNode != null) {
+                    for (ShardRouting shardRouting : localRoutingNode) {
+                        if (shardToCreate(state, shardRouting.shardId()) != null) {
+                            shardsToCreate.add(shardRouting.shardId());
+                        }
+                    }
+                }
+            }
+            for (ShardId shardId : shardsToCreate) {
+                synchronized (IndicesClusterStateService.this) {
+                    // a later cluster state may have failed, removed or reallocated the shard in the meantime
+                    final ClusterState state = lastAppliedState;
+                    final ShardRouting shardRouting = shardToCreate(state, shardId);
+                    if (shardRouting != null) {
+                        createShard(state.nodes(), state.routingTable(), shardRouting, state);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the routing of the given shard if it is allocated to this node in the given state but does not exist yet
+     */
+    @Nullable
+    private ShardRouting shardToCreate(final ClusterState state, final ShardId shardId) {
+        if (lifecycle.started() == false || state.blocks().disableStatePersistence() || failedShardsCache.containsKey(shardId)) {
+            return null;
+        }
+        final RoutingNode localRoutingNode = state.getRoutingNodes().node(state.nodes().getLocalNodeId());
+        final ShardRouting shardRouting = localRoutingNode == null ? null : localRoutingNode.getByShardId(shardId);
+        if (shardRouting == null) {
+            return null;
+        }
+        final AllocatedIndex<? extends Shard> indexService = indicesService.indexService(shardId.getIndex());
+        if (indexService == null || indexService.getShardOrNull(shardId.id()) != null) {
+            return null;
+        }
+        assert shardRouting.initializing() : shardRouting + " should have been removed by failMissingShards";
+        return shardRouting;
+    }
+
+    private void createOrUpdateShards(final ClusterState state, final boolean createShards) {
         RoutingNode localRoutingNode = state.getRoutingNodes().node(state.nodes().getLocalNodeId());
         if (localRoutingNode == null) {
             return;
@@ -579,7 +682,9 @@ public class IndicesClusterStateService extends AbstractLifecycleComponent imple
                 Shard shard = indexService.getShardOrNull(shardId.id());
                 if (shard == null) {
                     assert shardRouting.initializing() : shardRouting + " should have been removed by failMissingShards";
-                    createShard(nodes, routingTable, shardRouting, state);
+                    if (createShards) {
+                        createShard(nodes, routingTable, shardRouting, state);
+                    }
                 } else {
                     updateShard(nodes, shardRouting, shard, routingTable, state);
                 }
@@ -0,0 +1,103 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+/**
+ * The number of file chunks that a recovery keeps in flight between the source and the target node. Like a TCP congestion window it
+ * starts small, grows by one chunk per acknowledged chunk while it is below the slow start threshold and by one chunk per window of
+ * acknowledged chunks above it. It is halved as soon as the round trip time of a chunk shows that chunks queue up somewhere between
+ * the source and the target, which happens once the network, the target or the recovery rate limiter cannot keep up with more chunks.
+ * The window only grows while it is full, so that a recovery that is held back by something else does not inflate it.
+ */
+final class FileChunkWindow {
+
+    /**
+     * A chunk whose round trip takes this many times longer than the fastest chunk so far indicates that chunks queue up.
+     */
+    static final int CONGESTION_ROUND_TRIP_FACTOR = 2;
+
+    private final int minSize;
+    private final int maxSize;
+    private final int chunkSizeInBytes;
+
+    private int size;
+    private int slowStartThreshold;
+    private int acknowledgedSinceGrowth;
+    private int acknowledgementsToIgnore;
+    private long minRoundTripNanos = Long.MAX_VALUE;
+
+    /**
+     * @param minSize          the number of chunks to start with and to never go below
+     * @param maxSize          the number of chunks to never go above, the window has a fixed size if this is not greater than minSize
+     * @param chunkSizeInBytes the size of a full chunk, only the round trips of full chunks are compared with each other
+     */
+    FileChunkWindow(int minSize, int maxSize, int chunkSizeInBytes) {
+        if (minSize <= 0) {
+            throw new IllegalArgumentException("minSize must be > 0 but was [" + minSize + "]");
+        }
+        this.minSize = minSize;
+        this.maxSize = Math.max(minSize, maxSize);
+        this.chunkSizeInBytes = chunkSizeInBytes;
+        this.size = minSize;
+        this.slowStartThreshold = this.maxSize;
+    }
+
+    /**
+     * The number of chunks that may be in flight at the moment.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Adapts the window to a chunk that the target acknowledged.
+     *
+     * @param chunkLength    the number of bytes of the chunk
+     * @param roundTripNanos the time between sending the chunk and receiving the acknowledgement
+     * @param inFlight       the number of chunks that were in flight, including this one, when the acknowledgement arrived
+     */
+    synchronized void onChunkAcknowledged(int chunkLength, long roundTripNanos, int inFlight) {
+        if (acknowledgementsToIgnore > 0) {
+            // these chunks were sent before the window shrunk, they say nothing about the current window
+            acknowledgementsToIgnore--;
+            return;
+        }
+        if (chunkLength == chunkSizeInBytes) {
+            if (roundTripNanos < minRoundTripNanos) {
+                minRoundTripNanos = roundTripNanos;
+            } else if (roundTripNanos > CONGESTION_ROUND_TRIP_FACTOR * minRoundTripNanos) {
+                slowStartThreshold = Math.max(minSize, size / 2);
+                size = slowStartThreshold;
+                acknowledgedSinceGrowth = 0;
+                acknowledgementsToIgnore = inFlight - 1;
+                return;
+            }
+        }
+        if (inFlight < size || size >= maxSize) {
+            return;
+        }
+        if (size < slowStartThreshold) {
+            size++;
+        } else if (++acknowledgedSinceGrowth >= size) {
+            size++;
+            acknowledgedSinceGrowth = 0;
+        }
+    }
+}
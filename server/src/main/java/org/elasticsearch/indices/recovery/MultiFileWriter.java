@@ -32,6 +32,7 @@ import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -68,6 +69,38 @@ public class MultiFileWriter implements Releasable {
         writer.writeChunk(new FileChunk(fileMetaData, content, position, lastChunk));
     }
 
+    /**
+     * Writes the whole content of a file from the given stream. If this fails, the partially written file is discarded so that
+     * the file can still be written with {@link #writeFileChunk}.
+     */
+    public void writeFile(StoreFileMetaData fileMetaData, InputStream stream, byte[] buffer) throws IOException {
+        final String name = fileMetaData.name();
+        final String temporaryFileName = getTempNameForFile(name);
+        final IndexOutput indexOutput = openAndPutIndexOutput(name, fileMetaData, store);
+        boolean success = false;
+        try {
+            try {
+                int bytesRead;
+                while ((bytesRead = stream.read(buffer)) != -1) {
+                    indexOutput.writeBytes(buffer, 0, bytesRead);
+                    indexState.addRecoveredBytesToFile(name, bytesRead);
+                }
+                Store.verify(indexOutput);
+            } finally {
+                indexOutput.close();
+            }
+            store.directory().sync(Collections.singleton(temporaryFileName));
+            success = true;
+        } finally {
+            openIndexOutputs.remove(name);
+            if (success == false) {
+                tempFileNames.remove(temporaryFileName);
+                store.deleteQuiet(temporaryFileName);
+                indexState.resetRecoveredBytesOfFile(name);
+            }
+        }
+    }
+
     /** Get a temporary name for the provided file name. */
     String getTempNameForFile(String origFile) {
         return tempFilePrefix + origFile;
@@ -0,0 +1,127 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.store.StoreFileMetaData;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.transport.TransportRequest;
+
+import java.io.IOException;
+
+/**
+ * The request object asking the recovery target to restore a file from a snapshot repository instead of receiving it in chunks
+ * from the recovery source.
+ */
+class RecoverySnapshotFileRequest extends TransportRequest {
+
+    private long recoveryId;
+    private ShardId shardId;
+    private String repository;
+    private IndexId indexId;
+    private BlobStoreIndexShardSnapshot.FileInfo fileInfo;
+    private int totalTranslogOps;
+
+    /**
+     * Initialize an empty request (used to serialize into when reading from a stream).
+     */
+    RecoverySnapshotFileRequest() {
+    }
+
+    /**
+     * Initialize a request for the specified file.
+     *
+     * @param recoveryId       the recovery ID
+     * @param shardId          the shard ID of the recovery
+     * @param repository       the name of the repository holding the file
+     * @param indexId          the id of the index in the repository
+     * @param fileInfo         the file in the snapshots of the shard
+     * @param totalTranslogOps current number of total operations expected to be indexed
+     */
+    RecoverySnapshotFileRequest(long recoveryId, ShardId shardId, String repository, IndexId indexId,
+                                BlobStoreIndexShardSnapshot.FileInfo fileInfo, int totalTranslogOps) {
+        this.recoveryId = recoveryId;
+        this.shardId = shardId;
+        this.repository = repository;
+        this.indexId = indexId;
+        this.fileInfo = fileInfo;
+        this.totalTranslogOps = totalTranslogOps;
+    }
+
+    long recoveryId() {
+        return recoveryId;
+    }
+
+    ShardId shardId() {
+        return shardId;
+    }
+
+    String repository() {
+        return repository;
+    }
+
+    IndexId indexId() {
+        return indexId;
+    }
+
+    BlobStoreIndexShardSnapshot.FileInfo fileInfo() {
+        return fileInfo;
+    }
+
+    int totalTranslogOps() {
+        return totalTranslogOps;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        recoveryId = in.readLong();
+        shardId = ShardId.readShardId(in);
+        repository = in.readString();
+        indexId = new IndexId(in);
+        final String name = in.readString();
+        final StoreFileMetaData metaData = new StoreFileMetaData(in);
+        final ByteSizeValue partSize = in.readOptionalWriteable(ByteSizeValue::new);
+        fileInfo = new BlobStoreIndexShardSnapshot.FileInfo(name, metaData, partSize);
+        totalTranslogOps = in.readVInt();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeLong(recoveryId);
+        shardId.writeTo(out);
+        out.writeString(repository);
+        indexId.writeTo(out);
+        out.writeString(fileInfo.name());
+        fileInfo.metadata().writeTo(out);
+        out.writeOptionalWriteable(fileInfo.partSize());
+        out.writeVInt(totalTranslogOps);
+    }
+
+    @Override
+    public String toString() {
+        return shardId + ": repository='" + repository + "', file=" + fileInfo;
+    }
+}
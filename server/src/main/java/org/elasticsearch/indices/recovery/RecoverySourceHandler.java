@@ -36,6 +36,7 @@ import org.elasticsearch.action.StepListener;
 import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.collect.Tuple;
@@ -45,6 +46,7 @@ import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.CancellableThreads;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.FutureUtils;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.engine.Engine;
@@ -56,6 +58,7 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardClosedException;
 import org.elasticsearch.index.shard.IndexShardRelocatedException;
 import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
@@ -65,11 +68,14 @@ import org.elasticsearch.transport.RemoteTransportException;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -102,10 +108,27 @@ public class RecoverySourceHandler {
     private final int chunkSizeInBytes;
     private final RecoveryTargetHandler recoveryTarget;
     private final int maxConcurrentFileChunks;
+    private final int maxFileChunksInFlight;
+    private final int maxConcurrentFiles;
+    @Nullable
+    private final SnapshotFilesProvider snapshotFilesProvider;
     private final CancellableThreads cancellableThreads = new CancellableThreads();
 
     public RecoverySourceHandler(final IndexShard shard, RecoveryTargetHandler recoveryTarget, final StartRecoveryRequest request,
                                  final int fileChunkSizeInBytes, final int maxConcurrentFileChunks) {
+        this(shard, recoveryTarget, request, fileChunkSizeInBytes, maxConcurrentFileChunks, maxConcurrentFileChunks, 1, null);
+    }
+
+    /**
+     * @param maxConcurrentFileChunks the number of file chunks to keep in flight initially and at least
+     * @param maxFileChunksInFlight   the number of file chunks that the adaptive window of chunks in flight may grow to
+     * @param maxConcurrentFiles      the number of files to send in parallel by interleaving their chunks
+     * @param snapshotFilesProvider   finds the files that the target can restore from a snapshot repository instead of receiving
+     *                                them from this node, {@code null} to send all files from this node
+     */
+    public RecoverySourceHandler(final IndexShard shard, RecoveryTargetHandler recoveryTarget, final StartRecoveryRequest request,
+                                 final int fileChunkSizeInBytes, final int maxConcurrentFileChunks, final int maxFileChunksInFlight,
+                                 final int maxConcurrentFiles, @Nullable final SnapshotFilesProvider snapshotFilesProvider) {
         this.shard = shard;
         this.recoveryTarget = recoveryTarget;
         this.request = request;
@@ -113,7 +136,12 @@ public class RecoverySourceHandler {
         this.logger = Loggers.getLogger(getClass(), request.shardId(), "recover to " + request.targetNode().getName());
         this.chunkSizeInBytes = fileChunkSizeInBytes;
         // if the target is on an old version, it won't be able to handle out-of-order file chunks.
-        this.maxConcurrentFileChunks = request.targetNode().getVersion().onOrAfter(Version.V_6_7_0) ? maxConcurrentFileChunks : 1;
+        final boolean outOfOrderChunks = request.targetNode().getVersion().onOrAfter(Version.V_6_7_0);
+        this.maxConcurrentFileChunks = outOfOrderChunks ? maxConcurrentFileChunks : 1;
+        this.maxFileChunksInFlight = outOfOrderChunks ? maxFileChunksInFlight : 1;
+        this.maxConcurrentFiles = outOfOrderChunks ? maxConcurrentFiles : 1;
+        // older targets do not know how to restore files from a snapshot repository
+        this.snapshotFilesProvider = request.targetNode().getVersion().onOrAfter(Version.V_8_0_0) ? snapshotFilesProvider : null;
     }
 
     public StartRecoveryRequest getRequest() {
@@ -411,7 +439,8 @@ public class RecoverySourceHandler {
                     phase1ExistingFileNames.size(), new ByteSizeValue(existingTotalSize));
                 cancellableThreads.execute(() -> recoveryTarget.receiveFileInfo(
                     phase1FileNames, phase1FileSizes, phase1ExistingFileNames, phase1ExistingFileSizes, translogOps.get()));
-                sendFiles(store, phase1Files.toArray(new StoreFileMetaData[0]), translogOps);
+                final List<StoreFileMetaData> filesToSend = restoreFilesFromSnapshot(phase1Files, translogOps);
+                sendFiles(store, filesToSend.toArray(new StoreFileMetaData[0]), translogOps);
                 // Send the CLEAN_FILES request, which takes all of the files that
                 // were transferred and renames them from their temporary file
                 // names to the actual file names. It also writes checksums for
@@ -681,44 +710,129 @@ public class RecoverySourceHandler {
                 '}';
     }
 
+    /**
+     * Asks the target to restore the given files from a snapshot repository that holds identical copies of them. Files that the
+     * target fails to restore, for instance because the snapshot holding them was deleted meanwhile, are not fatal.
+     *
+     * @return the files that the target did not restore and that have to be sent from this node
+     */
+    List<StoreFileMetaData> restoreFilesFromSnapshot(List<StoreFileMetaData> files, Supplier<Integer> translogOps) {
+        if (snapshotFilesProvider == null || files.isEmpty()) {
+            return files;
+        }
+        final SnapshotFilesProvider.ShardSnapshotFiles snapshotFiles = snapshotFilesProvider.findSnapshotFiles(request.shardId(),
+            shard.getHistoryUUID(), files);
+        if (snapshotFiles == null) {
+            return files;
+        }
+        final String repository = snapshotFiles.repository();
+        final LocalCheckpointTracker requestSeqIdTracker = new LocalCheckpointTracker(NO_OPS_PERFORMED, NO_OPS_PERFORMED);
+        final Set<String> restoredFiles = ConcurrentCollections.newConcurrentSet();
+        for (final BlobStoreIndexShardSnapshot.FileInfo fileInfo : snapshotFiles.files()) {
+            final long requestSeqId = requestSeqIdTracker.generateSeqNo();
+            cancellableThreads.execute(() -> requestSeqIdTracker.waitForOpsToComplete(requestSeqId - maxConcurrentFileChunks));
+            cancellableThreads.execute(() ->
+                recoveryTarget.restoreFileFromSnapshot(repository, snapshotFiles.indexId(), fileInfo, translogOps.get(),
+                    ActionListener.wrap(
+                        r -> {
+                            restoredFiles.add(fileInfo.physicalName());
+                            requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId);
+                        },
+                        e -> {
+                            logger.debug(() -> new ParameterizedMessage("recovery [phase1]: failed to restore [{}] from repository [{}]",
+                                fileInfo.physicalName(), repository), e);
+                            requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId);
+                        }
+                    )));
+        }
+        cancellableThreads.execute(() -> requestSeqIdTracker.waitForOpsToComplete(requestSeqIdTracker.getMaxSeqNo()));
+        final List<StoreFileMetaData> filesToSend = new ArrayList<>(files.size() - restoredFiles.size());
+        for (StoreFileMetaData md : files) {
+            if (restoredFiles.contains(md.name()) == false) {
+                filesToSend.add(md);
+            }
+        }
+        logger.trace("recovery [phase1]: restored [{}] files from repository [{}], sending [{}] files",
+            restoredFiles.size(), repository, filesToSend.size());
+        return filesToSend;
+    }
+
+    /**
+     * Sends the given files to the target in chunks. Up to {@link #maxConcurrentFiles} files are sent in parallel by interleaving their
+     * chunks, and the number of chunks in flight adapts to the round trip time of the chunks, see {@link FileChunkWindow}.
+     */
     void sendFiles(Store store, StoreFileMetaData[] files, Supplier<Integer> translogOps) throws Exception {
         ArrayUtil.timSort(files, Comparator.comparingLong(StoreFileMetaData::length)); // send smallest first
         final LocalCheckpointTracker requestSeqIdTracker = new LocalCheckpointTracker(NO_OPS_PERFORMED, NO_OPS_PERFORMED);
         final AtomicReference<Tuple<StoreFileMetaData, Exception>> error = new AtomicReference<>();
+        final FileChunkWindow window = new FileChunkWindow(maxConcurrentFileChunks, maxFileChunksInFlight, chunkSizeInBytes);
+        final AtomicInteger chunksInFlight = new AtomicInteger();
         final byte[] buffer = new byte[chunkSizeInBytes];
-        for (final StoreFileMetaData md : files) {
-            if (error.get() != null) {
-                break;
-            }
-            try (IndexInput indexInput = store.directory().openInput(md.name(), IOContext.READONCE);
-                 InputStream in = new InputStreamIndexInput(indexInput, md.length())) {
-                long position = 0;
-                int bytesRead;
-                while ((bytesRead = in.read(buffer, 0, buffer.length)) != -1) {
-                    final BytesArray content = new BytesArray(buffer, 0, bytesRead);
-                    final boolean lastChunk = position + content.length() == md.length();
-                    final long requestSeqId = requestSeqIdTracker.generateSeqNo();
-                    cancellableThreads.execute(() -> requestSeqIdTracker.waitForOpsToComplete(requestSeqId - maxConcurrentFileChunks));
-                    cancellableThreads.checkForCancel();
-                    if (error.get() != null) {
+        final Deque<FileChunkReader> readers = new ArrayDeque<>(maxConcurrentFiles);
+        int nextFile = 0;
+        try {
+            while (error.get() == null) {
+                while (readers.size() < maxConcurrentFiles && nextFile < files.length) {
+                    final StoreFileMetaData md = files[nextFile++];
+                    try {
+                        readers.add(new FileChunkReader(store, md));
+                    } catch (Exception e) {
+                        error.compareAndSet(null, Tuple.tuple(md, e));
                         break;
                     }
-                    final long requestFilePosition = position;
-                    cancellableThreads.executeIO(() ->
-                        recoveryTarget.writeFileChunk(md, requestFilePosition, content, lastChunk, translogOps.get(),
-                            ActionListener.wrap(
-                                r -> requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId),
-                                e -> {
-                                    error.compareAndSet(null, Tuple.tuple(md, e));
-                                    requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId);
-                                }
-                            )));
-                    position += content.length();
                 }
-            } catch (Exception e) {
-                error.compareAndSet(null, Tuple.tuple(md, e));
-                break;
+                final FileChunkReader reader = readers.poll();
+                if (reader == null || error.get() != null) {
+                    IOUtils.close(reader);
+                    break;
+                }
+                final StoreFileMetaData md = reader.md;
+                final long position = reader.position;
+                final int bytesRead;
+                try {
+                    bytesRead = reader.in.read(buffer, 0, buffer.length);
+                } catch (Exception e) {
+                    IOUtils.closeWhileHandlingException(reader);
+                    error.compareAndSet(null, Tuple.tuple(md, e));
+                    break;
+                }
+                if (bytesRead == -1) {
+                    reader.close();
+                    continue;
+                }
+                reader.position += bytesRead;
+                final boolean lastChunk = reader.position == md.length();
+                if (lastChunk) {
+                    reader.close();
+                } else {
+                    readers.add(reader);
+                }
+                final BytesArray content = new BytesArray(buffer, 0, bytesRead);
+                final long requestSeqId = requestSeqIdTracker.generateSeqNo();
+                cancellableThreads.execute(() -> requestSeqIdTracker.waitForOpsToComplete(requestSeqId - window.size()));
+                cancellableThreads.checkForCancel();
+                if (error.get() != null) {
+                    break;
+                }
+                chunksInFlight.incrementAndGet();
+                final long startTimeNanos = System.nanoTime();
+                cancellableThreads.executeIO(() ->
+                    recoveryTarget.writeFileChunk(md, position, content, lastChunk, translogOps.get(),
+                        ActionListener.wrap(
+                            r -> {
+                                window.onChunkAcknowledged(bytesRead, System.nanoTime() - startTimeNanos,
+                                    chunksInFlight.getAndDecrement());
+                                requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId);
+                            },
+                            e -> {
+                                chunksInFlight.decrementAndGet();
+                                error.compareAndSet(null, Tuple.tuple(md, e));
+                                requestSeqIdTracker.markSeqNoAsCompleted(requestSeqId);
+                            }
+                        )));
             }
+        } finally {
+            IOUtils.closeWhileHandlingException(readers);
         }
         // When we terminate exceptionally, we don't wait for the outstanding requests as we don't use their results anyway.
         // This allows us to end quickly and eliminate the complexity of handling requestSeqIds in case of error.
@@ -728,6 +842,28 @@ public class RecoverySourceHandler {
         if (error.get() != null) {
             handleErrorOnSendFiles(store, error.get().v1(), error.get().v2());
         }
+        logger.trace("recovery [phase1]: sent [{}] files with up to [{}] chunks in flight", files.length, window.size());
+    }
+
+    /**
+     * Reads the chunks of one of the files that are sent in parallel.
+     */
+    private static final class FileChunkReader implements Closeable {
+        final StoreFileMetaData md;
+        final IndexInput indexInput;
+        final InputStream in;
+        long position;
+
+        FileChunkReader(Store store, StoreFileMetaData md) throws IOException {
+            this.md = md;
+            this.indexInput = store.directory().openInput(md.name(), IOContext.READONCE);
+            this.in = new InputStreamIndexInput(indexInput, md.length());
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOUtils.close(in, indexInput);
+        }
     }
 
     private void handleErrorOnSendFiles(Store store, StoreFileMetaData md, Exception e) throws Exception {
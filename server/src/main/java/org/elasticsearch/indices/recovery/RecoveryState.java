@@ -19,6 +19,7 @@
 
 package org.elasticsearch.indices.recovery;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
@@ -349,6 +350,10 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
         static final String SOURCE_THROTTLE_TIME_IN_MILLIS = "source_throttle_time_in_millis";
         static final String TARGET_THROTTLE_TIME = "target_throttle_time";
         static final String TARGET_THROTTLE_TIME_IN_MILLIS = "target_throttle_time_in_millis";
+        static final String RECOVERED_PER_SEC = "recovered_per_sec";
+        static final String RECOVERED_IN_BYTES_PER_SEC = "recovered_in_bytes_per_sec";
+        static final String FILE_CHUNK_LATENCY = "file_chunk_latency";
+        static final String FILE_CHUNK_LATENCY_IN_MILLIS = "file_chunk_latency_in_millis";
     }
 
     public static class Timer implements Writeable {
@@ -637,6 +642,10 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             return reused;
         }
 
+        void resetRecoveredBytes() {
+            recovered = 0;
+        }
+
         boolean fullyRecovered() {
             return reused == false && length == recovered;
         }
@@ -685,6 +694,8 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
         private long version = UNKNOWN;
         private long sourceThrottlingInNanos = UNKNOWN;
         private long targetThrottleTimeInNanos = UNKNOWN;
+        private long fileChunkRoundTrips;
+        private long fileChunkRoundTripTimeInNanos;
 
         public Index() {
         }
@@ -698,6 +709,10 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             }
             sourceThrottlingInNanos = in.readLong();
             targetThrottleTimeInNanos = in.readLong();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                fileChunkRoundTrips = in.readVLong();
+                fileChunkRoundTripTimeInNanos = in.readVLong();
+            }
         }
 
         @Override
@@ -710,6 +725,10 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             }
             out.writeLong(sourceThrottlingInNanos);
             out.writeLong(targetThrottleTimeInNanos);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeVLong(fileChunkRoundTrips);
+                out.writeVLong(fileChunkRoundTripTimeInNanos);
+            }
         }
 
         public synchronized List<File> fileDetails() {
@@ -722,6 +741,8 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             fileDetails.clear();
             sourceThrottlingInNanos = UNKNOWN;
             targetThrottleTimeInNanos = UNKNOWN;
+            fileChunkRoundTrips = 0;
+            fileChunkRoundTripTimeInNanos = 0;
         }
 
         public synchronized void addFileDetail(String name, long length, boolean reused) {
@@ -735,6 +756,14 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             file.addRecoveredBytes(bytes);
         }
 
+        /**
+         * Discards the bytes recovered so far for the given file, because they are recovered again from the start
+         */
+        public synchronized void resetRecoveredBytesOfFile(String name) {
+            File file = fileDetails.get(name);
+            file.resetRecoveredBytes();
+        }
+
         public synchronized long version() {
             return this.version;
         }
@@ -763,6 +792,35 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             return TimeValue.timeValueNanos(targetThrottleTimeInNanos);
         }
 
+        /**
+         * Adds the round trips of file chunks as measured by the source, from sending a chunk until the target acknowledged it
+         */
+        public synchronized void addFileChunkRoundTrips(int roundTrips, long roundTripTimeInNanos) {
+            fileChunkRoundTrips += roundTrips;
+            fileChunkRoundTripTimeInNanos += roundTripTimeInNanos;
+        }
+
+        /**
+         * average time between the source sending a file chunk and the target acknowledging it, or 0 if not known
+         */
+        public synchronized TimeValue fileChunkLatency() {
+            if (fileChunkRoundTrips == 0) {
+                return TimeValue.ZERO;
+            }
+            return TimeValue.timeValueNanos(fileChunkRoundTripTimeInNanos / fileChunkRoundTrips);
+        }
+
+        /**
+         * number of bytes recovered per second since the start of the index stage
+         */
+        public synchronized long recoveredBytesPerSec() {
+            final long time = time();
+            if (time == 0) {
+                return 0;
+            }
+            return recoveredBytes() * 1000 / time;
+        }
+
         /**
          * total number of files that are part of this recovery, both re-used and recovered
          */
@@ -922,6 +980,8 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             builder.humanReadableField(Fields.REUSED_IN_BYTES, Fields.REUSED, new ByteSizeValue(reusedBytes()));
             builder.humanReadableField(Fields.RECOVERED_IN_BYTES, Fields.RECOVERED, new ByteSizeValue(recoveredBytes()));
             builder.field(Fields.PERCENT, String.format(Locale.ROOT, "%1.1f%%", recoveredBytesPercent()));
+            builder.humanReadableField(Fields.RECOVERED_IN_BYTES_PER_SEC, Fields.RECOVERED_PER_SEC,
+                new ByteSizeValue(recoveredBytesPerSec()));
             builder.endObject();
 
             builder.startObject(Fields.FILES);
@@ -940,6 +1000,7 @@ public class RecoveryState implements ToXContentFragment, Streamable, Writeable
             builder.humanReadableField(Fields.TOTAL_TIME_IN_MILLIS, Fields.TOTAL_TIME, new TimeValue(time()));
             builder.humanReadableField(Fields.SOURCE_THROTTLE_TIME_IN_MILLIS, Fields.SOURCE_THROTTLE_TIME, sourceThrottling());
             builder.humanReadableField(Fields.TARGET_THROTTLE_TIME_IN_MILLIS, Fields.TARGET_THROTTLE_TIME, targetThrottling());
+            builder.humanReadableField(Fields.FILE_CHUNK_LATENCY_IN_MILLIS, Fields.FILE_CHUNK_LATENCY, fileChunkLatency());
             return builder;
         }
 
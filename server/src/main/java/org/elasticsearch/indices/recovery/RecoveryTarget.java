@@ -29,6 +29,7 @@ import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.logging.Loggers;
@@ -44,11 +45,15 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardNotRecoveringException;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -67,6 +72,8 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
 
     private static final String RECOVERY_PREFIX = "recovery.";
 
+    private static final int SNAPSHOT_FILE_BUFFER_SIZE = 1 << 16;
+
     private final ShardId shardId;
     private final long recoveryId;
     private final IndexShard indexShard;
@@ -74,6 +81,8 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
     private final MultiFileWriter multiFileWriter;
     private final Store store;
     private final PeerRecoveryTargetService.RecoveryListener listener;
+    @Nullable
+    private final SnapshotFilesProvider snapshotFilesProvider;
 
     private final AtomicBoolean finished = new AtomicBoolean();
 
@@ -93,10 +102,25 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
      * @param listener                          called when recovery is completed/failed
      */
     public RecoveryTarget(IndexShard indexShard, DiscoveryNode sourceNode, PeerRecoveryTargetService.RecoveryListener listener) {
+        this(indexShard, sourceNode, null, listener);
+    }
+
+    /**
+     * Creates a new recovery target object that represents a recovery to the provided shard.
+     *
+     * @param indexShard                        local shard where we want to recover to
+     * @param sourceNode                        source node of the recovery where we recover from
+     * @param snapshotFilesProvider             reads the files that the source asks to restore from a snapshot repository,
+     *                                          {@code null} if files cannot be restored from repositories
+     * @param listener                          called when recovery is completed/failed
+     */
+    public RecoveryTarget(IndexShard indexShard, DiscoveryNode sourceNode, @Nullable SnapshotFilesProvider snapshotFilesProvider,
+                          PeerRecoveryTargetService.RecoveryListener listener) {
         super("recovery_status");
         this.cancellableThreads = new CancellableThreads();
         this.recoveryId = idGenerator.incrementAndGet();
         this.listener = listener;
+        this.snapshotFilesProvider = snapshotFilesProvider;
         this.logger = Loggers.getLogger(getClass(), indexShard.shardId());
         this.indexShard = indexShard;
         this.sourceNode = sourceNode;
@@ -116,7 +140,7 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
      * @return a copy of this recovery target
      */
     public RecoveryTarget retryCopy() {
-        return new RecoveryTarget(indexShard, sourceNode, listener);
+        return new RecoveryTarget(indexShard, sourceNode, snapshotFilesProvider, listener);
     }
 
     public long recoveryId() {
@@ -449,6 +473,48 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
         }
     }
 
+    @Override
+    public void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                        int totalTranslogOps, ActionListener<Void> listener) {
+        try {
+            if (snapshotFilesProvider == null) {
+                throw new IllegalStateException("cannot restore files from snapshot repositories on " + shardId);
+            }
+            state().getTranslog().totalOperations(totalTranslogOps);
+            try (InputStream stream = new CancellableInputStream(
+                    snapshotFilesProvider.openSnapshotFile(repository, indexId, shardId, fileInfo))) {
+                multiFileWriter.writeFile(fileInfo.metadata(), stream, new byte[SNAPSHOT_FILE_BUFFER_SIZE]);
+            }
+            logger.trace("restored [{}] from repository [{}]", fileInfo.physicalName(), repository);
+            listener.onResponse(null);
+        } catch (Exception e) {
+            listener.onFailure(e);
+        }
+    }
+
+    /**
+     * Stops the download of a file from a repository once the recovery is cancelled. The recovery is checked every time the
+     * writer asks for more bytes, because interrupting the downloading thread could close the file channels of the store.
+     */
+    private final class CancellableInputStream extends FilterInputStream {
+
+        CancellableInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            cancellableThreads.checkForCancel();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            cancellableThreads.checkForCancel();
+            return super.read(b, off, len);
+        }
+    }
+
     /** Get a temporary name for the provided file name. */
     public String getTempNameForFile(String origFile) {
         return multiFileWriter.getTempNameForFile(origFile);
@@ -22,9 +22,11 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.seqno.RetentionLeases;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 
 import java.io.IOException;
 import java.util.List;
@@ -97,4 +99,17 @@ public interface RecoveryTargetHandler {
     void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content,
                         boolean lastChunk, int totalTranslogOps, ActionListener<Void> listener);
 
+    /**
+     * Restores a file from a snapshot repository instead of receiving it in chunks. If this fails, the target discards the
+     * partially restored file so that it can still be sent with {@link #writeFileChunk}.
+     *
+     * @param repository       the name of the repository holding the file
+     * @param indexId          the id of the index in the repository
+     * @param fileInfo         the file in the snapshots of the shard
+     * @param totalTranslogOps an update number of translog operations that will be replayed later on
+     * @param listener         the listener which will be notified once the file is restored
+     */
+    void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                 int totalTranslogOps, ActionListener<Void> listener);
+
 }
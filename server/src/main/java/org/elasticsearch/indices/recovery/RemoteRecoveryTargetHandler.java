@@ -28,9 +28,11 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.seqno.RetentionLeases;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.EmptyTransportResponseHandler;
 import org.elasticsearch.transport.TransportRequestOptions;
@@ -39,6 +41,7 @@ import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
@@ -52,9 +55,14 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
 
     private final TransportRequestOptions translogOpsRequestOptions;
     private final TransportRequestOptions fileChunkRequestOptions;
+    private final TransportRequestOptions snapshotFileRequestOptions;
 
     private final AtomicLong bytesSinceLastPause = new AtomicLong();
 
+    // round trips of file chunks that were acknowledged since the last file chunk was sent, reported to the target with the next chunk
+    private final AtomicInteger unreportedRoundTrips = new AtomicInteger();
+    private final AtomicLong unreportedRoundTripTimeInNanos = new AtomicLong();
+
     private final Consumer<Long> onSourceThrottle;
 
     public RemoteRecoveryTargetHandler(long recoveryId, ShardId shardId, TransportService transportService,
@@ -74,7 +82,10 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
                 .withType(TransportRequestOptions.Type.RECOVERY)
                 .withTimeout(recoverySettings.internalActionTimeout())
                 .build();
-
+        // no timeout: the source sends a file itself once its restore failed, which must not happen while the target still writes it
+        this.snapshotFileRequestOptions = TransportRequestOptions.builder()
+                .withType(TransportRequestOptions.Type.RECOVERY)
+                .build();
     }
 
     @Override
@@ -171,6 +182,7 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
             throttleTimeInNanos = 0;
         }
 
+        final long startTimeInNanos = System.nanoTime();
         transportService.submitRequest(targetNode, PeerRecoveryTargetService.Actions.FILE_CHUNK,
             new RecoveryFileChunkRequest(recoveryId, shardId, fileMetaData, position, content, lastChunk,
                 totalTranslogOps,
@@ -178,8 +190,22 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
                  * see how many translog ops we accumulate while copying files across the network. A future optimization
                  * would be in to restart file copy again (new deltas) if we have too many translog ops are piling up.
                  */
-                throttleTimeInNanos), fileChunkRequestOptions, new ActionListenerResponseHandler<>(
-                    ActionListener.map(listener, r -> null), in -> TransportResponse.Empty.INSTANCE));
+                throttleTimeInNanos, unreportedRoundTrips.getAndSet(0), unreportedRoundTripTimeInNanos.getAndSet(0)),
+            fileChunkRequestOptions, new ActionListenerResponseHandler<>(
+                ActionListener.map(listener, r -> {
+                    unreportedRoundTripTimeInNanos.addAndGet(System.nanoTime() - startTimeInNanos);
+                    unreportedRoundTrips.incrementAndGet();
+                    return null;
+                }), in -> TransportResponse.Empty.INSTANCE));
+    }
+
+    @Override
+    public void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                        int totalTranslogOps, ActionListener<Void> listener) {
+        transportService.submitRequest(targetNode, PeerRecoveryTargetService.Actions.RESTORE_FILE_FROM_SNAPSHOT,
+            new RecoverySnapshotFileRequest(recoveryId, shardId, repository, indexId, fileInfo, totalTranslogOps),
+            snapshotFileRequestOptions, new ActionListenerResponseHandler<>(
+                ActionListener.map(listener, r -> null), in -> TransportResponse.Empty.INSTANCE, ThreadPool.Names.GENERIC));
     }
 
 }
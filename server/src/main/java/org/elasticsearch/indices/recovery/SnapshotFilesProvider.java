@@ -0,0 +1,236 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshots;
+import org.elasticsearch.index.snapshots.blobstore.SnapshotFiles;
+import org.elasticsearch.index.store.StoreFileMetaData;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.Repository;
+import org.elasticsearch.repositories.RepositoryData;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.snapshots.SnapshotId;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives peer recoveries access to the snapshots of the shard being recovered that are held by repositories with
+ * {@link BlobStoreRepository#USE_FOR_PEER_RECOVERY_SETTING} enabled. The recovery source uses it to find the files that
+ * the target can restore from a repository, and the target uses it to read those files.
+ */
+public class SnapshotFilesProvider {
+
+    private static final Logger logger = LogManager.getLogger(SnapshotFilesProvider.class);
+
+    private static final String SEGMENT_INFO_EXTENSION = "si";
+
+    private final RepositoriesService repositoriesService;
+
+    public SnapshotFilesProvider(RepositoriesService repositoriesService) {
+        this.repositoriesService = repositoriesService;
+    }
+
+    /**
+     * Finds the repository whose snapshots of the given shard hold identical copies of the largest part of the given files.
+     * Only snapshots of the same index, by UUID, whose commit has the same history as the shard are considered, since a
+     * deleted index that is recreated under the same name shares its snapshots. Repositories that cannot be read are skipped.
+     *
+     * @param shardId     the shard being recovered
+     * @param historyUUID the history UUID of the shard being recovered
+     * @param files       the files that the target is missing
+     * @return the copies held by that repository, or {@code null} if no repository holds a copy of any of the files
+     */
+    @Nullable
+    public ShardSnapshotFiles findSnapshotFiles(ShardId shardId, String historyUUID, List<StoreFileMetaData> files) {
+        ShardSnapshotFiles bestFiles = null;
+        long bestSize = 0;
+        for (Repository repository : repositoriesService.getRepositories().values()) {
+            if (repository instanceof BlobStoreRepository == false || ((BlobStoreRepository) repository).useForPeerRecovery() == false) {
+                continue;
+            }
+            final String repositoryName = repository.getMetadata().name();
+            try {
+                final RepositoryData repositoryData = repository.getRepositoryData();
+                final IndexId indexId = repositoryData.getIndices().get(shardId.getIndexName());
+                if (indexId == null) {
+                    continue;
+                }
+                final Map<String, SnapshotId> snapshotIds = new HashMap<>();
+                for (SnapshotId snapshotId : repositoryData.getSnapshots(indexId)) {
+                    snapshotIds.put(snapshotId.getName(), snapshotId);
+                }
+                final BlobStoreIndexShardSnapshots shardSnapshots =
+                    ((BlobStoreRepository) repository).loadShardSnapshots(indexId, shardId.id());
+                final Map<String, List<BlobStoreIndexShardSnapshot.FileInfo>> sameHistoryFiles = new HashMap<>();
+                for (SnapshotFiles snapshot : shardSnapshots.snapshots()) {
+                    final SnapshotId snapshotId = snapshotIds.get(snapshot.snapshot());
+                    if (snapshotId != null && isSameShard(repository, snapshotId, indexId, snapshot, shardId, historyUUID)) {
+                        for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : snapshot.indexFiles()) {
+                            sameHistoryFiles.computeIfAbsent(fileInfo.physicalName(), k -> new ArrayList<>()).add(fileInfo);
+                        }
+                    }
+                }
+                final List<BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles = new ArrayList<>();
+                long size = 0;
+                for (StoreFileMetaData md : files) {
+                    final BlobStoreIndexShardSnapshot.FileInfo fileInfo = findIdenticalFile(sameHistoryFiles.get(md.name()), md);
+                    if (fileInfo != null) {
+                        snapshotFiles.add(fileInfo);
+                        size += md.length();
+                    }
+                }
+                if (size > bestSize) {
+                    bestFiles = new ShardSnapshotFiles(repositoryName, indexId, snapshotFiles);
+                    bestSize = size;
+                }
+            } catch (Exception e) {
+                logger.debug(() -> new ParameterizedMessage("{} failed to list the snapshots of the shard in repository [{}]",
+                    shardId, repositoryName), e);
+            }
+        }
+        return bestFiles;
+    }
+
+    /**
+     * Checks that the given shard snapshot was taken from the same index, by UUID, and from a commit with the same history
+     * as the shard being recovered.
+     */
+    private static boolean isSameShard(Repository repository, SnapshotId snapshotId, IndexId indexId, SnapshotFiles snapshot,
+                                       ShardId shardId, String historyUUID) throws IOException {
+        final IndexMetaData indexMetaData = repository.getSnapshotIndexMetaData(snapshotId, indexId);
+        if (shardId.getIndex().getUUID().equals(indexMetaData.getIndexUUID()) == false) {
+            return false;
+        }
+        return historyUUID != null && historyUUID.equals(readHistoryUUID(snapshot));
+    }
+
+    /**
+     * Reads the history UUID of the commit that a shard snapshot was taken from. The metadata of the segments file and of the
+     * segment info files holds their whole content, so the commit can be read without downloading anything.
+     *
+     * @return the history UUID, or {@code null} if the commit cannot be read
+     */
+    @Nullable
+    static String readHistoryUUID(SnapshotFiles snapshot) {
+        try (Directory directory = new ByteBuffersDirectory()) {
+            String segmentsFileName = null;
+            for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : snapshot.indexFiles()) {
+                final String name = fileInfo.physicalName();
+                final boolean segmentsFile = name.startsWith(IndexFileNames.SEGMENTS);
+                if (segmentsFile == false && SEGMENT_INFO_EXTENSION.equals(IndexFileNames.getExtension(name)) == false) {
+                    continue;
+                }
+                final BytesRef content = fileInfo.metadata().hash();
+                if (content.length != fileInfo.length()) {
+                    return null;
+                }
+                try (IndexOutput output = directory.createOutput(name, IOContext.DEFAULT)) {
+                    output.writeBytes(content.bytes, content.offset, content.length);
+                }
+                if (segmentsFile) {
+                    segmentsFileName = name;
+                }
+            }
+            if (segmentsFileName == null) {
+                return null;
+            }
+            return SegmentInfos.readCommit(directory, segmentsFileName).getUserData().get(Engine.HISTORY_UUID_KEY);
+        } catch (IOException e) {
+            logger.debug(() -> new ParameterizedMessage("failed to read the commit of snapshot [{}]", snapshot.snapshot()), e);
+            return null;
+        }
+    }
+
+    @Nullable
+    private static BlobStoreIndexShardSnapshot.FileInfo findIdenticalFile(@Nullable List<BlobStoreIndexShardSnapshot.FileInfo> fileInfos,
+                                                                        StoreFileMetaData md) {
+        if (fileInfos != null) {
+            for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : fileInfos) {
+                // files without a checksum cannot be verified while they are restored
+                if (fileInfo.hasUnknownChecksum() == false && fileInfo.isSame(md)) {
+                    return fileInfo;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Opens a stream over the content of a file found by {@link #findSnapshotFiles(ShardId, String, List)}
+     */
+    public InputStream openSnapshotFile(String repositoryName, IndexId indexId, ShardId shardId,
+                                        BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+        final Repository repository = repositoriesService.repository(repositoryName);
+        if (repository instanceof BlobStoreRepository == false) {
+            throw new IllegalArgumentException("repository [" + repositoryName + "] cannot be used for peer recoveries");
+        }
+        return ((BlobStoreRepository) repository).openShardSnapshotFile(indexId, shardId.id(), fileInfo);
+    }
+
+    /**
+     * Copies of some files of a shard held by the snapshots in a repository
+     */
+    public static final class ShardSnapshotFiles {
+
+        private final String repository;
+        private final IndexId indexId;
+        private final List<BlobStoreIndexShardSnapshot.FileInfo> files;
+
+        public ShardSnapshotFiles(String repository, IndexId indexId, List<BlobStoreIndexShardSnapshot.FileInfo> files) {
+            this.repository = repository;
+            this.indexId = indexId;
+            this.files = Collections.unmodifiableList(files);
+        }
+
+        public String repository() {
+            return repository;
+        }
+
+        public IndexId indexId() {
+            return indexId;
+        }
+
+        public List<BlobStoreIndexShardSnapshot.FileInfo> files() {
+            return files;
+        }
+    }
+}
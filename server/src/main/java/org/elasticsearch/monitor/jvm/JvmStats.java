@@ -116,6 +116,83 @@ public class JvmStats implements Writeable, ToXContentFragment {
                 garbageCollectors, bufferPoolsList, classes);
     }
 
+    /**
+     * The minimum time between two samples returned by {@link #sampleLoad()}
+     */
+    static final long LOAD_SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static volatile LoadSample lastLoadSample;
+
+    /**
+     * Returns the total garbage collection time and the heap usage of the JVM. The MXBeans are queried at most once per
+     * {@link #LOAD_SAMPLE_INTERVAL_NANOS}, callers in between get the previous sample, so that this can be called on every
+     * shard request.
+     */
+    public static LoadSample sampleLoad() {
+        final long now = System.nanoTime();
+        LoadSample sample = lastLoadSample;
+        if (sample == null || now - sample.nanoTime >= LOAD_SAMPLE_INTERVAL_NANOS) {
+            // concurrent callers may sample at the same time, the last one wins
+            sample = new LoadSample(now, totalGcCollectionTimeInMillis(), heapUsedPercent());
+            lastLoadSample = sample;
+        }
+        return sample;
+    }
+
+    /**
+     * A sample of the signals of memory pressure of the JVM, see {@link #sampleLoad()}
+     */
+    public static final class LoadSample {
+        private final long nanoTime;
+        private final long gcCollectionTimeInMillis;
+        private final short heapUsedPercent;
+
+        LoadSample(long nanoTime, long gcCollectionTimeInMillis, short heapUsedPercent) {
+            this.nanoTime = nanoTime;
+            this.gcCollectionTimeInMillis = gcCollectionTimeInMillis;
+            this.heapUsedPercent = heapUsedPercent;
+        }
+
+        /**
+         * See {@link #totalGcCollectionTimeInMillis()}
+         */
+        public long getGcCollectionTimeInMillis() {
+            return gcCollectionTimeInMillis;
+        }
+
+        /**
+         * See {@link #heapUsedPercent()}
+         */
+        public short getHeapUsedPercent() {
+            return heapUsedPercent;
+        }
+    }
+
+    /**
+     * Returns the total time that the garbage collectors spent collecting since the JVM started, in milliseconds. This is
+     * much cheaper than {@link #jvmStats()} for callers that sample it often.
+     */
+    public static long totalGcCollectionTimeInMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gcMxBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // -1 if the collection time is undefined for this collector
+            total += Math.max(0, gcMxBean.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Returns the percentage of the maximum heap size that is used, or -1 if the maximum heap size is unknown. This is
+     * much cheaper than {@link #jvmStats()} for callers that sample it often.
+     */
+    public static short heapUsedPercent() {
+        final MemoryUsage memUsage = memoryMXBean.getHeapMemoryUsage();
+        if (memUsage.getMax() <= 0) {
+            return -1;
+        }
+        return (short) (Math.max(0, memUsage.getUsed()) * 100 / memUsage.getMax());
+    }
+
     private final long timestamp;
     private final long uptime;
     private final Mem mem;
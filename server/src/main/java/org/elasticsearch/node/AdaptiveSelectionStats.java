@@ -37,8 +37,9 @@ import java.util.stream.Collectors;
 
 /**
  * Class representing statistics about adaptive replica selection. This includes
- * EWMA of queue size, service time, and response time, as well as outgoing
- * searches to each node and the "rank" based on the ARS formula.
+ * EWMA of queue size, service time, response time, rejections, garbage collection
+ * overhead and heap usage, as well as outgoing searches to each node and the "rank"
+ * based on the ARS formula.
  */
 public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
 
@@ -81,6 +82,16 @@ public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
                     builder.field("avg_response_time", new TimeValue((long) stats.responseTime, TimeUnit.NANOSECONDS).toString());
                 }
                 builder.field("avg_response_time_ns", (long) stats.responseTime);
+                builder.field("avg_rejections", stats.rejections);
+                builder.field("avg_gc_overhead_percent", stats.gcOverhead * 100);
+                if (stats.heapUsedPercent >= 0) {
+                    builder.field("avg_heap_used_percent", stats.heapUsedPercent);
+                }
+                if (builder.humanReadable()) {
+                    builder.field("stats_age", new TimeValue(stats.statsAgeNanos, TimeUnit.NANOSECONDS).toString());
+                }
+                builder.field("stats_age_ns", stats.statsAgeNanos);
+                builder.field("stale", stats.isStale());
                 builder.field("rank", String.format(Locale.ROOT, "%.1f", stats.rank(outgoingSearches)));
             }
             builder.endObject();
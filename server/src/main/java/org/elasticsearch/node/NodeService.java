@@ -31,6 +31,7 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.SettingsFilter;
 import org.elasticsearch.discovery.Discovery;
+import org.elasticsearch.discovery.DiscoveryStats;
 import org.elasticsearch.http.HttpServerTransport;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
@@ -60,6 +61,7 @@ public class NodeService implements Closeable {
     private final SearchTransportService searchTransportService;
 
     private final Discovery discovery;
+    private final ClusterService clusterService;
 
     NodeService(Settings settings, ThreadPool threadPool, MonitorService monitorService, Discovery discovery,
                 TransportService transportService, IndicesService indicesService, PluginsService pluginService,
@@ -73,6 +75,7 @@ public class NodeService implements Closeable {
         this.transportService = transportService;
         this.indicesService = indicesService;
         this.discovery = discovery;
+        this.clusterService = clusterService;
         this.pluginService = pluginService;
         this.circuitBreakerService = circuitBreakerService;
         this.httpServerTransport = httpServerTransport;
@@ -116,12 +119,18 @@ public class NodeService implements Closeable {
                 http ? (httpServerTransport == null ? null : httpServerTransport.stats()) : null,
                 circuitBreaker ? circuitBreakerService.stats() : null,
                 script ? scriptService.stats() : null,
-                discoveryStats ? discovery.stats() : null,
+                discoveryStats ? discoveryStats() : null,
                 ingest ? ingestService.stats() : null,
                 adaptiveSelection ? responseCollectorService.getAdaptiveStats(searchTransportService.getPendingSearchRequests()) : null
         );
     }
 
+    private DiscoveryStats discoveryStats() {
+        final DiscoveryStats stats = discovery.stats();
+        return new DiscoveryStats(stats == null ? null : stats.getQueueStats(), stats == null ? null : stats.getPublishStats(),
+            clusterService.getClusterApplierService().stats(), clusterService.getMasterService().getPendingTaskLatencyStats());
+    }
+
     public IngestService getIngestService() {
         return ingestService;
     }
@@ -19,11 +19,11 @@
 
 package org.elasticsearch.node;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterStateListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.ClusterService;
-import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -35,19 +35,56 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 /**
  * Collects statistics about queue size, response time, and service time of
  * tasks executed on each node, making the EWMA of the values available to the
- * coordinating node.
+ * coordinating node. Search responses also carry signals of the load of the
+ * node beyond its queue: the number of searches it rejected, the time it spent
+ * in garbage collections and its heap usage, which are taken into account by
+ * the rank of the node.
  */
 public final class ResponseCollectorService implements ClusterStateListener {
 
     private static final double ALPHA = 0.3;
 
+    /**
+     * The weight of the statistics of a node halves for every this much time that passes without a response from it,
+     * so that the statistics of a node that wasn't queried for a while quickly follow its next responses.
+     */
+    static final long STATS_HALF_LIFE_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * The statistics of a node that didn't respond for this long are stale: the node may be stuck, for instance in a
+     * long garbage collection, so its rank is multiplied by {@link #STALE_RANK_PENALTY} rather than trusting its last
+     * responses. It is still ranked from its statistics and not like a node that was never queried, which would put it
+     * first.
+     */
+    static final long STALE_STATS_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * The factor by which the rank of a node with stale statistics is multiplied.
+     */
+    static final double STALE_RANK_PENALTY = 2.0;
+
+    /**
+     * The minimum time between two samples of the garbage collection overhead of a node, shorter intervals are too
+     * coarse for the millisecond resolution of the collection time.
+     */
+    static final long MIN_GC_SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
     private final ConcurrentMap<String, NodeStatistics> nodeIdToStats = ConcurrentCollections.newConcurrentMap();
+    private final LongSupplier relativeNanos;
 
     public ResponseCollectorService(ClusterService clusterService) {
+        this(clusterService, System::nanoTime);
+    }
+
+    // for tests
+    public ResponseCollectorService(ClusterService clusterService, LongSupplier relativeNanos) {
+        this.relativeNanos = relativeNanos;
         clusterService.addListener(this);
     }
 
@@ -64,27 +101,69 @@ public final class ResponseCollectorService implements ClusterStateListener {
         nodeIdToStats.remove(nodeId);
     }
 
+    /**
+     * Adds the queue size, response time and service time of a node. Unlike {@link #addNodeResponse} this doesn't
+     * count as a response of the node for the decay of its statistics.
+     */
     public void addNodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long avgServiceTimeNanos) {
+        final long now = relativeNanos.getAsLong();
         nodeIdToStats.compute(nodeId, (id, ns) -> {
             if (ns == null) {
-                ExponentiallyWeightedMovingAverage queueEWMA = new ExponentiallyWeightedMovingAverage(ALPHA, queueSize);
-                ExponentiallyWeightedMovingAverage responseEWMA = new ExponentiallyWeightedMovingAverage(ALPHA, responseTimeNanos);
-                return new NodeStatistics(nodeId, queueEWMA, responseEWMA, avgServiceTimeNanos);
+                return new NodeStatistics(nodeId, queueSize, responseTimeNanos, avgServiceTimeNanos, now);
             } else {
-                ns.queueSize.addValue((double) queueSize);
-                ns.responseTime.addValue((double) responseTimeNanos);
-                ns.serviceTime = avgServiceTimeNanos;
+                ns.addTimes(ALPHA, queueSize, responseTimeNanos, avgServiceTimeNanos);
                 return ns;
             }
         });
     }
 
+    /**
+     * Adds the statistics that a node returned with a search response.
+     *
+     * @param rejectedCount   the total number of searches that the node rejected since it started, -1 if unknown
+     * @param gcTimeMillis    the total time that the node spent in garbage collections since it started, -1 if unknown
+     * @param heapUsedPercent the percentage of its maximum heap size that the node uses, -1 if unknown
+     */
+    public void addNodeResponse(String nodeId, int queueSize, long responseTimeNanos, long avgServiceTimeNanos,
+                                long rejectedCount, long gcTimeMillis, int heapUsedPercent) {
+        final long now = relativeNanos.getAsLong();
+        nodeIdToStats.compute(nodeId, (id, ns) -> {
+            final double alpha;
+            if (ns == null) {
+                ns = new NodeStatistics(nodeId, queueSize, responseTimeNanos, avgServiceTimeNanos, now);
+                alpha = 1.0;
+            } else {
+                alpha = decayedAlpha(now - ns.lastResponseNanos);
+                ns.addTimes(alpha, queueSize, responseTimeNanos, avgServiceTimeNanos);
+            }
+            ns.addLoad(alpha, now, rejectedCount, gcTimeMillis, heapUsedPercent);
+            ns.lastResponseNanos = now;
+            return ns;
+        });
+    }
+
+    /**
+     * Returns the weight of a new value of an average whose last value was added {@code elapsedNanos} ago: the weight of
+     * the previous values halves every {@link #STATS_HALF_LIFE_NANOS}.
+     */
+    static double decayedAlpha(long elapsedNanos) {
+        if (elapsedNanos <= 0) {
+            return ALPHA;
+        }
+        return 1 - (1 - ALPHA) * Math.pow(0.5, (double) elapsedNanos / STATS_HALF_LIFE_NANOS);
+    }
+
+    private static double average(double alpha, double newValue, double currentAvg) {
+        return (alpha * newValue) + ((1 - alpha) * currentAvg);
+    }
+
     public Map<String, ComputedNodeStats> getAllNodeStatistics() {
         final int clientNum = nodeIdToStats.size();
+        final long now = relativeNanos.getAsLong();
         // Transform the mutable object internally used for accounting into the computed version
         Map<String, ComputedNodeStats> nodeStats = new HashMap<>(nodeIdToStats.size());
         nodeIdToStats.forEach((k, v) -> {
-            nodeStats.put(k, new ComputedNodeStats(clientNum, v));
+            nodeStats.put(k, new ComputedNodeStats(clientNum, v, now));
         });
         return nodeStats;
     }
@@ -100,13 +179,14 @@ public final class ResponseCollectorService implements ClusterStateListener {
      */
     public Optional<ComputedNodeStats> getNodeStatistics(final String nodeId) {
         final int clientNum = nodeIdToStats.size();
-        return Optional.ofNullable(nodeIdToStats.get(nodeId)).map(ns -> new ComputedNodeStats(clientNum, ns));
+        final long now = relativeNanos.getAsLong();
+        return Optional.ofNullable(nodeIdToStats.get(nodeId)).map(ns -> new ComputedNodeStats(clientNum, ns, now));
     }
 
     /**
      * Struct-like class encapsulating a point-in-time snapshot of a particular
      * node's statistics. This includes the EWMA of queue size, response time,
-     * and service time.
+     * service time, rejections, garbage collection overhead and heap usage.
      */
     public static class ComputedNodeStats implements Writeable {
         // We store timestamps with nanosecond precision, however, the
@@ -121,18 +201,32 @@ public final class ResponseCollectorService implements ClusterStateListener {
         public final int queueSize;
         public final double responseTime;
         public final double serviceTime;
+        public final double rejections;
+        public final double gcOverhead;
+        public final int heapUsedPercent;
+        public final long statsAgeNanos;
 
         public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime) {
+            this(nodeId, clientNum, queueSize, responseTime, serviceTime, 0, 0, -1, 0);
+        }
+
+        public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime,
+                                 double rejections, double gcOverhead, int heapUsedPercent, long statsAgeNanos) {
             this.nodeId = nodeId;
             this.clientNum = clientNum;
             this.queueSize = queueSize;
             this.responseTime = responseTime;
             this.serviceTime = serviceTime;
+            this.rejections = rejections;
+            this.gcOverhead = gcOverhead;
+            this.heapUsedPercent = heapUsedPercent;
+            this.statsAgeNanos = statsAgeNanos;
         }
 
-        ComputedNodeStats(int clientNum, NodeStatistics nodeStats) {
-            this(nodeStats.nodeId, clientNum,
-                    (int) nodeStats.queueSize.getAverage(), nodeStats.responseTime.getAverage(), nodeStats.serviceTime);
+        ComputedNodeStats(int clientNum, NodeStatistics nodeStats, long nowNanos) {
+            this(nodeStats.nodeId, clientNum, (int) nodeStats.queueSize, nodeStats.responseTime, nodeStats.serviceTime,
+                nodeStats.rejections, nodeStats.gcOverhead, (int) Math.round(nodeStats.heapUsedPercent),
+                Math.max(0, nowNanos - nodeStats.lastResponseNanos));
         }
 
         ComputedNodeStats(StreamInput in) throws IOException {
@@ -141,6 +235,17 @@ public final class ResponseCollectorService implements ClusterStateListener {
             this.queueSize = in.readInt();
             this.responseTime = in.readDouble();
             this.serviceTime = in.readDouble();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                this.rejections = in.readDouble();
+                this.gcOverhead = in.readDouble();
+                this.heapUsedPercent = in.readInt();
+                this.statsAgeNanos = in.readVLong();
+            } else {
+                this.rejections = 0;
+                this.gcOverhead = 0;
+                this.heapUsedPercent = -1;
+                this.statsAgeNanos = 0;
+            }
         }
 
         @Override
@@ -150,6 +255,28 @@ public final class ResponseCollectorService implements ClusterStateListener {
             out.writeInt(this.queueSize);
             out.writeDouble(this.responseTime);
             out.writeDouble(this.serviceTime);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeDouble(this.rejections);
+                out.writeDouble(this.gcOverhead);
+                out.writeInt(this.heapUsedPercent);
+                out.writeVLong(this.statsAgeNanos);
+            }
+        }
+
+        /**
+         * Whether the node didn't respond for so long that its rank is penalized, see {@link #STALE_STATS_NANOS}.
+         */
+        public boolean isStale() {
+            return statsAgeNanos >= STALE_STATS_NANOS;
+        }
+
+        /**
+         * Returns the memory pressure of the node, between 0 and 1: the fraction of time that it spent in garbage
+         * collections, or how far its heap usage is above 85%, whichever is higher.
+         */
+        public double memoryPressure() {
+            final double heapPressure = heapUsedPercent > 85 ? (heapUsedPercent - 85) / 15.0 : 0;
+            return Math.min(1, Math.max(0, Math.max(gcOverhead, heapPressure)));
         }
 
         /**
@@ -177,6 +304,19 @@ public final class ResponseCollectorService implements ClusterStateListener {
 
             // The final formula
             double rank = rS - (1.0 / muBarS) + (Math.pow(qHatS, queueAdjustmentFactor) / muBarS);
+
+            // The queue of a node that rejects searches is full, which its queue size only reflects once
+            // it responds again: the rank doubles for every search rejected per response on average
+            rank *= 1 + rejections;
+
+            // A node that is busy collecting garbage is slower than its last responses suggest, the rank
+            // grows up to ten times with the memory pressure of the node
+            rank /= 1 - 0.9 * memoryPressure();
+
+            // A node that didn't respond for a long time may be stuck, its last responses overestimate it
+            if (isStale()) {
+                rank *= STALE_RANK_PENALTY;
+            }
             return rank;
         }
 
@@ -195,6 +335,10 @@ public final class ResponseCollectorService implements ClusterStateListener {
             sb.append(", queue: ").append(queueSize);
             sb.append(", response time: ").append(String.format(Locale.ROOT, "%.1f", responseTime));
             sb.append(", service time: ").append(String.format(Locale.ROOT, "%.1f", serviceTime));
+            sb.append(", rejections: ").append(String.format(Locale.ROOT, "%.2f", rejections));
+            sb.append(", gc overhead: ").append(String.format(Locale.ROOT, "%.2f", gcOverhead));
+            sb.append(", heap used: ").append(heapUsedPercent);
+            sb.append(", age: ").append(statsAgeNanos);
             sb.append(", rank: ").append(String.format(Locale.ROOT, "%.1f", rank(1)));
             sb.append(")");
             return sb.toString();
@@ -203,23 +347,61 @@ public final class ResponseCollectorService implements ClusterStateListener {
 
     /**
      * Class encapsulating a node's exponentially weighted queue size, response
-     * time, and service time, however, this class is private and intended only
-     * to be used for the internal accounting of {@code ResponseCollectorService}.
+     * time, service time and load signals, however, this class is private and
+     * intended only to be used for the internal accounting of
+     * {@code ResponseCollectorService}. It is only modified while its entry in
+     * the map of statistics is locked.
      */
     private static class NodeStatistics {
         final String nodeId;
-        final ExponentiallyWeightedMovingAverage queueSize;
-        final ExponentiallyWeightedMovingAverage responseTime;
-        double serviceTime;
-
-        NodeStatistics(String nodeId,
-                       ExponentiallyWeightedMovingAverage queueSizeEWMA,
-                       ExponentiallyWeightedMovingAverage responseTimeEWMA,
-                       double serviceTimeEWMA) {
+        volatile double queueSize;
+        volatile double responseTime;
+        volatile double serviceTime;
+        volatile double rejections;
+        volatile double gcOverhead;
+        volatile double heapUsedPercent = -1;
+        volatile long lastResponseNanos;
+
+        // the last values of the totals that the node returned, to compute the increments
+        long lastRejectedCount = -1;
+        long lastGcTimeMillis = -1;
+        long lastGcSampleNanos;
+
+        NodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long serviceTimeNanos, long nowNanos) {
             this.nodeId = nodeId;
-            this.queueSize = queueSizeEWMA;
-            this.responseTime = responseTimeEWMA;
-            this.serviceTime = serviceTimeEWMA;
+            this.queueSize = queueSize;
+            this.responseTime = responseTimeNanos;
+            this.serviceTime = serviceTimeNanos;
+            this.lastResponseNanos = nowNanos;
+        }
+
+        void addTimes(double alpha, int queueSize, long responseTimeNanos, long serviceTimeNanos) {
+            this.queueSize = average(alpha, queueSize, this.queueSize);
+            this.responseTime = average(alpha, responseTimeNanos, this.responseTime);
+            this.serviceTime = serviceTimeNanos;
+        }
+
+        void addLoad(double alpha, long nowNanos, long rejectedCount, long gcTimeMillis, int heapUsedPercent) {
+            if (rejectedCount >= 0) {
+                final long newRejections = lastRejectedCount >= 0 ? Math.max(0, rejectedCount - lastRejectedCount) : 0;
+                lastRejectedCount = rejectedCount;
+                rejections = average(alpha, newRejections, rejections);
+            }
+            if (gcTimeMillis >= 0) {
+                if (lastGcTimeMillis < 0) {
+                    lastGcTimeMillis = gcTimeMillis;
+                    lastGcSampleNanos = nowNanos;
+                } else if (nowNanos - lastGcSampleNanos >= MIN_GC_SAMPLE_INTERVAL_NANOS) {
+                    final long gcNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, gcTimeMillis - lastGcTimeMillis));
+                    final double overhead = Math.min(1.0, (double) gcNanos / (nowNanos - lastGcSampleNanos));
+                    gcOverhead = average(decayedAlpha(nowNanos - lastGcSampleNanos), overhead, gcOverhead);
+                    lastGcTimeMillis = gcTimeMillis;
+                    lastGcSampleNanos = nowNanos;
+                }
+            }
+            if (heapUsedPercent >= 0) {
+                this.heapUsedPercent = this.heapUsedPercent < 0 ? heapUsedPercent : average(alpha, heapUsedPercent, this.heapUsedPercent);
+            }
         }
     }
 }
@@ -368,6 +368,13 @@ public class RepositoriesService implements ClusterStateApplier {
         throw new RepositoryMissingException(repositoryName);
     }
 
+    /**
+     * Returns the repositories that are registered in the cluster, by name. Internal repositories are not included.
+     */
+    public Map<String, Repository> getRepositories() {
+        return repositories;
+    }
+
     public void registerInternalRepository(String name, String type) {
         RepositoryMetaData metaData = new RepositoryMetaData(name, type, Settings.EMPTY);
         Repository repository = internalRepositories.computeIfAbsent(name, (n) -> {
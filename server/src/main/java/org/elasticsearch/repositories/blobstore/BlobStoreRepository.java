@@ -37,6 +37,7 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.metadata.RepositoryMetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.CheckedRunnable;
 import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.UUIDs;
@@ -48,6 +49,7 @@ import org.elasticsearch.common.blobstore.fs.FsBlobContainer;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.hash.MessageDigests;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.compress.NotXContentException;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
@@ -103,11 +105,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo.canonicalName;
@@ -191,6 +199,10 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
     private static final String DATA_BLOB_PREFIX = "__";
 
+    private static final String CONTENT_BLOB_PREFIX = "sha256-";
+
+    private static final String FILES_PATH = "files";
+
     /**
      * When set to true metadata files are stored in compressed format. This setting doesn’t affect index
      * files that are already compressed by default. Changing the setting does not invalidate existing files since reads
@@ -198,6 +210,36 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      */
     public static final Setting<Boolean> COMPRESS_SETTING = Setting.boolSetting("compress", true, Setting.Property.NodeScope);
 
+    /**
+     * The maximum number of snapshot threads of this node that help a shard snapshot or restore to transfer its files, or parts
+     * of files, in parallel. The thread the shard is snapshotted or restored on always transfers files as well. Setting this to
+     * {@code 0} transfers the files of each shard sequentially.
+     */
+    public static final Setting<Integer> MAX_PARALLEL_FILE_TRANSFERS_SETTING =
+        Setting.intSetting("max_parallel_file_transfers", 4, 0, Setting.Property.NodeScope);
+
+    /**
+     * When set to true new index files are stored once per repository, under a name derived from the SHA-256 hash of their
+     * content, instead of once per shard. Identical files of different indices, for instance of a shrunk, split or restored
+     * index, are then only uploaded once. Files that no snapshot references anymore are deleted when a snapshot is deleted.
+     * Snapshots taken with this setting can only be restored by nodes that know about content-addressed files.
+     */
+    public static final Setting<Boolean> DEDUPLICATE_FILES_SETTING =
+        Setting.boolSetting("deduplicate_files", false, Setting.Property.NodeScope);
+
+    /**
+     * The version from which on nodes can snapshot and restore content-addressed files. Snapshots of repositories that
+     * {@link #DEDUPLICATE_FILES_SETTING deduplicate files} can only be created once all nodes of the cluster are on this version.
+     */
+    public static final Version DEDUPLICATE_FILES_VERSION = Version.V_8_0_0;
+
+    /**
+     * When set to true, a node recovering a shard copy from its primary restores the files that a snapshot in this repository
+     * holds identical copies of from the repository, and only receives the remaining files from the primary.
+     */
+    public static final Setting<Boolean> USE_FOR_PEER_RECOVERY_SETTING =
+        Setting.boolSetting("use_for_peer_recovery", false, Setting.Property.NodeScope);
+
     private final Settings settings;
 
     private final boolean compress;
@@ -210,6 +252,12 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
     private final CounterMetric restoreRateLimitingTimeInNanos = new CounterMetric();
 
+    private final ParallelTransfers parallelTransfers;
+
+    private final boolean deduplicateFiles;
+
+    private final boolean useForPeerRecovery;
+
     private final ChecksumBlobStoreFormat<MetaData> globalMetaDataFormat;
 
     private final ChecksumBlobStoreFormat<IndexMetaData> indexMetaDataFormat;
@@ -241,6 +289,9 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         snapshotRateLimiter = getRateLimiter(metadata.settings(), "max_snapshot_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB));
         restoreRateLimiter = getRateLimiter(metadata.settings(), "max_restore_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB));
         readOnly = metadata.settings().getAsBoolean("readonly", false);
+        parallelTransfers = new ParallelTransfers(MAX_PARALLEL_FILE_TRANSFERS_SETTING.get(metadata.settings()));
+        deduplicateFiles = DEDUPLICATE_FILES_SETTING.get(metadata.settings());
+        useForPeerRecovery = USE_FOR_PEER_RECOVERY_SETTING.get(metadata.settings());
 
         indexShardSnapshotFormat = new ChecksumBlobStoreFormat<>(SNAPSHOT_CODEC, SNAPSHOT_NAME_FORMAT,
             BlobStoreIndexShardSnapshot::fromXContent, namedXContentRegistry, compress);
@@ -339,6 +390,24 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         return store;
     }
 
+    /**
+     * Returns the container holding the content-addressed files shared by all shards of the repository
+     */
+    private BlobContainer filesBlobContainer() {
+        return blobStore().blobContainer(basePath().add(FILES_PATH));
+    }
+
+    /**
+     * Returns the container that holds the blobs of the given file of a shard snapshot stored in {@code shardContainer}
+     */
+    private BlobContainer blobContainerFor(BlobStoreIndexShardSnapshot.FileInfo fileInfo, BlobContainer shardContainer) {
+        return isContentAddressed(fileInfo) ? filesBlobContainer() : shardContainer;
+    }
+
+    private static boolean isContentAddressed(BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+        return fileInfo.name().startsWith(CONTENT_BLOB_PREFIX);
+    }
+
     /**
      * Creates new BlobStore to read and write data.
      */
@@ -475,11 +544,68 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                             "[{}] indices {} are no longer part of any snapshots in the repository, " +
                         "but failed to clean up their index folders.", metadata.name(), indicesToCleanUp), ioe);
                 }
+
+            deleteUnreferencedContentBlobs(updatedRepositoryData);
         } catch (IOException | ResourceNotFoundException ex) {
             throw new RepositoryException(metadata.name(), "failed to delete snapshot [" + snapshotId + "]", ex);
         }
     }
 
+    /**
+     * Deletes the content-addressed file blobs that are no longer referenced by any shard snapshot in the repository. Nothing
+     * is deleted if the files referenced by any shard cannot be determined.
+     */
+    private void deleteUnreferencedContentBlobs(final RepositoryData repositoryData) {
+        final BlobContainer filesBlobContainer = filesBlobContainer();
+        final Map<String, BlobMetaData> blobs;
+        try {
+            blobs = filesBlobContainer.listBlobs();
+        } catch (IOException e) {
+            logger.warn(() -> new ParameterizedMessage("[{}] failed to list content-addressed files", metadata.name()), e);
+            return;
+        }
+        if (blobs.isEmpty()) {
+            return;
+        }
+        final Set<String> referencedFiles = new HashSet<>();
+        for (IndexId indexId : repositoryData.getIndices().values()) {
+            final Set<SnapshotId> snapshotIds = repositoryData.getSnapshots(indexId);
+            if (snapshotIds.isEmpty()) {
+                continue;
+            }
+            try {
+                // indices that are deleted and recreated with the same name share their index id, and may have been snapshotted
+                // with different numbers of shards, so every shard that any of the snapshots of the index holds must be checked
+                SnapshotId snapshotId = null;
+                IndexMetaData indexMetaData = null;
+                for (SnapshotId candidate : snapshotIds) {
+                    final IndexMetaData candidateMetaData = getSnapshotIndexMetaData(candidate, indexId);
+                    if (indexMetaData == null || candidateMetaData.getNumberOfShards() > indexMetaData.getNumberOfShards()) {
+                        snapshotId = candidate;
+                        indexMetaData = candidateMetaData;
+                    }
+                }
+                for (int shardId = 0; shardId < indexMetaData.getNumberOfShards(); shardId++) {
+                    final Context context = new Context(snapshotId, indexId, new ShardId(indexMetaData.getIndex(), shardId));
+                    context.collectContentAddressedFiles(referencedFiles);
+                }
+            } catch (Exception e) {
+                logger.warn(() -> new ParameterizedMessage("[{}] failed to load the files referenced by index [{}], " +
+                    "skipping the clean up of unreferenced content-addressed files", metadata.name(), indexId), e);
+                return;
+            }
+        }
+        final List<String> orphanedBlobs = blobs.keySet().stream()
+            .filter(blobName -> blobName.startsWith(CONTENT_BLOB_PREFIX) && referencedFiles.contains(canonicalName(blobName)) == false)
+            .collect(Collectors.toList());
+        try {
+            filesBlobContainer.deleteBlobsIgnoringIfNotExists(orphanedBlobs);
+        } catch (IOException e) {
+            logger.warn(() -> new ParameterizedMessage("[{}] failed to delete unreferenced content-addressed files {}",
+                metadata.name(), orphanedBlobs), e);
+        }
+    }
+
     private void deleteSnapshotBlobIgnoringErrors(final SnapshotInfo snapshotInfo, final String blobId) {
         try {
             snapshotFormat.delete(blobContainer(), blobId);
@@ -836,7 +962,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     @Override
     public void snapshotShard(IndexShard shard, Store store, SnapshotId snapshotId, IndexId indexId, IndexCommit snapshotIndexCommit,
                               IndexShardSnapshotStatus snapshotStatus) {
-        SnapshotContext snapshotContext = new SnapshotContext(store, snapshotId, indexId, snapshotStatus, System.currentTimeMillis());
+        SnapshotContext snapshotContext = new SnapshotContext(store, snapshotId, indexId, snapshotStatus, System.currentTimeMillis(),
+            shard.getThreadPool().executor(ThreadPool.Names.SNAPSHOT));
         try {
             snapshotContext.snapshot(snapshotIndexCommit);
         } catch (Exception e) {
@@ -855,7 +982,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         final Context context = new Context(snapshotId, indexId, shard.shardId(), snapshotShardId);
         BlobPath path = basePath().add("indices").add(indexId.getId()).add(Integer.toString(snapshotShardId.getId()));
         BlobContainer blobContainer = blobStore().blobContainer(path);
-        final RestoreContext snapshotContext = new RestoreContext(shard, snapshotId, recoveryState, blobContainer);
+        final RestoreContext snapshotContext = new RestoreContext(shard, snapshotId, recoveryState, blobContainer,
+            shard.getThreadPool().executor(ThreadPool.Names.SNAPSHOT));
         try {
             BlobStoreIndexShardSnapshot snapshot = context.loadSnapshot();
             SnapshotFiles snapshotFiles = new SnapshotFiles(snapshot.snapshot(), snapshot.indexFiles());
@@ -874,6 +1002,56 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             snapshot.incrementalSize(), snapshot.totalSize());
     }
 
+    /**
+     * Returns whether peer recoveries may restore files from this repository, see {@link #USE_FOR_PEER_RECOVERY_SETTING}
+     */
+    public boolean useForPeerRecovery() {
+        return useForPeerRecovery;
+    }
+
+    /**
+     * Loads the files of all snapshots of the given shard from the latest index file of the shard
+     *
+     * @param indexId index id of the index in the repository
+     * @param shardId shard number
+     * @return the snapshots of the shard, empty if the shard has not been snapshotted
+     */
+    public BlobStoreIndexShardSnapshots loadShardSnapshots(IndexId indexId, int shardId) throws IOException {
+        final BlobContainer shardContainer = shardContainer(indexId, shardId);
+        int latest = -1;
+        for (String name : shardContainer.listBlobsByPrefix(SNAPSHOT_INDEX_PREFIX).keySet()) {
+            try {
+                latest = Math.max(latest, Integer.parseInt(name.substring(SNAPSHOT_INDEX_PREFIX.length())));
+            } catch (NumberFormatException ex) {
+                logger.warn("failed to parse index file name [{}]", name);
+            }
+        }
+        if (latest < 0) {
+            return new BlobStoreIndexShardSnapshots(Collections.emptyList());
+        }
+        return indexShardSnapshotsFormat.read(shardContainer, Integer.toString(latest));
+    }
+
+    /**
+     * Opens a stream over the content of a file of a snapshot of the given shard. The stream is throttled by the
+     * {@code max_restore_bytes_per_sec} setting of the repository.
+     *
+     * @param indexId  index id of the index in the repository
+     * @param shardId  shard number
+     * @param fileInfo the file, as listed by {@link #loadShardSnapshots(IndexId, int)}
+     */
+    public InputStream openShardSnapshotFile(IndexId indexId, int shardId, BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+        final InputStream stream = new PartSliceStream(blobContainerFor(fileInfo, shardContainer(indexId, shardId)), fileInfo);
+        if (restoreRateLimiter == null) {
+            return stream;
+        }
+        return new RateLimitingInputStream(stream, restoreRateLimiter, restoreRateLimitingTimeInNanos::inc);
+    }
+
+    private BlobContainer shardContainer(IndexId indexId, int shardId) {
+        return blobStore().blobContainer(basePath().add("indices").add(indexId.getId()).add(Integer.toString(shardId)));
+    }
+
     @Override
     public void verify(String seed, DiscoveryNode localNode) {
         assertSnapshotOrGenericThread();
@@ -989,6 +1167,39 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             }
         }
 
+        /**
+         * Adds the names of the content-addressed files that are referenced by the snapshots of this shard. Unlike
+         * {@link #buildBlobStoreIndexShardSnapshots(Map)} this fails if the shard index file cannot be read, so that no
+         * referenced file is ever considered unreferenced.
+         */
+        void collectContentAddressedFiles(Set<String> names) throws IOException {
+            final Map<String, BlobMetaData> blobs = blobContainer.listBlobs();
+            int latest = -1;
+            for (String name : blobs.keySet()) {
+                if (name.startsWith(SNAPSHOT_INDEX_PREFIX)) {
+                    latest = Math.max(latest, Integer.parseInt(name.substring(SNAPSHOT_INDEX_PREFIX.length())));
+                }
+            }
+            final List<SnapshotFiles> snapshots = new ArrayList<>();
+            if (latest >= 0) {
+                indexShardSnapshotsFormat.read(blobContainer, Integer.toString(latest)).forEach(snapshots::add);
+            } else {
+                for (String name : blobs.keySet()) {
+                    if (name.startsWith(SNAPSHOT_PREFIX)) {
+                        final BlobStoreIndexShardSnapshot snapshot = indexShardSnapshotFormat.readBlob(blobContainer, name);
+                        snapshots.add(new SnapshotFiles(snapshot.snapshot(), snapshot.indexFiles()));
+                    }
+                }
+            }
+            for (SnapshotFiles snapshot : snapshots) {
+                for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : snapshot.indexFiles()) {
+                    if (isContentAddressed(fileInfo)) {
+                        names.add(fileInfo.name());
+                    }
+                }
+            }
+        }
+
         /**
          * Writes a new index file for the shard and removes all unreferenced files from the repository.
          *
@@ -1115,6 +1326,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         private final Store store;
         private final IndexShardSnapshotStatus snapshotStatus;
         private final long startTime;
+        private final Executor executor;
 
         /**
          * Constructs new context
@@ -1123,12 +1335,15 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
          * @param snapshotId     snapshot id
          * @param indexId        the id of the index being snapshotted
          * @param snapshotStatus snapshot status to report progress
+         * @param executor       executor to borrow threads from to upload files in parallel
          */
-        SnapshotContext(Store store, SnapshotId snapshotId, IndexId indexId, IndexShardSnapshotStatus snapshotStatus, long startTime) {
+        SnapshotContext(Store store, SnapshotId snapshotId, IndexId indexId, IndexShardSnapshotStatus snapshotStatus, long startTime,
+                        Executor executor) {
             super(snapshotId, indexId, store.shardId());
             this.snapshotStatus = snapshotStatus;
             this.store = store;
             this.startTime = startTime;
+            this.executor = executor;
         }
 
         /**
@@ -1191,12 +1406,13 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                                 // to ensure we don't double the space in the repo since old snapshots
                                 // don't have this hash we try to read that hash from the blob store
                                 // in a bwc compatible way.
-                                maybeRecalculateMetadataHash(blobContainer, fileInfo, metadata);
+                                maybeRecalculateMetadataHash(blobContainerFor(fileInfo, blobContainer), fileInfo, metadata);
                             } catch (Exception e) {
                                 logger.warn(() -> new ParameterizedMessage("{} Can't calculate hash from blob for file [{}] [{}]",
                                     shardId, fileInfo.physicalName(), fileInfo.metadata()), e);
                             }
-                            if (fileInfo.isSame(md) && snapshotFileExistsInBlobs(fileInfo, blobs)) {
+                            // content-addressed files are shared by all shards and only deleted once no snapshot references them
+                            if (fileInfo.isSame(md) && (isContentAddressed(fileInfo) || snapshotFileExistsInBlobs(fileInfo, blobs))) {
                                 // a commit point file with the same name, size and checksum was already copied to repository
                                 // we will reuse it for this snapshot
                                 existingFileInfo = fileInfo;
@@ -1205,6 +1421,16 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                         }
                     }
 
+                    BlobStoreIndexShardSnapshot.FileInfo contentFileInfo = null;
+                    if (existingFileInfo == null && deduplicateFiles) {
+                        contentFileInfo = contentAddressedFileInfo(md);
+                        if (contentBlobExists(contentFileInfo)) {
+                            logger.trace("[{}] [{}] reusing content-addressed blob [{}] for [{}]",
+                                shardId, snapshotId, contentFileInfo.name(), fileName);
+                            existingFileInfo = contentFileInfo;
+                        }
+                    }
+
                     indexTotalFileCount += md.length();
                     indexTotalNumberOfFiles++;
 
@@ -1212,7 +1438,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                         indexIncrementalFileCount++;
                         indexIncrementalSize += md.length();
                         // create a new FileInfo
-                        BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo =
+                        BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo = contentFileInfo != null ? contentFileInfo :
                             new BlobStoreIndexShardSnapshot.FileInfo(DATA_BLOB_PREFIX + UUIDs.randomBase64UUID(), md, chunkSize());
                         indexCommitPointFiles.add(snapshotFileInfo);
                         filesToSnapshot.add(snapshotFileInfo);
@@ -1224,12 +1450,14 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 snapshotStatus.moveToStarted(startTime, indexIncrementalFileCount,
                     indexTotalNumberOfFiles, indexIncrementalSize, indexTotalFileCount);
 
+                final List<CheckedRunnable<IOException>> uploads = new ArrayList<>();
                 for (BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo : filesToSnapshot) {
-                    try {
-                        snapshotFile(snapshotFileInfo);
-                    } catch (IOException e) {
-                        throw new IndexShardSnapshotFailedException(shardId, "Failed to perform snapshot (index files)", e);
-                    }
+                    addUploads(snapshotFileInfo, uploads);
+                }
+                try {
+                    parallelTransfers.run(uploads, executor, CheckedRunnable::run);
+                } catch (IOException e) {
+                    throw new IndexShardSnapshotFailedException(shardId, "Failed to perform snapshot (index files)", e);
                 }
             } finally {
                 store.decRef();
@@ -1269,6 +1497,45 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             snapshotStatus.moveToDone(System.currentTimeMillis());
         }
 
+        /**
+         * Adds the uploads needed to snapshot an individual file. A file that is split into several parts gets one upload per
+         * part so that the parts can be uploaded in parallel. Its checksum is verified once all of its parts are uploaded.
+         *
+         * @param fileInfo file to be snapshotted
+         * @param uploads  list to add the uploads to
+         */
+        private void addUploads(final BlobStoreIndexShardSnapshot.FileInfo fileInfo, final List<CheckedRunnable<IOException>> uploads) {
+            if (fileInfo.numberOfParts() == 1) {
+                uploads.add(() -> snapshotFile(fileInfo));
+                return;
+            }
+            final AtomicInteger pendingParts = new AtomicInteger(Math.toIntExact(fileInfo.numberOfParts()));
+            final AtomicBoolean failed = new AtomicBoolean();
+            for (int i = 0; i < fileInfo.numberOfParts(); i++) {
+                final int part = i;
+                uploads.add(() -> {
+                    try {
+                        // the checksum of a file can only be verified when reading it sequentially so parts are read
+                        // without verification and the whole file is checked once all its parts are uploaded
+                        try (IndexInput indexInput = store.directory().openInput(fileInfo.physicalName(), IOContext.READ)) {
+                            indexInput.seek(part * fileInfo.partSize().getBytes());
+                            snapshotPart(fileInfo, part, indexInput);
+                        }
+                        if (pendingParts.decrementAndGet() == 0) {
+                            Store.checkIntegrity(fileInfo.metadata(), store.directory());
+                            snapshotStatus.addProcessedFile(fileInfo.length());
+                        }
+                    } catch (Exception t) {
+                        failStoreIfCorrupted(t);
+                        if (failed.compareAndSet(false, true)) {
+                            snapshotStatus.addProcessedFile(0);
+                        }
+                        throw t;
+                    }
+                });
+            }
+        }
+
         /**
          * Snapshot individual file
          *
@@ -1277,19 +1544,16 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         private void snapshotFile(final BlobStoreIndexShardSnapshot.FileInfo fileInfo) throws IOException {
             final String file = fileInfo.physicalName();
             try (IndexInput indexInput = store.openVerifyingInput(file, IOContext.READONCE, fileInfo.metadata())) {
+                boolean uploaded = true;
                 for (int i = 0; i < fileInfo.numberOfParts(); i++) {
-                    final long partBytes = fileInfo.partBytes(i);
-
-                    final InputStreamIndexInput inputStreamIndexInput = new InputStreamIndexInput(indexInput, partBytes);
-                    InputStream inputStream = inputStreamIndexInput;
-                    if (snapshotRateLimiter != null) {
-                        inputStream = new RateLimitingInputStream(inputStreamIndexInput, snapshotRateLimiter,
-                                                                  snapshotRateLimitingTimeInNanos::inc);
-                    }
-                    inputStream = new AbortableInputStream(inputStream, fileInfo.physicalName());
-                    blobContainer.writeBlob(fileInfo.partName(i), inputStream, partBytes, true);
+                    uploaded &= snapshotPart(fileInfo, i, indexInput);
+                }
+                if (uploaded) {
+                    Store.verify(indexInput);
+                } else {
+                    // the input was not read to its end if a part was already uploaded by another shard
+                    Store.checkIntegrity(fileInfo.metadata(), store.directory());
                 }
-                Store.verify(indexInput);
                 snapshotStatus.addProcessedFile(fileInfo.length());
             } catch (Exception t) {
                 failStoreIfCorrupted(t);
@@ -1298,6 +1562,73 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             }
         }
 
+        /**
+         * Uploads a single part of a file, reading it from the current position of the given input
+         *
+         * @return {@code false} if the part was not uploaded because another shard concurrently uploaded a content-addressed
+         *         blob with the same content
+         */
+        private boolean snapshotPart(final BlobStoreIndexShardSnapshot.FileInfo fileInfo, final int part,
+                                     final IndexInput indexInput) throws IOException {
+            final long partBytes = fileInfo.partBytes(part);
+
+            final InputStreamIndexInput inputStreamIndexInput = new InputStreamIndexInput(indexInput, partBytes);
+            InputStream inputStream = inputStreamIndexInput;
+            if (snapshotRateLimiter != null) {
+                inputStream = new RateLimitingInputStream(inputStreamIndexInput, snapshotRateLimiter,
+                                                          snapshotRateLimitingTimeInNanos::inc);
+            }
+            inputStream = new AbortableInputStream(inputStream, fileInfo.physicalName());
+            if (isContentAddressed(fileInfo) == false) {
+                blobContainer.writeBlob(fileInfo.partName(part), inputStream, partBytes, true);
+                return true;
+            }
+            // shards with identical files may upload the same blob at the same time, the atomic write makes sure that
+            // the blob only becomes visible once its full content is written
+            try {
+                filesBlobContainer().writeBlobAtomic(fileInfo.partName(part), inputStream, partBytes, true);
+                return true;
+            } catch (FileAlreadyExistsException e) {
+                logger.trace("[{}] [{}] content-addressed blob [{}] was already uploaded", shardId, snapshotId, fileInfo.partName(part));
+                return false;
+            }
+        }
+
+        /**
+         * Creates the info of a content-addressed file, named after the SHA-256 hash of the given file. The name includes the
+         * chunk size because a file is stored in one blob per part.
+         */
+        private BlobStoreIndexShardSnapshot.FileInfo contentAddressedFileInfo(final StoreFileMetaData md) {
+            final MessageDigest digest = MessageDigests.sha256();
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            try (IndexInput indexInput = store.directory().openInput(md.name(), IOContext.READONCE)) {
+                long remaining = indexInput.length();
+                while (remaining > 0) {
+                    final int length = (int) Math.min(buffer.length, remaining);
+                    indexInput.readBytes(buffer, 0, length);
+                    digest.update(buffer, 0, length);
+                    remaining -= length;
+                }
+            } catch (IOException e) {
+                throw new IndexShardSnapshotFailedException(shardId, "Failed to hash file [" + md.name() + "]", e);
+            }
+            final ByteSizeValue chunkSize = chunkSize();
+            final String name = CONTENT_BLOB_PREFIX + MessageDigests.toHexString(digest.digest())
+                + (chunkSize == null ? "" : "-" + chunkSize.getBytes());
+            return new BlobStoreIndexShardSnapshot.FileInfo(name, md, chunkSize);
+        }
+
+        /**
+         * Checks if the blobs of a content-addressed file were already uploaded to the repository, by any shard
+         */
+        private boolean contentBlobExists(final BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+            try {
+                return snapshotFileExistsInBlobs(fileInfo, filesBlobContainer().listBlobsByPrefix(fileInfo.name()));
+            } catch (IOException e) {
+                throw new IndexShardSnapshotFailedException(shardId, "Failed to list content-addressed file [" + fileInfo.name() + "]", e);
+            }
+        }
+
         private void failStoreIfCorrupted(Exception e) {
             if (Lucene.isCorruptionException(e)) {
                 try {
@@ -1415,6 +1746,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     private class RestoreContext extends FileRestoreContext {
 
         private final BlobContainer blobContainer;
+        private final Executor executor;
 
         /**
          * Constructs new restore context
@@ -1422,19 +1754,31 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
          * @param snapshotId    snapshot id
          * @param recoveryState recovery state to report progress
          * @param blobContainer the blob container to read the files from
+         * @param executor      executor to borrow threads from to download files in parallel
          */
-        RestoreContext(IndexShard indexShard, SnapshotId snapshotId, RecoveryState recoveryState, BlobContainer blobContainer) {
+        RestoreContext(IndexShard indexShard, SnapshotId snapshotId, RecoveryState recoveryState, BlobContainer blobContainer,
+                       Executor executor) {
             super(metadata.name(), indexShard, snapshotId, recoveryState, BUFFER_SIZE);
             this.blobContainer = blobContainer;
+            this.executor = executor;
+        }
+
+        @Override
+        protected void restoreFiles(List<BlobStoreIndexShardSnapshot.FileInfo> filesToRecover, Store store) throws IOException {
+            parallelTransfers.run(filesToRecover, executor, fileToRecover -> {
+                logger.trace("[{}] [{}] restoring file [{}]", shardId, snapshotId, fileToRecover.name());
+                restoreFile(fileToRecover, store);
+            });
         }
 
         @Override
         protected InputStream fileInputStream(BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
             if (restoreRateLimiter == null) {
-                return new PartSliceStream(blobContainer, fileInfo);
+                return new PartSliceStream(blobContainerFor(fileInfo, blobContainer), fileInfo);
             } else {
                 RateLimitingInputStream.Listener listener = restoreRateLimitingTimeInNanos::inc;
-                return new RateLimitingInputStream(new PartSliceStream(blobContainer, fileInfo), restoreRateLimiter, listener);
+                return new RateLimitingInputStream(new PartSliceStream(blobContainerFor(fileInfo, blobContainer), fileInfo),
+                    restoreRateLimiter, listener);
             }
         }
     }
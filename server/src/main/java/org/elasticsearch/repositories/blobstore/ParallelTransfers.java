@@ -0,0 +1,116 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.CheckedConsumer;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the file transfers of a single shard snapshot or restore in parallel. The calling thread always takes part in the
+ * transfers itself and borrows up to {@code maxParallelTransfers} helper threads, shared by all shards of the node using the
+ * same repository, from the given executor. If no helper is available the transfers simply run on the calling thread, so a
+ * busy thread pool never blocks progress. Public so that benchmarks can measure it on its own.
+ */
+public final class ParallelTransfers {
+
+    private final Semaphore helpers;
+
+    public ParallelTransfers(int maxParallelTransfers) {
+        if (maxParallelTransfers < 0) {
+            throw new IllegalArgumentException("maxParallelTransfers must be >= 0 but was [" + maxParallelTransfers + "]");
+        }
+        this.helpers = new Semaphore(maxParallelTransfers);
+    }
+
+    /**
+     * Runs {@code transfer} for each of the given items and returns once all of them are done. After the first failure the
+     * remaining items are skipped and the failure is rethrown, with the failures of transfers that were already running
+     * added as suppressed exceptions.
+     */
+    public <T> void run(Collection<T> items, Executor executor, CheckedConsumer<T, IOException> transfer) throws IOException {
+        if (items.isEmpty()) {
+            return;
+        }
+        final Queue<T> queue = new ConcurrentLinkedQueue<>(items);
+        final CountDownLatch done = new CountDownLatch(items.size());
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Runnable worker = () -> {
+            T item;
+            while ((item = queue.poll()) != null) {
+                try {
+                    if (failure.get() == null) {
+                        transfer.accept(item);
+                    }
+                } catch (Exception e) {
+                    if (failure.compareAndSet(null, e) == false) {
+                        failure.get().addSuppressed(e);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        for (int i = 1; i < items.size() && helpers.tryAcquire(); i++) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        worker.run();
+                    } finally {
+                        helpers.release();
+                    }
+                });
+            } catch (EsRejectedExecutionException e) {
+                helpers.release();
+                break;
+            }
+        }
+        worker.run();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for file transfers to complete", e);
+        }
+        final Exception e = failure.get();
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        } else if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        } else if (e != null) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of helper threads that are currently available.
+     */
+    int availableHelpers() {
+        return helpers.availablePermits();
+    }
+}
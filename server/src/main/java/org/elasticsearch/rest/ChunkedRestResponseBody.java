@@ -0,0 +1,148 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.bytes.ReleasablePagedBytesReference;
+import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * The body of a {@link RestResponse} that is serialized chunk by chunk while it is being sent, rather than rendered in full before
+ * the response is sent. Each chunk is written into pages obtained from {@link BigArrays} that are released once the chunk has been
+ * written to the network. Chunks must be encoded by a single thread at a time.
+ * <p>
+ * The first chunk is encoded before the head of the response is sent, see {@link #encodeFirstChunk}, so that a body that fails to
+ * serialize right away is still answered with an error response. A failure in a later chunk comes after the status and the headers
+ * have been sent, so the http layer can only abort the response by closing the connection, and the client sees a truncated body.
+ */
+public final class ChunkedRestResponseBody implements Releasable {
+
+    /**
+     * The size at which a chunk is handed over to the network.
+     */
+    public static final int CHUNK_SIZE_HINT = Math.toIntExact(new ByteSizeValue(128, ByteSizeUnit.KB).getBytes());
+
+    private final Iterator<? extends ToXContent> serialization;
+    private final ToXContent.Params params;
+    private final XContentBuilder builder;
+
+    /**
+     * The stream the builder currently writes to, only set while a chunk is being encoded.
+     */
+    private ReleasableBytesStreamOutput target;
+    /**
+     * The first chunk if it was encoded ahead of time but not handed out yet.
+     */
+    private ReleasablePagedBytesReference firstChunk;
+    private boolean done;
+
+    public ChunkedRestResponseBody(ChunkedToXContent chunkedToXContent, RestChannel channel) throws IOException {
+        this.builder = channel.newBuilder(channel.request().getXContentType(), true, new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                target.writeByte((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                target.writeBytes(b, off, len);
+            }
+        });
+        this.params = channel.request();
+        this.serialization = chunkedToXContent.toXContentChunked(params);
+    }
+
+    /**
+     * The content type of the body.
+     */
+    public String contentType() {
+        return builder.contentType().mediaType();
+    }
+
+    /**
+     * Returns {@code true} once the last chunk of the body has been encoded.
+     */
+    public boolean isDone() {
+        return done && firstChunk == null;
+    }
+
+    /**
+     * Serializes the first chunk of the body, which is returned by the next call to {@link #encodeChunk}. This is meant to be called
+     * before the head of the response is sent: if it fails, the response can still be replaced by an error response.
+     */
+    public void encodeFirstChunk(int sizeHint, BigArrays bigArrays) throws IOException {
+        assert firstChunk == null && target == null : "first chunk has been encoded already";
+        firstChunk = encodeChunk(sizeHint, bigArrays);
+    }
+
+    /**
+     * Serializes the next chunk of the body into pages obtained from the given {@link BigArrays}. Serialization stops at the first
+     * fragment boundary once the chunk has reached the given size, so chunks may be somewhat larger than the hint. The caller is
+     * responsible for releasing the returned bytes.
+     */
+    public ReleasablePagedBytesReference encodeChunk(int sizeHint, BigArrays bigArrays) throws IOException {
+        if (firstChunk != null) {
+            final ReleasablePagedBytesReference chunk = firstChunk;
+            firstChunk = null;
+            return chunk;
+        }
+        assert done == false : "body has been fully encoded already";
+        final ReleasableBytesStreamOutput chunk = new ReleasableBytesStreamOutput(bigArrays);
+        boolean success = false;
+        target = chunk;
+        try {
+            while (serialization.hasNext() && chunk.size() < sizeHint) {
+                serialization.next().toXContent(builder, params);
+                builder.flush();
+            }
+            if (serialization.hasNext() == false) {
+                builder.close();
+                done = true;
+            }
+            success = true;
+            return chunk.bytes();
+        } finally {
+            target = null;
+            if (success == false) {
+                chunk.close();
+            }
+        }
+    }
+
+    /**
+     * Releases the first chunk if it was encoded but never handed out, because the response was not sent.
+     */
+    @Override
+    public void close() {
+        final ReleasablePagedBytesReference chunk = firstChunk;
+        firstChunk = null;
+        Releasables.close(chunk);
+    }
+}
@@ -25,6 +25,7 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentType;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * A channel used to construct bytes / builder based outputs, and send responses.
@@ -37,6 +38,12 @@ public interface RestChannel {
 
     XContentBuilder newBuilder(@Nullable XContentType xContentType, boolean useFiltering) throws IOException;
 
+    /**
+     * Creates a new {@link XContentBuilder} for a response to be sent using this channel that writes to the given output stream
+     * rather than to the channel's {@link #bytesOutput()}.
+     */
+    XContentBuilder newBuilder(@Nullable XContentType xContentType, boolean useFiltering, OutputStream outputStream) throws IOException;
+
     BytesStreamOutput bytesOutput();
 
     RestRequest request();
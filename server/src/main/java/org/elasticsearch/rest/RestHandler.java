@@ -47,4 +47,13 @@ public interface RestHandler {
     default boolean supportsContentStream() {
         return false;
     }
+
+    /**
+     * Indicates if the RestHandler can consume the request content straight from the network buffers it was read into, which may be
+     * pooled. Such handlers must not access the content, nor anything sliced from it, once the response has been sent, as the buffers
+     * are released at that point. For all other handlers the content is copied before the request is handled.
+     */
+    default boolean allowsUnsafeBuffers() {
+        return false;
+    }
 }
@@ -63,7 +63,7 @@ public class RestRequest implements ToXContent.Params {
     private final String rawPath;
     private final Set<String> consumedParams = new HashSet<>();
     private final SetOnce<XContentType> xContentType = new SetOnce<>();
-    private final HttpRequest httpRequest;
+    private HttpRequest httpRequest;
     private final HttpChannel httpChannel;
 
     private boolean contentConsumed = false;
@@ -186,6 +186,14 @@ public class RestRequest implements ToXContent.Params {
         return content(true);
     }
 
+    /**
+     * Copies the content of this request out of pooled network buffers, if it is backed by any, so that it can be retained for as
+     * long as needed.
+     */
+    void ensureSafeBuffers() {
+        httpRequest = httpRequest.releaseAndCopy();
+    }
+
     protected BytesReference content(final boolean contentConsumed) {
         this.contentConsumed = this.contentConsumed | contentConsumed;
         return httpRequest.content();
@@ -20,6 +20,7 @@
 package org.elasticsearch.rest;
 
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
 
 import java.util.ArrayList;
@@ -44,6 +45,15 @@ public abstract class RestResponse {
      */
     public abstract BytesReference content();
 
+    /**
+     * The response body to serialize while it is being sent, or {@code null} if the response has to be sent in full from
+     * {@link #content()}.
+     */
+    @Nullable
+    public ChunkedRestResponseBody chunkedContent() {
+        return null;
+    }
+
     /**
      * The rest status code.
      */
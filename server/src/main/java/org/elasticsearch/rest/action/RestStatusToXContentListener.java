@@ -21,6 +21,8 @@ package org.elasticsearch.rest.action;
 import org.elasticsearch.common.xcontent.StatusToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
@@ -55,7 +57,15 @@ public class RestStatusToXContentListener<Response extends StatusToXContentObjec
     public RestResponse buildResponse(Response response, XContentBuilder builder) throws Exception {
         assert response.isFragment() == false; //would be nice if we could make default methods final
         response.toXContent(builder, channel.request());
-        RestResponse restResponse = new BytesRestResponse(response.status(), builder);
+        return addLocationHeader(response, new BytesRestResponse(response.status(), builder));
+    }
+
+    @Override
+    protected RestResponse buildChunkedResponse(Response response, ChunkedRestResponseBody body) {
+        return addLocationHeader(response, new ChunkedRestResponse(response.status(), body));
+    }
+
+    private RestResponse addLocationHeader(Response response, RestResponse restResponse) {
         if (RestStatus.CREATED == restResponse.status()) {
             final String location = extractLocation.apply(response);
             if (location != null) {
@@ -19,10 +19,13 @@
 
 package org.elasticsearch.rest.action;
 
+import org.elasticsearch.common.xcontent.ChunkedToXContent;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponse;
+import org.elasticsearch.rest.ChunkedRestResponseBody;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestResponse;
 import org.elasticsearch.rest.RestStatus;
@@ -39,9 +42,19 @@ public class RestToXContentListener<Response extends ToXContentObject> extends R
 
     @Override
     public final RestResponse buildResponse(Response response) throws Exception {
+        if (response instanceof ChunkedToXContent) {
+            return buildChunkedResponse(response, new ChunkedRestResponseBody((ChunkedToXContent) response, channel));
+        }
         return buildResponse(response, channel.newBuilder());
     }
 
+    /**
+     * Builds the response for a {@link ChunkedToXContent} response, whose body is only serialized while it is being sent.
+     */
+    protected RestResponse buildChunkedResponse(Response response, ChunkedRestResponseBody body) throws Exception {
+        return new ChunkedRestResponse(getStatus(response), body);
+    }
+
     public RestResponse buildResponse(Response response, XContentBuilder builder) throws Exception {
         assert response.isFragment() == false; //would be nice if we could make default methods final
         response.toXContent(builder, channel.request());
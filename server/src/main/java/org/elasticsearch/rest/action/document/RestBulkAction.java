@@ -104,4 +104,10 @@ public class RestBulkAction extends BaseRestHandler {
     public boolean supportsContentStream() {
         return true;
     }
+
+    @Override
+    public boolean allowsUnsafeBuffers() {
+        // the item sources are slices of the request content and are only referenced until the bulk response is sent
+        return true;
+    }
 }
@@ -186,6 +186,17 @@ public final class SearchHits implements Writeable, ToXContentFragment, Iterable
 
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        toXContentStart(builder, params);
+        for (SearchHit hit : hits) {
+            hit.toXContent(builder, params);
+        }
+        return toXContentEnd(builder);
+    }
+
+    /**
+     * Writes everything that precedes the individual hits, up to and including the start of the hits array.
+     */
+    public XContentBuilder toXContentStart(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.HITS);
         boolean totalHitAsInt = params.paramAsBoolean(RestSearchAction.TOTAL_HITS_AS_INT_PARAM, false);
         if (totalHitAsInt) {
@@ -204,9 +215,13 @@ public final class SearchHits implements Writeable, ToXContentFragment, Iterable
         }
         builder.field(Fields.HITS);
         builder.startArray();
-        for (SearchHit hit : hits) {
-            hit.toXContent(builder, params);
-        }
+        return builder;
+    }
+
+    /**
+     * Closes the hits array and object opened by {@link #toXContentStart(XContentBuilder, Params)}.
+     */
+    public XContentBuilder toXContentEnd(XContentBuilder builder) throws IOException {
         builder.endArray();
         builder.endObject();
         return builder;
@@ -149,6 +149,13 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     public static final Setting<Integer> MAX_OPEN_SCROLL_CONTEXT =
         Setting.intSetting("search.max_open_scroll_context", 500, 0, Property.Dynamic, Property.NodeScope);
 
+    /**
+     * Enables merging the aggregation results of shards on the coordinating node as soon as they arrive instead of buffering
+     * {@code batched_reduce_size} of them, which bounds the memory used by searches on many shards by the size of the merged result.
+     */
+    public static final Setting<Boolean> INCREMENTAL_AGGS_REDUCE_SETTING =
+        Setting.boolSetting("search.incremental_aggs_reduce", false, Property.Dynamic, Property.NodeScope);
+
     public static final int DEFAULT_SIZE = 10;
     public static final int DEFAULT_FROM = 0;
 
@@ -182,6 +189,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     private volatile int maxOpenScrollContext;
 
+    private volatile boolean incrementalAggsReduce;
+
     private final Cancellable keepAliveReaper;
 
     private final AtomicLong idGenerator = new AtomicLong();
@@ -226,6 +235,9 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
         lowLevelCancellation = LOW_LEVEL_CANCELLATION_SETTING.get(settings);
         clusterService.getClusterSettings().addSettingsUpdateConsumer(LOW_LEVEL_CANCELLATION_SETTING, this::setLowLevelCancellation);
+
+        incrementalAggsReduce = INCREMENTAL_AGGS_REDUCE_SETTING.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(INCREMENTAL_AGGS_REDUCE_SETTING, this::setIncrementalAggsReduce);
     }
 
     private void validateKeepAlives(TimeValue defaultKeepAlive, TimeValue maxKeepAlive) {
@@ -262,6 +274,14 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         this.lowLevelCancellation = lowLevelCancellation;
     }
 
+    private void setIncrementalAggsReduce(boolean incrementalAggsReduce) {
+        this.incrementalAggsReduce = incrementalAggsReduce;
+    }
+
+    public boolean incrementalAggsReduce() {
+        return incrementalAggsReduce;
+    }
+
     @Override
     public void afterIndexRemoved(Index index, IndexSettings indexSettings, IndexRemovalReason reason) {
         // once an index is removed due to deletion or closing, we can just clean up all the pending search context information
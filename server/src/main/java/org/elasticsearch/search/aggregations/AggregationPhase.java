@@ -66,6 +66,8 @@ public class AggregationPhase implements SearchPhase {
                         collector = new InternalProfileCollector(collector, CollectorResult.REASON_AGGREGATION,
                                 // TODO: report on child aggs as well
                                 Collections.emptyList());
+                    } else {
+                        collector = batching(context, (BucketCollector) collector);
                     }
                     context.queryCollectors().put(AggregationPhase.class, collector);
                 }
@@ -75,6 +77,42 @@ public class AggregationPhase implements SearchPhase {
         }
     }
 
+    /**
+     * Creates a new set of top level aggregators that collects one additional slice of a concurrent search. The aggregations
+     * built by the aggregators of all slices are reduced into the shard result in {@link #execute(SearchContext)}.
+     */
+    public static Collector createSliceCollector(SearchContext context) throws IOException {
+        assert context.getProfilers() == null : "profiled searches are not executed concurrently";
+        final Aggregator[] aggregators;
+        try {
+            aggregators = context.aggregations().factories().createTopLevelAggregators();
+        } catch (IOException e) {
+            throw new AggregationInitializationException("Could not initialize aggregators", e);
+        }
+        context.aggregations().addSliceAggregators(aggregators);
+        List<Aggregator> collectors = new ArrayList<>();
+        for (Aggregator aggregator : aggregators) {
+            // global aggregators are only collected once, by the aggregators of the first slice
+            if (aggregator instanceof GlobalAggregator == false) {
+                collectors.add(aggregator);
+            }
+        }
+        BucketCollector collector = MultiBucketCollector.wrap(collectors);
+        collector.preCollection();
+        return batching(context, collector);
+    }
+
+    /**
+     * Wraps the collector of the top level aggregators so that it collects documents in batches if possible.
+     */
+    private static BucketCollector batching(SearchContext context, BucketCollector collector) {
+        final BucketCollector batching = BatchingBucketCollector.wrap(collector);
+        if (batching instanceof BatchingBucketCollector) {
+            context.aggregations().addBatchingCollector((BatchingBucketCollector) batching);
+        }
+        return batching;
+    }
+
     @Override
     public void execute(SearchContext context) {
         if (context.aggregations() == null) {
@@ -87,6 +125,12 @@ public class AggregationPhase implements SearchPhase {
             return;
         }
 
+        try {
+            context.aggregations().flushBatchingCollectors();
+        } catch (IOException e) {
+            throw new AggregationExecutionException("Failed to collect the buffered documents", e);
+        }
+
         Aggregator[] aggregators = context.aggregations().aggregators();
         List<Aggregator> globals = new ArrayList<>();
         for (int i = 0; i < aggregators.length; i++) {
@@ -122,14 +166,29 @@ public class AggregationPhase implements SearchPhase {
             }
         }
 
-        List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
+        // the buckets of all slices of a concurrent search are held at the same time, so they count against the same limit
         context.aggregations().resetBucketMultiConsumer();
-        for (Aggregator aggregator : context.aggregations().aggregators()) {
-            try {
-                aggregator.postCollection();
-                aggregations.add(aggregator.buildAggregation(0));
-            } catch (IOException e) {
-                throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
+        List<InternalAggregation> aggregations = buildAggregations(aggregators);
+        final List<Aggregator[]> sliceAggregators = context.aggregations().sliceAggregators();
+        if (sliceAggregators.isEmpty() == false) {
+            // reduce the aggregations of the slices of a concurrent search into a single shard result
+            final List<List<InternalAggregation>> slices = new ArrayList<>(sliceAggregators.size());
+            for (Aggregator[] slice : sliceAggregators) {
+                slices.add(buildAggregations(slice));
+            }
+            // the reduced result never holds more buckets than the slices it is built from, which are already counted
+            final InternalAggregation.ReduceContext reduceContext =
+                new InternalAggregation.ReduceContext(context.bigArrays(), null, count -> {}, false, true);
+            for (int i = 0; i < aggregations.size(); i++) {
+                if (aggregators[i] instanceof GlobalAggregator) {
+                    continue;
+                }
+                final List<InternalAggregation> toReduce = new ArrayList<>(slices.size() + 1);
+                toReduce.add(aggregations.get(i));
+                for (List<InternalAggregation> slice : slices) {
+                    toReduce.add(slice.get(i));
+                }
+                aggregations.set(i, toReduce.get(0).reduce(toReduce, reduceContext));
             }
         }
         List<PipelineAggregator> pipelineAggregators = context.aggregations().factories().createPipelineAggregators();
@@ -150,4 +209,17 @@ public class AggregationPhase implements SearchPhase {
         context.queryCollectors().remove(AggregationPhase.class);
     }
 
+    private static List<InternalAggregation> buildAggregations(Aggregator[] aggregators) {
+        List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
+        for (Aggregator aggregator : aggregators) {
+            try {
+                aggregator.postCollection();
+                aggregations.add(aggregator.buildAggregation(0));
+            } catch (IOException e) {
+                throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
+            }
+        }
+        return aggregations;
+    }
+
 }
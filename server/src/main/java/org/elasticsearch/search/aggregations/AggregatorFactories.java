@@ -221,6 +221,20 @@ public class AggregatorFactories {
         return aggregators;
     }
 
+    /**
+     * Returns whether all factories support collecting the slices of a concurrent shard search.
+     *
+     * @see AggregatorFactory#supportsConcurrentSegmentSearch()
+     */
+    public boolean supportsConcurrentSegmentSearch() {
+        for (AggregatorFactory<?> factory : factories) {
+            if (factory.supportsConcurrentSegmentSearch() == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * @return the number of sub-aggregator factories not including pipeline
      *         aggregator factories
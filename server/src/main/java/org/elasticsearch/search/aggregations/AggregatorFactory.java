@@ -221,6 +221,14 @@ public abstract class AggregatorFactory<AF extends AggregatorFactory<AF>> {
         return parent;
     }
 
+    /**
+     * Returns whether the aggregators created by this factory and its sub-factories can collect the slices of a concurrent
+     * shard search, in which case every slice gets its own aggregators and their results are reduced on the shard.
+     */
+    public boolean supportsConcurrentSegmentSearch() {
+        return factories.supportsConcurrentSegmentSearch();
+    }
+
     /**
      * Utility method. Given an {@link AggregatorFactory} that creates
      * {@link Aggregator}s that only know how to collect bucket {@code 0}, this
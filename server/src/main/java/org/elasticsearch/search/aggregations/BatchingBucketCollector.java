@@ -0,0 +1,130 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+
+import java.io.IOException;
+
+/**
+ * A {@link BucketCollector} that buffers the documents that it collects and hands them to the leaf collectors of the
+ * wrapped collector in batches, see {@link LeafBucketCollector#collect(int[], long[], int)}. Scores are not available
+ * anymore when a batch is collected so collectors that need them are never wrapped.
+ * <p>
+ * The last batch of a segment is collected when the next segment starts or when {@link #flush()} is called, which must
+ * happen before the aggregators are post-collected.
+ */
+final class BatchingBucketCollector extends BucketCollector {
+
+    static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final BucketCollector in;
+    private final int[] docs;
+    private final long[] buckets;
+    private int count;
+    // the leaf collector of the buffered documents
+    private LeafBucketCollector current = LeafBucketCollector.NO_OP_COLLECTOR;
+
+    BatchingBucketCollector(BucketCollector in, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be greater than 0 but was [" + batchSize + "]");
+        }
+        this.in = in;
+        this.docs = new int[batchSize];
+        this.buckets = new long[batchSize];
+    }
+
+    /**
+     * Wraps the given collector so that it collects documents in batches, unless it needs scores.
+     */
+    static BucketCollector wrap(BucketCollector in) {
+        return in.scoreMode().needsScores() ? in : new BatchingBucketCollector(in, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public ScoreMode scoreMode() {
+        return in.scoreMode();
+    }
+
+    @Override
+    public LeafBucketCollector getLeafCollector(LeafReaderContext ctx) throws IOException {
+        flush();
+        final LeafBucketCollector leafCollector = in.getLeafCollector(ctx);
+        if (leafCollector == LeafBucketCollector.NO_OP_COLLECTOR) {
+            return LeafBucketCollector.NO_OP_COLLECTOR;
+        }
+        current = leafCollector;
+        return new LeafBucketCollector() {
+            @Override
+            public void setScorer(Scorable scorer) throws IOException {
+                leafCollector.setScorer(scorer);
+            }
+
+            @Override
+            public void collect(int doc, long bucket) throws IOException {
+                docs[count] = doc;
+                buckets[count] = bucket;
+                if (++count == docs.length) {
+                    // a CollectionTerminatedException stops the collection of this segment
+                    collectBatch();
+                }
+            }
+        };
+    }
+
+    private void collectBatch() throws IOException {
+        final int batchSize = count;
+        count = 0;
+        current.collect(docs, buckets, batchSize);
+    }
+
+    /**
+     * Collects the buffered documents.
+     */
+    void flush() throws IOException {
+        if (count > 0) {
+            try {
+                collectBatch();
+            } catch (CollectionTerminatedException e) {
+                // the segment is done anyway
+            }
+        }
+        current = LeafBucketCollector.NO_OP_COLLECTOR;
+    }
+
+    @Override
+    public void preCollection() throws IOException {
+        in.preCollection();
+    }
+
+    @Override
+    public void postCollection() throws IOException {
+        flush();
+        in.postCollection();
+    }
+
+    @Override
+    public String toString() {
+        return "batching(" + in + ")";
+    }
+}
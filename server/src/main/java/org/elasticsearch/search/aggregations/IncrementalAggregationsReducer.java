@@ -0,0 +1,166 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
+import org.elasticsearch.search.aggregations.pipeline.SiblingPipelineAggregator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reduces {@link InternalAggregations} one at a time as they arrive, see {@link IncrementalReducer}. Aggregations that don't
+ * support incremental reduction are reduced pairwise with the result of the previous reduction.
+ * <p>
+ * Instances are not thread-safe and must be closed to release the memory held by the merged state.
+ */
+public final class IncrementalAggregationsReducer implements Releasable {
+
+    private final ReduceContext reduceContext;
+    private final Map<String, IncrementalReducer> reducers = new LinkedHashMap<>();
+    private List<SiblingPipelineAggregator> topLevelPipelineAggregators;
+    private int numMerged;
+
+    public IncrementalAggregationsReducer(ReduceContext reduceContext) {
+        if (reduceContext.isFinalReduce()) {
+            throw new IllegalArgumentException("incremental reduction is only supported for non-final reductions");
+        }
+        this.reduceContext = reduceContext;
+    }
+
+    /**
+     * Merges the given aggregations into the state of this reducer. The aggregations can be released once this method returns.
+     */
+    public void merge(InternalAggregations aggregations) {
+        if (topLevelPipelineAggregators == null) {
+            topLevelPipelineAggregators = aggregations.getTopLevelPipelineAggregators();
+        }
+        for (Aggregation aggregation : aggregations) {
+            merge((InternalAggregation) aggregation);
+        }
+        numMerged++;
+    }
+
+    private void merge(InternalAggregation aggregation) {
+        IncrementalReducer reducer = reducers.get(aggregation.getName());
+        if (reducer == null) {
+            reducer = newReducer(aggregation, null);
+        } else if (reducer instanceof PairwiseReducer && aggregation.isMapped()
+                && ((PairwiseReducer) reducer).current.isMapped() == false) {
+            // the previous results were all unmapped, see if the first mapped one supports incremental reduction
+            reducer = newReducer(aggregation, (PairwiseReducer) reducer);
+        }
+        if (reducer.merge(aggregation) == false) {
+            // the aggregation can't be merged into the state of the reducer, for instance because the same field is mapped
+            // to different types in different indices, so we fall back to a regular reduction
+            final PairwiseReducer fallback = new PairwiseReducer(reducer.partialResult(), reduceContext);
+            reducer.close();
+            reducers.put(aggregation.getName(), fallback);
+            fallback.merge(aggregation);
+        }
+    }
+
+    private IncrementalReducer newReducer(InternalAggregation aggregation, PairwiseReducer previous) {
+        IncrementalReducer reducer = aggregation.newIncrementalReducer(reduceContext);
+        if (reducer == null) {
+            reducer = previous == null ? new PairwiseReducer(null, reduceContext) : previous;
+        } else if (previous != null) {
+            boolean success = false;
+            try {
+                success = reducer.merge(previous.current);
+            } finally {
+                if (success == false) {
+                    reducer.close();
+                }
+            }
+            if (success == false) {
+                return previous;
+            }
+        }
+        reducers.put(aggregation.getName(), reducer);
+        return reducer;
+    }
+
+    /**
+     * Returns the number of {@link InternalAggregations} that have been merged so far.
+     */
+    public int getNumMerged() {
+        return numMerged;
+    }
+
+    /**
+     * Returns the partially reduced result of all aggregations merged so far, which can be used as the input of the final reduction.
+     */
+    public InternalAggregations partialResult() {
+        final List<InternalAggregation> aggregations = new ArrayList<>(reducers.size());
+        for (IncrementalReducer reducer : reducers.values()) {
+            aggregations.add(reducer.partialResult());
+        }
+        return new InternalAggregations(aggregations,
+            topLevelPipelineAggregators == null ? Collections.emptyList() : topLevelPipelineAggregators);
+    }
+
+    @Override
+    public void close() {
+        Releasables.close(reducers.values());
+        reducers.clear();
+    }
+
+    /**
+     * Reduces every new aggregation together with the result of the previous reduction.
+     */
+    private static final class PairwiseReducer implements IncrementalReducer {
+        private final ReduceContext reduceContext;
+        private InternalAggregation current;
+
+        PairwiseReducer(InternalAggregation current, ReduceContext reduceContext) {
+            this.current = current;
+            this.reduceContext = reduceContext;
+        }
+
+        @Override
+        public boolean merge(InternalAggregation aggregation) {
+            if (current == null) {
+                current = aggregation;
+            } else if (current.isMapped() || aggregation.isMapped() == false) {
+                // like in InternalAggregations#reduce, mapped aggregations need to lead the reduction
+                current = current.reduce(Arrays.asList(current, aggregation), reduceContext);
+            } else {
+                current = aggregation.reduce(Arrays.asList(aggregation, current), reduceContext);
+            }
+            return true;
+        }
+
+        @Override
+        public InternalAggregation partialResult() {
+            return current;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.elasticsearch.common.lease.Releasable;
+
+/**
+ * Merges partial results of an aggregation one at a time as they arrive instead of reducing a list of them at once, so that
+ * the results can be released as soon as they were merged.
+ *
+ * @see InternalAggregation#newIncrementalReducer(InternalAggregation.ReduceContext)
+ */
+public interface IncrementalReducer extends Releasable {
+
+    /**
+     * Merges the given aggregation into the state of this reducer.
+     *
+     * @return {@code false} if the aggregation can't be merged by this reducer, in which case its state is left untouched
+     */
+    boolean merge(InternalAggregation aggregation);
+
+    /**
+     * Returns the partially reduced result of all aggregations merged so far.
+     */
+    InternalAggregation partialResult();
+}
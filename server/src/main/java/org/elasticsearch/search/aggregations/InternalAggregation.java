@@ -46,16 +46,24 @@ public abstract class InternalAggregation implements Aggregation, NamedWriteable
         private final ScriptService scriptService;
         private final IntConsumer multiBucketConsumer;
         private final boolean isFinalReduce;
+        private final boolean isSliceReduce;
 
         public ReduceContext(BigArrays bigArrays, ScriptService scriptService, boolean isFinalReduce) {
             this(bigArrays, scriptService, (s) -> {}, isFinalReduce);
         }
 
         public ReduceContext(BigArrays bigArrays, ScriptService scriptService, IntConsumer multiBucketConsumer, boolean isFinalReduce) {
+            this(bigArrays, scriptService, multiBucketConsumer, isFinalReduce, false);
+        }
+
+        public ReduceContext(BigArrays bigArrays, ScriptService scriptService, IntConsumer multiBucketConsumer, boolean isFinalReduce,
+                             boolean isSliceReduce) {
+            assert isFinalReduce == false || isSliceReduce == false : "the reduction of slices is never final";
             this.bigArrays = bigArrays;
             this.scriptService = scriptService;
             this.multiBucketConsumer = multiBucketConsumer;
             this.isFinalReduce = isFinalReduce;
+            this.isSliceReduce = isSliceReduce;
         }
 
         /**
@@ -67,6 +75,15 @@ public abstract class InternalAggregation implements Aggregation, NamedWriteable
             return isFinalReduce;
         }
 
+        /**
+         * Returns <code>true</code> iff the current reduce phase merges the results of the slices of a concurrent shard search into
+         * the shard result. Aggregations that limit the number of buckets a shard returns, like {@code shard_size}, apply these
+         * limits to the merged result so that it is the same as the result of a sequential search of the shard.
+         */
+        public boolean isSliceReduce() {
+            return isSliceReduce;
+        }
+
         public BigArrays bigArrays() {
             return bigArrays;
         }
@@ -151,6 +168,14 @@ public abstract class InternalAggregation implements Aggregation, NamedWriteable
         return true;
     }
 
+    /**
+     * Creates an empty reducer that merges partial results of this aggregation, including this instance, one at a time, or returns
+     * {@code null} if this aggregation doesn't support incremental reduction. Only used for non-final reductions.
+     */
+    public IncrementalReducer newIncrementalReducer(ReduceContext reduceContext) {
+        return null;
+    }
+
     /**
      * Get the value of specified path in the aggregation.
      *
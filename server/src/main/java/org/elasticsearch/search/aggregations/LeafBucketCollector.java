@@ -68,6 +68,13 @@ public abstract class LeafBucketCollector implements LeafCollector {
                     }
                 }
 
+                @Override
+                public void collect(int[] docs, long[] buckets, int count) throws IOException {
+                    for (LeafBucketCollector c : colls) {
+                        c.collect(docs, buckets, count);
+                    }
+                }
+
             };
         }
     }
@@ -77,6 +84,19 @@ public abstract class LeafBucketCollector implements LeafCollector {
      */
     public abstract void collect(int doc, long bucket) throws IOException;
 
+    /**
+     * Collect the first {@code count} docs of {@code docs}, which are in increasing order, each in the bucket at the
+     * same index of {@code buckets}. Collectors that can compute their values for many documents at once in a tight
+     * loop should override this method, the default implementation collects the docs one by one.
+     * <p>
+     * Batches are only collected when scores are not needed, see {@link BatchingBucketCollector}.
+     */
+    public void collect(int[] docs, long[] buckets, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            collect(docs[i], buckets[i]);
+        }
+    }
+
     @Override
     public final void collect(int doc) throws IOException {
         collect(doc, 0);
@@ -18,6 +18,10 @@
  */
 package org.elasticsearch.search.aggregations;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.elasticsearch.search.aggregations.MultiBucketConsumerService.MultiBucketConsumer;
 
 /**
@@ -28,6 +32,8 @@ public class SearchContextAggregations {
     private final AggregatorFactories factories;
     private final MultiBucketConsumer multiBucketConsumer;
     private Aggregator[] aggregators;
+    private final List<Aggregator[]> sliceAggregators = new ArrayList<>();
+    private final List<BatchingBucketCollector> batchingCollectors = new ArrayList<>();
 
     /**
      * Creates a new aggregation context with the parsed aggregator factories
@@ -54,6 +60,38 @@ public class SearchContextAggregations {
         this.aggregators = aggregators;
     }
 
+    /**
+     * Returns the top level aggregators of the additional slices of a concurrent search, the first slice uses
+     * {@link #aggregators()}.
+     */
+    public List<Aggregator[]> sliceAggregators() {
+        return sliceAggregators;
+    }
+
+    /**
+     * Registers the top level aggregators of an additional slice of a concurrent search.
+     */
+    public void addSliceAggregators(Aggregator[] aggregators) {
+        sliceAggregators.add(aggregators);
+    }
+
+    /**
+     * Registers a collector whose buffered documents must be collected before the aggregators are post-collected.
+     */
+    void addBatchingCollector(BatchingBucketCollector collector) {
+        batchingCollectors.add(collector);
+    }
+
+    /**
+     * Collects the documents that are still buffered by the registered batching collectors.
+     */
+    void flushBatchingCollectors() throws IOException {
+        for (BatchingBucketCollector collector : batchingCollectors) {
+            collector.flush();
+        }
+        batchingCollectors.clear();
+    }
+
     /**
      * Returns a consumer for multi bucket aggregation that checks the total number of buckets
      * created in the response
@@ -75,4 +75,10 @@ public class GeoTileGridAggregatorFactory extends ValuesSourceAggregatorFactory<
         return new GeoTileGridAggregator(name, factories, cellIdSource, requiredSize, shardSize, context, parent,
                 pipelineAggregators, metaData);
     }
+
+    @Override
+    public boolean supportsConcurrentSegmentSearch() {
+        // the cells with the most documents of each slice do not add up to the cells with the most documents of the shard
+        return false;
+    }
 }
@@ -18,9 +18,26 @@
  */
 package org.elasticsearch.search.aggregations.bucket.histogram;
 
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.PointValues;
 import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PointRangeQuery;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
 import org.apache.lucene.util.CollectionUtil;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Rounding;
@@ -44,10 +61,16 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongPredicate;
 
 /**
  * An aggregator for date values. Every date is rounded down using a configured
  * {@link Rounding}.
+ * <p>
+ * Segments that are sorted on the date field get two fast paths: documents are collected without rounding their
+ * value as long as it falls in the same bucket as the previous document, and if the query matches every document
+ * in a range of dates the documents of each bucket are counted from the bucket boundaries, found with a binary
+ * search over the sorted doc values, without collecting them at all.
  *
  * @see Rounding
  */
@@ -66,10 +89,15 @@ class DateHistogramAggregator extends BucketsAggregator {
     private final LongHash bucketOrds;
     private long offset;
 
+    // the name of the date field if segments sorted on it can use the fast paths, null otherwise
+    private final String sortedField;
+    // the range of dates that the query matches if counting documents of sorted segments is possible, null otherwise
+    private final long[] bulkCountRange;
+
     DateHistogramAggregator(String name, AggregatorFactories factories, Rounding rounding, Rounding shardRounding,
             long offset, BucketOrder order, boolean keyed,
             long minDocCount, @Nullable ExtendedBounds extendedBounds, @Nullable ValuesSource.Numeric valuesSource,
-            DocValueFormat formatter, SearchContext aggregationContext,
+            DocValueFormat formatter, @Nullable String sortedField, SearchContext aggregationContext,
             Aggregator parent, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
 
         super(name, factories, aggregationContext, parent, pipelineAggregators, metaData);
@@ -82,6 +110,14 @@ class DateHistogramAggregator extends BucketsAggregator {
         this.extendedBounds = extendedBounds;
         this.valuesSource = valuesSource;
         this.formatter = formatter;
+        this.sortedField = valuesSource == null ? null : sortedField;
+        if (this.sortedField != null && parent == null && subAggregators.length == 0
+                && aggregationContext.minimumScore() == null
+                && aggregationContext.terminateAfter() == SearchContext.DEFAULT_TERMINATE_AFTER) {
+            this.bulkCountRange = queryRange(aggregationContext.query(), sortedField);
+        } else {
+            this.bulkCountRange = null;
+        }
 
         bucketOrds = new LongHash(1, aggregationContext.bigArrays());
     }
@@ -100,6 +136,14 @@ class DateHistogramAggregator extends BucketsAggregator {
         if (valuesSource == null) {
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
+        final SortField indexSort = sortedField == null ? null : leafSortOnField(ctx.reader(), sortedField);
+        if (indexSort != null) {
+            if (bulkCountRange != null && bulkCount(ctx.reader(), indexSort.getReverse())) {
+                // all documents of the segment have been counted
+                throw new CollectionTerminatedException();
+            }
+            return getSortedLeafCollector(valuesSource.longValues(ctx), sub);
+        }
         final SortedNumericDocValues values = valuesSource.longValues(ctx);
         return new LeafBucketCollectorBase(sub, values) {
             @Override
@@ -132,6 +176,224 @@ class DateHistogramAggregator extends BucketsAggregator {
         };
     }
 
+    /**
+     * Collects a segment that is sorted on the date field: consecutive documents tend to fall into the same bucket so
+     * the bounds of the bucket of the previous value are kept and the value only needs to be rounded and hashed when
+     * it falls out of them.
+     */
+    private LeafBucketCollector getSortedLeafCollector(SortedNumericDocValues values, LeafBucketCollector sub) {
+        return new LeafBucketCollectorBase(sub, values) {
+            // the bucket of the last rounded value, for values in [bucketMin, bucketMax)
+            long bucketMin = Long.MAX_VALUE;
+            long bucketMax = Long.MIN_VALUE;
+            long bucketOrd = -1;
+
+            @Override
+            public void collect(int doc, long bucket) throws IOException {
+                assert bucket == 0;
+                if (values.advanceExact(doc)) {
+                    final int valuesCount = values.docValueCount();
+
+                    long previousBucketOrd = -1;
+                    for (int i = 0; i < valuesCount; ++i) {
+                        long value = values.nextValue();
+                        if (value < bucketMin || value >= bucketMax) {
+                            long rounded = shardRounding.round(value - offset) + offset;
+                            bucketMin = rounded;
+                            bucketMax = shardRounding.nextRoundingValue(rounded - offset) + offset;
+                            bucketOrd = bucketOrds.add(rounded);
+                            if (bucketOrd < 0) { // already seen
+                                bucketOrd = -1 - bucketOrd;
+                            }
+                        }
+                        if (bucketOrd == previousBucketOrd) {
+                            continue;
+                        }
+                        collectBucket(sub, doc, bucketOrd);
+                        previousBucketOrd = bucketOrd;
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Counts the documents of a segment that is sorted on the date field, every document of the segment must match
+     * the query if its date is in {@link #bulkCountRange}. The documents of a bucket are a contiguous range of doc ids
+     * whose ends are found with a binary search on the doc values.
+     *
+     * @return whether the documents were counted, {@code false} if the segment must be collected
+     */
+    private boolean bulkCount(LeafReader reader, boolean reverse) throws IOException {
+        final int maxDoc = reader.maxDoc();
+        if (maxDoc == 0 || reader.getLiveDocs() != null) {
+            return false;
+        }
+        // every document must have exactly one value
+        final PointValues points = reader.getPointValues(sortedField);
+        if (points == null || points.getDocCount() != maxDoc || points.size() != maxDoc) {
+            return false;
+        }
+        final SortedDocValuesSearch search = new SortedDocValuesSearch(reader, sortedField, maxDoc);
+        if (search.singleValued() == false) {
+            return false;
+        }
+        final long min = Math.max(bulkCountRange[0], search.valueAt(reverse ? maxDoc - 1 : 0));
+        final long max = Math.min(bulkCountRange[1], search.valueAt(reverse ? 0 : maxDoc - 1));
+        if (min > max) {
+            // no document of the segment matches the query
+            return true;
+        }
+        // a binary search costs about two probes per level for each bucket, give up on segments with too many buckets
+        final long maxBuckets = maxDoc / (BULK_COUNT_DOCS_PER_PROBE * 2L * (64 - Long.numberOfLeadingZeros(maxDoc)));
+        final List<long[]> buckets = new ArrayList<>();
+        long key = shardRounding.round(min - offset) + offset;
+        while (key <= max) {
+            if (buckets.size() >= maxBuckets) {
+                return false;
+            }
+            final long next = shardRounding.nextRoundingValue(key - offset) + offset;
+            if (next <= key) {
+                // no progress, e.g. on overflow
+                return false;
+            }
+            buckets.add(new long[] { key, Math.max(key, min), Math.min(next - 1, max) });
+            key = next;
+        }
+        for (long[] bucket : buckets) {
+            final long from = bucket[1];
+            final long to = bucket[2];
+            final int startDoc;
+            final int endDoc;
+            if (reverse) {
+                startDoc = search.firstDoc(value -> value <= to);
+                endDoc = search.firstDoc(value -> value < from);
+            } else {
+                startDoc = search.firstDoc(value -> value >= from);
+                endDoc = search.firstDoc(value -> value > to);
+            }
+            if (endDoc > startDoc) {
+                long bucketOrd = bucketOrds.add(bucket[0]);
+                if (bucketOrd < 0) { // already seen
+                    bucketOrd = -1 - bucketOrd;
+                }
+                grow(bucketOrd + 1);
+                incrementBucketDocCount(bucketOrd, endDoc - startDoc);
+            }
+        }
+        return true;
+    }
+
+    // the number of documents that collecting costs as much as one probe of the doc values
+    private static final int BULK_COUNT_DOCS_PER_PROBE = 8;
+
+    /**
+     * Random access to the values of a single-valued field of a segment whose documents are sorted on it.
+     */
+    private static final class SortedDocValuesSearch {
+        private final LeafReader reader;
+        private final String field;
+        private final int maxDoc;
+        private NumericDocValues values;
+
+        SortedDocValuesSearch(LeafReader reader, String field, int maxDoc) throws IOException {
+            this.reader = reader;
+            this.field = field;
+            this.maxDoc = maxDoc;
+            this.values = DocValues.unwrapSingleton(DocValues.getSortedNumeric(reader, field));
+        }
+
+        boolean singleValued() {
+            return values != null;
+        }
+
+        long valueAt(int doc) throws IOException {
+            if (values.docID() > doc) {
+                // doc values iterators only move forward
+                values = DocValues.unwrapSingleton(DocValues.getSortedNumeric(reader, field));
+            }
+            if (values.advanceExact(doc) == false) {
+                throw new IllegalStateException("no value for doc [" + doc + "] of field [" + field + "]");
+            }
+            return values.longValue();
+        }
+
+        /**
+         * Returns the first doc whose value matches the predicate, which must not match the values of the documents
+         * before it, or {@code maxDoc} if no document matches.
+         */
+        int firstDoc(LongPredicate predicate) throws IOException {
+            int low = 0;
+            int high = maxDoc;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (predicate.test(valueAt(mid))) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Returns the primary sort of the segment if it is on the given field, {@code null} otherwise.
+     */
+    static SortField leafSortOnField(LeafReader reader, String field) {
+        final Sort sort = reader.getMetaData().getSort();
+        if (sort == null) {
+            return null;
+        }
+        final SortField sortField = sort.getSort()[0];
+        if (sortField instanceof SortedNumericSortField
+                && ((SortedNumericSortField) sortField).getNumericType() == SortField.Type.LONG
+                && field.equals(sortField.getField())) {
+            return sortField;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the range of values of the given field, as inclusive {@code [min, max]} bounds, such that the query matches
+     * all documents whose value is in this range and no other document, or {@code null} if the query isn't such a range.
+     */
+    static long[] queryRange(@Nullable Query query, String field) {
+        if (query == null || query instanceof MatchAllDocsQuery) {
+            return new long[] { Long.MIN_VALUE, Long.MAX_VALUE };
+        } else if (query instanceof ConstantScoreQuery) {
+            return queryRange(((ConstantScoreQuery) query).getQuery(), field);
+        } else if (query instanceof BoostQuery) {
+            return queryRange(((BoostQuery) query).getQuery(), field);
+        } else if (query instanceof IndexOrDocValuesQuery) {
+            return queryRange(((IndexOrDocValuesQuery) query).getIndexQuery(), field);
+        } else if (query instanceof PointRangeQuery) {
+            final PointRangeQuery rangeQuery = (PointRangeQuery) query;
+            if (field.equals(rangeQuery.getField()) == false || rangeQuery.getNumDims() != 1
+                    || rangeQuery.getBytesPerDim() != Long.BYTES) {
+                return null;
+            }
+            return new long[] { LongPoint.decodeDimension(rangeQuery.getLowerPoint(), 0),
+                LongPoint.decodeDimension(rangeQuery.getUpperPoint(), 0) };
+        } else if (query instanceof BooleanQuery && ((BooleanQuery) query).clauses().isEmpty() == false) {
+            final long[] range = new long[] { Long.MIN_VALUE, Long.MAX_VALUE };
+            for (BooleanClause clause : ((BooleanQuery) query).clauses()) {
+                if (clause.isRequired() == false) {
+                    // should and must_not clauses
+                    return null;
+                }
+                final long[] clauseRange = queryRange(clause.getQuery(), field);
+                if (clauseRange == null) {
+                    return null;
+                }
+                range[0] = Math.max(range[0], clauseRange[0]);
+                range[1] = Math.min(range[1], clauseRange[1]);
+            }
+            return range;
+        }
+        return null;
+    }
+
     @Override
     public InternalAggregation buildAggregation(long owningBucketOrdinal) throws IOException {
         assert owningBucketOrdinal == 0;
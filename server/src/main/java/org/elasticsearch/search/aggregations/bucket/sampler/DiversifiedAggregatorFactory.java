@@ -96,4 +96,9 @@ public class DiversifiedAggregatorFactory extends ValuesSourceAggregatorFactory<
         };
     }
 
+    @Override
+    public boolean supportsConcurrentSegmentSearch() {
+        // each slice would sample its own top documents
+        return false;
+    }
 }
@@ -45,4 +45,9 @@ public class SamplerAggregatorFactory extends AggregatorFactory<SamplerAggregato
         return new SamplerAggregator(name, shardSize, factories, context, parent, pipelineAggregators, metaData);
     }
 
+    @Override
+    public boolean supportsConcurrentSegmentSearch() {
+        // each slice would sample its own top documents
+        return false;
+    }
 }
@@ -355,4 +355,10 @@ public class SignificantTermsAggregatorFactory extends ValuesSourceAggregatorFac
             termsEnum = null;
         }
     }
+
+    @Override
+    public boolean supportsConcurrentSegmentSearch() {
+        // the superset frequencies are looked up for the whole shard, merging slices would count them once per slice
+        return false;
+    }
 }
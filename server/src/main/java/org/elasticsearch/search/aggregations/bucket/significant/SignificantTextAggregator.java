@@ -155,7 +155,7 @@ public class SignificantTextAggregator extends BucketsAggregator {
                             +"] since it is not present");
                 }
 
-                SourceLookup sourceLookup = context.lookup().source();
+                SourceLookup sourceLookup = context.lookup().source(ctx);
                 sourceLookup.setSegmentAndDocument(ctx, doc);
                 BytesRefHash inDocTerms = new BytesRefHash(256, context.bigArrays());
 
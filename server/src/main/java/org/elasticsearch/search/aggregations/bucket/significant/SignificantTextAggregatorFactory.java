@@ -187,4 +187,10 @@ public class SignificantTextAggregatorFactory extends AggregatorFactory<Signific
                 incExcFilter, significanceHeuristic, this, indexedFieldName, sourceFieldNames, filterDuplicateText, metaData);
 
     }
+
+    @Override
+    public boolean supportsConcurrentSegmentSearch() {
+        // the superset frequencies are looked up for the whole shard, merging slices would count them once per slice
+        return false;
+    }
 }
@@ -0,0 +1,309 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.common.util.LongHash;
+import org.elasticsearch.common.util.ObjectArray;
+import org.elasticsearch.search.aggregations.IncrementalReducer;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.InternalOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Merges terms aggregation results one at a time into a hash of primitive keys, instead of grouping the buckets of all results
+ * by key like {@link InternalTerms#doReduce} does. Doc counts and errors are kept in {@link BigArrays} that are accounted for by
+ * the request circuit breaker, so merging a result fails with a {@link org.elasticsearch.common.breaker.CircuitBreakingException}
+ * if the merged state grows too large. Sub-aggregations of buckets with the same key are reduced pairwise.
+ * <p>
+ * The result of {@link #partialResult()} is the same as a non-final {@link InternalTerms#doReduce} of all merged results.
+ */
+abstract class IncrementalTermsReducer<A extends InternalMappedTerms<A, B>, B extends InternalTerms.Bucket<B>>
+        implements IncrementalReducer {
+
+    protected final BigArrays bigArrays;
+    private final ReduceContext reduceContext;
+    private final A reference;
+    private LongArray docCounts;
+    private LongArray docCountErrors;
+    private ObjectArray<InternalAggregations> subAggregations;
+    private long otherDocCount;
+    private long sumDocCountError;
+    private int numMerged;
+
+    IncrementalTermsReducer(A reference, ReduceContext reduceContext) {
+        assert reduceContext.isFinalReduce() == false;
+        this.reference = reference;
+        this.reduceContext = reduceContext;
+        this.bigArrays = reduceContext.bigArrays().withCircuitBreaking();
+        boolean success = false;
+        try {
+            docCounts = bigArrays.newLongArray(1, false);
+            docCountErrors = bigArrays.newLongArray(1, false);
+            subAggregations = bigArrays.newObjectArray(1);
+            success = true;
+        } finally {
+            if (success == false) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * The first mapped result, which holds the settings of the aggregation.
+     */
+    final A reference() {
+        return reference;
+    }
+
+    /**
+     * Adds the key of the given bucket to the hash.
+     *
+     * @return the ordinal of the key if it is new, otherwise {@code -1 - ordinal}
+     */
+    protected abstract long add(B bucket);
+
+    /**
+     * The number of distinct keys in the hash.
+     */
+    protected abstract long size();
+
+    /**
+     * Creates a bucket for the key with the given ordinal.
+     */
+    protected abstract B createBucket(long ord, long docCount, InternalAggregations aggregations, long docCountError);
+
+    @Override
+    public boolean merge(InternalAggregation aggregation) {
+        if (aggregation instanceof UnmappedTerms) {
+            // unmapped results have no buckets and don't contribute to the doc count error
+            numMerged++;
+            return true;
+        }
+        if (aggregation.getClass() != reference.getClass()) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        final A terms = (A) aggregation;
+        otherDocCount += terms.getSumOfOtherDocCounts();
+        final long thisAggDocCountError = docCountError(terms);
+        if (sumDocCountError != -1) {
+            if (thisAggDocCountError == -1) {
+                sumDocCountError = -1;
+            } else {
+                sumDocCountError += thisAggDocCountError;
+            }
+        }
+        for (B bucket : terms.getBuckets()) {
+            final long bucketDocCountError = bucket.docCountError - thisAggDocCountError;
+            long ord = add(bucket);
+            if (ord >= 0) {
+                grow(ord + 1);
+                docCounts.set(ord, bucket.docCount);
+                docCountErrors.set(ord, bucketDocCountError);
+                subAggregations.set(ord, bucket.aggregations);
+            } else {
+                ord = -1 - ord;
+                docCounts.increment(ord, bucket.docCount);
+                final long docCountError = docCountErrors.get(ord);
+                if (docCountError != -1) {
+                    docCountErrors.set(ord, bucketDocCountError == -1 ? -1 : docCountError + bucketDocCountError);
+                }
+                if (bucket.aggregations.asList().isEmpty() == false) {
+                    final InternalAggregations merged = subAggregations.get(ord);
+                    subAggregations.set(ord, InternalAggregations.reduce(Arrays.asList(merged, bucket.aggregations), reduceContext));
+                }
+            }
+        }
+        numMerged++;
+        return true;
+    }
+
+    /**
+     * The doc count error of a single result, computed the same way as in {@link InternalTerms#doReduce}.
+     */
+    private long docCountError(A terms) {
+        if (terms.getBuckets().size() < reference.getShardSize() || InternalOrder.isKeyOrder(reference.order)) {
+            return 0;
+        } else if (InternalOrder.isCountDesc(reference.order)) {
+            if (terms.getDocCountError() > 0) {
+                return terms.getDocCountError();
+            } else {
+                return terms.getBuckets().get(terms.getBuckets().size() - 1).docCount;
+            }
+        } else {
+            return -1;
+        }
+    }
+
+    private void grow(long minSize) {
+        docCounts = bigArrays.grow(docCounts, minSize);
+        docCountErrors = bigArrays.grow(docCountErrors, minSize);
+        subAggregations = bigArrays.grow(subAggregations, minSize);
+    }
+
+    @Override
+    public A partialResult() {
+        final long size = size();
+        final List<B> buckets = new ArrayList<>(Math.toIntExact(size));
+        for (long ord = 0; ord < size; ord++) {
+            final long docCountError = sumDocCountError == -1 ? -1 : docCountErrors.get(ord) + sumDocCountError;
+            buckets.add(createBucket(ord, docCounts.get(ord), subAggregations.get(ord), docCountError));
+        }
+        buckets.sort(reference.order.comparator(null));
+        final long docCountError;
+        if (sumDocCountError == -1) {
+            docCountError = -1;
+        } else {
+            docCountError = numMerged == 1 ? 0 : sumDocCountError;
+        }
+        return reference.create(reference.getName(), buckets, docCountError, otherDocCount);
+    }
+
+    @Override
+    public void close() {
+        Releasables.close(docCounts, docCountErrors, subAggregations);
+    }
+
+    static final class LongTermsReducer extends IncrementalTermsReducer<LongTerms, LongTerms.Bucket> {
+        private final LongHash keys;
+
+        LongTermsReducer(LongTerms reference, ReduceContext reduceContext) {
+            super(reference, reduceContext);
+            boolean success = false;
+            try {
+                keys = new LongHash(1, bigArrays);
+                success = true;
+            } finally {
+                if (success == false) {
+                    super.close();
+                }
+            }
+        }
+
+        @Override
+        protected long add(LongTerms.Bucket bucket) {
+            return keys.add(bucket.term);
+        }
+
+        @Override
+        protected long size() {
+            return keys.size();
+        }
+
+        @Override
+        protected LongTerms.Bucket createBucket(long ord, long docCount, InternalAggregations aggregations, long docCountError) {
+            return new LongTerms.Bucket(keys.get(ord), docCount, aggregations, reference().showTermDocCountError, docCountError,
+                reference().format);
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(super::close, keys);
+        }
+    }
+
+    static final class DoubleTermsReducer extends IncrementalTermsReducer<DoubleTerms, DoubleTerms.Bucket> {
+        private final LongHash keys;
+
+        DoubleTermsReducer(DoubleTerms reference, ReduceContext reduceContext) {
+            super(reference, reduceContext);
+            boolean success = false;
+            try {
+                keys = new LongHash(1, bigArrays);
+                success = true;
+            } finally {
+                if (success == false) {
+                    super.close();
+                }
+            }
+        }
+
+        @Override
+        protected long add(DoubleTerms.Bucket bucket) {
+            return keys.add(Double.doubleToLongBits(bucket.getKeyAsNumber().doubleValue()));
+        }
+
+        @Override
+        protected long size() {
+            return keys.size();
+        }
+
+        @Override
+        protected DoubleTerms.Bucket createBucket(long ord, long docCount, InternalAggregations aggregations, long docCountError) {
+            return new DoubleTerms.Bucket(Double.longBitsToDouble(keys.get(ord)), docCount, aggregations,
+                reference().showTermDocCountError, docCountError, reference().format);
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(super::close, keys);
+        }
+    }
+
+    static final class StringTermsReducer extends IncrementalTermsReducer<StringTerms, StringTerms.Bucket> {
+        private final BytesRefHash keys;
+
+        StringTermsReducer(StringTerms reference, ReduceContext reduceContext) {
+            super(reference, reduceContext);
+            boolean success = false;
+            try {
+                keys = new BytesRefHash(1, bigArrays);
+                success = true;
+            } finally {
+                if (success == false) {
+                    super.close();
+                }
+            }
+        }
+
+        @Override
+        protected long add(StringTerms.Bucket bucket) {
+            return keys.add(bucket.termBytes);
+        }
+
+        @Override
+        protected long size() {
+            return keys.size();
+        }
+
+        @Override
+        protected StringTerms.Bucket createBucket(long ord, long docCount, InternalAggregations aggregations, long docCountError) {
+            // the bytes of the hash are released on close, so the term needs to be copied
+            final BytesRef term = BytesRef.deepCopyOf(keys.get(ord, new BytesRef()));
+            return new StringTerms.Bucket(term, docCount, aggregations, reference().showTermDocCountError, docCountError,
+                reference().format);
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(super::close, keys);
+        }
+    }
+}
@@ -222,6 +222,8 @@ public abstract class InternalTerms<A extends InternalTerms<A, B>, B extends Int
         long sumDocCountError = 0;
         long otherDocCount = 0;
         InternalTerms<A, B> referenceTerms = null;
+        // read before the loop below modifies the doc count error of this instance
+        final long singleResultDocCountError = aggregations.size() == 1 ? getDocCountError() : 0;
         for (InternalAggregation aggregation : aggregations) {
             @SuppressWarnings("unchecked")
             InternalTerms<A, B> terms = (InternalTerms<A, B>) aggregation;
@@ -239,7 +241,9 @@ public abstract class InternalTerms<A extends InternalTerms<A, B>, B extends Int
             }
             otherDocCount += terms.getSumOfOtherDocCounts();
             final long thisAggDocCountError;
-            if (terms.getBuckets().size() < getShardSize() || InternalOrder.isKeyOrder(order)) {
+            if (reduceContext.isSliceReduce() || terms.getBuckets().size() < getShardSize() || InternalOrder.isKeyOrder(order)) {
+                // the result of a slice is exact because slices are only searched concurrently if their top buckets add up to
+                // the top buckets of the shard
                 thisAggDocCountError = 0;
             } else if (InternalOrder.isCountDesc(order)) {
                 if (terms.getDocCountError() > 0) {
@@ -280,7 +284,14 @@ public abstract class InternalTerms<A extends InternalTerms<A, B>, B extends Int
             }
         }
 
-        final int size = reduceContext.isFinalReduce() == false ? buckets.size() : Math.min(requiredSize, buckets.size());
+        final int size;
+        if (reduceContext.isFinalReduce()) {
+            size = Math.min(requiredSize, buckets.size());
+        } else if (reduceContext.isSliceReduce()) {
+            size = Math.min(getShardSize(), buckets.size());
+        } else {
+            size = buckets.size();
+        }
         final BucketPriorityQueue<B> ordered = new BucketPriorityQueue<>(size, order.comparator(null));
         for (List<B> sameTermBuckets : buckets.values()) {
             final B b = sameTermBuckets.get(0).reduce(sameTermBuckets, reduceContext);
@@ -308,8 +319,11 @@ public abstract class InternalTerms<A extends InternalTerms<A, B>, B extends Int
         long docCountError;
         if (sumDocCountError == -1) {
             docCountError = -1;
+        } else if (aggregations.size() == 1) {
+            // a single shard result is exact, but a single partially reduced result carries the error of the results it was built from
+            docCountError = singleResultDocCountError;
         } else {
-            docCountError = aggregations.size() == 1 ? 0 : sumDocCountError;
+            docCountError = sumDocCountError;
         }
         return create(name, Arrays.asList(list), docCountError, otherDocCount);
     }
@@ -22,6 +22,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.IncrementalReducer;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
@@ -148,6 +149,11 @@ public class LongTerms extends InternalMappedTerms<LongTerms, LongTerms.Bucket>
         return new Bucket[size];
     }
 
+    @Override
+    public IncrementalReducer newIncrementalReducer(ReduceContext reduceContext) {
+        return new IncrementalTermsReducer.LongTermsReducer(this, reduceContext);
+    }
+
     @Override
     public InternalAggregation doReduce(List<InternalAggregation> aggregations, ReduceContext reduceContext) {
         for (InternalAggregation agg : aggregations) {
@@ -109,6 +109,15 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
         }
     }
 
+    @Override
+    public boolean supportsConcurrentSegmentSearch() {
+        // the top buckets of the slices only add up to the top buckets of the shard if they are sorted by key, and if a
+        // bucket does not need more documents than any single slice may hold
+        return InternalOrder.isKeyOrder(order)
+            && bucketCountThresholds.getShardMinDocCount() <= 1
+            && super.supportsConcurrentSegmentSearch();
+    }
+
     @Override
     protected Aggregator doCreateInternal(ValuesSource valuesSource, Aggregator parent, boolean collectsFromSingleBucket,
             List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
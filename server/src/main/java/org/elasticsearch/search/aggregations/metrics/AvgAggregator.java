@@ -73,6 +73,7 @@ class AvgAggregator extends NumericMetricsAggregator.SingleValue {
         }
         final BigArrays bigArrays = context.bigArrays();
         final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
+        final DoubleValuesBatch batch = new DoubleValuesBatch();
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
@@ -103,6 +104,39 @@ class AvgAggregator extends NumericMetricsAggregator.SingleValue {
                     compensations.set(bucket, compensation);
                 }
             }
+
+            @Override
+            public void collect(int[] docs, long[] buckets, int count) throws IOException {
+                batch.read(values, docs, count);
+                final double[] batchValues = batch.values();
+                for (int from = 0; from < count; ) {
+                    final int to = DoubleValuesBatch.bucketEnd(buckets, from, count);
+                    final long bucket = buckets[from];
+                    counts = bigArrays.grow(counts, bucket + 1);
+                    sums = bigArrays.grow(sums, bucket + 1);
+                    compensations = bigArrays.grow(compensations, bucket + 1);
+
+                    final int start = batch.start(from);
+                    final int end = batch.end(to - 1);
+                    counts.increment(bucket, end - start);
+                    double sum = sums.get(bucket);
+                    double compensation = compensations.get(bucket);
+                    for (int i = start; i < end; i++) {
+                        double value = batchValues[i];
+                        if (Double.isFinite(value) == false) {
+                            sum += value;
+                        } else if (Double.isFinite(sum)) {
+                            double corrected = value - compensation;
+                            double newSum = sum + corrected;
+                            compensation = (newSum - sum) - corrected;
+                            sum = newSum;
+                        }
+                    }
+                    sums.set(bucket, sum);
+                    compensations.set(bucket, compensation);
+                    from = to;
+                }
+            }
         };
     }
 
@@ -0,0 +1,79 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.metrics;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+
+import java.io.IOException;
+
+/**
+ * Decodes the values of a batch of documents into a primitive buffer so that metrics can be computed over them in tight
+ * loops. The values of the document at index {@code i} of the batch are {@code values()[start(i)]} to
+ * {@code values()[end(i) - 1]}, in the order of the doc values.
+ */
+final class DoubleValuesBatch {
+
+    private double[] values = new double[0];
+    private int[] ends = new int[0];
+
+    /**
+     * Reads the values of the first {@code count} docs of {@code docs}.
+     */
+    void read(SortedNumericDoubleValues source, int[] docs, int count) throws IOException {
+        ends = ArrayUtil.grow(ends, count);
+        int numValues = 0;
+        for (int i = 0; i < count; i++) {
+            if (source.advanceExact(docs[i])) {
+                final int valueCount = source.docValueCount();
+                values = ArrayUtil.grow(values, numValues + valueCount);
+                for (int j = 0; j < valueCount; j++) {
+                    values[numValues++] = source.nextValue();
+                }
+            }
+            ends[i] = numValues;
+        }
+    }
+
+    double[] values() {
+        return values;
+    }
+
+    int start(int doc) {
+        return doc == 0 ? 0 : ends[doc - 1];
+    }
+
+    int end(int doc) {
+        return ends[doc];
+    }
+
+    /**
+     * Returns the index of the first doc after {@code from} that isn't in the same bucket as {@code from}, or
+     * {@code count} if all remaining docs are in that bucket.
+     */
+    static int bucketEnd(long[] buckets, int from, int count) {
+        final long bucket = buckets[from];
+        int i = from + 1;
+        while (i < count && buckets[i] == bucket) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -116,15 +116,20 @@ class MinAggregator extends NumericMetricsAggregator.SingleValue {
         final BigArrays bigArrays = context.bigArrays();
         final SortedNumericDoubleValues allValues = valuesSource.doubleValues(ctx);
         final NumericDoubleValues values = MultiValueMode.MIN.select(allValues);
+        final DoubleValuesBatch batch = new DoubleValuesBatch();
         return new LeafBucketCollectorBase(sub, allValues) {
 
-            @Override
-            public void collect(int doc, long bucket) throws IOException {
+            private void grow(long bucket) {
                 if (bucket >= mins.size()) {
                     long from = mins.size();
                     mins = bigArrays.grow(mins, bucket + 1);
                     mins.fill(from, mins.size(), Double.POSITIVE_INFINITY);
                 }
+            }
+
+            @Override
+            public void collect(int doc, long bucket) throws IOException {
+                grow(bucket);
                 if (values.advanceExact(doc)) {
                     final double value = values.doubleValue();
                     double min = mins.get(bucket);
@@ -133,6 +138,28 @@ class MinAggregator extends NumericMetricsAggregator.SingleValue {
                 }
             }
 
+            @Override
+            public void collect(int[] docs, long[] buckets, int count) throws IOException {
+                batch.read(allValues, docs, count);
+                final double[] batchValues = batch.values();
+                for (int from = 0; from < count; ) {
+                    final int to = DoubleValuesBatch.bucketEnd(buckets, from, count);
+                    final long bucket = buckets[from];
+                    grow(bucket);
+
+                    double min = mins.get(bucket);
+                    for (int i = from; i < to; i++) {
+                        // values are sorted, the first value of a document is its minimum
+                        final int start = batch.start(i);
+                        if (start < batch.end(i)) {
+                            min = Math.min(min, batchValues[start]);
+                        }
+                    }
+                    mins.set(bucket, min);
+                    from = to;
+                }
+            }
+
         };
     }
 
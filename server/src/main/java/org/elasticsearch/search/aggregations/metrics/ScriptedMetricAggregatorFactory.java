@@ -153,4 +153,10 @@ class ScriptedMetricAggregatorFactory extends AggregatorFactory<ScriptedMetricAg
 
         return combined;
     }
+
+    @Override
+    public boolean supportsConcurrentSegmentSearch() {
+        // the combined state of each slice would be exposed to the reduce script as if it came from a shard
+        return false;
+    }
 }
@@ -81,9 +81,9 @@ class StatsAggregator extends NumericMetricsAggregator.MultiValue {
         }
         final BigArrays bigArrays = context.bigArrays();
         final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
+        final DoubleValuesBatch batch = new DoubleValuesBatch();
         return new LeafBucketCollectorBase(sub, values) {
-            @Override
-            public void collect(int doc, long bucket) throws IOException {
+            private void grow(long bucket) {
                 if (bucket >= counts.size()) {
                     final long from = counts.size();
                     final long overSize = BigArrays.overSize(bucket + 1);
@@ -95,6 +95,11 @@ class StatsAggregator extends NumericMetricsAggregator.MultiValue {
                     mins.fill(from, overSize, Double.POSITIVE_INFINITY);
                     maxes.fill(from, overSize, Double.NEGATIVE_INFINITY);
                 }
+            }
+
+            @Override
+            public void collect(int doc, long bucket) throws IOException {
+                grow(bucket);
 
                 if (values.advanceExact(doc)) {
                     final int valuesCount = values.docValueCount();
@@ -125,6 +130,43 @@ class StatsAggregator extends NumericMetricsAggregator.MultiValue {
                     maxes.set(bucket, max);
                 }
             }
+
+            @Override
+            public void collect(int[] docs, long[] buckets, int count) throws IOException {
+                batch.read(values, docs, count);
+                final double[] batchValues = batch.values();
+                for (int from = 0; from < count; ) {
+                    final int to = DoubleValuesBatch.bucketEnd(buckets, from, count);
+                    final long bucket = buckets[from];
+                    grow(bucket);
+
+                    final int start = batch.start(from);
+                    final int end = batch.end(to - 1);
+                    counts.increment(bucket, end - start);
+                    double min = mins.get(bucket);
+                    double max = maxes.get(bucket);
+                    double sum = sums.get(bucket);
+                    double compensation = compensations.get(bucket);
+                    for (int i = start; i < end; i++) {
+                        double value = batchValues[i];
+                        if (Double.isFinite(value) == false) {
+                            sum += value;
+                        } else if (Double.isFinite(sum)) {
+                            double corrected = value - compensation;
+                            double newSum = sum + corrected;
+                            compensation = (newSum - sum) - corrected;
+                            sum = newSum;
+                        }
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                    }
+                    sums.set(bucket, sum);
+                    compensations.set(bucket, compensation);
+                    mins.set(bucket, min);
+                    maxes.set(bucket, max);
+                    from = to;
+                }
+            }
         };
     }
 
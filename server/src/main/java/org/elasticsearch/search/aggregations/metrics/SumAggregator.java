@@ -69,6 +69,7 @@ class SumAggregator extends NumericMetricsAggregator.SingleValue {
         }
         final BigArrays bigArrays = context.bigArrays();
         final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
+        final DoubleValuesBatch batch = new DoubleValuesBatch();
         return new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
@@ -96,6 +97,35 @@ class SumAggregator extends NumericMetricsAggregator.SingleValue {
                     sums.set(bucket, sum);
                 }
             }
+
+            @Override
+            public void collect(int[] docs, long[] buckets, int count) throws IOException {
+                batch.read(values, docs, count);
+                final double[] batchValues = batch.values();
+                for (int from = 0; from < count; ) {
+                    final int to = DoubleValuesBatch.bucketEnd(buckets, from, count);
+                    final long bucket = buckets[from];
+                    sums = bigArrays.grow(sums, bucket + 1);
+                    compensations = bigArrays.grow(compensations, bucket + 1);
+
+                    double sum = sums.get(bucket);
+                    double compensation = compensations.get(bucket);
+                    for (int i = batch.start(from), end = batch.end(to - 1); i < end; i++) {
+                        double value = batchValues[i];
+                        if (Double.isFinite(value) == false) {
+                            sum += value;
+                        } else if (Double.isFinite(sum)) {
+                            double corrected = value - compensation;
+                            double newSum = sum + corrected;
+                            compensation = (newSum - sum) - corrected;
+                            sum = newSum;
+                        }
+                    }
+                    compensations.set(bucket, compensation);
+                    sums.set(bucket, sum);
+                    from = to;
+                }
+            }
         };
     }
 
@@ -106,4 +106,9 @@ class TopHitsAggregatorFactory extends AggregatorFactory<TopHitsAggregatorFactor
                 pipelineAggregators, metaData);
     }
 
+    @Override
+    public boolean supportsConcurrentSegmentSearch() {
+        // hits are fetched when building the aggregation, each slice would run its own fetch phase
+        return false;
+    }
 }
@@ -21,6 +21,13 @@ package org.elasticsearch.search.fetch;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.search.DocIdSetIterator;
@@ -30,11 +37,15 @@ import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.BitSet;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.CheckedBiConsumer;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.lucene.index.ElasticsearchLeafReader;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.xcontent.XContentHelper;
@@ -44,9 +55,12 @@ import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.fieldvisitor.CustomFieldsVisitor;
 import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
 import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.index.mapper.IgnoredFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.ObjectMapper;
+import org.elasticsearch.index.mapper.RoutingFieldMapper;
 import org.elasticsearch.index.mapper.SourceFieldMapper;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.search.SearchHit;
@@ -60,6 +74,7 @@ import org.elasticsearch.search.lookup.SourceLookup;
 import org.elasticsearch.tasks.TaskCancelledException;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -75,6 +90,10 @@ import java.util.Set;
  */
 public class FetchPhase implements SearchPhase {
     private static final Logger LOGGER = LogManager.getLogger(FetchPhase.class);
+    // the minimum number of hits in a segment and the maximum average distance between their doc ids
+    // for their stored fields to be read through a stored fields reader that keeps decompressed blocks
+    private static final int SEQUENTIAL_READER_MIN_DOCS = 10;
+    private static final int SEQUENTIAL_READER_MAX_AVERAGE_GAP = 4;
 
     private final FetchSubPhase[] fetchSubPhases;
 
@@ -143,24 +162,45 @@ public class FetchPhase implements SearchPhase {
 
         try {
             SearchHit[] hits = new SearchHit[context.docIdsToLoadSize()];
-            FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
+            // load the hits in doc id order so that stored fields are read forward, segment by segment
+            DocIdToIndex[] docs = new DocIdToIndex[context.docIdsToLoadSize()];
             for (int index = 0; index < context.docIdsToLoadSize(); index++) {
+                docs[index] = new DocIdToIndex(context.docIdsToLoad()[context.docIdsToLoadFrom() + index], index);
+            }
+            Arrays.sort(docs);
+
+            FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
+            List<LeafReaderContext> leaves = context.searcher().getIndexReader().leaves();
+            // hits that need neither _source nor stored fields can take their _id from doc values if the index has them
+            final boolean idOnly = fieldsVisitor != null && fieldsVisitor.getClass() == FieldsVisitor.class
+                && context.sourceRequested() == false;
+            int currentReaderIndex = -1;
+            LeafReaderContext subReaderContext = null;
+            CheckedBiConsumer<Integer, FieldsVisitor, IOException> storedFieldReader = null;
+            BinaryDocValues idDocValues = null;
+            for (int i = 0; i < docs.length; i++) {
                 if (context.isCancelled()) {
                     throw new TaskCancelledException("cancelled");
                 }
-                int docId = context.docIdsToLoad()[context.docIdsToLoadFrom() + index];
-                int readerIndex = ReaderUtil.subIndex(docId, context.searcher().getIndexReader().leaves());
-                LeafReaderContext subReaderContext = context.searcher().getIndexReader().leaves().get(readerIndex);
+                int docId = docs[i].docId;
+                int index = docs[i].index;
+                int readerIndex = ReaderUtil.subIndex(docId, leaves);
+                if (currentReaderIndex != readerIndex) {
+                    currentReaderIndex = readerIndex;
+                    subReaderContext = leaves.get(readerIndex);
+                    storedFieldReader = storedFieldReader(subReaderContext, docs, i);
+                    idDocValues = idOnly ? idDocValues(subReaderContext) : null;
+                }
                 int subDocId = docId - subReaderContext.docBase;
 
                 final SearchHit searchHit;
                 int rootDocId = findRootDocumentIfNested(context, subReaderContext, subDocId);
                 if (rootDocId != -1) {
                     searchHit = createNestedSearchHit(context, docId, subDocId, rootDocId,
-                        storedToRequestedFields, subReaderContext);
+                        storedToRequestedFields, subReaderContext, storedFieldReader);
                 } else {
                     searchHit = createSearchHit(context, fieldsVisitor, docId, subDocId,
-                        storedToRequestedFields, subReaderContext);
+                        storedToRequestedFields, subReaderContext, storedFieldReader, idDocValues);
                 }
 
                 hits[index] = searchHit;
@@ -187,6 +227,75 @@ public class FetchPhase implements SearchPhase {
         }
     }
 
+    private static final class DocIdToIndex implements Comparable<DocIdToIndex> {
+        final int docId;
+        final int index;
+
+        DocIdToIndex(int docId, int index) {
+            this.docId = docId;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(DocIdToIndex o) {
+            return Integer.compare(docId, o.docId);
+        }
+    }
+
+    /**
+     * Returns the function that loads the stored fields of the documents of the given segment, starting with {@code docs[from]}.
+     * If enough of the remaining documents fall into this segment and are close to each other, the stored fields are read through
+     * a merge instance of the segment's stored fields reader, which decompresses each block of documents once and keeps it around
+     * for the following documents instead of decompressing it again for every document.
+     */
+    private static CheckedBiConsumer<Integer, FieldsVisitor, IOException> storedFieldReader(LeafReaderContext readerContext,
+                                                                                          DocIdToIndex[] docs, int from) {
+        final int maxDoc = readerContext.docBase + readerContext.reader().maxDoc();
+        int to = from;
+        while (to < docs.length && docs[to].docId < maxDoc) {
+            to++;
+        }
+        final int numDocs = to - from;
+        final int docIdRange = docs[to - 1].docId - docs[from].docId + 1;
+        if (numDocs >= SEQUENTIAL_READER_MIN_DOCS && docIdRange <= numDocs * SEQUENTIAL_READER_MAX_AVERAGE_GAP) {
+            final StoredFieldsReader sequentialReader = sequentialStoredFieldsReader(readerContext.reader());
+            if (sequentialReader != null) {
+                return sequentialReader::visitDocument;
+            }
+        }
+        return readerContext.reader()::document;
+    }
+
+    /**
+     * Unwraps the reader down to the segment's stored fields reader, or returns {@code null} if the segment is wrapped in a reader that
+     * might filter stored fields, in which case the stored fields must be read through {@link LeafReader#document}.
+     */
+    private static StoredFieldsReader sequentialStoredFieldsReader(LeafReader reader) {
+        while (reader instanceof ElasticsearchLeafReader) {
+            reader = ((ElasticsearchLeafReader) reader).getDelegate();
+        }
+        if (reader instanceof CodecReader) {
+            return ((CodecReader) reader).getFieldsReader().getMergeInstance();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the {@code _id} doc values of the segment if its hits can be served without reading stored fields: the index has
+     * {@link IdFieldMapper#DOC_VALUES_SETTING} enabled and none of the documents of the segment has a {@code _routing} or an
+     * {@code _ignored} value, which hits would otherwise load from stored fields.
+     */
+    private static BinaryDocValues idDocValues(LeafReaderContext readerContext) throws IOException {
+        FieldInfos fieldInfos = readerContext.reader().getFieldInfos();
+        FieldInfo idFieldInfo = fieldInfos.fieldInfo(IdFieldMapper.NAME);
+        if (idFieldInfo == null || idFieldInfo.getDocValuesType() != DocValuesType.BINARY
+            || fieldInfos.fieldInfo(RoutingFieldMapper.NAME) != null
+            || fieldInfos.fieldInfo(IgnoredFieldMapper.NAME) != null) {
+            return null;
+        }
+        return readerContext.reader().getBinaryDocValues(IdFieldMapper.NAME);
+    }
+
     private int findRootDocumentIfNested(SearchContext context, LeafReaderContext subReaderContext, int subDocId) throws IOException {
         if (context.mapperService().hasNested()) {
             BitSet bits = context.bitsetFilterCache()
@@ -204,15 +313,22 @@ public class FetchPhase implements SearchPhase {
                                       int docId,
                                       int subDocId,
                                       Map<String, Set<String>> storedToRequestedFields,
-                                      LeafReaderContext subReaderContext) {
+                                      LeafReaderContext subReaderContext,
+                                      CheckedBiConsumer<Integer, FieldsVisitor, IOException> storedFieldReader,
+                                      @Nullable BinaryDocValues idDocValues) throws IOException {
         DocumentMapper documentMapper = context.mapperService().documentMapper();
         Text typeText = documentMapper.typeText();
         if (fieldsVisitor == null) {
             return new SearchHit(docId, null, typeText, null);
         }
+        if (idDocValues != null && idDocValues.advanceExact(subDocId)) {
+            BytesRef id = idDocValues.binaryValue();
+            context.lookup().source().setSegmentAndDocument(subReaderContext, subDocId);
+            return new SearchHit(docId, Uid.decodeId(id.bytes, id.offset, id.length), typeText, null);
+        }
 
         Map<String, DocumentField> searchFields = getSearchFields(context, fieldsVisitor, subDocId,
-            storedToRequestedFields, subReaderContext);
+            storedToRequestedFields, storedFieldReader);
 
         SearchHit searchHit = new SearchHit(docId, fieldsVisitor.uid().id(), typeText, searchFields);
         // Set _source if requested.
@@ -228,8 +344,8 @@ public class FetchPhase implements SearchPhase {
                                                        FieldsVisitor fieldsVisitor,
                                                        int subDocId,
                                                        Map<String, Set<String>> storedToRequestedFields,
-                                                       LeafReaderContext subReaderContext) {
-        loadStoredFields(context, subReaderContext, fieldsVisitor, subDocId);
+                                                       CheckedBiConsumer<Integer, FieldsVisitor, IOException> storedFieldReader) {
+        loadStoredFields(context, storedFieldReader, fieldsVisitor, subDocId);
         fieldsVisitor.postProcess(context.mapperService());
 
         if (fieldsVisitor.fields().isEmpty()) {
@@ -257,7 +373,8 @@ public class FetchPhase implements SearchPhase {
                                             int nestedSubDocId,
                                             int rootSubDocId,
                                             Map<String, Set<String>> storedToRequestedFields,
-                                            LeafReaderContext subReaderContext) throws IOException {
+                                            LeafReaderContext subReaderContext,
+                                            CheckedBiConsumer<Integer, FieldsVisitor, IOException> storedFieldReader) throws IOException {
         // Also if highlighting is requested on nested documents we need to fetch the _source from the root document,
         // otherwise highlighting will attempt to fetch the _source from the nested doc, which will fail,
         // because the entire _source is only stored with the root document.
@@ -266,7 +383,7 @@ public class FetchPhase implements SearchPhase {
         final boolean needSource = context.sourceRequested() || context.highlight() != null;
         if (needSource || (context instanceof InnerHitsContext.InnerHitSubContext == false)) {
             FieldsVisitor rootFieldsVisitor = new FieldsVisitor(needSource);
-            loadStoredFields(context, subReaderContext, rootFieldsVisitor, rootSubDocId);
+            loadStoredFields(context, storedFieldReader, rootFieldsVisitor, rootSubDocId);
             rootFieldsVisitor.postProcess(context.mapperService());
             uid = rootFieldsVisitor.uid();
             source = rootFieldsVisitor.source();
@@ -280,7 +397,7 @@ public class FetchPhase implements SearchPhase {
         if (context.hasStoredFields() && !context.storedFieldsContext().fieldNames().isEmpty()) {
             FieldsVisitor nestedFieldsVisitor = new CustomFieldsVisitor(storedToRequestedFields.keySet(), false);
             searchFields = getSearchFields(context, nestedFieldsVisitor, nestedSubDocId,
-                storedToRequestedFields, subReaderContext);
+                storedToRequestedFields, storedFieldReader);
         }
 
         DocumentMapper documentMapper = context.mapperService().documentMapper();
@@ -419,10 +536,11 @@ public class FetchPhase implements SearchPhase {
         return nestedIdentity;
     }
 
-    private void loadStoredFields(SearchContext searchContext, LeafReaderContext readerContext, FieldsVisitor fieldVisitor, int docId) {
+    private void loadStoredFields(SearchContext searchContext, CheckedBiConsumer<Integer, FieldsVisitor, IOException> storedFieldReader,
+                                  FieldsVisitor fieldVisitor, int docId) {
         fieldVisitor.reset();
         try {
-            readerContext.reader().document(docId, fieldVisitor);
+            storedFieldReader.accept(docId, fieldVisitor);
         } catch (IOException e) {
             throw new FetchPhaseExecutionException(searchContext, "Failed to fetch doc id [" + docId + "]", e);
         }
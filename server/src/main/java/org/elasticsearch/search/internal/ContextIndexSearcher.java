@@ -36,7 +36,11 @@ import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TermStatistics;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.search.XIndexSearcher;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.search.dfs.AggregatedDfs;
 import org.elasticsearch.search.profile.Timer;
@@ -46,14 +50,23 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 import org.elasticsearch.search.profile.query.QueryTimingType;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * Context-aware extension of {@link IndexSearcher}.
  */
 public class ContextIndexSearcher extends IndexSearcher implements Releasable {
 
+    /** The minimum number of documents of a slice of a concurrent search, smaller shards are always searched sequentially. */
+    public static final int MIN_DOCS_PER_SLICE = 50_000;
+
     /** The wrapped {@link IndexSearcher}. The reason why we sometimes prefer delegating to this searcher instead of {@code super} is that
      *  this instance may have more assertions, for example if it comes from MockInternalEngine which wraps the IndexSearcher into an
      *  AssertingIndexSearcher. */
@@ -68,13 +81,34 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
 
     private Runnable checkCancelled;
 
+    /** The executor of the slices of a concurrent search, or {@code null} if leaves are always searched sequentially. */
+    private final Executor sliceExecutor;
+
+    private final int maxSlices;
+
+    private LeafSlice[] concurrentSlices;
+
     public ContextIndexSearcher(Engine.Searcher searcher, QueryCache queryCache, QueryCachingPolicy queryCachingPolicy) {
+        this(searcher, queryCache, queryCachingPolicy, null, 1);
+    }
+
+    /**
+     * Creates a searcher that can partition its leaves into at most {@code maxSlices} slices which are searched
+     * concurrently on the provided {@code sliceExecutor}, see {@link #search(Query, LeafSlice[], Collector[])}.
+     */
+    public ContextIndexSearcher(Engine.Searcher searcher, QueryCache queryCache, QueryCachingPolicy queryCachingPolicy,
+                                @Nullable Executor sliceExecutor, int maxSlices) {
         super(searcher.reader());
+        if (maxSlices < 1) {
+            throw new IllegalArgumentException("maxSlices must be at least 1 but was [" + maxSlices + "]");
+        }
         engineSearcher = searcher;
         in = new XIndexSearcher(searcher.searcher());
         setSimilarity(searcher.searcher().getSimilarity());
         setQueryCache(queryCache);
         setQueryCachingPolicy(queryCachingPolicy);
+        this.sliceExecutor = sliceExecutor;
+        this.maxSlices = maxSlices;
     }
 
     @Override
@@ -177,6 +211,142 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         in.search(leaves, cancellableWeight, collector);
     }
 
+    /**
+     * Returns the slices the leaves of this searcher are partitioned into when searching concurrently. A single slice holding
+     * all leaves is returned if concurrent search is disabled or if the index is too small to benefit from it.
+     */
+    public LeafSlice[] concurrentSlices() {
+        if (concurrentSlices == null) {
+            if (sliceExecutor == null || maxSlices == 1) {
+                concurrentSlices = new LeafSlice[] { new LeafSlice(leafContexts.toArray(new LeafReaderContext[0])) };
+            } else {
+                concurrentSlices = computeSlices(leafContexts, maxSlices, MIN_DOCS_PER_SLICE);
+            }
+        }
+        return concurrentSlices;
+    }
+
+    /**
+     * Partitions the provided leaves into at most {@code maxSlices} slices of consecutive leaves, each holding at least
+     * {@code minDocsPerSlice} documents except for the last one. Keeping the leaves of a slice consecutive means that
+     * breaking ties on the slice index when merging the results of the slices preserves the order of the doc ids.
+     */
+    static LeafSlice[] computeSlices(List<LeafReaderContext> leaves, int maxSlices, int minDocsPerSlice) {
+        long totalDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            totalDocs += leaf.reader().maxDoc();
+        }
+        final long docsPerSlice = Math.max(Math.max(1, minDocsPerSlice), (totalDocs + maxSlices - 1) / maxSlices);
+        final List<LeafSlice> slices = new ArrayList<>();
+        List<LeafReaderContext> group = new ArrayList<>();
+        long groupDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            group.add(leaf);
+            groupDocs += leaf.reader().maxDoc();
+            if (groupDocs >= docsPerSlice) {
+                slices.add(new LeafSlice(group.toArray(new LeafReaderContext[0])));
+                group = new ArrayList<>();
+                groupDocs = 0;
+            }
+        }
+        if (group.isEmpty() == false || slices.isEmpty()) {
+            slices.add(new LeafSlice(group.toArray(new LeafReaderContext[0])));
+        }
+        return slices.toArray(new LeafSlice[0]);
+    }
+
+    /**
+     * Searches each slice with its own collector: the first slice is searched on the calling thread while the other ones are
+     * handed to the slice executor. Slices that no worker has picked up by the time the calling thread is done with its own
+     * slice are searched on the calling thread as well, and slices that have not started yet are skipped as soon as one of the
+     * slices fails, e.g. because the search timed out or was cancelled. This method only returns once no slice is running
+     * anymore, the collectors must not be shared between slices.
+     */
+    public void search(Query query, LeafSlice[] slices, Collector[] collectors) throws IOException {
+        if (slices.length != collectors.length) {
+            throw new IllegalArgumentException("expected one collector per slice but got [" + collectors.length
+                + "] collectors for [" + slices.length + "] slices");
+        }
+        final Weight weight = createWeight(rewrite(query), collectors[0].scoreMode(), 1f);
+        if (slices.length == 1) {
+            search(Arrays.asList(slices[0].leaves), weight, collectors[0]);
+            return;
+        }
+        if (sliceExecutor == null) {
+            throw new IllegalStateException("concurrent search is disabled");
+        }
+        final List<FutureTask<Void>> tasks = new ArrayList<>(slices.length - 1);
+        for (int i = 1; i < slices.length; i++) {
+            final List<LeafReaderContext> leaves = Arrays.asList(slices[i].leaves);
+            final Collector collector = collectors[i];
+            final FutureTask<Void> task = new FutureTask<>(() -> {
+                search(leaves, weight, collector);
+                return null;
+            });
+            tasks.add(task);
+            try {
+                sliceExecutor.execute(task);
+            } catch (EsRejectedExecutionException e) {
+                // the slice is searched on the calling thread below
+            }
+        }
+        Throwable failure = null;
+        try {
+            search(Arrays.asList(slices[0].leaves), weight, collectors[0]);
+        } catch (Exception e) {
+            failure = e;
+        }
+        for (FutureTask<Void> task : tasks) {
+            if (failure == null) {
+                // no-op if a worker already picked up the slice
+                task.run();
+            } else {
+                task.cancel(false);
+            }
+            final Throwable sliceFailure = waitForSlice(task);
+            if (sliceFailure != null) {
+                failure = ExceptionsHelper.useOrSuppress(failure, sliceFailure);
+            }
+        }
+        if (failure != null) {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new ElasticsearchException(failure);
+        }
+    }
+
+    /**
+     * Waits for the given slice to be done, the search must not return while the resources of the context are still in use.
+     * @return the failure of the slice, if any
+     */
+    private static Throwable waitForSlice(FutureTask<Void> task) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    task.get();
+                    return null;
+                } catch (CancellationException e) {
+                    // the slice never started
+                    return null;
+                } catch (ExecutionException e) {
+                    return e.getCause();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     @Override
     public Explanation explain(Query query, int doc) throws IOException {
         if (aggregatedDfs != null) {
@@ -20,6 +20,7 @@
 package org.elasticsearch.search.lookup;
 
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.IndexSearcher;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.mapper.MappedFieldType;
@@ -35,6 +36,12 @@ public class SearchLookup {
 
     final FieldsLookup fieldsLookup;
 
+    /**
+     * The source lookup of each leaf, indexed by the ordinal of the leaf, while the leaves are searched in concurrent slices
+     * and <code>null</code> otherwise
+     */
+    private SourceLookup[] leafSourceLookups;
+
     public SearchLookup(MapperService mapperService, Function<MappedFieldType, IndexFieldData<?>> fieldDataLookup,
                         @Nullable String[] types) {
         docMap = new DocLookup(mapperService, fieldDataLookup, types);
@@ -45,10 +52,36 @@ public class SearchLookup {
     public LeafSearchLookup getLeafSearchLookup(LeafReaderContext context) {
         return new LeafSearchLookup(context,
                 docMap.getLeafDocLookup(context),
-                sourceLookup,
+                source(context),
                 fieldsLookup.getLeafFieldsLookup(context));
     }
 
+    /**
+     * Gives the leaves of every slice but the first one their own {@link SourceLookup}, so that slices that are searched
+     * concurrently do not share the document that the lookup is positioned on. The leaves of the first slice keep using
+     * {@link #source()}. Must be called before the slices are searched and reset with <code>null</code> once they are done.
+     */
+    public void setConcurrentSlices(@Nullable IndexSearcher.LeafSlice[] slices) {
+        if (slices == null) {
+            leafSourceLookups = null;
+            return;
+        }
+        int numLeaves = 0;
+        for (IndexSearcher.LeafSlice slice : slices) {
+            for (LeafReaderContext leaf : slice.leaves) {
+                numLeaves = Math.max(numLeaves, leaf.ord + 1);
+            }
+        }
+        final SourceLookup[] lookups = new SourceLookup[numLeaves];
+        for (int i = 0; i < slices.length; i++) {
+            final SourceLookup sliceLookup = i == 0 ? sourceLookup : new SourceLookup();
+            for (LeafReaderContext leaf : slices[i].leaves) {
+                lookups[leaf.ord] = sliceLookup;
+            }
+        }
+        leafSourceLookups = lookups;
+    }
+
     public DocLookup doc() {
         return docMap;
     }
@@ -56,4 +89,16 @@ public class SearchLookup {
     public SourceLookup source() {
         return sourceLookup;
     }
+
+    /**
+     * Returns the source lookup to use for the documents of the given leaf, which is {@link #source()} unless the leaf
+     * belongs to an additional slice of a concurrent search.
+     */
+    public SourceLookup source(LeafReaderContext context) {
+        final SourceLookup[] lookups = leafSourceLookups;
+        if (lookups == null || context.ord >= lookups.length || lookups[context.ord] == null) {
+            return sourceLookup;
+        }
+        return lookups[context.ord];
+    }
 }
@@ -25,6 +25,7 @@ import org.apache.lucene.search.MultiCollector;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Weight;
+import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.lucene.MinimumScoreCollector;
 import org.elasticsearch.common.lucene.search.FilteredCollector;
 import org.elasticsearch.search.profile.query.InternalProfileCollector;
@@ -150,6 +151,30 @@ abstract class QueryCollectorContext {
         };
     }
 
+    /**
+     * Creates a multi collector for concurrent searches: the first slice uses the provided <code>subs</code> and every
+     * additional slice gets a new collector from <code>sliceSubSupplier</code>.
+     */
+    static QueryCollectorContext createSlicedMultiCollectorContext(Collection<Collector> subs,
+                                                                   CheckedSupplier<Collector, IOException> sliceSubSupplier) {
+        return new QueryCollectorContext(REASON_SEARCH_MULTI) {
+            private boolean first = true;
+
+            @Override
+            Collector create(Collector in) throws IOException {
+                List<Collector> subCollectors = new ArrayList<> ();
+                subCollectors.add(in);
+                if (first) {
+                    subCollectors.addAll(subs);
+                    first = false;
+                } else {
+                    subCollectors.add(sliceSubSupplier.get());
+                }
+                return MultiCollector.wrap(subCollectors);
+            }
+        };
+    }
+
     /**
      * Creates a collector that throws {@link TaskCancelledException} if the search is cancelled
      */
@@ -41,6 +41,8 @@ import org.elasticsearch.action.search.SearchTask;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.common.util.concurrent.QueueResizingEsThreadPoolExecutor;
+import org.elasticsearch.common.util.concurrent.XRejectedExecutionHandler;
+import org.elasticsearch.monitor.jvm.JvmStats;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.SearchService;
@@ -66,6 +68,7 @@ import static org.elasticsearch.search.query.QueryCollectorContext.createEarlyTe
 import static org.elasticsearch.search.query.QueryCollectorContext.createFilteredCollectorContext;
 import static org.elasticsearch.search.query.QueryCollectorContext.createMinScoreCollectorContext;
 import static org.elasticsearch.search.query.QueryCollectorContext.createMultiCollectorContext;
+import static org.elasticsearch.search.query.QueryCollectorContext.createSlicedMultiCollectorContext;
 import static org.elasticsearch.search.query.TopDocsCollectorContext.createTopDocsCollectorContext;
 
 
@@ -177,6 +180,9 @@ public class QueryPhase implements SearchPhase {
                 }
             }
 
+            // the slices of the shard to search concurrently, null if the shard is searched sequentially
+            final IndexSearcher.LeafSlice[] slices = concurrentSlices(searchContext, searcher);
+
             final LinkedList<QueryCollectorContext> collectors = new LinkedList<>();
             // whether the chain contains a collector that filters documents
             boolean hasFilterCollector = false;
@@ -196,7 +202,13 @@ public class QueryPhase implements SearchPhase {
             }
             if (searchContext.queryCollectors().isEmpty() == false) {
                 // plug in additional collectors, like aggregations
-                collectors.add(createMultiCollectorContext(searchContext.queryCollectors().values()));
+                if (slices != null) {
+                    // each additional slice collects its own aggregators
+                    collectors.add(createSlicedMultiCollectorContext(searchContext.queryCollectors().values(),
+                        () -> AggregationPhase.createSliceCollector(searchContext)));
+                } else {
+                    collectors.add(createMultiCollectorContext(searchContext.queryCollectors().values()));
+                }
             }
             if (searchContext.minimumScore() != null) {
                 // apply the minimum score after multi collector so we filter aggs as well
@@ -268,7 +280,18 @@ public class QueryPhase implements SearchPhase {
             }
 
             try {
-                searcher.search(query, queryCollector);
+                if (slices != null) {
+                    // the slices must not share the document that the source lookup is positioned on
+                    searchContext.lookup().setConcurrentSlices(slices);
+                    final Collector[] sliceCollectors = new Collector[slices.length];
+                    sliceCollectors[0] = queryCollector;
+                    for (int i = 1; i < slices.length; i++) {
+                        sliceCollectors[i] = QueryCollectorContext.createQueryCollector(collectors);
+                    }
+                    ((ContextIndexSearcher) searcher).search(query, slices, sliceCollectors);
+                } else {
+                    searcher.search(query, queryCollector);
+                }
             } catch (EarlyTerminatingCollector.EarlyTerminationException e) {
                 queryResult.terminatedEarly(true);
             } catch (TimeExceededException e) {
@@ -280,6 +303,9 @@ public class QueryPhase implements SearchPhase {
                 }
                 queryResult.searchTimedOut(true);
             } finally {
+                if (slices != null) {
+                    searchContext.lookup().setConcurrentSlices(null);
+                }
                 searchContext.clearReleasables(SearchContext.Lifetime.COLLECTION);
             }
 
@@ -292,7 +318,14 @@ public class QueryPhase implements SearchPhase {
                 QueueResizingEsThreadPoolExecutor rExecutor = (QueueResizingEsThreadPoolExecutor) executor;
                 queryResult.nodeQueueSize(rExecutor.getCurrentQueueSize());
                 queryResult.serviceTimeEWMA((long) rExecutor.getTaskExecutionEWMA());
+                if (rExecutor.getRejectedExecutionHandler() instanceof XRejectedExecutionHandler) {
+                    queryResult.nodeRejectedCount(((XRejectedExecutionHandler) rExecutor.getRejectedExecutionHandler()).rejected());
+                }
             }
+            // signals of memory pressure for adaptive replica selection on the coordinating node
+            final JvmStats.LoadSample load = JvmStats.sampleLoad();
+            queryResult.nodeGcTimeMillis(load.getGcCollectionTimeInMillis());
+            queryResult.nodeHeapUsedPercent(load.getHeapUsedPercent());
             if (searchContext.getProfilers() != null) {
                 ProfileShardResult shardResults = SearchProfileShardResults.buildShardResults(searchContext.getProfilers());
                 result.profileResults(shardResults);
@@ -303,6 +336,38 @@ public class QueryPhase implements SearchPhase {
         }
     }
 
+    /**
+     * Returns the slices of the shard to search concurrently, or <code>null</code> if the request must be searched sequentially
+     * because concurrent search is disabled or because the request relies on state that is shared by all leaves.
+     */
+    private static IndexSearcher.LeafSlice[] concurrentSlices(SearchContext searchContext, IndexSearcher searcher) {
+        if (searcher instanceof ContextIndexSearcher == false) {
+            return null;
+        }
+        final IndexSearcher.LeafSlice[] slices = ((ContextIndexSearcher) searcher).concurrentSlices();
+        if (slices.length == 1) {
+            return null;
+        }
+        if (searchContext.scrollContext() != null
+                || searchContext.collapse() != null
+                || searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER
+                // the timers of the profilers are not thread-safe
+                || searchContext.getProfilers() != null) {
+            return null;
+        }
+        for (Class<?> collectorKey : searchContext.queryCollectors().keySet()) {
+            // only aggregations know how to collect and merge additional slices
+            if (collectorKey != AggregationPhase.class) {
+                return null;
+            }
+        }
+        if (searchContext.queryCollectors().containsKey(AggregationPhase.class)
+                && searchContext.aggregations().factories().supportsConcurrentSegmentSearch() == false) {
+            return null;
+        }
+        return slices;
+    }
+
     /**
      * Returns true if the provided <code>query</code> returns docs in index order (internal doc ids).
      * @param query The query to execute
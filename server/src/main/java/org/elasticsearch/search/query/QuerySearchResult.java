@@ -62,6 +62,9 @@ public final class QuerySearchResult extends SearchPhaseResult {
     private boolean hasProfileResults;
     private long serviceTimeEWMA = -1;
     private int nodeQueueSize = -1;
+    private long nodeRejectedCount = -1;
+    private long nodeGcTimeMillis = -1;
+    private int nodeHeapUsedPercent = -1;
 
     public QuerySearchResult() {
     }
@@ -245,6 +248,42 @@ public final class QuerySearchResult extends SearchPhaseResult {
         return this;
     }
 
+    /**
+     * The total number of search executions that the node rejected since it started, or -1 if unknown.
+     */
+    public long nodeRejectedCount() {
+        return this.nodeRejectedCount;
+    }
+
+    public QuerySearchResult nodeRejectedCount(long nodeRejectedCount) {
+        this.nodeRejectedCount = nodeRejectedCount;
+        return this;
+    }
+
+    /**
+     * The total time that the node spent in garbage collections since it started, in milliseconds, or -1 if unknown.
+     */
+    public long nodeGcTimeMillis() {
+        return this.nodeGcTimeMillis;
+    }
+
+    public QuerySearchResult nodeGcTimeMillis(long nodeGcTimeMillis) {
+        this.nodeGcTimeMillis = nodeGcTimeMillis;
+        return this;
+    }
+
+    /**
+     * The percentage of the maximum heap size that the node used, or -1 if unknown.
+     */
+    public int nodeHeapUsedPercent() {
+        return this.nodeHeapUsedPercent;
+    }
+
+    public QuerySearchResult nodeHeapUsedPercent(int nodeHeapUsedPercent) {
+        this.nodeHeapUsedPercent = nodeHeapUsedPercent;
+        return this;
+    }
+
     /**
      * Returns <code>true</code> if this result has any suggest score docs
      */
@@ -307,6 +346,11 @@ public final class QuerySearchResult extends SearchPhaseResult {
         hasProfileResults = profileShardResults != null;
         serviceTimeEWMA = in.readZLong();
         nodeQueueSize = in.readInt();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            nodeRejectedCount = in.readZLong();
+            nodeGcTimeMillis = in.readZLong();
+            nodeHeapUsedPercent = in.readInt();
+        }
     }
 
     @Override
@@ -355,6 +399,11 @@ public final class QuerySearchResult extends SearchPhaseResult {
         out.writeOptionalWriteable(profileShardResults);
         out.writeZLong(serviceTimeEWMA);
         out.writeInt(nodeQueueSize);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeZLong(nodeRejectedCount);
+            out.writeZLong(nodeGcTimeMillis);
+            out.writeInt(nodeHeapUsedPercent);
+        }
     }
 
     public TotalHits getTotalHits() {
@@ -60,6 +60,8 @@ import org.elasticsearch.search.rescore.RescoreContext;
 import org.elasticsearch.search.sort.SortAndFormats;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
 
@@ -92,8 +94,11 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
     }
 
     static class EmptyTopDocsCollectorContext extends TopDocsCollectorContext {
-        private final Collector collector;
-        private final Supplier<TotalHits> hitCountSupplier;
+        private final int trackTotalHitsUpTo;
+        // the total hit count if it can be computed without collecting documents, -1 otherwise
+        private final int hitCount;
+        private final List<TotalHitCountCollector> hitCountCollectors = new ArrayList<>();
+        private final List<EarlyTerminatingCollector> earlyTerminatingCollectors = new ArrayList<>();
 
         /**
          * Ctr
@@ -105,41 +110,58 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         private EmptyTopDocsCollectorContext(IndexReader reader, Query query,
                                              int trackTotalHitsUpTo, boolean hasFilterCollector) throws IOException {
             super(REASON_SEARCH_COUNT, 0);
+            this.trackTotalHitsUpTo = trackTotalHitsUpTo;
             if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
-                this.collector = new EarlyTerminatingCollector(new TotalHitCountCollector(), 0, false);
-                // for bwc hit count is set to 0, it will be converted to -1 by the coordinating node
-                this.hitCountSupplier = () -> new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+                this.hitCount = -1;
             } else {
-                TotalHitCountCollector hitCountCollector = new TotalHitCountCollector();
                 // implicit total hit counts are valid only when there is no filter collector in the chain
-                int hitCount =  hasFilterCollector ? -1 : shortcutTotalHitCount(reader, query);
-                if (hitCount == -1) {
-                    if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_ACCURATE) {
-                        this.collector = hitCountCollector;
-                        this.hitCountSupplier = () -> new TotalHits(hitCountCollector.getTotalHits(), TotalHits.Relation.EQUAL_TO);
-                    } else {
-                        EarlyTerminatingCollector col =
-                            new EarlyTerminatingCollector(hitCountCollector, trackTotalHitsUpTo, false);
-                        this.collector = col;
-                        this.hitCountSupplier = () -> new TotalHits(hitCountCollector.getTotalHits(),
-                            col.hasEarlyTerminated() ? TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO : TotalHits.Relation.EQUAL_TO);
-                    }
-                } else {
-                    this.collector = new EarlyTerminatingCollector(hitCountCollector, 0, false);
-                    this.hitCountSupplier = () -> new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
-                }
+                this.hitCount = hasFilterCollector ? -1 : shortcutTotalHitCount(reader, query);
             }
         }
 
+        /**
+         * Creates the collector for a new slice of the index, the counts of all slices are summed in {@link #postProcess}.
+         */
         @Override
         Collector create(Collector in) {
             assert in == null;
-            return collector;
+            if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED || hitCount != -1) {
+                // the hit count is not computed by the collector
+                return new EarlyTerminatingCollector(new TotalHitCountCollector(), 0, false);
+            }
+            final TotalHitCountCollector hitCountCollector = new TotalHitCountCollector();
+            hitCountCollectors.add(hitCountCollector);
+            if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_ACCURATE) {
+                return hitCountCollector;
+            }
+            final EarlyTerminatingCollector col = new EarlyTerminatingCollector(hitCountCollector, trackTotalHitsUpTo, false);
+            earlyTerminatingCollectors.add(col);
+            return col;
+        }
+
+        private TotalHits totalHits() {
+            if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
+                // for bwc hit count is set to 0, it will be converted to -1 by the coordinating node
+                return new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+            } else if (hitCount != -1) {
+                return new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
+            }
+            long totalHits = 0;
+            for (TotalHitCountCollector hitCountCollector : hitCountCollectors) {
+                totalHits += hitCountCollector.getTotalHits();
+            }
+            TotalHits.Relation relation = TotalHits.Relation.EQUAL_TO;
+            for (EarlyTerminatingCollector col : earlyTerminatingCollectors) {
+                if (col.hasEarlyTerminated()) {
+                    relation = TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO;
+                }
+            }
+            return new TotalHits(totalHits, relation);
         }
 
         @Override
         void postProcess(QuerySearchResult result) {
-            final TotalHits totalHitCount = hitCountSupplier.get();
+            final TotalHits totalHitCount = totalHits();
             result.topDocs(new TopDocsAndMaxScore(new TopDocs(totalHitCount, Lucene.EMPTY_SCORE_DOCS), Float.NaN), null);
         }
     }
@@ -148,6 +170,7 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         private final DocValueFormat[] sortFmt;
         private final CollapsingTopDocsCollector<?> topDocsCollector;
         private final Supplier<Float> maxScoreSupplier;
+        private boolean created;
 
         /**
          * Ctr
@@ -179,6 +202,9 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         @Override
         Collector create(Collector in) throws IOException {
             assert in == null;
+            // field collapsing cannot be split across slices of the index
+            assert created == false : "collapsing collector created twice";
+            created = true;
             return topDocsCollector;
         }
 
@@ -201,10 +227,14 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         }
 
         protected final @Nullable SortAndFormats sortAndFormats;
-        private final Collector collector;
+        private final @Nullable ScoreDoc searchAfter;
+        private final boolean trackMaxScore;
+        private final int hitCountThreshold;
         private final Supplier<TotalHits> totalHitsSupplier;
         private final Supplier<TopDocs> topDocsSupplier;
         private final Supplier<Float> maxScoreSupplier;
+        private final List<TopDocsCollector<?>> topDocsCollectors = new ArrayList<>();
+        private final List<MaxScoreCollector> maxScoreCollectors = new ArrayList<>();
 
         /**
          * Ctr
@@ -227,28 +257,26 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                                               boolean hasFilterCollector) throws IOException {
             super(REASON_SEARCH_TOP_HITS, numHits);
             this.sortAndFormats = sortAndFormats;
+            this.searchAfter = searchAfter;
+            this.trackMaxScore = trackMaxScore;
+            this.topDocsSupplier = new CachedSupplier<>(this::mergeTopDocs);
 
-            final TopDocsCollector<?> topDocsCollector;
             if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
                 // don't compute hit counts via the collector
-                topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, 1);
-                topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
+                hitCountThreshold = 1;
                 totalHitsSupplier = () -> new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
             } else {
                 // implicit total hit counts are valid only when there is no filter collector in the chain
                 final int hitCount = hasFilterCollector ? -1 : shortcutTotalHitCount(reader, query);
                 if (hitCount == -1) {
-                    topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, trackTotalHitsUpTo);
-                    topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
+                    hitCountThreshold = trackTotalHitsUpTo;
                     totalHitsSupplier = () -> topDocsSupplier.get().totalHits;
                 } else {
                     // don't compute hit counts via the collector
-                    topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, 1);
-                    topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
+                    hitCountThreshold = 1;
                     totalHitsSupplier = () -> new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
                 }
             }
-            MaxScoreCollector maxScoreCollector = null;
             if (sortAndFormats == null) {
                 maxScoreSupplier = () -> {
                     TopDocs topDocs = topDocsSupplier.get();
@@ -259,18 +287,61 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                     }
                 };
             } else if (trackMaxScore) {
-                maxScoreCollector = new MaxScoreCollector();
-                maxScoreSupplier = maxScoreCollector::getMaxScore;
+                maxScoreSupplier = () -> {
+                    float maxScore = Float.NaN;
+                    for (MaxScoreCollector maxScoreCollector : maxScoreCollectors) {
+                        final float score = maxScoreCollector.getMaxScore();
+                        if (Float.isNaN(maxScore) || score > maxScore) {
+                            maxScore = score;
+                        }
+                    }
+                    return maxScore;
+                };
             } else {
                 maxScoreSupplier = () -> Float.NaN;
             }
-            this.collector = MultiCollector.wrap(topDocsCollector, maxScoreCollector);
         }
 
+        /**
+         * Creates the collector for a new slice of the index, the top docs of all slices are merged in {@link #newTopDocs()}.
+         */
         @Override
         Collector create(Collector in) {
             assert in == null;
-            return collector;
+            final TopDocsCollector<?> topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, hitCountThreshold);
+            topDocsCollectors.add(topDocsCollector);
+            MaxScoreCollector maxScoreCollector = null;
+            if (sortAndFormats != null && trackMaxScore) {
+                maxScoreCollector = new MaxScoreCollector();
+                maxScoreCollectors.add(maxScoreCollector);
+            }
+            return MultiCollector.wrap(topDocsCollector, maxScoreCollector);
+        }
+
+        private TopDocs mergeTopDocs() {
+            if (topDocsCollectors.size() == 1) {
+                return topDocsCollectors.get(0).topDocs();
+            }
+            final TopDocs[] slicesTopDocs = new TopDocs[topDocsCollectors.size()];
+            for (int i = 0; i < slicesTopDocs.length; i++) {
+                slicesTopDocs[i] = topDocsCollectors.get(i).topDocs();
+            }
+            // slices hold consecutive leaves so breaking ties on the slice index preserves the doc id order
+            final TopDocs merged;
+            if (sortAndFormats == null) {
+                merged = TopDocs.merge(0, numHits, slicesTopDocs, true);
+            } else {
+                final TopFieldDocs[] slicesFieldDocs = new TopFieldDocs[slicesTopDocs.length];
+                for (int i = 0; i < slicesTopDocs.length; i++) {
+                    slicesFieldDocs[i] = (TopFieldDocs) slicesTopDocs[i];
+                }
+                merged = TopDocs.merge(sortAndFormats.sort, 0, numHits, slicesFieldDocs, true);
+            }
+            for (ScoreDoc scoreDoc : merged.scoreDocs) {
+                // the shard index is assigned on the coordinating node
+                scoreDoc.shardIndex = -1;
+            }
+            return merged;
         }
 
         TopDocsAndMaxScore newTopDocs() {
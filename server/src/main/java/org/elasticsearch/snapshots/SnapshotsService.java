@@ -67,6 +67,7 @@ import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.Repository;
 import org.elasticsearch.repositories.RepositoryData;
 import org.elasticsearch.repositories.RepositoryMissingException;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
@@ -346,6 +347,12 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
         if (repositoriesMetaData == null || repositoriesMetaData.repository(repositoryName) == null) {
             throw new RepositoryMissingException(repositoryName);
         }
+        if (BlobStoreRepository.DEDUPLICATE_FILES_SETTING.get(repositoriesMetaData.repository(repositoryName).settings())
+            && state.nodes().getMinNodeVersion().before(BlobStoreRepository.DEDUPLICATE_FILES_VERSION)) {
+            // nodes before this version would neither deduplicate files nor be able to restore deduplicated ones
+            throw new SnapshotException(repositoryName, snapshotName, "repository deduplicates files, which requires all nodes " +
+                "to be on version [" + BlobStoreRepository.DEDUPLICATE_FILES_VERSION + "] or later");
+        }
         validate(repositoryName, snapshotName);
     }
 
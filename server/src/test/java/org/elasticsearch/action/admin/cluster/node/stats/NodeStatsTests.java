@@ -25,6 +25,8 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.discovery.DiscoveryStats;
 import org.elasticsearch.cluster.coordination.PendingClusterStateStats;
 import org.elasticsearch.cluster.coordination.PublishClusterStateStats;
+import org.elasticsearch.cluster.service.ClusterApplierStats;
+import org.elasticsearch.cluster.service.PendingTaskLatencyStats;
 import org.elasticsearch.http.HttpStats;
 import org.elasticsearch.indices.breaker.AllCircuitBreakerStats;
 import org.elasticsearch.indices.breaker.CircuitBreakerStats;
@@ -259,6 +261,39 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(queueStats.getTotal(), deserializedDiscoveryStats.getQueueStats().getTotal());
                         assertEquals(queueStats.getPending(), deserializedDiscoveryStats.getQueueStats().getPending());
                     }
+                    ClusterApplierStats applierStats = discoveryStats.getApplierStats();
+                    if (applierStats == null) {
+                        assertNull(deserializedDiscoveryStats.getApplierStats());
+                    } else {
+                        List<ClusterApplierStats.Recording> recordings = applierStats.getRecordings();
+                        List<ClusterApplierStats.Recording> deserializedRecordings =
+                            deserializedDiscoveryStats.getApplierStats().getRecordings();
+                        assertEquals(recordings.size(), deserializedRecordings.size());
+                        for (int i = 0; i < recordings.size(); i++) {
+                            assertEquals(recordings.get(i).getName(), deserializedRecordings.get(i).getName());
+                            assertEquals(recordings.get(i).getCount(), deserializedRecordings.get(i).getCount());
+                            assertEquals(recordings.get(i).getTimeInMillis(), deserializedRecordings.get(i).getTimeInMillis());
+                            assertEquals(recordings.get(i).getMaxTimeInMillis(), deserializedRecordings.get(i).getMaxTimeInMillis());
+                        }
+                    }
+                    PendingTaskLatencyStats pendingTaskLatencyStats = discoveryStats.getPendingTaskLatencyStats();
+                    if (pendingTaskLatencyStats == null) {
+                        assertNull(deserializedDiscoveryStats.getPendingTaskLatencyStats());
+                    } else {
+                        List<PendingTaskLatencyStats.Histogram> histograms = pendingTaskLatencyStats.getHistograms();
+                        List<PendingTaskLatencyStats.Histogram> deserializedHistograms =
+                            deserializedDiscoveryStats.getPendingTaskLatencyStats().getHistograms();
+                        assertEquals(histograms.size(), deserializedHistograms.size());
+                        for (int i = 0; i < histograms.size(); i++) {
+                            assertEquals(histograms.get(i).getName(), deserializedHistograms.get(i).getName());
+                            assertEquals(histograms.get(i).getCount(), deserializedHistograms.get(i).getCount());
+                            assertEquals(histograms.get(i).getTimeInMillis(), deserializedHistograms.get(i).getTimeInMillis());
+                            assertEquals(histograms.get(i).getMaxTimeInMillis(), deserializedHistograms.get(i).getMaxTimeInMillis());
+                            assertArrayEquals(histograms.get(i).getBucketUpperBoundsInMillis(),
+                                deserializedHistograms.get(i).getBucketUpperBoundsInMillis());
+                            assertArrayEquals(histograms.get(i).getBucketCounts(), deserializedHistograms.get(i).getBucketCounts());
+                        }
+                    }
                 }
                 IngestStats ingestStats = nodeStats.getIngestStats();
                 IngestStats deserializedIngestStats = deserializedNodeStats.getIngestStats();
@@ -309,6 +344,10 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(aStats.queueSize, bStats.queueSize, 0.01);
                         assertEquals(aStats.serviceTime, bStats.serviceTime, 0.01);
                         assertEquals(aStats.responseTime, bStats.responseTime, 0.01);
+                        assertEquals(aStats.rejections, bStats.rejections, 0.01);
+                        assertEquals(aStats.gcOverhead, bStats.gcOverhead, 0.01);
+                        assertEquals(aStats.heapUsedPercent, bStats.heapUsedPercent);
+                        assertEquals(aStats.statsAgeNanos, bStats.statsAgeNanos);
                     });
                 }
             }
@@ -437,7 +476,9 @@ public class NodeStatsTests extends ESTestCase {
                     randomNonNegativeLong(),
                     randomNonNegativeLong(),
                     randomNonNegativeLong())
-                : null)
+                : null,
+                randomBoolean() ? randomClusterApplierStats() : null,
+                randomBoolean() ? randomPendingTaskLatencyStats() : null)
             : null;
         IngestStats ingestStats = null;
         if (frequently()) {
@@ -478,7 +519,11 @@ public class NodeStatsTests extends ESTestCase {
                     ResponseCollectorService.ComputedNodeStats stats = new ResponseCollectorService.ComputedNodeStats(nodeId,
                             randomIntBetween(1,10), randomIntBetween(0, 2000),
                             randomDoubleBetween(1.0, 10000000.0, true),
-                            randomDoubleBetween(1.0, 10000000.0, true));
+                            randomDoubleBetween(1.0, 10000000.0, true),
+                            randomDoubleBetween(0.0, 10.0, true),
+                            randomDoubleBetween(0.0, 1.0, true),
+                            randomIntBetween(-1, 100),
+                            randomNonNegativeLong());
                     nodeStats.put(nodeId, stats);
                 }
             }
@@ -493,4 +538,30 @@ public class NodeStatsTests extends ESTestCase {
     private IngestStats.Stats getPipelineStats(List<IngestStats.PipelineStat> pipelineStats, String id) {
         return pipelineStats.stream().filter(p1 -> p1.getPipelineId().equals(id)).findFirst().map(p2 -> p2.getStats()).orElse(null);
     }
+
+    private static ClusterApplierStats randomClusterApplierStats() {
+        List<ClusterApplierStats.Recording> recordings = new ArrayList<>();
+        for (int i = randomIntBetween(0, 5); i > 0; i--) {
+            recordings.add(new ClusterApplierStats.Recording(randomAlphaOfLength(10), randomNonNegativeLong(), randomNonNegativeLong(),
+                randomNonNegativeLong()));
+        }
+        return new ClusterApplierStats(recordings);
+    }
+
+    private static PendingTaskLatencyStats randomPendingTaskLatencyStats() {
+        List<PendingTaskLatencyStats.Histogram> histograms = new ArrayList<>();
+        for (int i = randomIntBetween(0, 5); i > 0; i--) {
+            final long[] bucketUpperBounds = new long[randomIntBetween(0, 5)];
+            final long[] bucketCounts = new long[bucketUpperBounds.length + 1];
+            for (int j = 0; j < bucketUpperBounds.length; j++) {
+                bucketUpperBounds[j] = randomNonNegativeLong();
+            }
+            for (int j = 0; j < bucketCounts.length; j++) {
+                bucketCounts[j] = randomNonNegativeLong();
+            }
+            histograms.add(new PendingTaskLatencyStats.Histogram(randomAlphaOfLength(10), randomNonNegativeLong(),
+                randomNonNegativeLong(), randomNonNegativeLong(), bucketUpperBounds, bucketCounts));
+        }
+        return new PendingTaskLatencyStats(histograms);
+    }
 }
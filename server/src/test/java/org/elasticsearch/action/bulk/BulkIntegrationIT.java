@@ -23,13 +23,17 @@ package org.elasticsearch.action.bulk;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.admin.indices.alias.Alias;
 import org.elasticsearch.action.admin.indices.mapping.get.GetMappingsResponse;
+import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.ingest.PutPipelineRequest;
+import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.ingest.IngestTestPlugin;
 import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.rest.RestStatus;
@@ -42,11 +46,15 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
 import static org.elasticsearch.test.StreamsUtils.copyToStringFromClasspath;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class BulkIntegrationIT extends ESIntegTestCase {
     @Override
@@ -100,6 +108,87 @@ public class BulkIntegrationIT extends ESIntegTestCase {
         assertFalse(client().prepareGet("index3", "type", "id").setRouting("1").get().isExists());
     }
 
+    public void testBulkSplitIntoSeveralShardRequests() {
+        final int numberOfShards = randomIntBetween(1, 3);
+        // without periodic refreshes, every refresh of the index comes from the bulk
+        createIndex("test", Settings.builder()
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, numberOfShards)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+            .put(IndexSettings.INDEX_REFRESH_INTERVAL_SETTING.getKey(), "-1").build());
+        ensureGreen("test");
+        final long refreshesBefore = client().admin().indices().prepareStats("test").setRefresh(true).get()
+            .getPrimaries().getRefresh().getTotal();
+
+        indexInSeveralShardRequests(WriteRequest.RefreshPolicy.IMMEDIATE, bulkResponse -> {
+            int forcedRefreshes = 0;
+            for (BulkItemResponse itemResponse : bulkResponse) {
+                if (itemResponse.getResponse().forcedRefresh()) {
+                    forcedRefreshes++;
+                }
+            }
+            assertThat(forcedRefreshes, greaterThan(0));
+            // only the last shard request of each shard refreshes it
+            final long refreshes = client().admin().indices().prepareStats("test").setRefresh(true).get()
+                .getPrimaries().getRefresh().getTotal() - refreshesBefore;
+            assertThat(refreshes, greaterThan(0L));
+            assertThat(refreshes, lessThanOrEqualTo((long) numberOfShards));
+        });
+    }
+
+    public void testBulkSplitIntoSeveralShardRequestsWaitsForRefresh() {
+        createIndex("test", Settings.builder()
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, randomIntBetween(1, 3))
+            .put(IndexSettings.INDEX_REFRESH_INTERVAL_SETTING.getKey(), "100ms").build());
+        ensureGreen("test");
+
+        // only the last shard request of each shard waits for a refresh, which also makes the earlier ones visible
+        indexInSeveralShardRequests(WriteRequest.RefreshPolicy.WAIT_UNTIL, bulkResponse -> {
+            for (BulkItemResponse itemResponse : bulkResponse) {
+                assertFalse(itemResponse.getResponse().forcedRefresh());
+            }
+        });
+    }
+
+    /**
+     * Indexes documents into the test index with a bulk request whose shard requests are split, passes its response to the given
+     * consumer, then checks that the operations on a document are applied in the order of the bulk and that all documents are
+     * visible to searches.
+     */
+    private void indexInSeveralShardRequests(WriteRequest.RefreshPolicy refreshPolicy, Consumer<BulkResponse> onResponse) {
+        client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+            .put(TransportBulkAction.MAX_SHARD_REQUEST_SIZE_SETTING.getKey(), randomIntBetween(1, 500) + "b")
+            .put(TransportBulkAction.MAX_IN_FLIGHT_SIZE_SETTING.getKey(), randomIntBetween(1, 1000) + "b")).get();
+        try {
+            final int numIds = randomIntBetween(1, 10);
+            final int[] lastValues = new int[numIds];
+            BulkRequestBuilder bulkBuilder = client().prepareBulk().setRefreshPolicy(refreshPolicy);
+            final int numOps = randomIntBetween(1, 200);
+            for (int i = 0; i < numOps; i++) {
+                final int id = randomIntBetween(0, numIds - 1);
+                bulkBuilder.add(new IndexRequest("test", "_doc", Integer.toString(id)).source("value", i));
+                lastValues[id] = i;
+            }
+            BulkResponse bulkResponse = bulkBuilder.get();
+            assertFalse(bulkResponse.buildFailureMessage(), bulkResponse.hasFailures());
+            onResponse.accept(bulkResponse);
+
+            long indexedIds = 0;
+            for (int id = 0; id < numIds; id++) {
+                GetResponse getResponse = client().prepareGet("test", "_doc", Integer.toString(id)).get();
+                if (getResponse.isExists()) {
+                    // operations on the same document are applied in the order of the bulk
+                    assertThat(getResponse.getSource().get("value"), equalTo(lastValues[id]));
+                    indexedIds++;
+                }
+            }
+            assertHitCount(client().prepareSearch("test").setSize(0).get(), indexedIds);
+        } finally {
+            client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+                .putNull(TransportBulkAction.MAX_SHARD_REQUEST_SIZE_SETTING.getKey())
+                .putNull(TransportBulkAction.MAX_IN_FLIGHT_SIZE_SETTING.getKey())).get();
+        }
+    }
+
     public void testBulkWithGlobalDefaults() throws Exception {
         // all requests in the json are missing index and type parameters: "_index" : "test", "_type" : "type1",
         String bulkAction = copyToStringFromClasspath("/org/elasticsearch/action/bulk/simple-bulk-missing-index-type.json");
@@ -20,6 +20,7 @@
 package org.elasticsearch.action.bulk;
 
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.bulk.TransportBulkActionTookTests.Resolver;
 import org.elasticsearch.action.delete.DeleteRequest;
@@ -30,6 +31,7 @@ import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.test.ESTestCase;
@@ -40,10 +42,17 @@ import org.elasticsearch.transport.TransportService;
 import org.junit.After;
 import org.junit.Before;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.elasticsearch.test.ClusterServiceUtils.createClusterService;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class TransportBulkActionTests extends ESTestCase {
 
@@ -153,4 +162,67 @@ public class TransportBulkActionTests extends ESTestCase {
         UpdateRequest badUpsertRequest = new UpdateRequest("index", "type", "id1");
         assertNull(TransportBulkAction.getIndexWriteRequest(badUpsertRequest));
     }
+
+    public void testSplitShardRequests() {
+        final List<BulkItemRequest> items = new ArrayList<>();
+        final int numItems = randomIntBetween(1, 100);
+        for (int i = 0; i < numItems; i++) {
+            final DocWriteRequest<?> request;
+            if (randomBoolean()) {
+                request = new DeleteRequest("index", "_doc", Integer.toString(i));
+            } else {
+                request = new IndexRequest("index", "_doc", Integer.toString(i))
+                    .source("{\"field\":\"" + randomAlphaOfLengthBetween(0, 200) + "\"}", XContentType.JSON);
+            }
+            items.add(new BulkItemRequest(i, request));
+        }
+        final long maxSize = randomLongBetween(1, 2000);
+
+        final List<BulkItemRequest[]> requests = TransportBulkAction.splitShardRequests(items, maxSize);
+        final List<BulkItemRequest> concatenated = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            final BulkItemRequest[] request = requests.get(i);
+            assertThat(request.length, greaterThan(0));
+            final long size = Arrays.stream(request).mapToLong(item -> BulkRequest.estimatedSizeInBytes(item.request())).sum();
+            if (request.length > 1) {
+                assertThat(size, lessThanOrEqualTo(maxSize));
+            }
+            if (i + 1 < requests.size()) {
+                // requests are only split when the next item does not fit
+                assertThat(size + BulkRequest.estimatedSizeInBytes(requests.get(i + 1)[0].request()), greaterThan(maxSize));
+            }
+            concatenated.addAll(Arrays.asList(request));
+        }
+        assertEquals(items, concatenated);
+    }
+
+    public void testInFlightBudget() {
+        final TransportBulkAction.InFlightBudget budget = new TransportBulkAction.InFlightBudget();
+        final AtomicInteger notified = new AtomicInteger();
+        final Runnable onRelease = notified::incrementAndGet;
+
+        // a request is let through when nothing is in flight, however large it is
+        assertTrue(budget.tryAcquire(200, 100, onRelease));
+        assertThat(budget.getInFlightSize(), equalTo(200L));
+        assertFalse(budget.tryAcquire(1, 100, onRelease));
+        // the same waiter is only registered once
+        assertFalse(budget.tryAcquire(1, 100, onRelease));
+        assertThat(notified.get(), equalTo(0));
+
+        budget.release(200);
+        assertThat(budget.getInFlightSize(), equalTo(0L));
+        assertThat(notified.get(), equalTo(1));
+
+        assertTrue(budget.tryAcquire(60, 100, onRelease));
+        assertTrue(budget.tryAcquire(40, 100, onRelease));
+        assertFalse(budget.tryAcquire(1, 100, onRelease));
+        budget.release(40);
+        assertThat(notified.get(), equalTo(2));
+        // releasing without waiters notifies nobody
+        assertTrue(budget.tryAcquire(40, 100, onRelease));
+        budget.release(40);
+        budget.release(60);
+        assertThat(notified.get(), equalTo(2));
+        assertThat(budget.getInFlightSize(), equalTo(0L));
+    }
 }
@@ -751,6 +751,27 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         closeShards(shard);
     }
 
+    public void testEmptyRequestSyncsLastWriteLocation() throws Exception {
+        IndexShard shard = newStartedShard(true);
+        indexDoc(shard, "_doc", "id");
+
+        BulkShardRequest noRefresh = new BulkShardRequest(shardId, RefreshPolicy.NONE, new BulkItemRequest[0]);
+        WritePrimaryResult<BulkShardRequest, BulkShardResponse> result = TransportShardBulkAction.performOnPrimary(
+            noRefresh, shard, null, threadPool::absoluteTimeInMillis, new NoopMappingUpdatePerformer(), () -> {});
+        assertThat(result.location, nullValue());
+        assertThat(result.finalResponseIfSuccessful.getResponses(), arrayWithSize(0));
+
+        // an empty request that refreshes applies its refresh policy to everything the shard has written so far
+        BulkShardRequest refresh = new BulkShardRequest(shardId, randomFrom(RefreshPolicy.IMMEDIATE, RefreshPolicy.WAIT_UNTIL),
+            new BulkItemRequest[0]);
+        result = TransportShardBulkAction.performOnPrimary(
+            refresh, shard, null, threadPool::absoluteTimeInMillis, new NoopMappingUpdatePerformer(), () -> {});
+        assertThat(result.location, notNullValue());
+        assertThat(result.location, equalTo(shard.getTranslogLastWriteLocation()));
+
+        closeShards(shard);
+    }
+
     public void testNoOpReplicationOnPrimaryDocumentFailure() throws Exception {
         final IndexShard shard = spy(newStartedShard(false));
         BulkItemRequest itemRequest = new BulkItemRequest(0, new IndexRequest("index", "_doc").source(Requests.INDEX_CONTENT_TYPE));
@@ -43,8 +43,10 @@ import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.BucketOrder;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.bucket.terms.LongTerms;
 import org.elasticsearch.search.aggregations.metrics.InternalMax;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.FetchSearchResult;
@@ -60,6 +62,7 @@ import org.elasticsearch.test.ESTestCase;
 import org.junit.Before;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -68,6 +71,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -478,6 +482,63 @@ public class SearchPhaseControllerTests extends ESTestCase {
         assertNull(reduce.sortedTopDocs.collapseValues);
     }
 
+    public void testConsumerIncrementalAggs() throws InterruptedException {
+        SearchPhaseController controller = new SearchPhaseController(
+            (finalReduce) -> {
+                reductions.add(finalReduce);
+                return new InternalAggregation.ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, finalReduce);
+            }, () -> true);
+        int expectedNumResults = randomIntBetween(1, 100);
+        SearchRequest request = randomSearchRequest();
+        request.source(new SearchSourceBuilder().aggregation(AggregationBuilders.terms("terms").field("field"))
+            .aggregation(AggregationBuilders.max("max").field("field")));
+        request.setBatchedReduceSize(randomIntBetween(2, 200));
+        InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> consumer =
+            controller.newSearchPhaseResults(request, expectedNumResults);
+        AtomicInteger max = new AtomicInteger();
+        AtomicLong totalDocCount = new AtomicLong();
+        Thread[] threads = new Thread[expectedNumResults];
+        for (int i = 0; i < expectedNumResults; i++) {
+            int id = i;
+            threads[i] = new Thread(() -> {
+                int number = randomIntBetween(1, 1000);
+                max.updateAndGet(prev -> Math.max(prev, number));
+                totalDocCount.addAndGet(number);
+                QuerySearchResult result = new QuerySearchResult(id, new SearchShardTarget("node", new ShardId("a", "b", id),
+                    null, OriginalIndices.NONE));
+                result.topDocs(new TopDocsAndMaxScore(
+                    new TopDocs(new TotalHits(1, TotalHits.Relation.EQUAL_TO), new ScoreDoc[] {new ScoreDoc(0, number)}), number),
+                    new DocValueFormat[0]);
+                LongTerms terms = new LongTerms("terms", BucketOrder.count(false), 10, 1, Collections.emptyList(),
+                    Collections.emptyMap(), DocValueFormat.RAW, 10, false, 0,
+                    Collections.singletonList(new LongTerms.Bucket(42, number, InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW)),
+                    0);
+                InternalMax internalMax = new InternalMax("max", (double) number, DocValueFormat.RAW, Collections.emptyList(),
+                    Collections.emptyMap());
+                result.aggregations(new InternalAggregations(Arrays.asList(terms, internalMax)));
+                result.setShardIndex(id);
+                result.size(1);
+                consumer.consumeResult(result);
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < expectedNumResults; i++) {
+            threads[i].join();
+        }
+        SearchPhaseController.ReducedQueryPhase reduce = consumer.reduce();
+        assertFinalReduction(request);
+        LongTerms terms = reduce.aggregations.get("terms");
+        assertEquals(1, terms.getBuckets().size());
+        assertEquals(42L, terms.getBuckets().get(0).getKeyAsNumber().longValue());
+        assertEquals(totalDocCount.get(), terms.getBuckets().get(0).getDocCount());
+        InternalMax internalMax = reduce.aggregations.get("max");
+        assertEquals(max.get(), internalMax.getValue(), 0.0D);
+        assertEquals(expectedNumResults, reduce.totalHits.value);
+        assertEquals(max.get(), reduce.maxScore, 0.0f);
+        // releasing the consumer after the reduction is a no-op
+        consumer.close();
+    }
+
     public void testConsumerOnlyHits() {
         int expectedNumResults = randomIntBetween(1, 100);
         int bufferSize = randomIntBetween(2, 200);
@@ -25,10 +25,12 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.support.replication.ClusterStateCreationUtils;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ESAllocationTestCase;
 import org.elasticsearch.cluster.ClusterStateObserver;
 import org.elasticsearch.cluster.NotMasterException;
 import org.elasticsearch.cluster.action.shard.ShardStateAction.FailedShardEntry;
 import org.elasticsearch.cluster.action.shard.ShardStateAction.StartedShardEntry;
+import org.elasticsearch.cluster.coordination.DeterministicTaskQueue;
 import org.elasticsearch.cluster.coordination.FailedToCommitClusterStateException;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.IndexRoutingTable;
@@ -38,17 +40,23 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardsIterator;
 import org.elasticsearch.cluster.routing.allocation.AllocationService;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.cluster.service.PendingTaskLatencyStats;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.Node;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.transport.CapturingTransport;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.NodeDisconnectedException;
 import org.elasticsearch.transport.NodeNotConnectedException;
+import org.elasticsearch.transport.RequestHandlerRegistry;
+import org.elasticsearch.transport.TransportChannel;
 import org.elasticsearch.transport.TransportException;
 import org.elasticsearch.transport.TransportRequest;
 import org.elasticsearch.transport.TransportResponse;
@@ -60,6 +68,7 @@ import org.junit.BeforeClass;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Phaser;
@@ -69,6 +78,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.LongConsumer;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static org.elasticsearch.test.ClusterServiceUtils.createClusterService;
 import static org.elasticsearch.test.ClusterServiceUtils.setState;
@@ -438,6 +448,72 @@ public class ShardStateActionTests extends ESTestCase {
         assertNull(listener.failure.get());
     }
 
+    @SuppressWarnings("unchecked")
+    public void testShardStartedRequestsAreBatchedOverDelay() throws Exception {
+        final String index = "test";
+        setState(clusterService, ClusterStateCreationUtils.stateWithActivePrimary(index, true, randomInt(5)));
+        clusterService.getClusterSettings().applySettings(Settings.builder()
+            .put(ShardStateAction.SHARD_STARTED_BATCH_DELAY_SETTING.getKey(), TimeValue.timeValueSeconds(1)).build());
+
+        final DeterministicTaskQueue deterministicTaskQueue =
+            new DeterministicTaskQueue(Settings.builder().put(Node.NODE_NAME_SETTING.getKey(), "node").build(), random());
+        final CapturingTransport masterTransport = new CapturingTransport();
+        try (TransportService masterTransportService = masterTransport.createTransportService(clusterService.getSettings(),
+                THREAD_POOL, TransportService.NOOP_TRANSPORT_INTERCEPTOR, x -> clusterService.localNode(), null, Collections.emptySet())) {
+            masterTransportService.start();
+            masterTransportService.acceptIncomingRequests();
+            new ShardStateAction(clusterService, masterTransportService, ESAllocationTestCase.createAllocationService(), null,
+                deterministicTaskQueue.getThreadPool());
+            final RequestHandlerRegistry<StartedShardEntry> handler = (RequestHandlerRegistry<StartedShardEntry>)
+                masterTransport.getRequestHandler(ShardStateAction.SHARD_STARTED_ACTION_NAME);
+
+            final int numberOfRequests = randomIntBetween(1, 10);
+            final AtomicInteger responses = new AtomicInteger();
+            for (int i = 0; i < numberOfRequests; i++) {
+                final ShardRouting shardRouting = getRandomShardRouting(index);
+                // the shard is already started, so the master acknowledges the request without changing the cluster state
+                handler.processMessageReceived(new StartedShardEntry(shardRouting.shardId(), shardRouting.allocationId().getId(), 0L,
+                    "test"), new TransportChannel() {
+                        @Override
+                        public String getProfileName() {
+                            return "dummy";
+                        }
+
+                        @Override
+                        public String getChannelType() {
+                            return "dummy";
+                        }
+
+                        @Override
+                        public void sendResponse(TransportResponse response) {
+                            responses.incrementAndGet();
+                        }
+
+                        @Override
+                        public void sendResponse(Exception exception) {
+                            throw new AssertionError(exception);
+                        }
+                    });
+            }
+
+            // the requests are acknowledged right away, but only submitted to the master service once the delay has elapsed
+            assertThat(responses.get(), equalTo(numberOfRequests));
+            assertThat(clusterService.getMasterService().numberOfPendingTasks(), equalTo(0));
+            assertTrue(deterministicTaskQueue.hasDeferredTasks());
+            deterministicTaskQueue.advanceTime();
+            deterministicTaskQueue.runAllRunnableTasks();
+
+            assertBusy(() -> {
+                final List<PendingTaskLatencyStats.Histogram> histograms =
+                    clusterService.getMasterService().getPendingTaskLatencyStats().getHistograms().stream()
+                        .filter(h -> h.getName().equals(ShardStateAction.ShardStartedClusterStateTaskExecutor.class.getName()))
+                        .collect(Collectors.toList());
+                assertThat(histograms.size(), equalTo(1));
+                assertThat(histograms.get(0).getCount(), equalTo((long) numberOfRequests));
+            });
+        }
+    }
+
     private ShardRouting getRandomShardRouting(String index) {
         IndexRoutingTable indexRoutingTable = clusterService.state().routingTable().index(index);
         ShardsIterator shardsIterator = indexRoutingTable.randomAllActiveShardsIt();
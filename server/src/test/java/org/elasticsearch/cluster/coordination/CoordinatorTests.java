@@ -124,6 +124,7 @@ import static org.elasticsearch.cluster.coordination.NoMasterBlockService.NO_MAS
 import static org.elasticsearch.cluster.coordination.NoMasterBlockService.NO_MASTER_BLOCK_ID;
 import static org.elasticsearch.cluster.coordination.NoMasterBlockService.NO_MASTER_BLOCK_SETTING;
 import static org.elasticsearch.cluster.coordination.NoMasterBlockService.NO_MASTER_BLOCK_WRITES;
+import static org.elasticsearch.cluster.coordination.PublicationTransportHandler.PUBLISH_DIFF_STATES_SETTING;
 import static org.elasticsearch.cluster.coordination.Reconfigurator.CLUSTER_AUTO_SHRINK_VOTING_CONFIGURATION;
 import static org.elasticsearch.discovery.PeerFinder.DISCOVERY_FIND_PEERS_INTERVAL_SETTING;
 import static org.elasticsearch.node.Node.NODE_NAME_SETTING;
@@ -872,7 +873,8 @@ public class CoordinatorTests extends ESTestCase {
     }
 
     public void testIncompatibleDiffResendsFullState() {
-        final Cluster cluster = new Cluster(randomIntBetween(3, 5));
+        final Cluster cluster = new Cluster(randomIntBetween(3, 5), true,
+            Settings.builder().put(PUBLISH_DIFF_STATES_SETTING.getKey(), 0).build());
         cluster.runRandomly();
         cluster.stabilise();
 
@@ -898,6 +900,33 @@ public class CoordinatorTests extends ESTestCase {
             postPublishStats.getIncompatibleClusterStateDiffReceivedCount());
     }
 
+    public void testLaggingFollowerReceivesDiffFromLastAcceptedState() {
+        final Cluster cluster = new Cluster(randomIntBetween(3, 5));
+        cluster.runRandomly();
+        cluster.stabilise();
+
+        final ClusterNode leader = cluster.getAnyLeader();
+        final ClusterNode follower = cluster.getAnyNodeExcept(leader);
+        logger.info("--> blackholing {}", follower);
+        follower.blackhole();
+        final PublishClusterStateStats prePublishStats = follower.coordinator.stats().getPublishStats();
+        logger.info("--> submitting first value to {}", leader);
+        leader.submitValue(randomLong());
+        cluster.runFor(DEFAULT_CLUSTER_STATE_UPDATE_DELAY, "publish first state");
+        logger.info("--> healing {}", follower);
+        follower.heal();
+        logger.info("--> submitting second value to {}", leader);
+        leader.submitValue(randomLong());
+        cluster.stabilise();
+        final PublishClusterStateStats postPublishStats = follower.coordinator.stats().getPublishStats();
+        assertEquals(prePublishStats.getFullClusterStateReceivedCount(),
+            postPublishStats.getFullClusterStateReceivedCount());
+        assertEquals(prePublishStats.getCompatibleClusterStateDiffReceivedCount() + 1,
+            postPublishStats.getCompatibleClusterStateDiffReceivedCount());
+        assertEquals(prePublishStats.getIncompatibleClusterStateDiffReceivedCount(),
+            postPublishStats.getIncompatibleClusterStateDiffReceivedCount());
+    }
+
     /**
      * Simulates a situation where a follower becomes disconnected from the leader, but only for such a short time where
      * it becomes candidate and puts up a NO_MASTER_BLOCK, but then receives a follower check from the leader. If the leader
@@ -20,24 +20,32 @@ package org.elasticsearch.cluster.coordination;
 
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.Diff;
+import org.elasticsearch.cluster.IncompatibleClusterStateVersionException;
 import org.elasticsearch.cluster.coordination.CoordinationMetaData.VotingConfiguration;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.node.Node;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.transport.CapturingTransport;
+import org.elasticsearch.transport.BytesTransportRequest;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 
 public class PublicationTransportHandlerTests extends ESTestCase {
@@ -52,7 +60,7 @@ public class PublicationTransportHandlerTests extends ESTestCase {
             TransportService.NOOP_TRANSPORT_INTERCEPTOR,
             x -> localNode,
             clusterSettings, Collections.emptySet());
-        final PublicationTransportHandler handler = new PublicationTransportHandler(transportService,
+        final PublicationTransportHandler handler = new PublicationTransportHandler(Settings.EMPTY, transportService,
             writableRegistry(), pu -> null, (pu, l) -> {});
         transportService.start();
         transportService.acceptIncomingRequests();
@@ -87,4 +95,78 @@ public class PublicationTransportHandlerTests extends ESTestCase {
         assertThat(e.getCause(), instanceOf(IOException.class));
         assertThat(e.getCause().getMessage(), containsString("Simulated failure of diff serialization"));
     }
+
+    public void testLaggingNodeIsSentDiffFromLastAcceptedState() throws IOException {
+        DeterministicTaskQueue deterministicTaskQueue =
+            new DeterministicTaskQueue(Settings.builder().put(Node.NODE_NAME_SETTING.getKey(), "test").build(), random());
+        final ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        final DiscoveryNode localNode = new DiscoveryNode("localNode", buildNewFakeTransportAddress(), Version.CURRENT);
+        final CapturingTransport capturingTransport = new CapturingTransport();
+        final TransportService transportService = capturingTransport.createTransportService(Settings.EMPTY,
+            deterministicTaskQueue.getThreadPool(),
+            TransportService.NOOP_TRANSPORT_INTERCEPTOR,
+            x -> localNode,
+            clusterSettings, Collections.emptySet());
+        final PublicationTransportHandler handler = new PublicationTransportHandler(Settings.EMPTY, transportService,
+            writableRegistry(), pu -> null, (pu, l) -> {});
+        transportService.start();
+        transportService.acceptIncomingRequests();
+
+        final DiscoveryNode otherNode = new DiscoveryNode("otherNode", buildNewFakeTransportAddress(), Version.CURRENT);
+        final ClusterState initialState = CoordinationStateTests.clusterState(1L, 1L, localNode,
+            VotingConfiguration.EMPTY_CONFIG, VotingConfiguration.EMPTY_CONFIG, 0L);
+        final ClusterState acceptedState = CoordinationStateTests.setValue(ClusterState.builder(initialState).incrementVersion()
+            .nodes(DiscoveryNodes.builder(initialState.nodes()).add(otherNode)).build(), 1L);
+        final ClusterState missedState =
+            CoordinationStateTests.setValue(ClusterState.builder(acceptedState).incrementVersion().build(), 2L);
+        final ClusterState newState = CoordinationStateTests.setValue(ClusterState.builder(missedState).incrementVersion().build(), 3L);
+
+        // the other node joins and accepts the full state
+        assertTrue(readPublishedState(publish(handler, capturingTransport, otherNode, acceptedState, initialState)));
+        capturingTransport.handleResponse(capturingTransport.getCapturedRequestsAndClear()[0].requestId,
+            new PublishWithJoinResponse(new PublishResponse(1L, acceptedState.version()), Optional.empty()));
+
+        // the other node misses the next state
+        assertFalse(readPublishedState(publish(handler, capturingTransport, otherNode, missedState, acceptedState)));
+        capturingTransport.handleRemoteError(capturingTransport.getCapturedRequestsAndClear()[0].requestId,
+            new ElasticsearchException("simulated failure"));
+
+        // so it is sent a diff from the last state it accepted rather than from the previous state
+        final BytesTransportRequest request = publish(handler, capturingTransport, otherNode, newState, missedState);
+        assertFalse(readPublishedState(request));
+        try (StreamInput in = publishedStateInput(request)) {
+            in.readBoolean();
+            final Diff<ClusterState> diff = ClusterState.readDiffFrom(in, otherNode);
+            final ClusterState appliedState = diff.apply(acceptedState);
+            assertThat(appliedState.stateUUID(), equalTo(newState.stateUUID()));
+            assertThat(appliedState.version(), equalTo(newState.version()));
+            expectThrows(IncompatibleClusterStateVersionException.class, () -> diff.apply(missedState));
+        }
+    }
+
+    private static BytesTransportRequest publish(PublicationTransportHandler handler, CapturingTransport capturingTransport,
+                                                 DiscoveryNode destination, ClusterState newState, ClusterState previousState) {
+        handler.newPublicationContext(new ClusterChangedEvent("test", newState, previousState))
+            .sendPublishRequest(destination, new PublishRequest(newState), ActionListener.wrap(() -> {}));
+        final CapturingTransport.CapturedRequest[] capturedRequests = capturingTransport.capturedRequests();
+        assertThat(capturedRequests.length, equalTo(1));
+        assertThat(capturedRequests[0].action, equalTo(PublicationTransportHandler.PUBLISH_STATE_ACTION_NAME));
+        return (BytesTransportRequest) capturedRequests[0].request;
+    }
+
+    /**
+     * @return whether the request carries a full cluster state rather than a diff
+     */
+    private boolean readPublishedState(BytesTransportRequest request) throws IOException {
+        try (StreamInput in = publishedStateInput(request)) {
+            return in.readBoolean();
+        }
+    }
+
+    private StreamInput publishedStateInput(BytesTransportRequest request) throws IOException {
+        final StreamInput in = new NamedWriteableAwareStreamInput(
+            CompressorFactory.compressor(request.bytes()).streamInput(request.bytes().streamInput()), writableRegistry());
+        in.setVersion(request.version());
+        return in;
+    }
 }
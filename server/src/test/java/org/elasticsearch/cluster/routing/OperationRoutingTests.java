@@ -43,6 +43,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.Matchers.containsInAnyOrder;
@@ -606,4 +607,40 @@ public class OperationRoutingTests extends ESTestCase{
         terminate(threadPool);
     }
 
+    public void testAdaptiveReplicaSelectionWithStaleStats() throws Exception {
+        final String[] indexNames = new String[] { "test" };
+        ClusterState state = ClusterStateCreationUtils.stateWithAssignedPrimariesAndReplicas(indexNames, 1, 2);
+        OperationRouting opRouting = new OperationRouting(Settings.EMPTY,
+                new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        opRouting.setUseAdaptiveReplicaSelection(true);
+        TestThreadPool threadPool = new TestThreadPool("testAdaptiveReplicaSelectionWithStaleStats");
+        ClusterService clusterService = ClusterServiceUtils.createClusterService(threadPool);
+        AtomicLong nanos = new AtomicLong();
+        ResponseCollectorService collector = new ResponseCollectorService(clusterService, nanos::get);
+
+        collector.addNodeResponse("node_0", 1, TimeValue.timeValueMillis(100).nanos(), TimeValue.timeValueMillis(50).nanos(), -1, -1, -1);
+        collector.addNodeResponse("node_1", 1, TimeValue.timeValueMillis(120).nanos(), TimeValue.timeValueMillis(60).nanos(), -1, -1, -1);
+        collector.addNodeResponse("node_2", 1, TimeValue.timeValueMillis(200).nanos(), TimeValue.timeValueMillis(200).nanos(), -1, -1, -1);
+
+        GroupShardsIterator<ShardIterator> groupIterator = opRouting.searchShards(state, indexNames, null, null, collector,
+            new HashMap<>());
+        assertThat(groupIterator.get(0).nextOrNull().currentNodeId(), equalTo("node_0"));
+
+        // node 0 stops responding, for instance because of a long garbage collection, while the other nodes keep responding
+        nanos.addAndGet(TimeValue.timeValueMinutes(2).nanos());
+        collector.addNodeResponse("node_1", 1, TimeValue.timeValueMillis(120).nanos(), TimeValue.timeValueMillis(60).nanos(), -1, -1, -1);
+        collector.addNodeResponse("node_2", 1, TimeValue.timeValueMillis(200).nanos(), TimeValue.timeValueMillis(200).nanos(), -1, -1, -1);
+        assertTrue(collector.getNodeStatistics("node_0").get().isStale());
+
+        // its stale statistics are penalized instead of ranking it like a node that was never queried
+        groupIterator = opRouting.searchShards(state, indexNames, null, null, collector, new HashMap<>());
+        ShardIterator shardIterator = groupIterator.get(0);
+        assertThat(shardIterator.nextOrNull().currentNodeId(), equalTo("node_1"));
+        assertThat(shardIterator.nextOrNull().currentNodeId(), equalTo("node_2"));
+        assertThat(shardIterator.nextOrNull().currentNodeId(), equalTo("node_0"));
+
+        IOUtils.close(clusterService);
+        terminate(threadPool);
+    }
+
 }
@@ -39,12 +39,17 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.allocator.ShardsAllocator;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDecider;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.cluster.routing.allocation.decider.ClusterRebalanceAllocationDecider;
+import org.elasticsearch.cluster.routing.allocation.decider.Decision;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.test.gateway.TestGatewayAllocator;
 import org.hamcrest.Matchers;
 
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.elasticsearch.cluster.routing.ShardRoutingState.INITIALIZING;
@@ -245,6 +250,53 @@ public class BalanceConfigurationTests extends ESAllocationTestCase {
         }
     }
 
+    public void testBalancedIndicesDoNotConsultDeciders() {
+        final AtomicInteger indexDecisions = new AtomicInteger();
+        final AllocationDecider countingDecider = new AllocationDecider() {
+            @Override
+            public Decision canAllocate(IndexMetaData indexMetaData, RoutingNode node, RoutingAllocation allocation) {
+                indexDecisions.incrementAndGet();
+                return super.canAllocate(indexMetaData, node, allocation);
+            }
+        };
+        AllocationService strategy = new AllocationService(new AllocationDeciders(Collections.singletonList(countingDecider)),
+            new TestGatewayAllocator(), new BalancedShardsAllocator(Settings.EMPTY), EmptyClusterInfoService.INSTANCE);
+
+        MetaData.Builder metaDataBuilder = MetaData.builder();
+        for (int i = 0; i < 4; i++) {
+            metaDataBuilder.put(IndexMetaData.builder("test" + i).settings(settings(Version.CURRENT))
+                .numberOfShards(2).numberOfReplicas(0));
+        }
+        MetaData metaData = metaDataBuilder.build();
+        RoutingTable.Builder routingTableBuilder = RoutingTable.builder();
+        for (ObjectCursor<IndexMetaData> cursor : metaData.indices().values()) {
+            routingTableBuilder.addAsNew(cursor.value);
+        }
+        DiscoveryNodes.Builder nodes = DiscoveryNodes.builder();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(newNode("node" + i));
+        }
+        ClusterState clusterState = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING
+            .getDefault(Settings.EMPTY)).nodes(nodes).metaData(metaData).routingTable(routingTableBuilder.build()).build();
+        clusterState = strategy.reroute(clusterState, "reroute");
+        clusterState = applyStartedShardsUntilNoChange(clusterState, strategy);
+        for (RoutingNode node : clusterState.getRoutingNodes()) {
+            assertThat(node.numberOfShardsWithState(STARTED), Matchers.equalTo(2));
+        }
+
+        logger.info("reroute the balanced cluster, every index is within the threshold so no node needs to be considered");
+        indexDecisions.set(0);
+        assertSame(clusterState, strategy.reroute(clusterState, "reroute"));
+        assertThat(indexDecisions.get(), Matchers.equalTo(0));
+
+        logger.info("add a node, the indices are now unbalanced and shards are rebalanced to the new node");
+        clusterState = ClusterState.builder(clusterState).nodes(DiscoveryNodes.builder(clusterState.nodes()).add(newNode("node4")))
+            .build();
+        clusterState = strategy.reroute(clusterState, "reroute");
+        assertThat(indexDecisions.get(), Matchers.greaterThan(0));
+        assertThat(clusterState.getRoutingNodes().node("node4").numberOfShardsWithState(INITIALIZING), Matchers.greaterThan(0));
+    }
+
     public void testPersistedSettings() {
         Settings.Builder settings = Settings.builder();
         settings.put(BalancedShardsAllocator.INDEX_BALANCE_FACTOR_SETTING.getKey(), 0.2);
@@ -22,8 +22,10 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateApplier;
 import org.elasticsearch.cluster.ClusterStateObserver;
 import org.elasticsearch.cluster.LocalNodeMasterListener;
 import org.elasticsearch.cluster.block.ClusterBlocks;
@@ -47,15 +49,24 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
 import static org.elasticsearch.test.ClusterServiceUtils.createNoOpNodeConnectionsService;
 import static org.elasticsearch.test.ClusterServiceUtils.setState;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 
 public class ClusterApplierServiceTests extends ESTestCase {
@@ -489,6 +500,165 @@ public class ClusterApplierServiceTests extends ESTestCase {
         assertTrue(applierCalled.get());
     }
 
+    public void testAsyncApplierAppliesStatesInOrder() throws Exception {
+        final CountDownLatch blockApplier = new CountDownLatch(1);
+        final List<Long> appliedVersions = new CopyOnWriteArrayList<>();
+        clusterApplierService.addAsyncStateApplier(ThreadPool.Names.GENERIC, event -> {
+            try {
+                blockApplier.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            appliedVersions.add(event.state().version());
+        });
+
+        final long initialVersion = clusterApplierService.state().version();
+        final int numStates = randomIntBetween(2, 10);
+        final CountDownLatch applied = new CountDownLatch(numStates);
+        final AtomicBoolean blocked = new AtomicBoolean(true);
+        for (int i = 0; i < numStates; i++) {
+            clusterApplierService.onNewClusterState("test-" + i,
+                () -> ClusterState.builder(clusterApplierService.state()).incrementVersion().build(),
+                new ClusterApplyListener() {
+                    @Override
+                    public void onSuccess(String source) {
+                        assertFalse("notified before the async applier applied the state", blocked.get());
+                        applied.countDown();
+                    }
+
+                    @Override
+                    public void onFailure(String source, Exception e) {
+                        throw new AssertionError(e);
+                    }
+                });
+        }
+
+        // the async applier does not hold back the application of later states
+        assertBusy(() -> assertThat(clusterApplierService.state().version(), equalTo(initialVersion + numStates)));
+        assertThat(applied.getCount(), equalTo((long) numStates));
+        blocked.set(false);
+        blockApplier.countDown();
+
+        applied.await();
+        final List<Long> expectedVersions = new ArrayList<>();
+        for (int i = 1; i <= numStates; i++) {
+            expectedVersions.add(initialVersion + i);
+        }
+        assertThat(appliedVersions, equalTo(expectedVersions));
+    }
+
+    public void testAsyncApplierBubblesUpExceptions() throws InterruptedException {
+        clusterApplierService.addAsyncStateApplier(ThreadPool.Names.GENERIC, event -> {
+            throw new RuntimeException("dummy exception");
+        });
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        clusterApplierService.onNewClusterState("test", () -> ClusterState.builder(clusterApplierService.state()).build(),
+            new ClusterApplyListener() {
+
+                @Override
+                public void onSuccess(String source) {
+                    latch.countDown();
+                    fail("should not be called");
+                }
+
+                @Override
+                public void onFailure(String source, Exception e) {
+                    assertTrue(error.compareAndSet(null, e));
+                    latch.countDown();
+                }
+            }
+        );
+
+        latch.await();
+        assertNotNull(error.get());
+        assertThat(error.get().getMessage(), containsString("dummy exception"));
+    }
+
+    public void testAsyncApplierThatDoesNotDelayAcknowledgement() throws Exception {
+        final CountDownLatch blockApplier = new CountDownLatch(1);
+        final List<Long> appliedVersions = new CopyOnWriteArrayList<>();
+        clusterApplierService.addAsyncStateApplier(ThreadPool.Names.GENERIC, event -> {
+            try {
+                blockApplier.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            appliedVersions.add(event.state().version());
+        }, false);
+
+        final long initialVersion = clusterApplierService.state().version();
+        final int numStates = randomIntBetween(2, 10);
+        final CountDownLatch applied = new CountDownLatch(numStates);
+        for (int i = 0; i < numStates; i++) {
+            clusterApplierService.onNewClusterState("test-" + i,
+                () -> ClusterState.builder(clusterApplierService.state()).incrementVersion().build(),
+                new ClusterApplyListener() {
+                    @Override
+                    public void onSuccess(String source) {
+                        applied.countDown();
+                    }
+
+                    @Override
+                    public void onFailure(String source, Exception e) {
+                        throw new AssertionError(e);
+                    }
+                });
+        }
+
+        // updates are acknowledged while the async applier is still blocked
+        applied.await();
+        assertThat(appliedVersions, empty());
+        blockApplier.countDown();
+
+        final List<Long> expectedVersions = new ArrayList<>();
+        for (int i = 1; i <= numStates; i++) {
+            expectedVersions.add(initialVersion + i);
+        }
+        assertBusy(() -> assertThat(appliedVersions, equalTo(expectedVersions)));
+    }
+
+    public void testStatsRecordAppliersAndListeners() throws InterruptedException {
+        clusterApplierService.currentTimeOverride = 0L;
+        clusterApplierService.addStateApplier(new SlowApplier());
+        clusterApplierService.addListener(event -> {});
+
+        CountDownLatch latch = new CountDownLatch(1);
+        clusterApplierService.onNewClusterState("test", () -> ClusterState.builder(clusterApplierService.state()).build(),
+            new ClusterApplyListener() {
+                @Override
+                public void onSuccess(String source) {
+                    latch.countDown();
+                }
+
+                @Override
+                public void onFailure(String source, Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+        latch.await();
+
+        final Map<String, ClusterApplierStats.Recording> recordings = clusterApplierService.stats().getRecordings().stream()
+            .collect(Collectors.toMap(ClusterApplierStats.Recording::getName, Function.identity()));
+        assertThat(clusterApplierService.stats().getRecordings().get(0).getName(), equalTo(SlowApplier.class.getName()));
+        final ClusterApplierStats.Recording applier = recordings.get(SlowApplier.class.getName());
+        assertThat(applier.getCount(), equalTo(1L));
+        assertThat(applier.getTimeInMillis(), equalTo(100L));
+        assertThat(applier.getMaxTimeInMillis(), equalTo(100L));
+        assertThat(recordings.get("connecting_to_nodes").getCount(), equalTo(1L));
+        final String listenerName = ClusterApplierServiceTests.class.getName() + "$$Lambda";
+        assertThat(recordings.get(listenerName).getCount(), equalTo(1L));
+        assertThat(recordings.get(listenerName).getTimeInMillis(), equalTo(0L));
+    }
+
+    private class SlowApplier implements ClusterStateApplier {
+        @Override
+        public void applyClusterState(ClusterChangedEvent event) {
+            clusterApplierService.currentTimeOverride += 100;
+        }
+    }
+
     static class TimedClusterApplierService extends ClusterApplierService {
 
         final ClusterSettings clusterSettings;
@@ -506,5 +676,13 @@ public class ClusterApplierServiceTests extends ESTestCase {
             }
             return super.currentTimeInMillis();
         }
+
+        @Override
+        protected long currentTimeInNanos() {
+            if (currentTimeOverride != null) {
+                return TimeUnit.MILLISECONDS.toNanos(currentTimeOverride);
+            }
+            return super.currentTimeInNanos();
+        }
     }
 }
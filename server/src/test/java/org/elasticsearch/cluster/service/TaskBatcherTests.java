@@ -48,6 +48,7 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasToString;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class TaskBatcherTests extends TaskExecutorTests {
 
@@ -328,6 +329,41 @@ public class TaskBatcherTests extends TaskExecutorTests {
         latch.await();
     }
 
+    public void testRecordsPendingTaskLatency() throws InterruptedException {
+        final int numOfTasks = randomIntBetween(1, 10);
+        final CountDownLatch latch = new CountDownLatch(numOfTasks);
+        final TestExecutor<SimpleTask> executor = tasks -> {};
+        final TestListener listener = new TestListener() {
+            @Override
+            public void processed(String source) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(String source, Exception e) {
+                throw new AssertionError(e);
+            }
+        };
+        try (BlockingTask blockingTask = new BlockingTask(Priority.IMMEDIATE)) {
+            submitTask("blocking", blockingTask);
+            // the tasks are queued behind the blocking task and are executed as a single batch
+            for (int i = 0; i < numOfTasks; i++) {
+                submitTask("task " + i, new SimpleTask(i), ClusterStateTaskConfig.build(Priority.NORMAL), executor, listener);
+            }
+        }
+        latch.await();
+
+        final List<PendingTaskLatencyStats.Histogram> histograms = taskBatcher.getPendingTaskLatencyStats().getHistograms().stream()
+            .filter(histogram -> histogram.getName().startsWith(TaskBatcherTests.class.getName() + "$$Lambda"))
+            .collect(Collectors.toList());
+        assertThat(histograms.size(), equalTo(1));
+        final PendingTaskLatencyStats.Histogram histogram = histograms.get(0);
+        assertThat(histogram.getCount(), equalTo((long) numOfTasks));
+        assertThat(histogram.getMaxTimeInMillis(), lessThanOrEqualTo(histogram.getTimeInMillis()));
+        assertThat(histogram.getBucketCounts().length, equalTo(histogram.getBucketUpperBoundsInMillis().length + 1));
+        assertThat(Arrays.stream(histogram.getBucketCounts()).sum(), equalTo((long) numOfTasks));
+    }
+
     private static class SimpleTask {
         private final int id;
 
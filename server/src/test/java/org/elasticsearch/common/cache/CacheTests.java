@@ -48,7 +48,9 @@ import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class CacheTests extends ESTestCase {
     private int numberOfEntries;
@@ -410,6 +412,95 @@ public class CacheTests extends ESTestCase {
         }
     }
 
+    // same as testPromotion, but with hits buffered and applied to the LRU list in batches
+    public void testPromotionWithTinyLfu() {
+        AtomicLong now = new AtomicLong();
+        Cache<Integer, String> cache = new Cache<Integer, String>() {
+            @Override
+            protected long now() {
+                return now.get();
+            }
+        };
+        cache.setEvictionPolicy(Cache.EvictionPolicy.TINY_LFU);
+        cache.setExpireAfterAccessNanos(1);
+        now.set(0);
+        for (int i = 0; i < numberOfEntries; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        now.set(1);
+        Set<Integer> promotedKeys = new HashSet<>();
+        for (int i = 0; i < numberOfEntries; i++) {
+            if (rarely()) {
+                cache.get(i);
+                promotedKeys.add(i);
+            }
+        }
+        now.set(2);
+        cache.refresh();
+        assertEquals(promotedKeys.size(), cache.count());
+        for (int i = 0; i < numberOfEntries; i++) {
+            if (promotedKeys.contains(i)) {
+                assertNotNull(cache.get(i));
+            } else {
+                assertNull(cache.get(i));
+            }
+        }
+    }
+
+    // frequently accessed entries must not be flushed out of the cache by a scan over keys that are only accessed once
+    public void testTinyLfuAdmission() {
+        final int maximumWeight = randomIntBetween(10, 100);
+        final List<RemovalNotification<Integer, String>> removalNotifications = new ArrayList<>();
+        Cache<Integer, String> cache =
+            CacheBuilder.<Integer, String>builder()
+                .setMaximumWeight(maximumWeight)
+                .evictionPolicy(Cache.EvictionPolicy.TINY_LFU)
+                .removalListener(removalNotifications::add)
+                .build();
+        for (int i = 0; i < maximumWeight; i++) {
+            cache.put(i, Integer.toString(i));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < maximumWeight; i++) {
+                assertNotNull(cache.get(i));
+            }
+        }
+        cache.refresh();
+
+        final int numberOfScannedKeys = randomIntBetween(1, maximumWeight);
+        for (int i = 0; i < numberOfScannedKeys; i++) {
+            cache.put(maximumWeight + i, Integer.toString(maximumWeight + i));
+        }
+        assertEquals(maximumWeight, cache.count());
+        for (int i = 0; i < maximumWeight; i++) {
+            assertEquals(Integer.toString(i), cache.get(i));
+        }
+        assertEquals(numberOfScannedKeys, removalNotifications.size());
+        for (RemovalNotification<Integer, String> notification : removalNotifications) {
+            assertThat(notification.getKey(), greaterThanOrEqualTo(maximumWeight));
+            assertEquals(RemovalNotification.RemovalReason.EVICTED, notification.getRemovalReason());
+        }
+    }
+
+    // a new entry that is accessed more frequently than the least-recently-used entry displaces it
+    public void testTinyLfuAdmitsFrequentCandidate() {
+        Cache<Integer, String> cache =
+            CacheBuilder.<Integer, String>builder()
+                .setMaximumWeight(2)
+                .evictionPolicy(Cache.EvictionPolicy.TINY_LFU)
+                .build();
+        cache.put(0, "0");
+        cache.put(1, "1");
+        // key 2 is rejected at first, but each attempt makes it more popular until it wins over the LRU entry
+        for (int i = 0; i < 3; i++) {
+            cache.put(2, "2");
+        }
+        cache.refresh();
+        assertEquals(2, cache.count());
+        assertEquals("2", cache.get(2));
+        assertNull(cache.get(0));
+        assertEquals("1", cache.get(1));
+    }
 
     // randomly invalidate some cached entries, then check that a lookup for each of those and only those keys is null
     public void testInvalidate() {
@@ -914,6 +1005,54 @@ public class CacheTests extends ESTestCase {
         assertEquals(500, cache.count());
     }
 
+    // same as testTorture, but mixing buffered hits with insertions
+    public void testTortureWithTinyLfu() throws BrokenBarrierException, InterruptedException {
+        int numberOfThreads = randomIntBetween(2, 32);
+        final Cache<Integer, String> cache =
+                CacheBuilder.<Integer, String>builder()
+                        .setMaximumWeight(1000)
+                        .weigher((k, v) -> 2)
+                        .evictionPolicy(Cache.EvictionPolicy.TINY_LFU)
+                        .build();
+
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    Random random = new Random(random().nextLong());
+                    for (int j = 0; j < numberOfEntries; j++) {
+                        Integer key = random.nextInt(numberOfEntries);
+                        if (random.nextBoolean()) {
+                            cache.get(key);
+                        } else {
+                            cache.put(key, Integer.toString(j));
+                        }
+                    }
+                    barrier.await();
+                } catch (BrokenBarrierException | InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            thread.start();
+        }
+
+        // wait for all threads to be ready
+        barrier.await();
+        // wait for all threads to finish
+        barrier.await();
+
+        cache.refresh();
+        assertThat(cache.count(), lessThanOrEqualTo(500));
+        assertEquals(2L * cache.count(), cache.weight());
+        int count = 0;
+        for (Integer key : cache.keys()) {
+            assertNotNull(key);
+            count++;
+        }
+        assertEquals(cache.count(), count);
+    }
+
     public void testRemoveUsingValuesIterator() {
         final List<RemovalNotification<Integer, String>> removalNotifications = new ArrayList<>();
         Cache<Integer, String> cache =
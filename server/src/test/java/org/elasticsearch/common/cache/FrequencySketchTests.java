@@ -0,0 +1,105 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class FrequencySketchTests extends ESTestCase {
+
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch(randomIntBetween(0, 1024));
+        final Object key = randomAlphaOfLength(10);
+        assertEquals(0, sketch.frequency(key));
+        final int increments = randomIntBetween(1, FrequencySketch.MAX_FREQUENCY);
+        for (int i = 0; i < increments; i++) {
+            sketch.increment(key);
+        }
+        // count-min sketches never under-estimate
+        assertThat(sketch.frequency(key), greaterThanOrEqualTo(increments));
+    }
+
+    public void testFrequencyIsCapped() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        final Object key = randomInt();
+        for (int i = 0; i < 2 * FrequencySketch.MAX_FREQUENCY; i++) {
+            sketch.increment(key);
+        }
+        assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency(key));
+    }
+
+    public void testReset() {
+        final int capacity = randomIntBetween(16, 1024);
+        FrequencySketch sketch = new FrequencySketch(capacity);
+        final Integer hot = -1;
+        for (int i = 0; i < FrequencySketch.MAX_FREQUENCY; i++) {
+            sketch.increment(hot);
+        }
+        assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency(hot));
+        // enough distinct keys to trigger at least one aging pass, which halves all counters
+        boolean reset = false;
+        for (int i = 0; i < 40 * capacity && reset == false; i++) {
+            final int sizeBefore = sketch.size();
+            sketch.increment(i);
+            reset = sketch.size() < sizeBefore;
+        }
+        assertTrue(reset);
+        assertThat(sketch.frequency(hot), lessThan(FrequencySketch.MAX_FREQUENCY));
+    }
+
+    public void testEnsureCapacityClearsFrequencies() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        final Object key = randomAlphaOfLength(5);
+        sketch.increment(key);
+        sketch.ensureCapacity(16);
+        assertEquals(1, sketch.frequency(key));
+        sketch.ensureCapacity(randomIntBetween(17, 1 << 16));
+        assertEquals(0, sketch.frequency(key));
+        assertEquals(0, sketch.size());
+    }
+
+    public void testDistinguishesHotFromColdKeys() {
+        FrequencySketch sketch = new FrequencySketch(512);
+        for (int i = 0; i < 256; i++) {
+            sketch.increment(i);
+            if (i % 16 == 0) {
+                for (int j = 0; j < 4; j++) {
+                    sketch.increment(i);
+                }
+            }
+        }
+        for (int i = 0; i < 256; i += 16) {
+            assertThat(sketch.frequency(i), greaterThanOrEqualTo(5));
+        }
+        int overEstimated = 0;
+        for (int i = 0; i < 256; i++) {
+            if (i % 16 != 0) {
+                assertThat(sketch.frequency(i), lessThanOrEqualTo(FrequencySketch.MAX_FREQUENCY));
+                if (sketch.frequency(i) > 1) {
+                    overEstimated++;
+                }
+            }
+        }
+        assertThat(overEstimated, lessThan(24));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ReadBufferTests extends ESTestCase {
+
+    public void testNumberOfStripesMustBePowerOfTwo() {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new ReadBuffer<>(randomFrom(0, -1, 3, 12)));
+        assertThat(e.getMessage(), containsString("numberOfStripes must be a positive power of two"));
+        final int numberOfStripes = ReadBuffer.defaultNumberOfStripes();
+        assertEquals(1, Integer.bitCount(numberOfStripes));
+        assertThat(numberOfStripes, lessThanOrEqualTo(64));
+    }
+
+    public void testOfferAndDrain() {
+        ReadBuffer<Integer> buffer = new ReadBuffer<>(1);
+        final int numberOfElements = randomIntBetween(1, ReadBuffer.STRIPE_SIZE);
+        for (int i = 0; i < numberOfElements; i++) {
+            assertEquals(i + 1 >= ReadBuffer.DRAIN_THRESHOLD, buffer.offer(i));
+        }
+        List<Integer> drained = new ArrayList<>();
+        buffer.drainTo(drained::add);
+        assertEquals(numberOfElements, drained.size());
+        for (int i = 0; i < numberOfElements; i++) {
+            assertEquals(i, (int) drained.get(i));
+        }
+        drained.clear();
+        buffer.drainTo(drained::add);
+        assertTrue(drained.isEmpty());
+    }
+
+    public void testFullStripeDropsElements() {
+        ReadBuffer<Integer> buffer = new ReadBuffer<>(1);
+        for (int i = 0; i < ReadBuffer.STRIPE_SIZE; i++) {
+            buffer.offer(i);
+        }
+        final int dropped = randomIntBetween(1, 10);
+        for (int i = 0; i < dropped; i++) {
+            assertTrue(buffer.offer(ReadBuffer.STRIPE_SIZE + i));
+        }
+        List<Integer> drained = new ArrayList<>();
+        buffer.drainTo(drained::add);
+        assertEquals(ReadBuffer.STRIPE_SIZE, drained.size());
+        // the ring can be reused after a drain
+        assertFalse(buffer.offer(-1));
+        drained.clear();
+        buffer.drainTo(drained::add);
+        assertEquals(1, drained.size());
+        assertEquals(-1, (int) drained.get(0));
+    }
+
+    public void testConcurrentOffers() throws Exception {
+        final int numberOfThreads = randomIntBetween(2, 8);
+        final ReadBuffer<Integer> buffer = new ReadBuffer<>(randomFrom(1, 2, 4, 8));
+        final Set<Integer> drained = ConcurrentHashMap.newKeySet();
+        final Object drainMutex = new Object();
+        final CyclicBarrier barrier = new CyclicBarrier(numberOfThreads);
+        final Thread[] threads = new Thread[numberOfThreads];
+        final int elementsPerThread = randomIntBetween(100, 1000);
+        for (int t = 0; t < numberOfThreads; t++) {
+            final int thread = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    barrier.await();
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+                for (int i = 0; i < elementsPerThread; i++) {
+                    if (buffer.offer(thread * elementsPerThread + i)) {
+                        synchronized (drainMutex) {
+                            buffer.drainTo(e -> assertTrue("element drained twice", drained.add(e)));
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        buffer.drainTo(e -> assertTrue("element drained twice", drained.add(e)));
+        assertThat(drained.size(), lessThanOrEqualTo(numberOfThreads * elementsPerThread));
+        for (Integer element : drained) {
+            assertThat(element, lessThanOrEqualTo(numberOfThreads * elementsPerThread - 1));
+        }
+    }
+}
@@ -69,6 +69,9 @@ public class XContentMapValuesTests extends AbstractFilteringTestCase {
         assertEquals("Filtered map must be equal to the expected map",
                 toMap(expected, xContentType, humanReadable),
                 XContentMapValues.filter(toMap(actual, xContentType, humanReadable), sourceIncludes, sourceExcludes));
+        assertEquals("Streaming filtered source must be equal to the expected map",
+                toMap(expected, xContentType, humanReadable),
+                streamingFilter(toMap(actual, xContentType, humanReadable), xContentType, sourceIncludes, sourceExcludes));
     }
 
     @SuppressWarnings({"unchecked"})
@@ -490,6 +493,38 @@ public class XContentMapValuesTests extends AbstractFilteringTestCase {
         assertEquals(expected, filtered);
     }
 
+    public void testStreamingFilterMatchesMapFilter() throws IOException {
+        Map<String, Object> source = new HashMap<>();
+        source.put("foo.bar", 2);
+        source.put("foo", Collections.singletonMap("baz", 3));
+        source.put("quux", 5);
+        source.put("empty", Collections.emptyMap());
+        source.put("array", Arrays.asList(1, Collections.singletonMap("bar", 4), Collections.singletonMap("baz", 6),
+            Collections.singletonList(Collections.singletonMap("bar", 7)), null));
+        source.put("obj", Collections.singletonMap("inner", Collections.singletonMap("bar", 8)));
+        String[][] rules = new String[][] {
+            new String[0], new String[] {"foo"}, new String[] {"foo.bar"}, new String[] {"*.bar"}, new String[] {"array"},
+            new String[] {"array.bar"}, new String[] {"obj.inner"}, new String[] {"obj.*"}, new String[] {"empty"}, new String[] {"nope"}
+        };
+        for (String[] includes : rules) {
+            for (String[] excludes : rules) {
+                XContentType xContentType = randomFrom(XContentType.values());
+                assertEquals("includes " + Arrays.toString(includes) + " excludes " + Arrays.toString(excludes),
+                    XContentMapValues.filter(source, includes, excludes), streamingFilter(source, xContentType, includes, excludes));
+            }
+        }
+    }
+
+    private Map<String, Object> streamingFilter(Map<String, Object> source, XContentType xContentType,
+                                                String[] includes, String[] excludes) throws IOException {
+        BytesReference bytes = BytesReference.bytes(XContentBuilder.builder(xContentType.xContent()).map(source));
+        XContentBuilder filtered = XContentBuilder.builder(xContentType.xContent());
+        try (XContentParser parser = createParser(xContentType.xContent(), bytes)) {
+            XContentMapValues.streamingFilter(includes, excludes).accept(parser, filtered);
+        }
+        return convertToMap(BytesReference.bytes(filtered), true, xContentType).v2();
+    }
+
     private static Map<String, Object> toMap(Builder test, XContentType xContentType, boolean humanReadable) throws IOException {
         ToXContentObject toXContent = (builder, params) -> test.apply(builder);
         return convertToMap(toXContent(toXContent, xContentType, humanReadable), true, xContentType).v2();
@@ -256,11 +256,13 @@ public class DefaultRestChannelTests extends ESTestCase {
         ArgumentCaptor<ActionListener<Void>> listenerCaptor = ArgumentCaptor.forClass(listenerClass);
         verify(httpChannel).sendResponse(any(), listenerCaptor.capture());
         ActionListener<Void> listener = listenerCaptor.getValue();
+        assertFalse(httpRequest.released);
         if (randomBoolean()) {
             listener.onResponse(null);
         } else {
             listener.onFailure(new ClosedChannelException());
         }
+        assertTrue(httpRequest.released);
         // ESTestCase#after will invoke ensureAllArraysAreReleased which will fail if the response content was not released
     }
 
@@ -333,6 +335,7 @@ public class DefaultRestChannelTests extends ESTestCase {
         private final RestRequest.Method method;
         private final String uri;
         private HashMap<String, List<String>> headers = new HashMap<>();
+        private boolean released;
 
         private TestRequest(HttpVersion version, RestRequest.Method method, String uri) {
 
@@ -380,6 +383,11 @@ public class DefaultRestChannelTests extends ESTestCase {
         public HttpResponse createResponse(RestStatus status, BytesReference content) {
             return new TestResponse(status, content);
         }
+
+        @Override
+        public void release() {
+            released = true;
+        }
     }
 
     private static class TestResponse implements HttpResponse {
@@ -0,0 +1,169 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class PackedVersionMapTests extends ESTestCase {
+
+    public void testPutGetRemove() {
+        try (PackedVersionMap map = new PackedVersionMap(randomStripes(), randomIntBetween(0, 100))) {
+            assertTrue(map.isEmpty());
+            assertNull(map.get(new BytesRef("1")));
+            assertFalse(map.remove(new BytesRef("1")));
+
+            IndexVersionValue value = randomIndexVersionValue();
+            assertThat(map.put(new BytesRef("1"), value), equalTo(PackedVersionMap.BYTES_PER_ENTRY + 1));
+            assertEquals(value, map.get(new BytesRef("1")));
+            assertEquals(1, map.size());
+
+            // updating an existing uid doesn't grow the map
+            value = randomIndexVersionValue();
+            assertEquals(0, map.put(new BytesRef("1"), value));
+            assertEquals(value, map.get(new BytesRef("1")));
+            assertEquals(1, map.size());
+
+            assertTrue(map.remove(new BytesRef("1")));
+            assertNull(map.get(new BytesRef("1")));
+            assertFalse(map.remove(new BytesRef("1")));
+            assertTrue(map.isEmpty());
+            assertTrue(map.toMap().isEmpty());
+
+            // the space of removed entries is reused for the same uid
+            value = randomIndexVersionValue();
+            assertEquals(0, map.put(new BytesRef("1"), value));
+            assertEquals(value, map.get(new BytesRef("1")));
+            assertEquals(1, map.size());
+        }
+    }
+
+    public void testLookupsReuseValues() {
+        try (PackedVersionMap map = new PackedVersionMap(1, 0)) {
+            final IndexVersionValue value = randomIndexVersionValue();
+            map.put(new BytesRef("1"), value);
+            // the value that was put is handed out again
+            assertSame(value, map.get(new BytesRef("1")));
+
+            // "33" has id 32 and takes over the slot of "1", which is then rebuilt once and reused by later lookups
+            for (int i = 2; i <= 33; i++) {
+                map.put(new BytesRef(Integer.toString(i)), randomIndexVersionValue());
+            }
+            final VersionValue rebuilt = map.get(new BytesRef("1"));
+            assertNotSame(value, rebuilt);
+            assertEquals(value, rebuilt);
+            assertSame(rebuilt, map.get(new BytesRef("1")));
+
+            // a removed entry is not handed out anymore
+            assertTrue(map.remove(new BytesRef("1")));
+            assertNull(map.get(new BytesRef("1")));
+        }
+    }
+
+    public void testRandomOperations() {
+        final Map<BytesRef, VersionValue> expected = new HashMap<>();
+        try (PackedVersionMap map = new PackedVersionMap(randomStripes(), randomIntBetween(0, 100))) {
+            final int numOps = scaledRandomIntBetween(100, 10000);
+            for (int i = 0; i < numOps; i++) {
+                final BytesRef uid = new BytesRef(Integer.toString(randomInt(numOps / 4)));
+                if (randomBoolean()) {
+                    final IndexVersionValue value = randomIndexVersionValue();
+                    final boolean existed = expected.containsKey(uid);
+                    final long grownBy = map.put(uid, value);
+                    if (existed) {
+                        assertEquals(0, grownBy);
+                    }
+                    expected.put(uid, value);
+                } else {
+                    assertEquals(expected.remove(uid) != null, map.remove(uid));
+                }
+                assertEquals(expected.get(uid), map.get(uid));
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected, map.toMap());
+        }
+    }
+
+    public void testConcurrentPuts() throws Exception {
+        final int numThreads = randomIntBetween(2, 8);
+        final int numUidsPerThread = scaledRandomIntBetween(100, 5000);
+        try (PackedVersionMap map = new PackedVersionMap(randomStripes(), 0)) {
+            final CountDownLatch startLatch = new CountDownLatch(1);
+            final Thread[] threads = new Thread[numThreads];
+            for (int t = 0; t < numThreads; t++) {
+                final int threadId = t;
+                threads[t] = new Thread(() -> {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                    for (int i = 0; i < numUidsPerThread; i++) {
+                        final BytesRef uid = new BytesRef(threadId + "_" + i);
+                        assertThat(map.put(uid, new IndexVersionValue(null, i, i, threadId)), greaterThan(0L));
+                        assertEquals(new IndexVersionValue(null, i, i, threadId), map.get(uid));
+                    }
+                });
+                threads[t].start();
+            }
+            startLatch.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(numThreads * numUidsPerThread, map.size());
+            for (int t = 0; t < numThreads; t++) {
+                for (int i = 0; i < numUidsPerThread; i++) {
+                    assertEquals(new IndexVersionValue(null, i, i, t), map.get(new BytesRef(t + "_" + i)));
+                }
+            }
+        }
+    }
+
+    public void testInvalidNumberOfStripes() {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> new PackedVersionMap(3, 0));
+        assertEquals("numberOfStripes must be a positive power of two but was [3]", e.getMessage());
+        expectThrows(IllegalArgumentException.class, () -> new PackedVersionMap(0, 0));
+    }
+
+    public void testDefaultNumberOfStripes() {
+        final int stripes = PackedVersionMap.defaultNumberOfStripes();
+        assertEquals(1, Integer.bitCount(stripes));
+        assertThat(stripes, greaterThan(0));
+        assertTrue(stripes <= 64);
+    }
+
+    private static int randomStripes() {
+        return 1 << randomIntBetween(0, 6);
+    }
+
+    private static IndexVersionValue randomIndexVersionValue() {
+        final Translog.Location location = randomBoolean() ? null
+            : new Translog.Location(randomNonNegativeLong(), randomNonNegativeLong(), randomInt());
+        return new IndexVersionValue(location, randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong());
+    }
+}
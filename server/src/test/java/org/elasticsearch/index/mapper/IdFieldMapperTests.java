@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.mapper;
 
+import org.apache.lucene.index.DocValuesType;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexableField;
 import org.elasticsearch.common.Strings;
@@ -71,4 +72,19 @@ public class IdFieldMapperTests extends ESSingleNodeTestCase {
         assertEquals(Uid.encodeId("id"), fields[0].binaryValue());
     }
 
+    public void testDocValues() throws IOException {
+        Settings indexSettings = Settings.builder().put(IdFieldMapper.DOC_VALUES_SETTING.getKey(), true).build();
+        MapperService mapperService = createIndex("test", indexSettings).mapperService();
+        DocumentMapper mapper = mapperService.merge("type", new CompressedXContent("{\"type\":{}}"), MergeReason.MAPPING_UPDATE);
+        ParsedDocument document = mapper.parse(new SourceToParse("index", "type", "id",
+            new BytesArray("{}"), XContentType.JSON));
+        IndexableField[] fields = document.rootDoc().getFields(IdFieldMapper.NAME);
+        assertEquals(2, fields.length);
+        assertEquals(IndexOptions.DOCS, fields[0].fieldType().indexOptions());
+        assertEquals(DocValuesType.NONE, fields[0].fieldType().docValuesType());
+        assertEquals(IndexOptions.NONE, fields[1].fieldType().indexOptions());
+        assertEquals(DocValuesType.BINARY, fields[1].fieldType().docValuesType());
+        assertEquals(Uid.encodeId("id"), fields[1].binaryValue());
+    }
+
 }
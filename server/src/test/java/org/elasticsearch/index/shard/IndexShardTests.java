@@ -136,6 +136,7 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -2546,6 +2547,68 @@ public class IndexShardTests extends IndexShardTestCase {
         closeShards(primary);
     }
 
+    public void testRecoverFromTranslogInParallel() throws IOException {
+        Settings settings = Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 1)
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexSettings.INDEX_TRANSLOG_RECOVERY_THREADS_SETTING.getKey(), randomIntBetween(2, 4))
+            .build();
+        IndexMetaData metaData = IndexMetaData.builder("test")
+            .putMapping("_doc", "{ \"properties\": { \"foo\":  { \"type\": \"text\"}}}")
+            .settings(settings)
+            .primaryTerm(0, randomLongBetween(1, Long.MAX_VALUE)).build();
+        IndexShard primary = newShard(new ShardId(metaData.getIndex(), 0), true, "n1", metaData, null);
+        List<Translog.Operation> operations = new ArrayList<>();
+        Map<String, Long> versions = new HashMap<>();
+        Set<String> liveDocs = new HashSet<>();
+        int numOps = randomIntBetween(1, 2000);
+        for (int seqNo = 0; seqNo < numOps; seqNo++) {
+            String id = Integer.toString(randomIntBetween(0, 50));
+            if (rarely()) {
+                operations.add(new Translog.NoOp(seqNo, primary.getPendingPrimaryTerm(), "test"));
+            } else if (randomBoolean()) {
+                operations.add(new Translog.Index("_doc", id, seqNo, primary.getPendingPrimaryTerm(), versions.merge(id, 1L, Long::sum),
+                    "{\"foo\" : \"bar\"}".getBytes(Charset.forName("UTF-8")), null, -1));
+                liveDocs.add(id);
+            } else {
+                operations.add(new Translog.Delete("_doc", id, new Term(IdFieldMapper.NAME, Uid.encodeId(id)), seqNo,
+                    primary.getPendingPrimaryTerm(), versions.merge(id, 1L, Long::sum)));
+                liveDocs.remove(id);
+            }
+        }
+        Iterator<Translog.Operation> iterator = operations.iterator();
+        Translog.Snapshot snapshot = new Translog.Snapshot() {
+
+            @Override
+            public void close() {
+
+            }
+
+            @Override
+            public int totalOperations() {
+                return numOps;
+            }
+
+            @Override
+            public Translog.Operation next() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+        };
+        primary.markAsRecovering("store", new RecoveryState(primary.routingEntry(),
+            getFakeDiscoNode(primary.routingEntry().currentNodeId()),
+            null));
+        primary.recoverFromStore();
+
+        primary.state = IndexShardState.RECOVERING; // translog recovery on the next line would otherwise fail as we are in POST_RECOVERY
+        int recovered = primary.runTranslogRecovery(primary.getEngine(), snapshot, Engine.Operation.Origin.LOCAL_TRANSLOG_RECOVERY,
+            () -> {});
+        assertThat(recovered, equalTo(numOps));
+        assertThat(primary.getLocalCheckpoint(), equalTo((long) numOps - 1));
+        assertThat(getShardDocUIDs(primary), equalTo(liveDocs));
+
+        closeShards(primary);
+    }
+
     public void testShardActiveDuringInternalRecovery() throws IOException {
         IndexShard shard = newStartedShard(true);
         indexDoc(shard, "_doc", "0");
@@ -0,0 +1,111 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class GatheringBytesStreamOutputTests extends ESTestCase {
+
+    private final BigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+
+    public void testMatchesCopiedOutput() throws IOException {
+        final int minReferenceLength = randomIntBetween(1, 2048);
+        try (GatheringBytesStreamOutput gathering = new GatheringBytesStreamOutput(bigArrays, minReferenceLength);
+             BytesStreamOutput copying = new BytesStreamOutput()) {
+            final BufferedChecksumStreamOutput gatheringOut = new BufferedChecksumStreamOutput(gathering);
+            final BufferedChecksumStreamOutput copyingOut = new BufferedChecksumStreamOutput(copying);
+            final int iterations = randomIntBetween(1, 50);
+            for (int i = 0; i < iterations; i++) {
+                switch (randomIntBetween(0, 3)) {
+                    case 0:
+                        final long value = randomLong();
+                        gatheringOut.writeLong(value);
+                        copyingOut.writeLong(value);
+                        break;
+                    case 1:
+                        final String string = randomUnicodeOfLengthBetween(0, 100);
+                        gatheringOut.writeString(string);
+                        copyingOut.writeString(string);
+                        break;
+                    case 2:
+                        final BytesReference bytes = randomBoolean() ? null : randomBytes(4096);
+                        gatheringOut.writeBytesReference(bytes);
+                        copyingOut.writeBytesReference(bytes);
+                        break;
+                    default:
+                        final byte[] array = randomByteArrayOfLength(randomIntBetween(0, 100));
+                        gatheringOut.writeBytes(array);
+                        copyingOut.writeBytes(array);
+                        break;
+                }
+                assertThat(gathering.position(), equalTo(copying.position()));
+            }
+            assertThat(gatheringOut.getChecksum(), equalTo(copyingOut.getChecksum()));
+            assertThat(gathering.bytes(), equalTo(copying.bytes()));
+        }
+    }
+
+    public void testKeepsLargeReferences() throws IOException {
+        final byte[] large = randomByteArrayOfLength(2048);
+        final byte[] small = randomByteArrayOfLength(1023);
+        try (GatheringBytesStreamOutput out = new GatheringBytesStreamOutput(bigArrays, 1024)) {
+            assertTrue(out.isGathered(new BytesArray(large)));
+            assertFalse(out.isGathered(new BytesArray(small)));
+            out.writeReference(new BytesArray(large));
+            out.writeReference(new BytesArray(small));
+            assertThat(out.position(), equalTo((long) (large.length + small.length)));
+            // only the large reference is shared, the small one was copied
+            large[0]++;
+            small[0]++;
+            final BytesReference bytes = out.bytes();
+            assertThat(bytes.get(0), equalTo(large[0]));
+            assertThat(bytes.get(large.length), equalTo((byte) (small[0] - 1)));
+        }
+    }
+
+    public void testReset() throws IOException {
+        try (GatheringBytesStreamOutput out = new GatheringBytesStreamOutput(bigArrays, 16)) {
+            out.writeInt(randomInt());
+            out.writeReference(randomBytes(32));
+            out.reset();
+            assertThat(out.position(), equalTo(0L));
+            assertThat(out.bytes().length(), equalTo(0));
+            final BytesReference bytes = randomBytes(32);
+            out.writeReference(bytes);
+            assertThat(out.bytes(), equalTo(bytes));
+        }
+    }
+
+    private static BytesReference randomBytes(int maxLength) {
+        return new BytesArray(randomByteArrayOfLength(randomIntBetween(0, maxLength)));
+    }
+}
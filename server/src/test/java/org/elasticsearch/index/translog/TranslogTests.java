@@ -49,6 +49,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
@@ -84,6 +85,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.CopyOption;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
@@ -128,6 +130,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasToString;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isIn;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
@@ -484,7 +487,10 @@ public class TranslogTests extends ESTestCase {
                 builder.endObject();
                 assertThat(Strings.toString(builder), equalTo("{\"translog\":{\"operations\":4,\"size_in_bytes\":" + expectedSizeInBytes
                     + ",\"uncommitted_operations\":4,\"uncommitted_size_in_bytes\":" + expectedSizeInBytes
-                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge() + "}}"));
+                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge()
+                    + ",\"sync\":{\"total\":" + copy.getSyncCount() + ",\"operations\":" + copy.getSyncedOperations()
+                    + ",\"operations_per_sync\":" + (double) copy.getSyncedOperations() / copy.getSyncCount()
+                    + ",\"wait_p99_in_micros\":0}}}"));
             }
         }
 
@@ -499,6 +505,33 @@ public class TranslogTests extends ESTestCase {
         }
     }
 
+    public void testSyncStats() throws IOException {
+        final TranslogStats before = translog.stats();
+        final int operations = randomIntBetween(1, 10);
+        Translog.Location location = null;
+        for (int i = 0; i < operations; i++) {
+            location = translog.add(new Translog.Index("test", Integer.toString(i), i, primaryTerm.get(), new byte[]{1}));
+        }
+        assertTrue(translog.ensureSynced(location));
+        assertFalse(translog.ensureSynced(location));
+        TranslogStats stats = translog.stats();
+        assertThat(stats.getSyncCount(), equalTo(before.getSyncCount() + 1));
+        assertThat(stats.getSyncedOperations(), equalTo(before.getSyncedOperations() + operations));
+
+        translog.add(new Translog.Index("test", "last", operations, primaryTerm.get(), new byte[]{1}));
+        translog.sync();
+        stats = translog.stats();
+        assertThat(stats.getSyncCount(), equalTo(before.getSyncCount() + 2));
+        assertThat(stats.getSyncedOperations(), equalTo(before.getSyncedOperations() + operations + 1));
+
+        final long[] syncWaits = new long[SyncWaitHistogram.NUM_BUCKETS];
+        syncWaits[SyncWaitHistogram.bucket(1500)] = 99;
+        syncWaits[SyncWaitHistogram.bucket(100_000)] = 1;
+        assertThat(stats.withSyncWaits(syncWaits).getSyncWaitP99(), equalTo(TimeValue.timeValueNanos(2048_000)));
+        syncWaits[SyncWaitHistogram.bucket(100_000)] = 2;
+        assertThat(stats.withSyncWaits(syncWaits).getSyncWaitP99(), equalTo(TimeValue.timeValueNanos(131072_000)));
+    }
+
     public void testUncommittedOperations() throws Exception {
         final TranslogDeletionPolicy deletionPolicy = translog.getDeletionPolicy();
         deletionPolicy.setRetentionAgeInMillis(randomLong());
@@ -614,6 +647,46 @@ public class TranslogTests extends ESTestCase {
         assertNull(translog.readOperation(new Location(100, 0, 0)));
     }
 
+    public void testMappedSnapshotOfReader() throws IOException {
+        final List<Translog.Operation> ops = new ArrayList<>();
+        final int numOps = randomIntBetween(1, 100);
+        for (int i = 0; i < numOps; i++) {
+            final String id = Integer.toString(i);
+            if (randomBoolean()) {
+                addToTranslogAndList(translog, ops, new Translog.Index("test", id, i, primaryTerm.get(),
+                    randomAlphaOfLengthBetween(1, 2048).getBytes(StandardCharsets.UTF_8)));
+            } else if (randomBoolean()) {
+                addToTranslogAndList(translog, ops, new Translog.Delete("test", id, i, primaryTerm.get(), newUid(id)));
+            } else {
+                addToTranslogAndList(translog, ops, new Translog.NoOp(i, primaryTerm.get(), randomAlphaOfLength(10)));
+            }
+        }
+        translog.rollGeneration();
+        final TranslogReader reader = translog.getReaders().get(translog.getReaders().size() - 1);
+        final TranslogSnapshot channelSnapshot = new TranslogSnapshot(reader, reader.sizeInBytes());
+        final TranslogSnapshot snapshot = reader.newSnapshot();
+        for (Translog.Operation expected : ops) {
+            final Translog.Operation op = snapshot.next();
+            assertThat(op, equalTo(expected));
+            assertThat(channelSnapshot.next(), equalTo(expected));
+            if (op instanceof Translog.Index) {
+                // the source is a copy, so that it stays valid once the file is unmapped
+                assertThat(((Translog.Index) op).source(), instanceOf(BytesArray.class));
+            }
+        }
+        assertNull(snapshot.next());
+        assertNull(channelSnapshot.next());
+
+        final TranslogSnapshot openSnapshot = reader.newSnapshot();
+        reader.close();
+        if (TranslogReader.MMAP_SNAPSHOTS) {
+            // closing the reader unmaps the file, which the snapshots of the reader must not read anymore
+            expectThrows(AlreadyClosedException.class, openSnapshot::next);
+        }
+        // snapshots of a closed reader are read through its channel, which is closed too
+        expectThrows(IOException.class, () -> reader.newSnapshot().next());
+    }
+
     public void testSnapshotWithNewTranslog() throws IOException {
         List<Closeable> toClose = new ArrayList<>();
         try {
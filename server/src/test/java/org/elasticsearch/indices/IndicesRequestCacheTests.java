@@ -50,6 +50,8 @@ import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 
+import static org.hamcrest.Matchers.greaterThan;
+
 public class IndicesRequestCacheTests extends ESTestCase {
 
     public void testBasicOperationsCache() throws Exception {
@@ -108,6 +110,65 @@ public class IndicesRequestCacheTests extends ESTestCase {
         assertEquals(0, cache.numRegisteredCloseListeners());
     }
 
+    public void testOffHeapSizeIsBoundedByDirectMemory() {
+        final ByteSizeValue max = IndicesRequestCache.maxOffHeapSize();
+        assertThat(max.getBytes(), greaterThan(0L));
+        final Settings tooLarge = Settings.builder()
+            .put(IndicesRequestCache.INDICES_CACHE_QUERY_OFF_HEAP_SIZE.getKey(), new ByteSizeValue(max.getBytes() + 1).getStringRep())
+            .build();
+        expectThrows(IllegalArgumentException.class, () -> IndicesRequestCache.INDICES_CACHE_QUERY_OFF_HEAP_SIZE.get(tooLarge));
+    }
+
+    public void testBasicOperationsOffHeapCache() throws Exception {
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.builder()
+            .put(IndicesRequestCache.INDICES_CACHE_QUERY_OFF_HEAP_SIZE.getKey(), "1mb")
+            .build());
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig());
+
+        writer.addDocument(newDoc(0, "foo"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer),
+            new ShardId("foo", "bar", 1));
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+        BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+
+        // initial cache
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+        Loader loader = new Loader(reader, 0);
+        BytesReference value = cache.getOrCompute(entity, loader, reader, termBytes, () -> termQuery.toString());
+        assertEquals("foo", value.streamInput().readString());
+        assertEquals(0, requestCacheStats.stats().getHitCount());
+        assertEquals(1, requestCacheStats.stats().getMissCount());
+        assertFalse(loader.loadedFromCache);
+        assertEquals(1, cache.count());
+        // values are accounted by the off-heap pages they hold
+        assertThat(requestCacheStats.stats().getMemorySizeInBytes(), greaterThan((long) OffHeapRequestCacheStore.PAGE_SIZE));
+        assertEquals(value.length(), requestCacheStats.stats().getUncompressedValuesSizeInBytes());
+        assertThat(requestCacheStats.stats().getCompressedValuesSizeInBytes(), greaterThan(0L));
+
+        // cache hit, decompressed from off-heap
+        entity = new TestEntity(requestCacheStats, indexShard);
+        loader = new Loader(reader, 0);
+        value = cache.getOrCompute(entity, loader, reader, termBytes, () -> termQuery.toString());
+        assertEquals("foo", value.streamInput().readString());
+        assertEquals(1, requestCacheStats.stats().getHitCount());
+        assertEquals(1, requestCacheStats.stats().getMissCount());
+        assertTrue(loader.loadedFromCache);
+        assertEquals(1, cache.count());
+
+        cache.clear(entity);
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        assertEquals(0, requestCacheStats.stats().getMemorySizeInBytes());
+        assertEquals(0, requestCacheStats.stats().getUncompressedValuesSizeInBytes());
+        assertEquals(0, requestCacheStats.stats().getCompressedValuesSizeInBytes());
+
+        IOUtils.close(reader, writer, dir, cache);
+        assertEquals(0, cache.numRegisteredCloseListeners());
+    }
+
     public void testCacheDifferentReaders() throws Exception {
         IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
         AtomicBoolean indexShard =  new AtomicBoolean(true);
@@ -0,0 +1,117 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.indices.OffHeapRequestCacheStore.OffHeapBytesReference;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThan;
+
+public class OffHeapRequestCacheStoreTests extends ESTestCase {
+
+    public void testStoreAndLoad() {
+        try (OffHeapRequestCacheStore store = new OffHeapRequestCacheStore()) {
+            final int length = randomIntBetween(0, 5 * OffHeapRequestCacheStore.PAGE_SIZE);
+            final BytesReference original = new BytesArray(randomByteArrayOfLength(length));
+            final OffHeapBytesReference stored = store.store(original);
+            assertEquals(original.length(), stored.length());
+            assertEquals(original, stored.loadIfNotReleased());
+            assertEquals(original, store.load(stored));
+            final int expectedPages = Math.max(1, (stored.compressedLength() + OffHeapRequestCacheStore.PAGE_SIZE - 1)
+                / OffHeapRequestCacheStore.PAGE_SIZE);
+            assertEquals(expectedPages, stored.pages().length);
+        }
+    }
+
+    public void testCompressesRepetitiveValues() {
+        try (OffHeapRequestCacheStore store = new OffHeapRequestCacheStore()) {
+            final StringBuilder builder = new StringBuilder();
+            while (builder.length() < 10 * OffHeapRequestCacheStore.PAGE_SIZE) {
+                builder.append("{\"key\":\"").append(randomIntBetween(0, 9)).append("\",\"doc_count\":42},");
+            }
+            final BytesReference original = new BytesArray(builder.toString());
+            final OffHeapBytesReference stored = store.store(original);
+            assertThat(stored.compressedLength(), lessThan(original.length() / 2));
+            assertThat(stored.pages().length, lessThan(5));
+            assertEquals(original, stored.loadIfNotReleased());
+        }
+    }
+
+    public void testReleasedPagesAreReused() {
+        try (OffHeapRequestCacheStore store = new OffHeapRequestCacheStore()) {
+            final List<OffHeapBytesReference> values = new ArrayList<>();
+            final List<BytesReference> originals = new ArrayList<>();
+            final int numberOfValues = randomIntBetween(1, 2 * OffHeapRequestCacheStore.PAGES_PER_SLAB);
+            for (int i = 0; i < numberOfValues; i++) {
+                final BytesReference original = new BytesArray(randomByteArrayOfLength(randomIntBetween(1, 100)));
+                originals.add(original);
+                values.add(store.store(original));
+            }
+            final long allocated = store.allocatedBytes();
+            assertEquals(0, allocated % ((long) OffHeapRequestCacheStore.PAGES_PER_SLAB * OffHeapRequestCacheStore.PAGE_SIZE));
+
+            final Set<Integer> releasedPages = new HashSet<>();
+            for (int i = 0; i < numberOfValues; i++) {
+                if (randomBoolean()) {
+                    final OffHeapBytesReference released = values.get(i);
+                    for (int page : released.pages()) {
+                        releasedPages.add(page);
+                    }
+                    released.decRef();
+                    assertNull(released.loadIfNotReleased());
+                    IllegalStateException e = expectThrows(IllegalStateException.class, () -> released.get(0));
+                    assertThat(e.getMessage(), containsString("already been released"));
+                }
+            }
+            for (int i = 0; i < releasedPages.size(); i++) {
+                store.store(new BytesArray(randomByteArrayOfLength(randomIntBetween(1, 100))));
+            }
+            // released pages were reused rather than allocating more direct memory
+            assertEquals(allocated, store.allocatedBytes());
+
+            // values that are still referenced have not been overwritten
+            for (int i = 0; i < numberOfValues; i++) {
+                final BytesReference loaded = values.get(i).loadIfNotReleased();
+                if (loaded != null) {
+                    assertEquals(originals.get(i), loaded);
+                }
+            }
+        }
+    }
+
+    public void testClose() {
+        OffHeapRequestCacheStore store = new OffHeapRequestCacheStore();
+        OffHeapBytesReference stored = store.store(new BytesArray(randomByteArrayOfLength(10)));
+        store.close();
+        assertEquals(0, store.allocatedBytes());
+        // releasing after close is a no-op
+        stored.decRef();
+        IllegalStateException e = expectThrows(IllegalStateException.class, () -> store.store(new BytesArray("foo")));
+        assertThat(e.getMessage(), containsString("closed"));
+    }
+}
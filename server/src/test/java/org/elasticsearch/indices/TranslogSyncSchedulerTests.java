@@ -0,0 +1,144 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TranslogSyncSchedulerTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+        super.tearDown();
+    }
+
+    public void testDisabledByDefault() {
+        assertFalse(new TranslogSyncScheduler(Settings.EMPTY, threadPool).isEnabled());
+        final Settings settings = Settings.builder().put(TranslogSyncScheduler.MAX_SYNC_DELAY_SETTING.getKey(), "2ms").build();
+        assertTrue(new TranslogSyncScheduler(settings, threadPool).isEnabled());
+    }
+
+    public void testCoalescesSyncs() throws Exception {
+        final TimeValue maxDelay = TimeValue.timeValueMillis(randomIntBetween(1, 50));
+        final Settings settings = Settings.builder()
+            .put(TranslogSyncScheduler.MAX_SYNC_DELAY_SETTING.getKey(), maxDelay.getStringRep())
+            .build();
+        final TranslogSyncScheduler scheduler = new TranslogSyncScheduler(settings, threadPool);
+        final Path[] dataPaths = new Path[] { createTempDir(), createTempDir() };
+
+        final int numTargets = randomIntBetween(1, 10);
+        final List<CountingTarget> targets = new ArrayList<>();
+        for (int i = 0; i < numTargets; i++) {
+            targets.add(new CountingTarget());
+        }
+        final int numSyncs = randomIntBetween(numTargets, 500);
+        final CountDownLatch latch = new CountDownLatch(numSyncs);
+        for (int i = 0; i < numSyncs; i++) {
+            final int targetIndex = i % numTargets;
+            final CountingTarget target = targets.get(targetIndex);
+            final Translog.Location location = new Translog.Location(1, i, 1);
+            scheduler.schedule(dataPaths[targetIndex % dataPaths.length], target, location, e -> {
+                assertNull(e);
+                assertTrue(location + " was not synced before its listener was notified", target.synced(location));
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        int totalSyncs = 0;
+        int totalLocations = 0;
+        for (CountingTarget target : targets) {
+            totalSyncs += target.syncs.get();
+            totalLocations += target.syncedLocations.size();
+        }
+        assertThat(totalLocations, equalTo(numSyncs));
+        assertThat(totalSyncs, lessThanOrEqualTo(numSyncs));
+    }
+
+    public void testFailuresArePropagated() throws Exception {
+        final Settings settings = Settings.builder().put(TranslogSyncScheduler.MAX_SYNC_DELAY_SETTING.getKey(), "1ms").build();
+        final TranslogSyncScheduler scheduler = new TranslogSyncScheduler(settings, threadPool);
+        final IOException failure = new IOException("simulated");
+        final CountDownLatch latch = new CountDownLatch(2);
+        final AtomicReference<Exception> failed = new AtomicReference<>();
+        final AtomicReference<Exception> succeeded = new AtomicReference<>();
+        final Path dataPath = createTempDir();
+        scheduler.schedule(dataPath, locations -> { throw failure; }, new Translog.Location(1, 0, 1), e -> {
+            failed.set(e);
+            latch.countDown();
+        });
+        scheduler.schedule(dataPath, new CountingTarget(), new Translog.Location(1, 0, 1), e -> {
+            succeeded.set(e);
+            latch.countDown();
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertThat(failed.get(), sameInstance(failure));
+        assertNull(succeeded.get());
+    }
+
+    private static class CountingTarget implements TranslogSyncScheduler.Target {
+
+        private final AtomicInteger syncs = new AtomicInteger();
+        private final List<Translog.Location> syncedLocations = new ArrayList<>();
+
+        @Override
+        public void sync(Stream<Translog.Location> locations) {
+            syncs.incrementAndGet();
+            final List<Translog.Location> batch = locations.collect(Collectors.toList());
+            synchronized (syncedLocations) {
+                syncedLocations.addAll(batch);
+            }
+        }
+
+        boolean synced(Translog.Location location) {
+            synchronized (syncedLocations) {
+                return syncedLocations.contains(location);
+            }
+        }
+    }
+}
@@ -31,6 +31,7 @@ import org.elasticsearch.action.support.ActiveShardCount;
 import org.elasticsearch.action.support.replication.ClusterStateCreationUtils;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateApplier;
 import org.elasticsearch.cluster.action.shard.ShardStateAction;
 import org.elasticsearch.cluster.block.ClusterBlock;
 import org.elasticsearch.cluster.block.ClusterBlocks;
@@ -78,6 +79,10 @@ import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF
 import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF_SHARDS;
 import static org.elasticsearch.cluster.routing.ShardRoutingState.INITIALIZING;
 import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -86,6 +91,10 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
 
     private ThreadPool threadPool;
     private ClusterStateChanges cluster;
+    // whether the services are created with indices.cluster.async_shard_creation
+    private boolean asyncShardCreation;
+    // the state updater and shard creator that each service registers if it creates shards asynchronously
+    private final Map<IndicesClusterStateService, ClusterStateApplier[]> asyncAppliers = new HashMap<>();
 
     @Override
     public void setUp() throws Exception {
@@ -101,6 +110,15 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
     }
 
     public void testRandomClusterStateUpdates() {
+        runRandomClusterStateUpdates();
+    }
+
+    public void testRandomClusterStateUpdatesWithAsyncShardCreation() {
+        asyncShardCreation = true;
+        runRandomClusterStateUpdates();
+    }
+
+    private void runRandomClusterStateUpdates() {
         // we have an IndicesClusterStateService per node in the cluster
         final Map<DiscoveryNode, IndicesClusterStateService> clusterStateServiceMap = new HashMap<>();
         ClusterState state = randomInitialClusterState(clusterStateServiceMap, MockIndicesService::new);
@@ -126,8 +144,20 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
                 ClusterState localState = adaptClusterStateToLocalNode(state, node);
                 ClusterState previousLocalState = adaptClusterStateToLocalNode(previousState, node);
                 final ClusterChangedEvent event = new ClusterChangedEvent("simulated change " + i, localState, previousLocalState);
+                final boolean shardsCreated;
                 try {
-                    indicesClusterStateService.applyClusterState(event);
+                    if (asyncShardCreation) {
+                        final ClusterStateApplier[] appliers = asyncAppliers.get(indicesClusterStateService);
+                        appliers[0].applyClusterState(event);
+                        // the shard creator may lag behind by several cluster states, it catches up with the last applied one
+                        shardsCreated = randomBoolean();
+                        if (shardsCreated) {
+                            appliers[1].applyClusterState(event);
+                        }
+                    } else {
+                        indicesClusterStateService.applyClusterState(event);
+                        shardsCreated = true;
+                    }
                 } catch (AssertionError error) {
                     logger.error(new ParameterizedMessage(
                             "failed to apply change on [{}].\n ***  Previous state ***\n{}\n ***  New state ***\n{}",
@@ -136,6 +166,19 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
                 }
 
                 // check that cluster state has been properly applied to node
+                if (shardsCreated) {
+                    assertClusterStateMatchesNodeState(localState, indicesClusterStateService);
+                }
+            }
+        }
+
+        if (asyncShardCreation) {
+            // let the shard creators that lag behind catch up
+            for (DiscoveryNode node : state.nodes()) {
+                IndicesClusterStateService indicesClusterStateService = clusterStateServiceMap.get(node);
+                ClusterState localState = adaptClusterStateToLocalNode(state, node);
+                asyncAppliers.get(indicesClusterStateService)[1].applyClusterState(
+                    new ClusterChangedEvent("catch up", localState, localState));
                 assertClusterStateMatchesNodeState(localState, indicesClusterStateService);
             }
         }
@@ -455,19 +498,29 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
         final ThreadPool threadPool = mock(ThreadPool.class);
         when(threadPool.generic()).thenReturn(mock(ExecutorService.class));
         final MockIndicesService indicesService = indicesServiceSupplier.get();
-        final Settings settings = Settings.builder().put("node.name", discoveryNode.getName()).build();
+        final Settings settings = Settings.builder().put("node.name", discoveryNode.getName())
+            .put(IndicesClusterStateService.ASYNC_SHARD_CREATION_SETTING.getKey(), asyncShardCreation).build();
         final TransportService transportService = new TransportService(settings, mock(Transport.class), threadPool,
             TransportService.NOOP_TRANSPORT_INTERCEPTOR,
             boundAddress -> DiscoveryNode.createLocal(settings, boundAddress.publishAddress(), UUIDs.randomBase64UUID()), null,
             Collections.emptySet());
         final ClusterService clusterService = mock(ClusterService.class);
+        final ClusterStateApplier[] appliers = new ClusterStateApplier[2];
+        doAnswer(invocation -> {
+            appliers[0] = (ClusterStateApplier) invocation.getArguments()[0];
+            return null;
+        }).when(clusterService).addHighPriorityApplier(any(ClusterStateApplier.class));
+        doAnswer(invocation -> {
+            appliers[1] = (ClusterStateApplier) invocation.getArguments()[1];
+            return null;
+        }).when(clusterService).addAsyncStateApplier(anyString(), any(ClusterStateApplier.class), anyBoolean());
         final RepositoriesService repositoriesService = new RepositoriesService(settings, clusterService,
             transportService, Collections.emptyMap(), Collections.emptyMap(), threadPool);
         final PeerRecoveryTargetService recoveryTargetService = new PeerRecoveryTargetService(threadPool,
-            transportService, null, clusterService);
+            transportService, null, clusterService, repositoriesService);
         final ShardStateAction shardStateAction = mock(ShardStateAction.class);
         final PrimaryReplicaSyncer primaryReplicaSyncer = mock(PrimaryReplicaSyncer.class);
-        return new IndicesClusterStateService(
+        final IndicesClusterStateService indicesClusterStateService = new IndicesClusterStateService(
                 settings,
                 indicesService,
                 clusterService,
@@ -483,6 +536,10 @@ public class IndicesClusterStateServiceRandomUpdatesTests extends AbstractIndice
                 primaryReplicaSyncer,
                 s -> {},
                 RetentionLeaseSyncer.EMPTY);
+        if (asyncShardCreation) {
+            asyncAppliers.put(indicesClusterStateService, appliers);
+        }
+        return indicesClusterStateService;
     }
 
     private class RecordingIndicesService extends MockIndicesService {
@@ -0,0 +1,101 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class FileChunkWindowTests extends ESTestCase {
+
+    public void testFixedSize() {
+        final int size = between(1, 10);
+        final int chunkSize = between(1, 1024);
+        final FileChunkWindow window = new FileChunkWindow(size, between(0, size), chunkSize);
+        for (int i = 0; i < 100; i++) {
+            window.onChunkAcknowledged(chunkSize, randomLongBetween(1, 1000), size);
+            assertThat(window.size(), equalTo(size));
+        }
+    }
+
+    public void testGrowsWhileFullAndRoundTripsAreStable() {
+        final int minSize = between(1, 4);
+        final int maxSize = between(minSize + 1, 32);
+        final int chunkSize = between(1, 1024);
+        final FileChunkWindow window = new FileChunkWindow(minSize, maxSize, chunkSize);
+        // slow start grows the window by one chunk per acknowledged chunk
+        for (int expectedSize = minSize + 1; expectedSize <= maxSize; expectedSize++) {
+            window.onChunkAcknowledged(chunkSize, 100, window.size());
+            assertThat(window.size(), equalTo(expectedSize));
+        }
+        window.onChunkAcknowledged(chunkSize, 100, window.size());
+        assertThat(window.size(), equalTo(maxSize));
+    }
+
+    public void testDoesNotGrowUnlessFull() {
+        final int minSize = between(2, 4);
+        final int chunkSize = between(1, 1024);
+        final FileChunkWindow window = new FileChunkWindow(minSize, between(minSize + 1, 32), chunkSize);
+        for (int i = 0; i < 100; i++) {
+            window.onChunkAcknowledged(chunkSize, 100, between(1, minSize - 1));
+        }
+        assertThat(window.size(), equalTo(minSize));
+    }
+
+    public void testShrinksWhenRoundTripsGrow() {
+        final int chunkSize = between(1, 1024);
+        final FileChunkWindow window = new FileChunkWindow(1, 32, chunkSize);
+        while (window.size() < 16) {
+            window.onChunkAcknowledged(chunkSize, 100, window.size());
+        }
+        window.onChunkAcknowledged(chunkSize, 100 * FileChunkWindow.CONGESTION_ROUND_TRIP_FACTOR + 1, 16);
+        assertThat(window.size(), equalTo(8));
+
+        // the chunks that were still in flight when the window shrunk are ignored
+        for (int i = 0; i < 15; i++) {
+            window.onChunkAcknowledged(chunkSize, 100 * FileChunkWindow.CONGESTION_ROUND_TRIP_FACTOR + 1, 16 - i);
+            assertThat(window.size(), equalTo(8));
+        }
+
+        // past the slow start threshold the window grows by one chunk per window of acknowledged chunks
+        for (int i = 0; i < 7; i++) {
+            window.onChunkAcknowledged(chunkSize, 100, 8);
+            assertThat(window.size(), equalTo(8));
+        }
+        window.onChunkAcknowledged(chunkSize, 100, 8);
+        assertThat(window.size(), equalTo(9));
+
+        // only full chunks are compared with each other
+        window.onChunkAcknowledged(chunkSize - 1, 100 * FileChunkWindow.CONGESTION_ROUND_TRIP_FACTOR + 1, 9);
+        assertThat(window.size(), equalTo(9));
+    }
+
+    public void testNeverShrinksBelowMinSize() {
+        final int minSize = between(1, 8);
+        final int chunkSize = between(1, 1024);
+        final FileChunkWindow window = new FileChunkWindow(minSize, between(minSize, 32), chunkSize);
+        window.onChunkAcknowledged(chunkSize, 100, window.size());
+        for (int i = 0; i < 10; i++) {
+            window.onChunkAcknowledged(chunkSize, 100 * FileChunkWindow.CONGESTION_ROUND_TRIP_FACTOR + 1, 1);
+            assertThat(window.size(), equalTo(minSize));
+        }
+    }
+}
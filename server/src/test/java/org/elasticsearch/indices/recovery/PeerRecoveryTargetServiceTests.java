@@ -33,25 +33,40 @@ import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class PeerRecoveryTargetServiceTests extends IndexShardTestCase {
 
@@ -196,4 +211,83 @@ public class PeerRecoveryTargetServiceTests extends IndexShardTestCase {
         assertThat(diff.different, empty());
         closeShards(sourceShard, targetShard);
     }
+
+    public void testRestoreFilesFromSnapshot() throws Exception {
+        IndexShard sourceShard = newStartedShard(true);
+        int numDocs = between(20, 100);
+        for (int i = 0; i < numDocs; i++) {
+            indexDoc(sourceShard, "_doc", Integer.toString(i));
+        }
+        sourceShard.flush(new FlushRequest());
+        Store.MetadataSnapshot sourceSnapshot = sourceShard.store().getMetadata(null);
+        List<StoreFileMetaData> mdFiles = new ArrayList<>();
+        for (StoreFileMetaData md : sourceSnapshot) {
+            mdFiles.add(md);
+        }
+        final IndexId indexId = new IndexId("index", UUIDs.randomBase64UUID());
+        final Set<String> failingFiles = randomSubsetOf(mdFiles).stream().map(StoreFileMetaData::name).collect(Collectors.toSet());
+        final SnapshotFilesProvider snapshotFilesProvider = mock(SnapshotFilesProvider.class);
+        when(snapshotFilesProvider.openSnapshotFile(eq("repo"), eq(indexId), eq(sourceShard.shardId()), any())).thenAnswer(invocation -> {
+            final BlobStoreIndexShardSnapshot.FileInfo fileInfo = (BlobStoreIndexShardSnapshot.FileInfo) invocation.getArguments()[3];
+            final IndexInput in = sourceShard.store().directory().openInput(fileInfo.physicalName(), IOContext.READONCE);
+            final InputStream stream = new InputStreamIndexInput(in, fileInfo.length());
+            return new FilterInputStream(stream) {
+                long position = 0;
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (failingFiles.contains(fileInfo.physicalName()) && position >= fileInfo.length() / 2) {
+                        throw new IOException("test restore exception");
+                    }
+                    final int read = super.read(b, off, Math.min(len, 16));
+                    position += Math.max(read, 0);
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    IOUtils.close(stream, in);
+                }
+            };
+        });
+        final IndexShard targetShard = newShard(false);
+        final DiscoveryNode pNode = getFakeDiscoNode(sourceShard.routingEntry().currentNodeId());
+        final DiscoveryNode rNode = getFakeDiscoNode(targetShard.routingEntry().currentNodeId());
+        targetShard.markAsRecovering("test-peer-recovery", new RecoveryState(targetShard.routingEntry(), rNode, pNode));
+        final RecoveryTarget recoveryTarget = new RecoveryTarget(targetShard, null, snapshotFilesProvider, null);
+        recoveryTarget.receiveFileInfo(
+            mdFiles.stream().map(StoreFileMetaData::name).collect(Collectors.toList()),
+            mdFiles.stream().map(StoreFileMetaData::length).collect(Collectors.toList()),
+            Collections.emptyList(), Collections.emptyList(), 0
+        );
+        for (StoreFileMetaData md : mdFiles) {
+            final AtomicReference<Exception> failure = new AtomicReference<>();
+            recoveryTarget.restoreFileFromSnapshot("repo", indexId, new BlobStoreIndexShardSnapshot.FileInfo("__" + md.name(), md, null),
+                0, ActionListener.wrap(ignored -> {}, failure::set));
+            if (failingFiles.contains(md.name())) {
+                assertThat(failure.get(), notNullValue());
+                // the file is sent by the source instead
+                try (IndexInput in = sourceShard.store().directory().openInput(md.name(), IOContext.READONCE)) {
+                    final byte[] buffer = new byte[Math.toIntExact(md.length())];
+                    in.readBytes(buffer, 0, buffer.length);
+                    recoveryTarget.writeFileChunk(md, 0, new BytesArray(buffer), true, 0, ActionListener.wrap(ignored -> {},
+                        e -> {
+                            throw new AssertionError(e);
+                        }));
+                }
+            } else {
+                assertThat(failure.get(), nullValue());
+            }
+        }
+        for (RecoveryState.File file : targetShard.recoveryState().getIndex().fileDetails()) {
+            assertThat(file.name(), file.recovered(), equalTo(file.length()));
+        }
+        recoveryTarget.cleanFiles(0, sourceSnapshot);
+        recoveryTarget.decRef();
+        Store.MetadataSnapshot targetSnapshot = targetShard.snapshotStoreMetadata();
+        Store.RecoveryDiff diff = sourceSnapshot.recoveryDiff(targetSnapshot);
+        assertThat(diff.different, empty());
+        assertThat(diff.missing, empty());
+        closeShards(sourceShard, targetShard);
+    }
 }
@@ -70,9 +70,11 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardRelocatedException;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.test.CorruptionUtils;
 import org.elasticsearch.test.DummyShardLock;
 import org.elasticsearch.test.ESTestCase;
@@ -89,7 +91,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -97,6 +102,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.IntSupplier;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.zip.CRC32;
 
 import static java.util.Collections.emptyMap;
@@ -109,6 +115,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -156,27 +163,29 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         }
         Store targetStore = newStore(createTempDir());
         RecoveryTargetHandler target = new TestRecoveryTargetHandler() {
-            IndexOutputOutputStream out;
+            // files are sent in parallel, so chunks of different files are interleaved
+            final Map<String, IndexOutputOutputStream> outs = new HashMap<>();
             @Override
             public void writeFileChunk(StoreFileMetaData md, long position, BytesReference content, boolean lastChunk,
                                        int totalTranslogOps, ActionListener<Void> listener) {
                 try {
                     if (position == 0) {
-                        out = new IndexOutputOutputStream(targetStore.createVerifyingOutput(md.name(), md, IOContext.DEFAULT)) {
+                        outs.put(md.name(), new IndexOutputOutputStream(targetStore.createVerifyingOutput(md.name(), md, IOContext.DEFAULT)) {
                             @Override
                             public void close() throws IOException {
                                 super.close();
                                 targetStore.directory().sync(Collections.singleton(md.name())); // sync otherwise MDW will mess with it
                             }
-                        };
+                        });
                     }
+                    final IndexOutputOutputStream out = outs.get(md.name());
                     final BytesRefIterator iterator = content.iterator();
                     BytesRef scratch;
                     while ((scratch = iterator.next()) != null) {
                         out.write(scratch.bytes, scratch.offset, scratch.length);
                     }
                     if (lastChunk) {
-                        out.close();
+                        outs.remove(md.name()).close();
                     }
                     listener.onResponse(null);
                 } catch (Exception e) {
@@ -184,8 +193,10 @@ public class RecoverySourceHandlerTests extends ESTestCase {
                 }
             }
         };
+        final int maxConcurrentFileChunks = between(1, 5);
         RecoverySourceHandler handler = new RecoverySourceHandler(null, target, request,
-            Math.toIntExact(recoverySettings.getChunkSize().getBytes()), between(1, 5));
+            Math.toIntExact(recoverySettings.getChunkSize().getBytes()), maxConcurrentFileChunks,
+            randomIntBetween(maxConcurrentFileChunks, 16), between(1, 4), null);
         handler.sendFiles(store, metas.toArray(new StoreFileMetaData[0]), () -> 0);
         Store.MetadataSnapshot targetStoreMetadata = targetStore.getMetadata(null);
         Store.RecoveryDiff recoveryDiff = targetStoreMetadata.recoveryDiff(metadata);
@@ -646,6 +657,46 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         store.close();
     }
 
+    public void testRestoreFilesFromSnapshot() throws Exception {
+        final IndexShard shard = mock(IndexShard.class);
+        when(shard.state()).thenReturn(IndexShardState.STARTED);
+        final List<StoreFileMetaData> files = new ArrayList<>();
+        final int numFiles = between(1, 10);
+        for (int i = 0; i < numFiles; i++) {
+            files.add(new StoreFileMetaData("test-" + i, between(1, 1000), Integer.toString(i), org.apache.lucene.util.Version.LATEST));
+        }
+        final List<StoreFileMetaData> filesInSnapshot = randomSubsetOf(files);
+        final Set<String> failingFiles = randomSubsetOf(filesInSnapshot).stream().map(StoreFileMetaData::name).collect(Collectors.toSet());
+        final IndexId indexId = new IndexId("index", UUIDs.randomBase64UUID());
+        final SnapshotFilesProvider snapshotFilesProvider = mock(SnapshotFilesProvider.class);
+        when(snapshotFilesProvider.findSnapshotFiles(eq(shardId), any(), eq(files))).thenReturn(filesInSnapshot.isEmpty() ? null :
+            new SnapshotFilesProvider.ShardSnapshotFiles("repo", indexId, filesInSnapshot.stream()
+                .map(md -> new BlobStoreIndexShardSnapshot.FileInfo("__" + md.name(), md, null)).collect(Collectors.toList())));
+        final List<String> restoredFiles = new CopyOnWriteArrayList<>();
+        final TestRecoveryTargetHandler recoveryTarget = new TestRecoveryTargetHandler() {
+            @Override
+            public void restoreFileFromSnapshot(String repository, IndexId id, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                                int totalTranslogOps, ActionListener<Void> listener) {
+                assertThat(repository, equalTo("repo"));
+                assertThat(id, equalTo(indexId));
+                if (failingFiles.contains(fileInfo.physicalName())) {
+                    listener.onFailure(new IOException("test restore exception"));
+                } else {
+                    restoredFiles.add(fileInfo.physicalName());
+                    listener.onResponse(null);
+                }
+            }
+        };
+        final RecoverySourceHandler handler = new RecoverySourceHandler(shard, recoveryTarget, getStartRecoveryRequest(),
+            between(1, 16), between(1, 4), between(1, 8), between(1, 4), snapshotFilesProvider);
+        final List<StoreFileMetaData> filesToSend = handler.restoreFilesFromSnapshot(files, () -> 0);
+        assertThat(restoredFiles, hasSize(filesInSnapshot.size() - failingFiles.size()));
+        assertThat(filesToSend, hasSize(files.size() - restoredFiles.size()));
+        for (StoreFileMetaData md : files) {
+            assertThat(md.name(), filesToSend.contains(md), equalTo(restoredFiles.contains(md.name()) == false));
+        }
+    }
+
     private Store newStore(Path path) throws IOException {
         return newStore(path, true);
     }
@@ -722,6 +773,11 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         public void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content, boolean lastChunk,
                                    int totalTranslogOps, ActionListener<Void> listener) {
         }
+
+        @Override
+        public void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                            int totalTranslogOps, ActionListener<Void> listener) {
+        }
     }
 
     private Translog.Snapshot newTranslogSnapshot(List<Translog.Operation> operations, List<Translog.Operation> operationsToSkip) {
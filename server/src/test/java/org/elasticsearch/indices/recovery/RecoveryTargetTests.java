@@ -212,6 +212,9 @@ public class RecoveryTargetTests extends ESTestCase {
                 if (randomBoolean()) {
                     index.addTargetThrottling(randomIntBetween(0, 20));
                 }
+                if (randomBoolean()) {
+                    index.addFileChunkRoundTrips(randomIntBetween(1, 5), randomIntBetween(0, 200));
+                }
             }
             if (randomBoolean()) {
                 index.stop();
@@ -225,6 +228,7 @@ public class RecoveryTargetTests extends ESTestCase {
         assertThat(index.recoveredBytesPercent(), equalTo((float) 0.0));
         assertThat(index.sourceThrottling().nanos(), equalTo(Index.UNKNOWN));
         assertThat(index.targetThrottling().nanos(), equalTo(Index.UNKNOWN));
+        assertThat(index.fileChunkLatency().nanos(), equalTo(0L));
 
         index.start();
         for (File file : files) {
@@ -264,6 +268,8 @@ public class RecoveryTargetTests extends ESTestCase {
         long recoveredBytes = 0;
         long sourceThrottling = Index.UNKNOWN;
         long targetThrottling = Index.UNKNOWN;
+        long roundTrips = 0;
+        long roundTripTime = 0;
         while (bytesToRecover > 0) {
             File file = randomFrom(filesToRecover);
             final long toRecover = Math.min(bytesToRecover, randomIntBetween(1, (int) (file.length() - file.recovered())));
@@ -283,6 +289,13 @@ public class RecoveryTargetTests extends ESTestCase {
                 targetThrottling += throttledOnTarget;
             }
             index.addTargetThrottling(throttledOnTarget);
+            if (randomBoolean()) {
+                final int chunkRoundTrips = randomIntBetween(1, 5);
+                final long chunkRoundTripTime = randomIntBetween(chunkRoundTrips, 1000);
+                index.addFileChunkRoundTrips(chunkRoundTrips, chunkRoundTripTime);
+                roundTrips += chunkRoundTrips;
+                roundTripTime += chunkRoundTripTime;
+            }
             bytesToRecover -= toRecover;
             recoveredBytes += toRecover;
             if (file.reused() || file.fullyRecovered()) {
@@ -310,6 +323,7 @@ public class RecoveryTargetTests extends ESTestCase {
         assertThat(lastRead.stopTime(), equalTo(index.stopTime()));
         assertThat(lastRead.targetThrottling(), equalTo(index.targetThrottling()));
         assertThat(lastRead.sourceThrottling(), equalTo(index.sourceThrottling()));
+        assertThat(lastRead.fileChunkLatency(), equalTo(index.fileChunkLatency()));
 
         logger.info("testing post recovery");
         assertThat(index.totalBytes(), equalTo(totalFileBytes));
@@ -322,6 +336,7 @@ public class RecoveryTargetTests extends ESTestCase {
         assertThat(index.recoveredBytes(), equalTo(recoveredBytes));
         assertThat(index.targetThrottling().nanos(), equalTo(targetThrottling));
         assertThat(index.sourceThrottling().nanos(), equalTo(sourceThrottling));
+        assertThat(index.fileChunkLatency().nanos(), equalTo(roundTrips == 0 ? 0 : roundTripTime / roundTrips));
         if (index.totalRecoverFiles() == 0) {
             assertThat((double) index.recoveredFilesPercent(), equalTo(100.0));
             assertThat((double) index.recoveredBytesPercent(), equalTo(100.0));
@@ -0,0 +1,64 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.snapshots.blobstore.SnapshotFiles;
+import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.store.StoreFileMetaData;
+import org.elasticsearch.test.DummyShardLock;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class SnapshotFilesProviderTests extends ESTestCase {
+
+    public void testReadHistoryUUID() throws IOException {
+        final Path path = createTempDir();
+        final String historyUUID = UUIDs.randomBase64UUID();
+        try (Directory directory = newFSDirectory(path);
+             IndexWriter writer = new IndexWriter(directory, newIndexWriterConfig())) {
+            writer.addDocument(new Document());
+            writer.setLiveCommitData(Collections.singletonMap(Engine.HISTORY_UUID_KEY, historyUUID).entrySet());
+            writer.commit();
+        }
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        final Store.MetadataSnapshot metadata = Store.readMetadataSnapshot(path, shardId, (id, l) -> new DummyShardLock(id), logger);
+        final List<BlobStoreIndexShardSnapshot.FileInfo> files = new ArrayList<>();
+        for (StoreFileMetaData md : metadata) {
+            files.add(new BlobStoreIndexShardSnapshot.FileInfo("__" + md.name(), md, null));
+        }
+        assertEquals(historyUUID, SnapshotFilesProvider.readHistoryUUID(new SnapshotFiles("snapshot", files)));
+
+        // the commit cannot be read without the segment info files
+        files.removeIf(fileInfo -> fileInfo.physicalName().endsWith(".si"));
+        assertNull(SnapshotFilesProvider.readHistoryUUID(new SnapshotFiles("snapshot", files)));
+    }
+}
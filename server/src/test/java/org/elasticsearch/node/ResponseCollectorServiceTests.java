@@ -36,9 +36,13 @@ import org.junit.Before;
 
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 
 public class ResponseCollectorServiceTests extends ESTestCase {
 
@@ -119,6 +123,86 @@ public class ResponseCollectorServiceTests extends ESTestCase {
         }
     }
 
+    public void testRejectionsAndMemoryPressureIncreaseRank() {
+        final AtomicLong nanos = new AtomicLong();
+        final ResponseCollectorService collector = new ResponseCollectorService(clusterService, nanos::get);
+        final long gcSampleInterval = ResponseCollectorService.MIN_GC_SAMPLE_INTERVAL_NANOS;
+        for (int i = 0; i < 10; i++) {
+            nanos.addAndGet(gcSampleInterval);
+            final long gcTimeMillis = i * TimeUnit.NANOSECONDS.toMillis(gcSampleInterval) / 2;
+            collector.addNodeResponse("healthy", 5, 100_000, 10_000, 3, 0, 30);
+            collector.addNodeResponse("rejecting", 5, 100_000, 10_000, 3 + 2 * i, 0, 30);
+            collector.addNodeResponse("collecting", 5, 100_000, 10_000, 3, gcTimeMillis, 30);
+            collector.addNodeResponse("full", 5, 100_000, 10_000, 3, 0, 98);
+        }
+        final Map<String, ResponseCollectorService.ComputedNodeStats> stats = collector.getAllNodeStatistics();
+        final double healthyRank = stats.get("healthy").rank(1);
+        assertThat(stats.get("healthy").rejections, equalTo(0.0));
+        assertThat(stats.get("healthy").memoryPressure(), equalTo(0.0));
+
+        assertThat(stats.get("rejecting").rejections, greaterThan(1.0));
+        assertThat(stats.get("rejecting").rank(1), greaterThan(healthyRank));
+
+        assertThat(stats.get("collecting").gcOverhead, greaterThan(0.4));
+        assertThat(stats.get("collecting").rank(1), greaterThan(healthyRank));
+
+        assertThat(stats.get("full").heapUsedPercent, equalTo(98));
+        assertThat(stats.get("full").memoryPressure(), greaterThan(0.8));
+        assertThat(stats.get("full").rank(1), greaterThan(healthyRank));
+    }
+
+    public void testRejectionsAreCountedFromNodeReportedTotal() {
+        collector.addNodeResponse("node1", 5, 100_000, 10_000, 3, -1, -1);
+        // the first response only establishes the baseline of the node's cumulative count
+        assertThat(collector.getNodeStatistics("node1").get().rejections, equalTo(0.0));
+        final double rank = collector.getNodeStatistics("node1").get().rank(1);
+
+        collector.addNodeResponse("node1", 5, 100_000, 10_000, 5, -1, -1);
+        final double rejections = collector.getNodeStatistics("node1").get().rejections;
+        assertThat(rejections, greaterThan(0.0));
+        assertThat(collector.getNodeStatistics("node1").get().rank(1), greaterThan(rank));
+
+        // an unchanged total adds no rejections
+        collector.addNodeResponse("node1", 5, 100_000, 10_000, 5, -1, -1);
+        assertThat(collector.getNodeStatistics("node1").get().rejections, lessThan(rejections));
+    }
+
+    public void testStatsDecay() {
+        final AtomicLong nanos = new AtomicLong();
+        final ResponseCollectorService collector = new ResponseCollectorService(clusterService, nanos::get);
+        collector.addNodeResponse("node1", 100, 1_000_000, 10_000, -1, -1, -1);
+        nanos.addAndGet(1);
+        collector.addNodeResponse("node1", 100, 1_000_000, 10_000, -1, -1, -1);
+
+        // a response after a long silence replaces most of the previous statistics
+        nanos.addAndGet(10 * ResponseCollectorService.STATS_HALF_LIFE_NANOS);
+        assertTrue(collector.getNodeStatistics("node1").isPresent());
+        collector.addNodeResponse("node1", 0, 1_000, 10_000, -1, -1, -1);
+        ResponseCollectorService.ComputedNodeStats stats = collector.getNodeStatistics("node1").get();
+        assertThat(stats.queueSize, equalTo(0));
+        assertThat(stats.responseTime, lessThan(2_000.0));
+        assertThat(stats.statsAgeNanos, equalTo(0L));
+        assertFalse(stats.isStale());
+
+        // synthetic statistics don't count as responses
+        nanos.addAndGet(ResponseCollectorService.STALE_STATS_NANOS);
+        collector.addNodeStatistics("node1", 0, 1_000, 10_000);
+        stats = collector.getNodeStatistics("node1").get();
+        assertTrue(stats.isStale());
+        assertThat(stats.statsAgeNanos, equalTo(ResponseCollectorService.STALE_STATS_NANOS));
+
+        // stale statistics are still used for ranking, with a penalty
+        final ResponseCollectorService.ComputedNodeStats unpenalized = new ResponseCollectorService.ComputedNodeStats("node1", 1,
+            stats.queueSize, stats.responseTime, stats.serviceTime);
+        assertThat(stats.rank(1), equalTo(unpenalized.rank(1) * ResponseCollectorService.STALE_RANK_PENALTY));
+    }
+
+    public void testDecayedAlpha() {
+        assertThat(ResponseCollectorService.decayedAlpha(0), closeTo(0.3, 0.0001));
+        assertThat(ResponseCollectorService.decayedAlpha(ResponseCollectorService.STATS_HALF_LIFE_NANOS), closeTo(0.65, 0.0001));
+        assertThat(ResponseCollectorService.decayedAlpha(Long.MAX_VALUE), closeTo(1.0, 0.0001));
+    }
+
     public void testNodeRemoval() throws Exception {
         collector.addNodeStatistics("node1", randomIntBetween(1,100), randomIntBetween(1,100), randomIntBetween(1,100));
         collector.addNodeStatistics("node2", randomIntBetween(1,100), randomIntBetween(1,100), randomIntBetween(1,100));
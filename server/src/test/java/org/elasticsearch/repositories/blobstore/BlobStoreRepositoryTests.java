@@ -41,6 +41,7 @@ import org.elasticsearch.test.ESIntegTestCase;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -49,9 +50,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.elasticsearch.repositories.RepositoryDataTests.generateRandomRepoData;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.nullValue;
 
 /**
@@ -247,6 +253,64 @@ public class BlobStoreRepositoryTests extends ESSingleNodeTestCase {
                 .get());
     }
 
+    public void testDeduplicateFiles() throws Exception {
+        final Client client = client();
+        final Path location = ESIntegTestCase.randomRepoPath(node().settings());
+        final String repositoryName = "test-repo";
+
+        logger.info("-->  creating repository");
+        Settings.Builder repoSettings = Settings.builder().put(node().settings())
+            .put("location", location)
+            .put(BlobStoreRepository.DEDUPLICATE_FILES_SETTING.getKey(), true);
+        if (randomBoolean()) {
+            repoSettings.put("chunk_size", randomIntBetween(100, 1000), ByteSizeUnit.BYTES);
+        }
+        assertAcked(client.admin().cluster().preparePutRepository(repositoryName).setType(REPO_TYPE).setSettings(repoSettings));
+
+        logger.info("--> creating an index and indexing documents");
+        final String indexName = "test-idx";
+        createIndex(indexName, Settings.builder().put("index.number_of_shards", 1).build());
+        ensureGreen();
+        final int numDocs = randomIntBetween(10, 20);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex(indexName, "type1", Integer.toString(i)).setSource("text", "sometext").get();
+        }
+        client().admin().indices().prepareFlush(indexName).get();
+
+        logger.info("--> snapshot the index, restore it under another name and snapshot the copy");
+        assertThat(client.admin().cluster().prepareCreateSnapshot(repositoryName, "test-snap-1").setWaitForCompletion(true)
+            .setIndices(indexName).get().getSnapshotInfo().state(), equalTo(SnapshotState.SUCCESS));
+        final Path files = location.resolve("files");
+        final long blobsAfterFirstSnapshot = countBlobs(files);
+        assertThat(blobsAfterFirstSnapshot, greaterThan(0L));
+
+        final String copyName = "copy-idx";
+        client.admin().cluster().prepareRestoreSnapshot(repositoryName, "test-snap-1").setIndices(indexName)
+            .setRenamePattern(indexName).setRenameReplacement(copyName).setWaitForCompletion(true).get();
+        ensureGreen(copyName);
+        assertThat(client.admin().cluster().prepareCreateSnapshot(repositoryName, "test-snap-2").setWaitForCompletion(true)
+            .setIndices(copyName).get().getSnapshotInfo().state(), equalTo(SnapshotState.SUCCESS));
+        // the segment files of the copy are identical to the original ones, only its commit point may differ
+        assertThat(countBlobs(files), lessThan(2 * blobsAfterFirstSnapshot));
+
+        logger.info("--> delete the first snapshot and make sure the second one can still be restored");
+        assertAcked(client.admin().cluster().prepareDeleteSnapshot(repositoryName, "test-snap-1"));
+        assertAcked(client.admin().indices().prepareDelete(copyName));
+        client.admin().cluster().prepareRestoreSnapshot(repositoryName, "test-snap-2").setWaitForCompletion(true).get();
+        ensureGreen(copyName);
+        assertHitCount(client.prepareSearch(copyName).setSize(0).get(), numDocs);
+
+        logger.info("--> delete the second snapshot and make sure no file is left behind");
+        assertAcked(client.admin().cluster().prepareDeleteSnapshot(repositoryName, "test-snap-2"));
+        assertThat(countBlobs(files), equalTo(0L));
+    }
+
+    private static long countBlobs(Path path) throws IOException {
+        try (Stream<Path> blobs = Files.list(path)) {
+            return blobs.count();
+        }
+    }
+
     private BlobStoreRepository setupRepo() {
         final Client client = client();
         final Path location = ESIntegTestCase.randomRepoPath(node().settings());
@@ -0,0 +1,125 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ParallelTransfersTests extends ESTestCase {
+
+    public void testRunsAllTransfers() throws Exception {
+        final ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            final int maxParallelTransfers = randomIntBetween(0, 4);
+            final ParallelTransfers transfers = new ParallelTransfers(maxParallelTransfers);
+            final List<Integer> items = new ArrayList<>();
+            for (int i = randomIntBetween(0, 100); i > 0; i--) {
+                items.add(i);
+            }
+            final Set<Integer> transferred = ConcurrentHashMap.newKeySet();
+            final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            transfers.run(items, threadPool.executor(ThreadPool.Names.SNAPSHOT), item -> {
+                threads.add(Thread.currentThread());
+                assertTrue(transferred.add(item));
+            });
+            assertThat(transferred, equalTo(new HashSet<>(items)));
+            assertThat(threads.size(), lessThanOrEqualTo(maxParallelTransfers + 1));
+            assertBusy(() -> assertThat(transfers.availableHelpers(), equalTo(maxParallelTransfers)));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    public void testTransfersInParallel() throws Exception {
+        final ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            final ParallelTransfers transfers = new ParallelTransfers(2);
+            // each transfer only completes once all three are running at the same time
+            final CountDownLatch running = new CountDownLatch(3);
+            transfers.run(Arrays.asList(1, 2, 3), threadPool.generic(), item -> {
+                running.countDown();
+                try {
+                    assertTrue(running.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            assertBusy(() -> assertThat(transfers.availableHelpers(), equalTo(2)));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    public void testRunsOnCallingThreadWhenRejected() throws IOException {
+        final int maxParallelTransfers = randomIntBetween(1, 4);
+        final ParallelTransfers transfers = new ParallelTransfers(maxParallelTransfers);
+        final AtomicInteger count = new AtomicInteger();
+        final Thread caller = Thread.currentThread();
+        transfers.run(Arrays.asList(1, 2, 3, 4, 5), command -> {
+            throw new EsRejectedExecutionException("rejected");
+        }, item -> {
+            assertThat(Thread.currentThread(), sameInstance(caller));
+            count.incrementAndGet();
+        });
+        assertThat(count.get(), equalTo(5));
+        assertThat(transfers.availableHelpers(), equalTo(maxParallelTransfers));
+    }
+
+    public void testStopsAfterFailure() {
+        final ParallelTransfers transfers = new ParallelTransfers(0);
+        final List<Integer> transferred = Collections.synchronizedList(new ArrayList<>());
+        final IOException failure = new IOException("simulated");
+        final IOException e = expectThrows(IOException.class, () -> transfers.run(Arrays.asList(1, 2, 3), Runnable::run, item -> {
+            transferred.add(item);
+            if (item == 2) {
+                throw failure;
+            }
+        }));
+        assertThat(e, sameInstance(failure));
+        assertThat(transferred, equalTo(Arrays.asList(1, 2)));
+    }
+
+    public void testPropagatesRuntimeExceptions() {
+        final ParallelTransfers transfers = new ParallelTransfers(0);
+        final IllegalStateException e = expectThrows(IllegalStateException.class,
+            () -> transfers.run(Arrays.asList(1), Runnable::run, item -> {
+                throw new IllegalStateException("simulated");
+            }));
+        assertThat(e.getMessage(), equalTo("simulated"));
+    }
+}
@@ -82,6 +82,15 @@ public class DeprecationRestHandlerTests extends ESTestCase {
         inOrder.verifyNoMoreInteractions();
     }
 
+    public void testAllowsUnsafeBuffersIsDelegated() {
+        final boolean allowsUnsafeBuffers = randomBoolean();
+        when(handler.allowsUnsafeBuffers()).thenReturn(allowsUnsafeBuffers);
+
+        DeprecationRestHandler deprecatedHandler = new DeprecationRestHandler(handler, deprecationMessage, deprecationLogger);
+
+        assertEquals(allowsUnsafeBuffers, deprecatedHandler.allowsUnsafeBuffers());
+    }
+
     public void testValidHeaderValue() {
         ASCIIHeaderGenerator generator = new ASCIIHeaderGenerator();
         String value = generator.ofCodeUnitsLength(random(), 1, 50);
@@ -0,0 +1,217 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.search.aggregations.metrics.AvgAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.MinAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.StatsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.SumAggregationBuilder;
+import org.elasticsearch.search.aggregations.support.ValuesSourceAggregationBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchingBucketCollectorTests extends AggregatorTestCase {
+
+    private static final String FIELD_NAME = "number";
+
+    /**
+     * Records the documents that it collects and the sizes of the batches.
+     */
+    private static class RecordingBucketCollector extends BucketCollector {
+        final List<String> collected = new ArrayList<>();
+        final List<Integer> batchSizes = new ArrayList<>();
+        final ScoreMode scoreMode;
+        int terminateAfter = Integer.MAX_VALUE;
+
+        RecordingBucketCollector(ScoreMode scoreMode) {
+            this.scoreMode = scoreMode;
+        }
+
+        @Override
+        public LeafBucketCollector getLeafCollector(LeafReaderContext ctx) {
+            return new LeafBucketCollector() {
+                @Override
+                public void collect(int doc, long bucket) {
+                    if (collected.size() >= terminateAfter) {
+                        throw new CollectionTerminatedException();
+                    }
+                    collected.add(ctx.docBase + doc + "/" + bucket);
+                }
+
+                @Override
+                public void collect(int[] docs, long[] buckets, int count) throws IOException {
+                    batchSizes.add(count);
+                    super.collect(docs, buckets, count);
+                }
+            };
+        }
+
+        @Override
+        public void preCollection() {
+        }
+
+        @Override
+        public void postCollection() {
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return scoreMode;
+        }
+    }
+
+    public void testWrap() {
+        BucketCollector scores = new RecordingBucketCollector(ScoreMode.COMPLETE);
+        assertSame(scores, BatchingBucketCollector.wrap(scores));
+        BucketCollector noScores = new RecordingBucketCollector(ScoreMode.COMPLETE_NO_SCORES);
+        assertTrue(BatchingBucketCollector.wrap(noScores) instanceof BatchingBucketCollector);
+    }
+
+    public void testBatches() throws IOException {
+        try (Directory directory = newDirectory()) {
+            final int numDocs = randomIntBetween(1, 500);
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                for (int i = 0; i < numDocs; i++) {
+                    indexWriter.addDocument(new Document());
+                    if (rarely()) {
+                        indexWriter.commit();
+                    }
+                }
+            }
+            try (IndexReader reader = DirectoryReader.open(directory)) {
+                IndexSearcher searcher = newSearcher(reader, false, true);
+                RecordingBucketCollector expected = new RecordingBucketCollector(ScoreMode.COMPLETE_NO_SCORES);
+                searcher.search(new MatchAllDocsQuery(), expected);
+
+                final int batchSize = randomIntBetween(1, 100);
+                RecordingBucketCollector recording = new RecordingBucketCollector(ScoreMode.COMPLETE_NO_SCORES);
+                BatchingBucketCollector batching = new BatchingBucketCollector(recording, batchSize);
+                batching.preCollection();
+                searcher.search(new MatchAllDocsQuery(), batching);
+                batching.flush();
+                assertEquals(expected.collected, recording.collected);
+                int total = 0;
+                for (int size : recording.batchSizes) {
+                    assertTrue(size > 0 && size <= batchSize);
+                    total += size;
+                }
+                assertEquals(numDocs, total);
+
+                // terminated collectors don't get more documents of the segment
+                RecordingBucketCollector terminated = new RecordingBucketCollector(ScoreMode.COMPLETE_NO_SCORES);
+                terminated.terminateAfter = randomIntBetween(0, numDocs);
+                batching = new BatchingBucketCollector(terminated, batchSize);
+                searcher.search(new MatchAllDocsQuery(), batching);
+                batching.flush();
+                assertTrue(terminated.collected.size() <= numDocs);
+                assertEquals(expected.collected.subList(0, terminated.terminateAfter),
+                    terminated.collected.subList(0, terminated.terminateAfter));
+            }
+        }
+    }
+
+    public void testMetricsBatchCollection() throws IOException {
+        try (Directory directory = newDirectory()) {
+            final int numDocs = randomIntBetween(1, 2000);
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                for (int i = 0; i < numDocs; i++) {
+                    Document document = new Document();
+                    final int numValues = randomIntBetween(0, 3);
+                    for (int j = 0; j < numValues; j++) {
+                        document.add(new SortedNumericDocValuesField(FIELD_NAME, randomLongBetween(-1000, 1000)));
+                    }
+                    indexWriter.addDocument(document);
+                    if (rarely()) {
+                        indexWriter.commit();
+                    }
+                }
+            }
+            try (IndexReader reader = DirectoryReader.open(directory)) {
+                IndexSearcher searcher = newSearcher(reader, false, true);
+                MappedFieldType fieldType = new NumberFieldMapper.NumberFieldType(NumberFieldMapper.NumberType.LONG);
+                fieldType.setName(FIELD_NAME);
+                fieldType.setHasDocValues(true);
+
+                List<ValuesSourceAggregationBuilder<?, ?>> builders = new ArrayList<>();
+                builders.add(new SumAggregationBuilder("sum").field(FIELD_NAME));
+                builders.add(new AvgAggregationBuilder("avg").field(FIELD_NAME));
+                builders.add(new StatsAggregationBuilder("stats").field(FIELD_NAME));
+                builders.add(new MinAggregationBuilder("min").field(FIELD_NAME));
+                for (ValuesSourceAggregationBuilder<?, ?> builder : builders) {
+                    final int numBuckets = randomIntBetween(1, 5);
+                    Aggregator perDoc = createAggregator(builder, searcher, fieldType);
+                    Aggregator batched = createAggregator(builder, searcher, fieldType);
+                    perDoc.preCollection();
+                    batched.preCollection();
+                    for (LeafReaderContext ctx : reader.leaves()) {
+                        final int maxDoc = ctx.reader().maxDoc();
+                        final int[] docs = new int[maxDoc];
+                        final long[] buckets = new long[maxDoc];
+                        int count = 0;
+                        long bucket = 0;
+                        for (int doc = 0; doc < maxDoc; doc++) {
+                            if (randomBoolean()) {
+                                if (randomBoolean()) {
+                                    bucket = randomIntBetween(0, numBuckets - 1);
+                                }
+                                docs[count] = doc;
+                                buckets[count++] = bucket;
+                            }
+                        }
+                        LeafBucketCollector perDocCollector = perDoc.getLeafCollector(ctx);
+                        for (int i = 0; i < count; i++) {
+                            perDocCollector.collect(docs[i], buckets[i]);
+                        }
+                        LeafBucketCollector batchedCollector = batched.getLeafCollector(ctx);
+                        for (int from = 0; from < count; ) {
+                            final int batchSize = Math.min(count - from, randomIntBetween(1, 100));
+                            final int[] batchDocs = new int[batchSize];
+                            final long[] batchBuckets = new long[batchSize + randomIntBetween(0, 3)];
+                            System.arraycopy(docs, from, batchDocs, 0, batchSize);
+                            System.arraycopy(buckets, from, batchBuckets, 0, batchSize);
+                            batchedCollector.collect(batchDocs, batchBuckets, batchSize);
+                            from += batchSize;
+                        }
+                    }
+                    perDoc.postCollection();
+                    batched.postCollection();
+                    for (long b = 0; b < numBuckets; b++) {
+                        assertEquals(perDoc.buildAggregation(b), batched.buildAggregation(b));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -20,17 +20,29 @@
 package org.elasticsearch.search.aggregations.bucket.histogram;
 
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
 import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.Rounding;
 import org.elasticsearch.common.time.DateFormatters;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.mapper.DateFieldMapper;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.AggregatorTestCase;
@@ -38,9 +50,12 @@ import org.elasticsearch.search.aggregations.MultiBucketConsumerService.TooManyB
 import org.elasticsearch.search.aggregations.support.AggregationInspectionHelper;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 
 public class DateHistogramAggregatorTests extends AggregatorTestCase {
@@ -389,6 +404,123 @@ public class DateHistogramAggregatorTests extends AggregatorTestCase {
             histogram -> {}, 5));
     }
 
+    public void testSortedIndex() throws IOException {
+        final boolean reverse = randomBoolean();
+        final Sort indexSort = new Sort(new SortedNumericSortField(DATE_FIELD, SortField.Type.LONG, reverse));
+        final long start = asLong("2019-01-01T00:00:00");
+        final long end = start + TimeValue.timeValueHours(24 * randomIntBetween(1, 5)).millis();
+        final long offset = randomBoolean() ? 0 : TimeValue.timeValueHours(randomIntBetween(1, 23)).millis();
+        final boolean hourly = randomBoolean();
+        final Rounding rounding = Rounding.builder(hourly ? Rounding.DateTimeUnit.HOUR_OF_DAY : Rounding.DateTimeUnit.DAY_OF_MONTH)
+            .build();
+        final boolean withSubAggregation = randomBoolean();
+
+        final Query query;
+        final long from = randomLongBetween(start, end);
+        final long to = randomLongBetween(from, end);
+        switch (randomIntBetween(0, 3)) {
+            case 0:
+                query = new MatchAllDocsQuery();
+                break;
+            case 1:
+                query = LongPoint.newRangeQuery(DATE_FIELD, from, to);
+                break;
+            case 2:
+                query = new BooleanQuery.Builder()
+                    .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                    .add(LongPoint.newRangeQuery(DATE_FIELD, from, to), BooleanClause.Occur.FILTER)
+                    .build();
+                break;
+            default:
+                // not a range on the date field, documents have to be collected
+                query = LongPoint.newRangeQuery(INSTANT_FIELD, from, to);
+                break;
+        }
+
+        final int numDocs = randomIntBetween(1, 5000);
+        final Map<Long, Long> expected = new TreeMap<>();
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter indexWriter = new IndexWriter(directory, newIndexWriterConfig().setIndexSort(indexSort))) {
+                final int commitEvery = randomIntBetween(100, 10000);
+                final List<Long> values = new ArrayList<>();
+                for (int i = 0; i < numDocs; i++) {
+                    final long value = randomLongBetween(start, end);
+                    values.add(value);
+                    Document document = new Document();
+                    document.add(new StringField("id", Integer.toString(i), Field.Store.NO));
+                    document.add(new SortedNumericDocValuesField(DATE_FIELD, value));
+                    document.add(new LongPoint(DATE_FIELD, value));
+                    document.add(new LongPoint(INSTANT_FIELD, value));
+                    indexWriter.addDocument(document);
+                    if (i % commitEvery == 0) {
+                        indexWriter.commit();
+                    }
+                }
+                final boolean deletes = rarely();
+                for (int i = 0; i < numDocs; i++) {
+                    if (deletes && randomBoolean()) {
+                        indexWriter.deleteDocuments(new Term("id", Integer.toString(i)));
+                        continue;
+                    }
+                    final long value = values.get(i);
+                    if (query instanceof MatchAllDocsQuery || (value >= from && value <= to)) {
+                        expected.merge(rounding.round(value - offset) + offset, 1L, Long::sum);
+                    }
+                }
+                if (deletes == false && randomBoolean()) {
+                    indexWriter.forceMerge(1);
+                }
+            }
+
+            try (IndexReader indexReader = DirectoryReader.open(directory)) {
+                IndexSearcher indexSearcher = newSearcher(indexReader, false, true);
+
+                DateHistogramAggregationBuilder aggregationBuilder = new DateHistogramAggregationBuilder("_name")
+                    .field(DATE_FIELD)
+                    .dateHistogramInterval(hourly ? DateHistogramInterval.HOUR : DateHistogramInterval.DAY)
+                    .offset(offset);
+                if (withSubAggregation) {
+                    aggregationBuilder.subAggregation(AggregationBuilders.max("max").field(DATE_FIELD));
+                }
+
+                DateFieldMapper.Builder builder = new DateFieldMapper.Builder("_name");
+                DateFieldMapper.DateFieldType fieldType = builder.fieldType();
+                fieldType.setHasDocValues(true);
+                fieldType.setName(DATE_FIELD);
+
+                InternalDateHistogram histogram = search(indexSearcher, query, aggregationBuilder, fieldType);
+                final Map<Long, Long> actual = new TreeMap<>();
+                for (InternalDateHistogram.Bucket bucket : histogram.getBuckets()) {
+                    actual.put(bucket.key, bucket.getDocCount());
+                }
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    public void testQueryRange() {
+        assertArrayEquals(new long[] { Long.MIN_VALUE, Long.MAX_VALUE }, DateHistogramAggregator.queryRange(null, DATE_FIELD));
+        assertArrayEquals(new long[] { Long.MIN_VALUE, Long.MAX_VALUE },
+            DateHistogramAggregator.queryRange(new MatchAllDocsQuery(), DATE_FIELD));
+        assertArrayEquals(new long[] { 3, 7 },
+            DateHistogramAggregator.queryRange(new ConstantScoreQuery(LongPoint.newRangeQuery(DATE_FIELD, 3, 7)), DATE_FIELD));
+        assertArrayEquals(new long[] { 5, 7 }, DateHistogramAggregator.queryRange(new BooleanQuery.Builder()
+            .add(LongPoint.newRangeQuery(DATE_FIELD, 3, 7), BooleanClause.Occur.MUST)
+            .add(LongPoint.newRangeQuery(DATE_FIELD, 5, 9), BooleanClause.Occur.FILTER)
+            .build(), DATE_FIELD));
+
+        assertNull(DateHistogramAggregator.queryRange(LongPoint.newRangeQuery(INSTANT_FIELD, 3, 7), DATE_FIELD));
+        assertNull(DateHistogramAggregator.queryRange(new MatchNoDocsQuery(), DATE_FIELD));
+        assertNull(DateHistogramAggregator.queryRange(new BooleanQuery.Builder().build(), DATE_FIELD));
+        assertNull(DateHistogramAggregator.queryRange(new BooleanQuery.Builder()
+            .add(LongPoint.newRangeQuery(DATE_FIELD, 3, 7), BooleanClause.Occur.SHOULD)
+            .build(), DATE_FIELD));
+        assertNull(DateHistogramAggregator.queryRange(new BooleanQuery.Builder()
+            .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+            .add(LongPoint.newRangeQuery(DATE_FIELD, 3, 7), BooleanClause.Occur.MUST_NOT)
+            .build(), DATE_FIELD));
+    }
+
     private void testSearchCase(Query query, List<String> dataset,
                                 Consumer<DateHistogramAggregationBuilder> configure,
                                 Consumer<InternalDateHistogram> verify) throws IOException {
@@ -0,0 +1,219 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.IncrementalAggregationsReducer;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.metrics.InternalMax;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class IncrementalTermsReducerTests extends ESTestCase {
+
+    private final BigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+
+    public void testLongTerms() {
+        assertSameAsReduce(random -> {
+            final List<LongTerms.Bucket> buckets = new ArrayList<>();
+            for (long term : randomTerms(random)) {
+                buckets.add(new LongTerms.Bucket(term, randomDocCount(random), randomSubAggregations(random), true, 0,
+                    DocValueFormat.RAW));
+            }
+            return new LongTerms("terms", BucketOrder.count(false), 10, 1, Collections.emptyList(), null, DocValueFormat.RAW,
+                SHARD_SIZE, true, random.nextInt(100), sortByCount(buckets), 0);
+        });
+    }
+
+    public void testDoubleTerms() {
+        assertSameAsReduce(random -> {
+            final List<DoubleTerms.Bucket> buckets = new ArrayList<>();
+            for (long term : randomTerms(random)) {
+                buckets.add(new DoubleTerms.Bucket(term / 2d, randomDocCount(random), randomSubAggregations(random), false, 0,
+                    DocValueFormat.RAW));
+            }
+            return new DoubleTerms("terms", BucketOrder.count(false), 10, 1, Collections.emptyList(), null, DocValueFormat.RAW,
+                SHARD_SIZE, false, random.nextInt(100), sortByCount(buckets), 0);
+        });
+    }
+
+    public void testStringTerms() {
+        assertSameAsReduce(random -> {
+            if (random.nextInt(10) == 0) {
+                return new UnmappedTerms("terms", BucketOrder.count(false), 10, 1, Collections.emptyList(), null);
+            }
+            final List<StringTerms.Bucket> buckets = new ArrayList<>();
+            for (long term : randomTerms(random)) {
+                buckets.add(new StringTerms.Bucket(new BytesRef(Long.toString(term)), randomDocCount(random),
+                    randomSubAggregations(random), true, 0, DocValueFormat.RAW));
+            }
+            return new StringTerms("terms", BucketOrder.count(false), 10, 1, Collections.emptyList(), null, DocValueFormat.RAW,
+                SHARD_SIZE, true, random.nextInt(100), sortByCount(buckets), 0);
+        });
+    }
+
+    public void testFallbackOnMixedTypes() {
+        final ReduceContext reduceContext = new ReduceContext(bigArrays, null, false);
+        final List<InternalAggregation> results = new ArrayList<>();
+        results.add(new LongTerms("terms", BucketOrder.count(false), 10, 1, Collections.emptyList(), null, DocValueFormat.RAW,
+            SHARD_SIZE, false, 0, Collections.singletonList(new LongTerms.Bucket(1, 2, InternalAggregations.EMPTY, false, 0,
+            DocValueFormat.RAW)), 0));
+        results.add(new DoubleTerms("terms", BucketOrder.count(false), 10, 1, Collections.emptyList(), null, DocValueFormat.RAW,
+            SHARD_SIZE, false, 0, Collections.singletonList(new DoubleTerms.Bucket(1.5, 3, InternalAggregations.EMPTY, false, 0,
+            DocValueFormat.RAW)), 0));
+        try (IncrementalAggregationsReducer reducer = new IncrementalAggregationsReducer(reduceContext)) {
+            for (InternalAggregation result : results) {
+                reducer.merge(new InternalAggregations(Collections.singletonList(result)));
+            }
+            assertThat(reducer.partialResult().get("terms"), instanceOf(DoubleTerms.class));
+            final DoubleTerms terms = reducer.partialResult().get("terms");
+            assertEquals(2, terms.getBuckets().size());
+            assertEquals(3, terms.getBuckets().get(0).getDocCount());
+            assertEquals(1.5, terms.getBuckets().get(0).getKeyAsNumber().doubleValue(), 0d);
+            assertEquals(2, terms.getBuckets().get(1).getDocCount());
+            assertEquals(1d, terms.getBuckets().get(1).getKeyAsNumber().doubleValue(), 0d);
+        }
+    }
+
+    public void testCircuitBreaker() {
+        final HierarchyCircuitBreakerService breakerService = new HierarchyCircuitBreakerService(
+            Settings.builder()
+                .put(REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING.getKey(), 1 << 16, ByteSizeUnit.BYTES)
+                .put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false)
+                .build(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        final CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.REQUEST);
+        final ReduceContext reduceContext = new ReduceContext(new BigArrays(null, breakerService, CircuitBreaker.REQUEST), null, false);
+        try (IncrementalAggregationsReducer reducer = new IncrementalAggregationsReducer(reduceContext)) {
+            expectThrows(CircuitBreakingException.class, () -> {
+                long next = 0;
+                while (true) {
+                    final List<LongTerms.Bucket> buckets = new ArrayList<>();
+                    for (int i = 0; i < 1000; i++) {
+                        buckets.add(new LongTerms.Bucket(next++, 1, InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW));
+                    }
+                    reducer.merge(new InternalAggregations(Collections.singletonList(new LongTerms("terms", BucketOrder.count(false),
+                        10, 1, Collections.emptyList(), null, DocValueFormat.RAW, 1000, false, 0, buckets, 0))));
+                }
+            });
+            assertTrue(breaker.getUsed() > 0);
+        }
+        assertEquals(0, breaker.getUsed());
+    }
+
+    private static final int SHARD_SIZE = 20;
+
+    private void assertSameAsReduce(Function<Random, InternalTerms<?, ?>> shardResultSupplier) {
+        final long seed = randomLong();
+        final int numShards = randomIntBetween(1, 50);
+        // reducing modifies the doc count errors of the buckets so both reductions need their own results
+        final List<InternalAggregations> expectedInput = shardResults(seed, numShards, shardResultSupplier);
+        final List<InternalAggregations> actualInput = shardResults(seed, numShards, shardResultSupplier);
+
+        final InternalAggregations expected = InternalAggregations.reduce(expectedInput, new ReduceContext(bigArrays, null, false));
+        try (IncrementalAggregationsReducer reducer = new IncrementalAggregationsReducer(new ReduceContext(bigArrays, null, false))) {
+            for (InternalAggregations aggregations : actualInput) {
+                reducer.merge(aggregations);
+            }
+            assertEquals(numShards, reducer.getNumMerged());
+            final InternalAggregations actual = reducer.partialResult();
+            assertEquals(1, actual.asList().size());
+            assertSameTerms((InternalTerms<?, ?>) expected.get("terms"), (InternalTerms<?, ?>) actual.get("terms"));
+        }
+    }
+
+    private static List<InternalAggregations> shardResults(long seed, int numShards,
+                                                           Function<Random, InternalTerms<?, ?>> shardResultSupplier) {
+        final Random random = new Random(seed);
+        final List<InternalAggregations> results = new ArrayList<>(numShards);
+        for (int i = 0; i < numShards; i++) {
+            results.add(new InternalAggregations(Collections.singletonList(shardResultSupplier.apply(random))));
+        }
+        return results;
+    }
+
+    private static void assertSameTerms(InternalTerms<?, ?> expected, InternalTerms<?, ?> actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        if (expected instanceof UnmappedTerms) {
+            return;
+        }
+        assertEquals(expected.getDocCountError(), actual.getDocCountError());
+        assertEquals(expected.getSumOfOtherDocCounts(), actual.getSumOfOtherDocCounts());
+        assertEquals(expected.getBuckets().size(), actual.getBuckets().size());
+        final Map<Object, InternalTerms.Bucket<?>> expectedBuckets = new HashMap<>();
+        for (InternalTerms.Bucket<?> bucket : expected.getBuckets()) {
+            expectedBuckets.put(bucket.getKey(), bucket);
+        }
+        long previousDocCount = Long.MAX_VALUE;
+        for (InternalTerms.Bucket<?> bucket : actual.getBuckets()) {
+            assertTrue("buckets must be sorted by count", bucket.getDocCount() <= previousDocCount);
+            previousDocCount = bucket.getDocCount();
+            final InternalTerms.Bucket<?> expectedBucket = expectedBuckets.get(bucket.getKey());
+            assertNotNull("missing bucket " + bucket.getKey(), expectedBucket);
+            assertEquals(expectedBucket.getDocCount(), bucket.getDocCount());
+            assertEquals(expectedBucket.docCountError, bucket.docCountError);
+            assertEquals(expectedBucket.getAggregations(), bucket.getAggregations());
+        }
+    }
+
+    private static long[] randomTerms(Random random) {
+        final int numTerms = random.nextInt(SHARD_SIZE + 1);
+        return random.longs(0, 3 * SHARD_SIZE).distinct().limit(numTerms).toArray();
+    }
+
+    private static long randomDocCount(Random random) {
+        return 1 + random.nextInt(100);
+    }
+
+    private static InternalAggregations randomSubAggregations(Random random) {
+        // every bucket has the same sub-aggregations, like it is the case for real results
+        return new InternalAggregations(Collections.singletonList(
+            new InternalMax("max", random.nextInt(1000), DocValueFormat.RAW, Collections.emptyList(), null)));
+    }
+
+    private static <B extends InternalTerms.Bucket<B>> List<B> sortByCount(List<B> buckets) {
+        buckets.sort(BucketOrder.count(false).comparator(null));
+        return buckets;
+    }
+}
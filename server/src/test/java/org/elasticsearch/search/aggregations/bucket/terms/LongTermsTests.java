@@ -20,13 +20,17 @@
 package org.elasticsearch.search.aggregations.bucket.terms;
 
 import org.elasticsearch.common.io.stream.Writeable.Reader;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
 import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.aggregations.ParsedMultiBucketAggregation;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -157,4 +161,63 @@ public class LongTermsTests extends InternalTermsTestCase {
             return new UnmappedTerms(name, order, requiredSize, minDocCount, pipelineAggregators, metaData);
         }
     }
+
+    public void testFinalReduceOfSinglePartialResultKeepsDocCountError() {
+        final long[][] keys = {{1, 2}, {1, 3}};
+        final long[][] docCounts = {{10, 5}, {8, 4}};
+        final ReduceContext partialReduce = new ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, false);
+        final ReduceContext finalReduce = new ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, true);
+
+        // a batched reduce whose last batch only holds the partially reduced result of the earlier batch
+        final List<InternalAggregation> shardResults = shardResults(keys, docCounts);
+        final InternalAggregation partial = shardResults.get(0).reduce(shardResults, partialReduce);
+        // both shards returned shard_size buckets, so each of them may have missed a term with as many docs as its last bucket
+        assertEquals(5 + 4, ((LongTerms) partial).getDocCountError());
+        final LongTerms reduced = (LongTerms) partial.reduce(Collections.singletonList(partial), finalReduce);
+        assertEquals(5 + 4, reduced.getDocCountError());
+
+        // the same as reducing the shard results at once
+        final List<InternalAggregation> sameShardResults = shardResults(keys, docCounts);
+        final LongTerms expected = (LongTerms) sameShardResults.get(0).reduce(sameShardResults, finalReduce);
+        assertEquals(expected.getDocCountError(), reduced.getDocCountError());
+
+        // a single shard result is exact
+        final List<InternalAggregation> singleShardResult = shardResults(new long[][] {keys[0]}, new long[][] {docCounts[0]});
+        assertEquals(0, ((LongTerms) singleShardResult.get(0).reduce(singleShardResult, finalReduce)).getDocCountError());
+    }
+
+    private static List<InternalAggregation> shardResults(long[][] keys, long[][] docCounts) {
+        final List<InternalAggregation> results = new ArrayList<>();
+        for (int shard = 0; shard < keys.length; shard++) {
+            final List<LongTerms.Bucket> buckets = new ArrayList<>();
+            for (int i = 0; i < keys[shard].length; i++) {
+                buckets.add(new LongTerms.Bucket(keys[shard][i], docCounts[shard][i], InternalAggregations.EMPTY, false, 0,
+                    DocValueFormat.RAW));
+            }
+            results.add(new LongTerms("terms", BucketOrder.count(false), 1, 1, Collections.emptyList(), null, DocValueFormat.RAW,
+                keys[shard].length, false, 0, buckets, 0));
+        }
+        return results;
+    }
+
+    public void testSliceReduceTrimsToShardSize() {
+        final int shardSize = 3;
+        final List<InternalAggregation> slices = new ArrayList<>();
+        for (long[] keys : new long[][] {{1, 3, 5}, {2, 4, 6}}) {
+            final List<LongTerms.Bucket> buckets = new ArrayList<>();
+            for (long key : keys) {
+                buckets.add(new LongTerms.Bucket(key, 1, InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW));
+            }
+            slices.add(new LongTerms("terms", BucketOrder.key(true), 2, 1, Collections.emptyList(), null, DocValueFormat.RAW,
+                shardSize, false, 0, buckets, 0));
+        }
+        final ReduceContext reduceContext = new ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, count -> {}, false, true);
+        final LongTerms reduced = (LongTerms) slices.get(0).reduce(slices, reduceContext);
+        assertEquals(shardSize, reduced.getBuckets().size());
+        for (int i = 0; i < shardSize; i++) {
+            assertEquals(i + 1L, reduced.getBuckets().get(i).getKeyAsNumber().longValue());
+        }
+        assertEquals(3, reduced.getSumOfOtherDocCounts());
+        assertEquals(0, reduced.getDocCountError());
+    }
 }
@@ -35,6 +35,7 @@ import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.rest.RestStatus;
@@ -1226,4 +1227,36 @@ public class SearchFieldsIT extends ESIntegTestCase {
         assertThat(fields.get("_routing").isMetadataField(), equalTo(true));
         assertThat(fields.get("_routing").getValue().toString(), equalTo("1"));
     }
+
+    public void testDocValueFieldsWithIdDocValues() throws Exception {
+        assertAcked(prepareCreate("test")
+            .setSettings(Settings.builder().put(IdFieldMapper.DOC_VALUES_SETTING.getKey(), true))
+            .addMapping("_doc", "field1", "type=long"));
+
+        int numDocs = randomIntBetween(1, 50);
+        List<IndexRequestBuilder> builders = new ArrayList<>();
+        for (int i = 0; i < numDocs; i++) {
+            IndexRequestBuilder builder = client().prepareIndex("test", "_doc", Integer.toString(i))
+                .setSource(jsonBuilder().startObject().field("field1", i).endObject());
+            if (i == 0) {
+                builder.setRouting("r");
+            }
+            builders.add(builder);
+        }
+        indexRandom(true, builders);
+
+        SearchResponse response = client().prepareSearch("test").setSize(numDocs).setFetchSource(false)
+            .addDocValueField("field1").get();
+        assertSearchResponse(response);
+        assertHitCount(response, numDocs);
+        for (SearchHit hit : response.getHits()) {
+            assertThat(hit.getSourceAsString(), nullValue());
+            assertThat(hit.getFields().get("field1").getValue().toString(), equalTo(hit.getId()));
+            if (hit.getId().equals("0")) {
+                assertThat(hit.getFields().get("_routing").getValue().toString(), equalTo("r"));
+            } else {
+                assertThat(hit.getFields().get("_routing"), nullValue());
+            }
+        }
+    }
 }
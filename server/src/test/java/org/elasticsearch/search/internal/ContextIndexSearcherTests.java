@@ -0,0 +1,206 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.IndexSearcher.LeafSlice;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MultiCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ContextIndexSearcherTests extends ESTestCase {
+
+    private Directory dir;
+    private IndexReader reader;
+    private ThreadPool threadPool;
+
+    @Before
+    public void setUpIndex() throws IOException {
+        dir = newDirectory();
+        // keep every flushed segment so that the reader has several leaves
+        try (IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            final int numSegments = randomIntBetween(1, 10);
+            for (int i = 0; i < numSegments; i++) {
+                final int numDocs = randomIntBetween(1, 100);
+                for (int j = 0; j < numDocs; j++) {
+                    Document doc = new Document();
+                    doc.add(new StringField("foo", randomBoolean() ? "bar" : "baz", StringField.Store.NO));
+                    doc.add(new NumericDocValuesField("rank", randomIntBetween(0, 20)));
+                    w.addDocument(doc);
+                }
+                w.flush();
+            }
+        }
+        reader = DirectoryReader.open(dir);
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @After
+    public void tearDownIndex() throws IOException {
+        terminate(threadPool);
+        IOUtils.close(reader, dir);
+    }
+
+    private ContextIndexSearcher newSearcher(int maxSlices) {
+        Engine.Searcher engineSearcher = new Engine.Searcher("test", new IndexSearcher(reader), null);
+        return new ContextIndexSearcher(engineSearcher, null, IndexSearcher.getDefaultQueryCachingPolicy(),
+            threadPool.executor(ThreadPool.Names.SEARCH_WORKER), maxSlices);
+    }
+
+    public void testComputeSlices() {
+        final int maxSlices = randomIntBetween(1, 8);
+        final int minDocsPerSlice = randomIntBetween(1, 200);
+        final LeafSlice[] slices = ContextIndexSearcher.computeSlices(reader.leaves(), maxSlices, minDocsPerSlice);
+        assertThat(slices.length, lessThanOrEqualTo(maxSlices));
+        final List<LeafReaderContext> leaves = new ArrayList<>();
+        for (int i = 0; i < slices.length; i++) {
+            int numDocs = 0;
+            for (LeafReaderContext leaf : slices[i].leaves) {
+                leaves.add(leaf);
+                numDocs += leaf.reader().maxDoc();
+            }
+            if (i < slices.length - 1) {
+                assertThat(numDocs, greaterThanOrEqualTo(minDocsPerSlice));
+            }
+        }
+        // slices hold consecutive leaves
+        assertEquals(reader.leaves(), leaves);
+    }
+
+    public void testSmallIndexIsNotSliced() {
+        final ContextIndexSearcher searcher = newSearcher(randomIntBetween(1, 8));
+        // the test index is smaller than the minimum number of documents per slice
+        assertEquals(1, searcher.concurrentSlices().length);
+        assertEquals(reader.leaves().size(), searcher.concurrentSlices()[0].leaves.length);
+    }
+
+    public void testConcurrentSearch() throws IOException {
+        final ContextIndexSearcher searcher = newSearcher(8);
+        final LeafSlice[] slices = ContextIndexSearcher.computeSlices(reader.leaves(), 8, 1);
+        final Query query = new TermQuery(new Term("foo", "bar"));
+        final Sort sort = new Sort(new SortField("rank", SortField.Type.INT));
+
+        final TotalHitCountCollector[] countCollectors = new TotalHitCountCollector[slices.length];
+        final TopFieldCollector[] topCollectors = new TopFieldCollector[slices.length];
+        final Collector[] collectors = new Collector[slices.length];
+        for (int i = 0; i < slices.length; i++) {
+            countCollectors[i] = new TotalHitCountCollector();
+            topCollectors[i] = TopFieldCollector.create(sort, 10, Integer.MAX_VALUE);
+            collectors[i] = MultiCollector.wrap(countCollectors[i], topCollectors[i]);
+        }
+        searcher.search(query, slices, collectors);
+
+        int totalHits = 0;
+        final TopFieldDocs[] topDocs = new TopFieldDocs[slices.length];
+        for (int i = 0; i < slices.length; i++) {
+            totalHits += countCollectors[i].getTotalHits();
+            topDocs[i] = topCollectors[i].topDocs();
+        }
+        assertEquals(searcher.count(query), totalHits);
+
+        final TopDocs expected = searcher.search(query, 10, sort);
+        final TopDocs actual = TopDocs.merge(sort, 0, 10, topDocs, true);
+        assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+        for (int i = 0; i < expected.scoreDocs.length; i++) {
+            assertEquals(expected.scoreDocs[i].doc, actual.scoreDocs[i].doc);
+        }
+    }
+
+    public void testSliceFailure() {
+        final ContextIndexSearcher searcher = newSearcher(8);
+        final LeafSlice[] slices = ContextIndexSearcher.computeSlices(reader.leaves(), 8, 1);
+        final int failingSlice = randomIntBetween(0, slices.length - 1);
+        final Collector[] collectors = new Collector[slices.length];
+        for (int i = 0; i < slices.length; i++) {
+            collectors[i] = i == failingSlice ? new FailingCollector() : new TotalHitCountCollector();
+        }
+        IllegalStateException e = expectThrows(IllegalStateException.class,
+            () -> searcher.search(new TermQuery(new Term("foo", "bar")), slices, collectors));
+        assertEquals("boom", e.getMessage());
+    }
+
+    public void testCancellation() {
+        final ContextIndexSearcher searcher = newSearcher(8);
+        final LeafSlice[] slices = ContextIndexSearcher.computeSlices(reader.leaves(), 8, 1);
+        final Collector[] collectors = new Collector[slices.length];
+        for (int i = 0; i < slices.length; i++) {
+            collectors[i] = new TotalHitCountCollector();
+        }
+        searcher.setCheckCancelled(() -> {
+            throw new TaskCancelledException("cancelled");
+        });
+        expectThrows(TaskCancelledException.class, () -> searcher.search(new MatchAllDocsQuery(), slices, collectors));
+    }
+
+    public void testCollectorsMustMatchSlices() {
+        final ContextIndexSearcher searcher = newSearcher(8);
+        final LeafSlice[] slices = ContextIndexSearcher.computeSlices(reader.leaves(), 8, 1);
+        final Collector[] collectors = new Collector[slices.length + 1];
+        expectThrows(IllegalArgumentException.class, () -> searcher.search(new TermQuery(new Term("foo", "bar")), slices, collectors));
+    }
+
+    private static class FailingCollector implements Collector {
+        @Override
+        public LeafCollector getLeafCollector(LeafReaderContext context) {
+            throw new IllegalStateException("boom");
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+    }
+}
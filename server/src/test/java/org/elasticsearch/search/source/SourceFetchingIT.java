@@ -20,8 +20,11 @@
 package org.elasticsearch.search.source;
 
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.test.ESIntegTestCase;
 
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.IsEqual.equalTo;
@@ -95,4 +98,28 @@ public class SourceFetchingIT extends ESIntegTestCase {
         assertThat(response.getHits().getAt(0).getSourceAsMap().size(), equalTo(1));
         assertThat((String) response.getHits().getAt(0).getSourceAsMap().get("field"), equalTo("value"));
     }
+
+    public void testSourceOfManyHitsKeepsSortOrder() {
+        createIndex("test");
+        ensureGreen();
+
+        int numDocs = randomIntBetween(50, 300);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("test", "type1", Integer.toString(i)).setSource("rank", randomInt(), "id", i).get();
+            if (rarely()) {
+                refresh();
+            }
+        }
+        refresh();
+
+        SearchResponse response = client().prepareSearch("test").setSize(numDocs).addSort("rank", SortOrder.DESC).get();
+        assertThat(response.getHits().getHits().length, equalTo(numDocs));
+        long previousRank = Long.MAX_VALUE;
+        for (SearchHit hit : response.getHits()) {
+            long rank = ((Number) hit.getSourceAsMap().get("rank")).longValue();
+            assertThat(rank, lessThanOrEqualTo(previousRank));
+            assertThat(hit.getSourceAsMap().get("id").toString(), equalTo(hit.getId()));
+            previousRank = rank;
+        }
+    }
 }
@@ -953,13 +953,13 @@ public class SnapshotResiliencyTests extends ESTestCase {
                 indicesService,
                 clusterService,
                 threadPool,
-                new PeerRecoveryTargetService(threadPool, transportService, recoverySettings, clusterService),
+                new PeerRecoveryTargetService(threadPool, transportService, recoverySettings, clusterService, repositoriesService),
                 shardStateAction,
                 new NodeMappingRefreshAction(transportService, metaDataMappingService),
                 repositoriesService,
                 mock(SearchService.class),
                 new SyncedFlushService(indicesService, clusterService, transportService, indexNameExpressionResolver),
-                new PeerRecoverySourceService(transportService, indicesService, recoverySettings),
+                new PeerRecoverySourceService(transportService, indicesService, recoverySettings, repositoriesService),
                 snapshotShardsService,
                 new PrimaryReplicaSyncer(
                     transportService,
@@ -401,6 +401,10 @@ public final class InternalTestCluster extends TestCluster {
                 RandomNumbers.randomIntBetween(random, 20, 50)));
         builder.put(RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_FILE_CHUNKS_SETTING.getKey(),
             RandomNumbers.randomIntBetween(random, 1, 5));
+        builder.put(RecoverySettings.INDICES_RECOVERY_MAX_FILE_CHUNKS_IN_FLIGHT_SETTING.getKey(),
+            RandomNumbers.randomIntBetween(random, 1, 16));
+        builder.put(RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_FILES_SETTING.getKey(),
+            RandomNumbers.randomIntBetween(random, 1, 4));
         defaultSettings = builder.build();
         executor = EsExecutors.newScaling("internal_test_cluster_executor", 0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS,
                 EsExecutors.daemonThreadFactory("test_" + clusterName), new ThreadContext(Settings.EMPTY));
@@ -115,6 +115,13 @@ public class SecurityRestFilterTests extends ESTestCase {
         verifyZeroInteractions(authcService);
     }
 
+    public void testAllowsUnsafeBuffersIsDelegated() {
+        final boolean allowsUnsafeBuffers = randomBoolean();
+        when(restHandler.allowsUnsafeBuffers()).thenReturn(allowsUnsafeBuffers);
+        assertEquals(allowsUnsafeBuffers, filter.allowsUnsafeBuffers());
+        verify(restHandler).allowsUnsafeBuffers();
+    }
+
     public void testProcessFiltersBodyCorrectly() throws Exception {
         FakeRestRequest restRequest = new FakeRestRequest.Builder(NamedXContentRegistry.EMPTY)
                 .withContent(new BytesArray("{\"password\": \"" + SecuritySettingsSourceField.TEST_PASSWORD + "\", \"foo\": \"bar\"}"),